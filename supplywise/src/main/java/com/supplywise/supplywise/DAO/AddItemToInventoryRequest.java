@@ -13,7 +13,7 @@ import lombok.AllArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class AddItemToInventoryRequest {
-    private int barCode;
+    private long barCode;
     private int quantity;
     private LocalDate expirationDate;
 }
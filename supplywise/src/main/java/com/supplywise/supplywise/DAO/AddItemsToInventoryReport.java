@@ -0,0 +1,24 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class AddItemsToInventoryReport {
+
+    private int linesRead;
+    private int linesAdded;
+    private int linesRejected;
+    private List<UUID> ids = new ArrayList<>();   // IDs of the created item properties, in request order
+    private List<ItemImportError> errors = new ArrayList<>();
+
+    public void reject(long line, long barCode, String message) {
+        linesRejected++;
+        errors.add(new ItemImportError(line, String.valueOf(barCode), message));
+    }
+}
@@ -0,0 +1,22 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CloneInventoryRequest {
+    private UUID restaurantId;
+    private UUID sourceInventoryId;             // optional, defaults to the restaurant's last closed inventory
+    private LocalDateTime emissionDate;
+    private LocalDateTime expectedClosingDate;  // optional, can be null
+    private boolean carryOverQuantities;        // otherwise every item gets a single uncounted line at 0
+}
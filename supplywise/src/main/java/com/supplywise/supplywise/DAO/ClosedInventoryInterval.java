@@ -0,0 +1,19 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClosedInventoryInterval {
+    private UUID restaurantId;
+    private UUID inventoryId;
+    private LocalDateTime closingDate;
+    private UUID previousInventoryId;           // null for the restaurant's first closed inventory
+    private LocalDateTime previousClosingDate;
+}
@@ -0,0 +1,52 @@
+package com.supplywise.supplywise.DAO;
+
+import com.supplywise.supplywise.model.Category;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompanyStockRollup {
+    private UUID companyId;
+    private LocalDateTime generatedAt;
+    private List<ItemTotal> items;
+    private List<CategoryTotal> categories;
+    private List<RestaurantTotal> restaurants;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemTotal {
+        private UUID itemId;
+        private String itemName;
+        private Category category;
+        private long quantity;
+        private int restaurants;    // restaurants holding the item
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryTotal {
+        private Category category;
+        private long quantity;
+        private int items;          // distinct items of the category in stock
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RestaurantTotal {
+        private UUID restaurantId;
+        private String restaurantName;
+        private long quantity;
+        private int items;          // distinct items in stock
+    }
+}
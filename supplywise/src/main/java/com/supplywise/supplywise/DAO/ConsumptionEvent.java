@@ -0,0 +1,15 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionEvent {
+    private UUID itemPropertiesId;
+    private int quantity;   // units sold, always positive
+}
@@ -0,0 +1,20 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionStats {
+    private UUID restaurantId;
+    private UUID itemId;
+    private double dailyRate;               // units per day, exponentially weighted
+    private double[] weekdayRates;          // same average per day of week, Monday first
+    private int samples;                    // closes folded into the averages
+    private LocalDateTime lastClosingDate;  // closing date of the last inventory folded in
+}
@@ -0,0 +1,20 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiringStock {
+    private UUID itemPropertiesId;
+    private String itemName;
+    private LocalDate expirationDate;
+    private int quantity;
+    private UUID restaurantId;
+    private String restaurantName;
+}
@@ -0,0 +1,18 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FefoAllocation {
+    private UUID itemPropertiesId;
+    private LocalDate expirationDate;
+    private int consumed;
+    private int remaining;
+}
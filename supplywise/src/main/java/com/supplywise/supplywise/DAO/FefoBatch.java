@@ -0,0 +1,18 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FefoBatch {
+    private UUID itemPropertiesId;
+    private UUID inventoryId;
+    private LocalDate expirationDate;
+    private int quantity;
+}
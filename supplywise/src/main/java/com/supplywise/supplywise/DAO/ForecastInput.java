@@ -0,0 +1,14 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastInput {
+    private ConsumptionStats stats;
+    private long quantity;              // current stock of the item in the restaurant
+    private int minimumStockQuantity;   // effective minimum, see restaurant_stock_status
+}
@@ -0,0 +1,25 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyClaim {
+
+    public enum Outcome {
+        ACQUIRED,       // First time the key is seen; the request should run
+        COMPLETED,      // Already answered, see the response
+        IN_PROGRESS,    // An earlier request with the key is still running
+        MISMATCH        // The key was used for a different request
+    }
+
+    private Outcome outcome;
+    private IdempotentResponse response;    // only for COMPLETED
+
+    public static IdempotencyClaim of(Outcome outcome) {
+        return new IdempotencyClaim(outcome, null);
+    }
+}
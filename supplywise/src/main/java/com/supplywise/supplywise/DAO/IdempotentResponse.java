@@ -0,0 +1,18 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotentResponse {
+    private int status;
+    private String contentType;
+    private byte[] body;
+    // Replayed headers such as ETag, Location and Retry-After, by name
+    private Map<String, String> headers;
+}
@@ -0,0 +1,22 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLineChange {
+    private UUID lineId;
+    private boolean deleted;    // the other fields are null for deleted lines
+    private UUID itemId;
+    private Long barCode;
+    private LocalDate expirationDate;
+    private Integer quantity;
+    private Integer minimumStockQuantity;
+    private Long version;
+}
@@ -0,0 +1,16 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryOwner {
+    private UUID inventoryId;
+    private UUID restaurantId;
+    private String restaurantName;
+}
@@ -0,0 +1,27 @@
+package com.supplywise.supplywise.DAO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReport {
+    private UUID inventoryId;
+    private Status status;
+    private LocalDateTime requestedAt;
+    private LocalDateTime generatedAt;
+    private JsonNode data;          // null until the report is ready
+
+    public enum Status {
+        PENDING,
+        READY,
+        FAILED
+    }
+}
@@ -0,0 +1,21 @@
+package com.supplywise.supplywise.DAO;
+
+import com.supplywise.supplywise.model.Category;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReportLine {
+    private UUID itemId;
+    private String itemName;
+    private Category category;
+    private int quantity;
+    private LocalDate expirationDate;
+}
@@ -0,0 +1,24 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemForecast {
+    private UUID restaurantId;
+    private UUID itemId;
+    private String itemName;
+    private double dailyRate;
+    private long quantity;
+    private int minimumStockQuantity;
+    private LocalDate stockOutDate;     // null if the item is not being consumed
+    private int reorderQuantity;
+    private LocalDateTime forecastAt;
+}
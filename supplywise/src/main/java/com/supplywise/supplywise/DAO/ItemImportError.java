@@ -0,0 +1,16 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportError {
+    private long line;        // 1-based line number in the uploaded file or request
+    private String barCode;   // raw value from the file, may be null
+    private String message;
+}
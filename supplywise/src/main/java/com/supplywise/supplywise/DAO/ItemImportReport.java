@@ -0,0 +1,38 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ItemImportReport {
+
+    // Keeps the response bounded for files where every row is broken
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private boolean errorsTruncated;
+    private List<ItemImportError> errors = new ArrayList<>();
+
+    public void addImported(long count) {
+        rowsImported += count;
+    }
+
+    public void reject(long line, String barCode, String message) {
+        rowsRejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ItemImportError(line, barCode, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void countRow() {
+        rowsRead++;
+    }
+}
@@ -0,0 +1,21 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemVariance {
+    private UUID itemId;
+    private String itemName;
+    private long previousQuantity;
+    private long quantity;
+
+    public long getDelta() {
+        return quantity - previousQuantity;
+    }
+}
@@ -0,0 +1,27 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One page of a listing ordered by ID. Pass {@code nextCursor} as {@code after} to get the next page;
+ * it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> content;
+    private UUID nextCursor;
+    private int size;
+
+    public static <T> KeysetPage<T> of(List<T> content, int requestedSize, Function<T, UUID> idOf) {
+        UUID nextCursor = content.size() < requestedSize ? null : idOf.apply(content.get(content.size() - 1));
+        return new KeysetPage<>(content, nextCursor, content.size());
+    }
+}
@@ -0,0 +1,12 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuantityDeltaRequest {
+    private int delta;   // positive to add stock, negative to consume it
+}
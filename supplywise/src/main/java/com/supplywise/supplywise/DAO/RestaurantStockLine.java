@@ -0,0 +1,16 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestaurantStockLine {
+    private UUID itemId;
+    private String itemName;
+    private long quantity;
+}
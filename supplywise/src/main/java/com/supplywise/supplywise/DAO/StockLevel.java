@@ -0,0 +1,26 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevel {
+    private UUID itemPropertiesId;
+    private int previousQuantity;
+    private int quantity;
+    private int minimumStockQuantity;
+
+    public boolean isBelowMinimum() {
+        return quantity < minimumStockQuantity;
+    }
+
+    // True when the change moved the quantity from one side of the minimum stock quantity to the other
+    public boolean hasCrossedMinimum() {
+        return (previousQuantity < minimumStockQuantity) != isBelowMinimum();
+    }
+}
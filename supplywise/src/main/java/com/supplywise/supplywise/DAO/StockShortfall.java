@@ -0,0 +1,21 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockShortfall {
+    private UUID itemId;
+    private String itemName;
+    private long quantity;
+    private int minimumStockQuantity;
+
+    public long getMissing() {
+        return minimumStockQuantity - quantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncOperation {
+
+    public enum Type {
+        ADD,        // New line; the client picks its ID so later operations can refer to it while offline
+        ADJUST,     // Adds quantity (negative to take away); never conflicts
+        SET,        // Replaces the quantity of a line the client has seen at baseVersion
+        REMOVE      // Deletes a line the client has seen at baseVersion
+    }
+
+    private UUID operationId;               // idempotency key, generated by the client
+    private Type type;
+    private UUID lineId;
+    private Long baseVersion;               // optional; without it SET and REMOVE apply unconditionally
+    private OffsetDateTime clientTimestamp; // when the change was made on the device, with its UTC offset
+    private Long barCode;                   // ADD only
+    private LocalDate expirationDate;       // ADD only
+    private Integer quantity;               // ADD and SET
+    private Integer minimumStockQuantity;   // ADD only, optional
+    private Integer delta;                  // ADJUST only
+}
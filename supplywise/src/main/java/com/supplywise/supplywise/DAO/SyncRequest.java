@@ -0,0 +1,16 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRequest {
+    private Long syncToken;     // token of the client's last sync; null asks for every line
+    private List<SyncOperation> operations = new ArrayList<>();     // applied in order
+}
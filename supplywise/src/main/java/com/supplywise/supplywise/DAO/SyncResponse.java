@@ -0,0 +1,17 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponse {
+    private List<SyncResult> results;           // one per operation, in request order
+    private List<InventoryLineChange> changes;  // lines changed on the server since the client's token
+    private boolean fullResync;                 // changes hold every line; the client should drop lines not listed
+    private long syncToken;                     // to send with the next sync
+}
@@ -0,0 +1,25 @@
+package com.supplywise.supplywise.DAO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResult {
+
+    public enum Status {
+        APPLIED,
+        CONFLICT,   // The line changed on the server after the client's change; the server's line is in the changes
+        REJECTED    // Invalid operation, or its line does not exist
+    }
+
+    private UUID operationId;
+    private Status status;
+    private String message;
+    private Long version;       // version of the line after the operation, if it still exists
+    private boolean replayed;   // the operation was already received in an earlier sync; this is its original result
+}
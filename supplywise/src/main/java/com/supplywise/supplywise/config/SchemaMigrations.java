@@ -0,0 +1,357 @@
+package com.supplywise.supplywise.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Idempotent schema changes that {@code spring.jpa.hibernate.ddl-auto=update} cannot apply on its own,
+ * such as widening existing columns. Runs once at startup after Hibernate has updated the schema.
+ */
+@Component
+public class SchemaMigrations implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    // Adds a signed amount to one (restaurant, item) total
+    private static final String RESTAURANT_STOCK_ADD_FUNCTION = """
+            CREATE OR REPLACE FUNCTION restaurant_stock_add(p_restaurant UUID, p_item UUID, p_delta BIGINT) RETURNS void AS $$
+            BEGIN
+                INSERT INTO restaurant_stock (restaurant_id, item_id, quantity) VALUES (p_restaurant, p_item, p_delta)
+                ON CONFLICT (restaurant_id, item_id) DO UPDATE SET quantity = restaurant_stock.quantity + EXCLUDED.quantity;
+            END $$ LANGUAGE plpgsql""";
+
+    // Moves a line's quantity in or out of the totals; only counted lines of open inventories count, so a line
+    // that is counted for the first time enters the totals even at quantity 0
+    private static final String RESTAURANT_STOCK_LINE_FUNCTION = """
+            CREATE OR REPLACE FUNCTION restaurant_stock_on_item_properties() RETURNS trigger AS $$
+            DECLARE
+                v_restaurant UUID;
+            BEGIN
+                IF TG_OP = 'UPDATE' AND NEW.inventory IS NOT DISTINCT FROM OLD.inventory AND NEW.item_id = OLD.item_id THEN
+                    IF NEW.inventory IS NULL OR NOT (OLD.counted OR NEW.counted)
+                            OR (NEW.quantity = OLD.quantity AND NEW.counted = OLD.counted) THEN
+                        RETURN NULL;
+                    END IF;
+                    SELECT restaurant_id INTO v_restaurant FROM inventory WHERE id = NEW.inventory AND closing_date IS NULL;
+                    IF FOUND THEN
+                        PERFORM restaurant_stock_add(v_restaurant, NEW.item_id,
+                            CASE WHEN NEW.counted THEN NEW.quantity ELSE 0 END - CASE WHEN OLD.counted THEN OLD.quantity ELSE 0 END);
+                    END IF;
+                    RETURN NULL;
+                END IF;
+                IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.inventory IS NOT NULL AND OLD.counted THEN
+                    SELECT restaurant_id INTO v_restaurant FROM inventory WHERE id = OLD.inventory AND closing_date IS NULL;
+                    IF FOUND THEN
+                        PERFORM restaurant_stock_add(v_restaurant, OLD.item_id, -OLD.quantity);
+                    END IF;
+                END IF;
+                IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.inventory IS NOT NULL AND NEW.counted THEN
+                    SELECT restaurant_id INTO v_restaurant FROM inventory WHERE id = NEW.inventory AND closing_date IS NULL;
+                    IF FOUND THEN
+                        PERFORM restaurant_stock_add(v_restaurant, NEW.item_id, NEW.quantity);
+                    END IF;
+                END IF;
+                RETURN NULL;
+            END $$ LANGUAGE plpgsql""";
+
+    // Closing, reopening or moving an inventory moves all of its lines at once
+    private static final String RESTAURANT_STOCK_INVENTORY_FUNCTION = """
+            CREATE OR REPLACE FUNCTION restaurant_stock_on_inventory() RETURNS trigger AS $$
+            BEGIN
+                IF (OLD.closing_date IS NULL) = (NEW.closing_date IS NULL) AND OLD.restaurant_id = NEW.restaurant_id THEN
+                    RETURN NULL;
+                END IF;
+                IF OLD.closing_date IS NULL THEN
+                    INSERT INTO restaurant_stock (restaurant_id, item_id, quantity)
+                    SELECT OLD.restaurant_id, item_id, -SUM(quantity) FROM item_properties WHERE inventory = OLD.id AND counted GROUP BY item_id
+                    ON CONFLICT (restaurant_id, item_id) DO UPDATE SET quantity = restaurant_stock.quantity + EXCLUDED.quantity;
+                END IF;
+                IF NEW.closing_date IS NULL THEN
+                    INSERT INTO restaurant_stock (restaurant_id, item_id, quantity)
+                    SELECT NEW.restaurant_id, item_id, SUM(quantity) FROM item_properties WHERE inventory = NEW.id AND counted GROUP BY item_id
+                    ON CONFLICT (restaurant_id, item_id) DO UPDATE SET quantity = restaurant_stock.quantity + EXCLUDED.quantity;
+                END IF;
+                RETURN NULL;
+            END $$ LANGUAGE plpgsql""";
+
+    // One statement, so the table is backfilled and the triggers are in place before any other write sees them
+    private static final String RESTAURANT_STOCK_INSTALL = """
+            DO $$
+            BEGIN
+                IF to_regclass('restaurant_stock') IS NULL THEN
+                    CREATE TABLE restaurant_stock (
+                        restaurant_id UUID NOT NULL,
+                        item_id UUID NOT NULL,
+                        quantity BIGINT NOT NULL,
+                        PRIMARY KEY (restaurant_id, item_id)
+                    );
+                    LOCK TABLE inventory, item_properties IN SHARE ROW EXCLUSIVE MODE;
+                    INSERT INTO restaurant_stock (restaurant_id, item_id, quantity)
+                    SELECT i.restaurant_id, ip.item_id, SUM(ip.quantity)
+                    FROM item_properties ip JOIN inventory i ON i.id = ip.inventory
+                    WHERE i.closing_date IS NULL AND ip.counted
+                    GROUP BY i.restaurant_id, ip.item_id;
+                END IF;
+                DROP TRIGGER IF EXISTS restaurant_stock_item_properties ON item_properties;
+                CREATE TRIGGER restaurant_stock_item_properties
+                    AFTER INSERT OR DELETE OR UPDATE OF quantity, counted, item_id, inventory ON item_properties
+                    FOR EACH ROW EXECUTE FUNCTION restaurant_stock_on_item_properties();
+                DROP TRIGGER IF EXISTS restaurant_stock_inventory ON inventory;
+                CREATE TRIGGER restaurant_stock_inventory
+                    AFTER UPDATE OF closing_date, restaurant_id ON inventory
+                    FOR EACH ROW EXECUTE FUNCTION restaurant_stock_on_inventory();
+            END $$""";
+
+    // Lines may be counted down to 0 but never below. Tables created while the entity still said @Min(1) carry
+    // Hibernate's generated check under the same name, so it is replaced unless it already has the current floor
+    private static final String ITEM_PROPERTIES_QUANTITY_CHECK = """
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                               WHERE conrelid = 'item_properties'::regclass AND conname = 'item_properties_quantity_check'
+                                 AND pg_get_constraintdef(oid) = 'CHECK ((quantity >= 0))') THEN
+                    ALTER TABLE item_properties DROP CONSTRAINT IF EXISTS item_properties_quantity_check;
+                    ALTER TABLE item_properties ADD CONSTRAINT item_properties_quantity_check CHECK (quantity >= 0);
+                END IF;
+            END $$""";
+
+    // Close-out reports are written after the close commits, so they live beside the inventory rather than in it
+    private static final String INVENTORY_REPORTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS inventory_reports (
+                inventory_id UUID PRIMARY KEY REFERENCES inventory (id) ON DELETE CASCADE,
+                status VARCHAR(16) NOT NULL,
+                requested_at TIMESTAMP NOT NULL DEFAULT now(),
+                generated_at TIMESTAMP,
+                data JSONB
+            )""";
+
+    // One row per restaurant and item: running consumption averages updated on every close, plus the nightly forecast
+    private static final String ITEM_CONSUMPTION_STATS_TABLE = """
+            CREATE TABLE IF NOT EXISTS item_consumption_stats (
+                restaurant_id UUID NOT NULL,
+                item_id UUID NOT NULL,
+                daily_rate DOUBLE PRECISION NOT NULL,
+                weekday_rates DOUBLE PRECISION[] NOT NULL,
+                samples INT NOT NULL,
+                last_closing_date TIMESTAMP NOT NULL,
+                stock_quantity BIGINT,
+                minimum_stock_quantity INT,
+                stock_out_date DATE,
+                reorder_quantity INT,
+                forecast_at TIMESTAMP,
+                PRIMARY KEY (restaurant_id, item_id)
+            )""";
+
+    // Minimum stock per item for a whole restaurant, or as a default for every restaurant of a company
+    private static final String MINIMUM_STOCK_RULES_TABLE = """
+            CREATE TABLE IF NOT EXISTS minimum_stock_rules (
+                scope VARCHAR(16) NOT NULL,
+                scope_id UUID NOT NULL,
+                item_id UUID NOT NULL REFERENCES items (id) ON DELETE CASCADE,
+                minimum_stock_quantity INT NOT NULL CHECK (minimum_stock_quantity >= 0),
+                updated_at TIMESTAMP NOT NULL DEFAULT now(),
+                PRIMARY KEY (scope, scope_id, item_id)
+            )""";
+
+    // Stock of every restaurant and item against its effective minimum: the restaurant rule, else the company rule,
+    // else the highest minimum among the item's counted open lines. Items with a rule but no stock show up with quantity 0.
+    // Stock is only known while a restaurant has an open inventory, so rules are not applied between counts.
+    private static final String RESTAURANT_STOCK_STATUS_VIEW = """
+            CREATE OR REPLACE VIEW restaurant_stock_status AS
+            WITH counting AS (
+                SELECT DISTINCT restaurant_id FROM inventory WHERE closing_date IS NULL
+            ), restaurant_rules AS (
+                SELECT m.scope_id AS restaurant_id, m.item_id, m.minimum_stock_quantity
+                FROM minimum_stock_rules m JOIN counting c ON c.restaurant_id = m.scope_id WHERE m.scope = 'RESTAURANT'
+            ), company_rules AS (
+                SELECT r.id AS restaurant_id, m.item_id, m.minimum_stock_quantity
+                FROM minimum_stock_rules m JOIN restaurant r ON r.company_id = m.scope_id JOIN counting c ON c.restaurant_id = r.id
+                WHERE m.scope = 'COMPANY'
+            ), line_minimums AS (
+                SELECT i.restaurant_id, ip.item_id, MAX(ip.minimum_stock_quantity) AS minimum_stock_quantity
+                FROM item_properties ip JOIN inventory i ON i.id = ip.inventory WHERE i.closing_date IS NULL AND ip.counted
+                GROUP BY i.restaurant_id, ip.item_id
+            ), stock_keys AS (
+                SELECT restaurant_id, item_id FROM restaurant_stock
+                UNION SELECT restaurant_id, item_id FROM restaurant_rules
+                UNION SELECT restaurant_id, item_id FROM company_rules
+            )
+            SELECT k.restaurant_id, k.item_id, COALESCE(rs.quantity, 0) AS quantity,
+                   COALESCE(rr.minimum_stock_quantity, cr.minimum_stock_quantity, lm.minimum_stock_quantity, 0) AS minimum_stock_quantity
+            FROM stock_keys k
+            LEFT JOIN restaurant_stock rs ON rs.restaurant_id = k.restaurant_id AND rs.item_id = k.item_id
+            LEFT JOIN restaurant_rules rr ON rr.restaurant_id = k.restaurant_id AND rr.item_id = k.item_id
+            LEFT JOIN company_rules cr ON cr.restaurant_id = k.restaurant_id AND cr.item_id = k.item_id
+            LEFT JOIN line_minimums lm ON lm.restaurant_id = k.restaurant_id AND lm.item_id = k.item_id""";
+
+    // Change feed of inventory lines for offline clients. Rows carry the writing transaction's ID rather than only a
+    // sequence number, so a sync token taken from a snapshot's xmin never skips a transaction that commits late.
+    // changed_at is compared with device timestamps from any time zone, so it is an absolute point in time.
+    private static final String ITEM_PROPERTIES_CHANGES_TABLE = """
+            CREATE TABLE IF NOT EXISTS item_properties_changes (
+                seq BIGSERIAL PRIMARY KEY,
+                inventory_id UUID NOT NULL,
+                line_id UUID NOT NULL,
+                txid BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::bigint,
+                changed_at TIMESTAMPTZ NOT NULL DEFAULT now()
+            )""";
+
+    // A line moved to another inventory shows up as removed from the old one and added to the new one
+    private static final String ITEM_PROPERTIES_CHANGES_FUNCTION = """
+            CREATE OR REPLACE FUNCTION item_properties_log_change() RETURNS trigger AS $$
+            BEGIN
+                IF TG_OP <> 'INSERT' AND OLD.inventory IS NOT NULL THEN
+                    INSERT INTO item_properties_changes (inventory_id, line_id) VALUES (OLD.inventory, OLD.id);
+                END IF;
+                IF TG_OP <> 'DELETE' AND NEW.inventory IS NOT NULL
+                        AND (TG_OP = 'INSERT' OR NEW.inventory IS DISTINCT FROM OLD.inventory) THEN
+                    INSERT INTO item_properties_changes (inventory_id, line_id) VALUES (NEW.inventory, NEW.id);
+                END IF;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql""";
+
+    // One statement, so no write slips through unlogged while the trigger is replaced
+    private static final String ITEM_PROPERTIES_CHANGES_TRIGGER = """
+            DO $$
+            BEGIN
+                DROP TRIGGER IF EXISTS item_properties_changes_log ON item_properties;
+                CREATE TRIGGER item_properties_changes_log
+                    AFTER INSERT OR DELETE OR UPDATE ON item_properties
+                    FOR EACH ROW EXECUTE FUNCTION item_properties_log_change();
+            END $$""";
+
+    // Operations already applied for offline clients, so a batch resent after a lost response is not applied twice
+    private static final String SYNC_OPERATIONS_TABLE = """
+            CREATE TABLE IF NOT EXISTS sync_operations (
+                operation_id UUID PRIMARY KEY,
+                inventory_id UUID NOT NULL,
+                status VARCHAR(16) NOT NULL,
+                message TEXT,
+                version BIGINT,
+                received_at TIMESTAMPTZ NOT NULL DEFAULT now()
+            )""";
+
+    // Responses of write requests sent with an Idempotency-Key; status stays null while the first request runs
+    private static final String IDEMPOTENCY_KEYS_TABLE = """
+            CREATE TABLE IF NOT EXISTS idempotency_keys (
+                key_hash CHAR(64) PRIMARY KEY,
+                fingerprint TEXT NOT NULL,
+                status INT,
+                content_type VARCHAR(255),
+                body BYTEA,
+                headers TEXT,
+                created_at TIMESTAMP NOT NULL DEFAULT now(),
+                completed_at TIMESTAMP
+            )""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        widenItemBarcode();
+        installRestaurantStock();
+        createMinimumStockRules();
+        createInventoryReports();
+        dropRedundantIndexes();
+        createItemConsumptionStats();
+        restrictPurchaseOrderDrafts();
+        installInventorySync();
+        createIdempotencyKeys();
+        checkItemQuantities();
+    }
+
+    // items.barcode was created as INTEGER, which cannot hold EAN-13 or GTIN-14 codes
+    void widenItemBarcode() {
+        if ("integer".equals(columnType("items", "barcode"))) {
+            logger.info("Migrating items.barcode from INTEGER to BIGINT");
+            jdbcTemplate.execute("ALTER TABLE items ALTER COLUMN barcode TYPE BIGINT");
+        }
+    }
+
+    // restaurant_stock holds the current quantity of every item per restaurant, kept up to date by triggers
+    void installRestaurantStock() {
+        logger.info("Installing restaurant_stock triggers");
+        jdbcTemplate.execute(RESTAURANT_STOCK_ADD_FUNCTION);
+        jdbcTemplate.execute(RESTAURANT_STOCK_LINE_FUNCTION);
+        jdbcTemplate.execute(RESTAURANT_STOCK_INVENTORY_FUNCTION);
+        jdbcTemplate.execute(RESTAURANT_STOCK_INSTALL);
+    }
+
+    // The view reads restaurant_stock, so it is created after the triggers are installed
+    void createMinimumStockRules() {
+        jdbcTemplate.execute(MINIMUM_STOCK_RULES_TABLE);
+        jdbcTemplate.execute(RESTAURANT_STOCK_STATUS_VIEW);
+    }
+
+    void createInventoryReports() {
+        jdbcTemplate.execute(INVENTORY_REPORTS_TABLE);
+    }
+
+    void createItemConsumptionStats() {
+        jdbcTemplate.execute(ITEM_CONSUMPTION_STATS_TABLE);
+    }
+
+    // Lets the draft generator open drafts with ON CONFLICT DO NOTHING; submitted orders are not limited
+    void restrictPurchaseOrderDrafts() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_purchase_orders_restaurant_draft "
+                + "ON purchase_orders (restaurant_id) WHERE status = 'DRAFT'");
+    }
+
+    void installInventorySync() {
+        logger.info("Installing item_properties change feed");
+        jdbcTemplate.execute(ITEM_PROPERTIES_CHANGES_TABLE);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_properties_changes_inventory_txid "
+                + "ON item_properties_changes (inventory_id, txid)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_properties_changes_line ON item_properties_changes (line_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_properties_changes_changed_at ON item_properties_changes (changed_at)");
+        jdbcTemplate.execute(ITEM_PROPERTIES_CHANGES_FUNCTION);
+        jdbcTemplate.execute(ITEM_PROPERTIES_CHANGES_TRIGGER);
+        jdbcTemplate.execute(SYNC_OPERATIONS_TABLE);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_sync_operations_received_at ON sync_operations (received_at)");
+        // Tables created with plain TIMESTAMP hold now() in the session time zone, which the conversion assumes too
+        if ("timestamp without time zone".equals(columnType("item_properties_changes", "changed_at"))) {
+            logger.info("Migrating item_properties_changes.changed_at to TIMESTAMPTZ");
+            jdbcTemplate.execute("ALTER TABLE item_properties_changes ALTER COLUMN changed_at TYPE TIMESTAMPTZ");
+        }
+        if ("timestamp without time zone".equals(columnType("sync_operations", "received_at"))) {
+            logger.info("Migrating sync_operations.received_at to TIMESTAMPTZ");
+            jdbcTemplate.execute("ALTER TABLE sync_operations ALTER COLUMN received_at TYPE TIMESTAMPTZ");
+        }
+    }
+
+    void createIdempotencyKeys() {
+        jdbcTemplate.execute(IDEMPOTENCY_KEYS_TABLE);
+        // Tables created before replayed responses kept their headers
+        jdbcTemplate.execute("ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS headers TEXT");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at)");
+    }
+
+    void checkItemQuantities() {
+        jdbcTemplate.execute(ITEM_PROPERTIES_QUANTITY_CHECK);
+    }
+
+    // Superseded by idx_item_properties_inventory_item, which starts with the same column
+    void dropRedundantIndexes() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_item_properties_inventory");
+    }
+
+    /* Helper functions */
+
+    private String columnType(String table, String column) {
+        List<String> types = jdbcTemplate.queryForList(
+                "SELECT data_type FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?",
+                String.class, table, column);
+        return types.isEmpty() ? null : types.get(0);
+    }
+}
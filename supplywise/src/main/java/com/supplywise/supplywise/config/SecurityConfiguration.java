@@ -2,6 +2,7 @@ package com.supplywise.supplywise.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -51,6 +52,8 @@ public class SecurityConfiguration {
                 .requestMatchers("/api/item-properties/**").hasAnyRole(ADMIN, FRANCHISE_OWNER, MANAGER_MASTER, MANAGER)
                 .requestMatchers("/api/notification/**").hasAnyRole(ADMIN, FRANCHISE_OWNER, MANAGER_MASTER, MANAGER)
                 .requestMatchers("/api/restaurants/**").hasAnyRole(ADMIN, FRANCHISE_OWNER, MANAGER_MASTER, MANAGER)
+                .requestMatchers("/api/stock/**").hasAnyRole(ADMIN, FRANCHISE_OWNER, MANAGER_MASTER, MANAGER)
+                .requestMatchers("/api/purchase-orders/**").hasAnyRole(ADMIN, FRANCHISE_OWNER, MANAGER_MASTER, MANAGER)
                 .anyRequest().authenticated()
             )
             .exceptionHandling(handler -> handler
@@ -70,7 +73,9 @@ public class SecurityConfiguration {
 
         configuration.addAllowedOriginPattern("*");
         configuration.setAllowedMethods(List.of("GET", "POST", "PATCH", "PUT", "DELETE"));
-        configuration.setAllowedHeaders(List.of("Authorization","Content-Type", "X-Requested-With", "Accept", "Access-Control-Allow-Origin"));
+        configuration.setAllowedHeaders(List.of("Authorization","Content-Type", "X-Requested-With", "Accept", "Access-Control-Allow-Origin",
+                HttpHeaders.IF_MATCH, IdempotencyFilter.HEADER));
+        configuration.setExposedHeaders(List.of(HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER, IdempotencyFilter.REPLAYED_HEADER));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**",configuration);
@@ -0,0 +1,38 @@
+package com.supplywise.supplywise.controllers;
+
+/**
+ * Maps entity versions to strong ETags and back from If-Match headers.
+ */
+final class ETags {
+
+    // Never equal to a real version, so an unparseable If-Match fails the precondition
+    private static final long UNMATCHABLE = -1;
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + (version != null ? version : 0) + "\"";
+    }
+
+    /**
+     * Returns the version an If-Match header requires, or null if the header is absent or "*".
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return UNMATCHABLE;
+        }
+    }
+}
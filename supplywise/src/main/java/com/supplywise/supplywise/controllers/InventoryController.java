@@ -1,12 +1,24 @@
 package com.supplywise.supplywise.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.supplywise.supplywise.DAO.AddItemToInventoryRequest;
+import com.supplywise.supplywise.DAO.AddItemsToInventoryReport;
+import com.supplywise.supplywise.DAO.CloneInventoryReport;
+import com.supplywise.supplywise.DAO.CloneInventoryRequest;
 import com.supplywise.supplywise.DAO.CreateInventoryRequest;
+import com.supplywise.supplywise.DAO.InventoryReport;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.Inventory;
 import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Restaurant;
+import com.supplywise.supplywise.patch.JsonMergePatch;
+import com.supplywise.supplywise.patch.JsonPatch;
 import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.ConsumptionStatsService;
+import com.supplywise.supplywise.services.InventoryReportService;
 import com.supplywise.supplywise.services.InventoryService;
 import com.supplywise.supplywise.services.ItemPropertiesService;
 import com.supplywise.supplywise.services.ItemService;
@@ -14,6 +26,7 @@ import com.supplywise.supplywise.services.RestaurantService;
 import com.supplywise.supplywise.services.NotificationService;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -26,6 +39,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -36,8 +51,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 @RestController
 @RequestMapping("/api/inventories")
@@ -49,19 +64,24 @@ public class InventoryController {
     private final ItemService itemService;
     private final ItemPropertiesService itemPropertiesService;
     private final NotificationService notificationService;
+    private final InventoryReportService inventoryReportService;
+    private final ConsumptionStatsService consumptionStatsService;
     private final AuthHandler authHandler;
     private final Logger logger = LoggerFactory.getLogger(InventoryController.class);
 
     private static final String RESTAURANT_NOT_FOUND = "Restaurant not found";
     private static final String INVENTORY_NOT_FOUND = "Inventory not found";
+    private static final int MAX_PAGE_SIZE = 1000;
 
     @Autowired
-    public InventoryController(InventoryService inventoryService, RestaurantService restaurantService, ItemService itemService, ItemPropertiesService itemPropertiesService, NotificationService notificationService, AuthHandler authHandler) {
+    public InventoryController(InventoryService inventoryService, RestaurantService restaurantService, ItemService itemService, ItemPropertiesService itemPropertiesService, NotificationService notificationService, InventoryReportService inventoryReportService, ConsumptionStatsService consumptionStatsService, AuthHandler authHandler) {
         this.inventoryService = inventoryService;
         this.restaurantService = restaurantService;
         this.itemService = itemService;
         this.itemPropertiesService = itemPropertiesService;
         this.notificationService = notificationService;
+        this.inventoryReportService = inventoryReportService;
+        this.consumptionStatsService = consumptionStatsService;
         this.authHandler = authHandler;   
     }
 
@@ -94,6 +114,41 @@ public class InventoryController {
         return new ResponseEntity<>(savedInventory, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Create an inventory from a previous one",
+            description = "Opens a new inventory holding the item list of the source inventory, or of the restaurant's last "
+                    + "closed inventory if none is given. Quantities are either carried over or reset to 0 on lines marked "
+                    + "counted=false, which stock totals and minimums ignore until a quantity is written to them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Inventory created, see the report for the number of copied lines"),
+            @ApiResponse(responseCode = "400", description = "Restaurant or source inventory not found, or the source belongs to another company"),
+            @ApiResponse(responseCode = "409", description = "Quantities cannot be carried over from an open inventory")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/clone")
+    public ResponseEntity<Object> cloneInventory(@RequestBody CloneInventoryRequest cloneInventoryRequest) {
+        logger.info("Attempting to create an inventory from a previous one");
+
+        Optional<Restaurant> restaurantOptional = restaurantService.getRestaurantById(cloneInventoryRequest.getRestaurantId());
+        if (!restaurantOptional.isPresent()) {
+            logger.error(RESTAURANT_NOT_FOUND);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            CloneInventoryReport report = inventoryService.cloneInventory(restaurantOptional.get(),
+                    cloneInventoryRequest.getSourceInventoryId(), cloneInventoryRequest.getEmissionDate(),
+                    cloneInventoryRequest.getExpectedClosingDate(), cloneInventoryRequest.isCarryOverQuantities());
+            logger.info("Inventory created with {} lines copied", report.getLinesCopied());
+            return new ResponseEntity<>(report, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid source inventory: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.error("Cannot copy inventory: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
     @Operation(summary = "Get inventory by ID", description = "Retrieve an inventory record by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Inventory found",
@@ -108,7 +163,7 @@ public class InventoryController {
 
         if (inventoryOptional.isPresent()) {
             logger.info("Inventory found");
-            return new ResponseEntity<>(inventoryOptional.get(), HttpStatus.OK);
+            return ResponseEntity.ok().eTag(ETags.of(inventoryOptional.get().getAggregateVersion())).body(inventoryOptional.get());
         }
         logger.error(INVENTORY_NOT_FOUND);
         return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -156,10 +211,9 @@ public class InventoryController {
 
         Optional<Inventory> inventoryOptional = inventoryService.getInventoryById(inventoryId);
         if (inventoryOptional.isPresent()) {
-            Set<ItemProperties> items = inventoryOptional.get().getItems();
-            
-            // convert Set to List and apply pagination
-            List<ItemProperties> itemsList = new ArrayList<>(items);
+            List<ItemProperties> itemsList = inventoryOptional.get().getItems();
+
+            // apply pagination
             int start = Math.min((int)PageRequest.of(page, size).getOffset(), itemsList.size());
             int end = Math.min((start + size), itemsList.size());
             
@@ -195,15 +249,19 @@ public class InventoryController {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
-    @Operation(summary = "Update inventory by ID", description = "Update an existing inventory record by its ID")
+    @Operation(summary = "Update inventory by ID",
+            description = "Update an existing inventory record by its ID; the closing date can only be changed through PUT /{id}/close")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Inventory updated successfully"),
             @ApiResponse(responseCode = "404", description = "Inventory not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid inventory data")
+            @ApiResponse(responseCode = "400", description = "Invalid inventory data"),
+            @ApiResponse(responseCode = "409", description = "Inventory was modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
     @PutMapping("/{id}")
-    public ResponseEntity<Inventory> updateInventory(@PathVariable UUID id, @RequestBody Inventory inventoryDetails) {
+    public ResponseEntity<Inventory> updateInventory(@PathVariable UUID id, @RequestBody Inventory inventoryDetails,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Attempting to update inventory with ID: {}", id);
 
         Restaurant restaurant = inventoryDetails.getRestaurant();
@@ -218,17 +276,64 @@ public class InventoryController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        Optional<Inventory> updatedInventory = inventoryService.updateInventory(id, inventoryDetails);
+        Optional<Inventory> updatedInventory;
+        try {
+            updatedInventory = inventoryService.updateInventory(id, inventoryDetails, ETags.parseIfMatch(ifMatch));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid inventory data: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (VersionMismatchException e) {
+            logger.error("Inventory precondition failed: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Inventory was modified concurrently");
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
         if (updatedInventory.isPresent()) {
             logger.info("Inventory updated successfully");
-            return new ResponseEntity<>(updatedInventory.get(), HttpStatus.OK);
+            return ResponseEntity.ok().eTag(ETags.of(updatedInventory.get().getAggregateVersion())).body(updatedInventory.get());
         }
 
         logger.error("Inventory update failed");
         return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-    @Operation(summary = "Add item to inventory", description = "Add a new item to an existing inventory")
+    @Operation(summary = "Merge-patch inventory by ID",
+            description = "Applies an RFC 7396 merge patch; items are keyed by item properties ID, a null value removes a line "
+                    + "and a key that is not an existing ID adds one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Inventory patched successfully"),
+            @ApiResponse(responseCode = "404", description = "Inventory not found"),
+            @ApiResponse(responseCode = "400", description = "Patch is invalid or produces invalid inventory data"),
+            @ApiResponse(responseCode = "409", description = "Inventory was modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PatchMapping(value = "/{id}", consumes = JsonMergePatch.MEDIA_TYPE)
+    public ResponseEntity<Object> mergePatchInventory(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("Attempting to merge-patch inventory with ID: {}", id);
+        return patchInventory(id, document -> JsonMergePatch.apply(document, patch), ifMatch);
+    }
+
+    @Operation(summary = "JSON-patch inventory by ID",
+            description = "Applies an RFC 6902 JSON Patch; items are addressed by item properties ID, e.g. /items/{itemPropertiesId}/quantity")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Inventory patched successfully"),
+            @ApiResponse(responseCode = "404", description = "Inventory not found"),
+            @ApiResponse(responseCode = "400", description = "Patch is invalid or produces invalid inventory data"),
+            @ApiResponse(responseCode = "409", description = "Inventory was modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PatchMapping(value = "/{id}", consumes = JsonPatch.MEDIA_TYPE)
+    public ResponseEntity<Object> jsonPatchInventory(@PathVariable UUID id, @RequestBody JsonNode patch,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.info("Attempting to JSON-patch inventory with ID: {}", id);
+        return patchInventory(id, document -> JsonPatch.apply(document, patch), ifMatch);
+    }
+
+    @Operation(summary = "Add item to inventory", description = "Add a new item to an existing inventory and return the created item properties")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item added successfully"),
             @ApiResponse(responseCode = "404", description = "Inventory not found"),
@@ -236,35 +341,95 @@ public class InventoryController {
     })
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
     @PostMapping("/{inventoryId}/items")
-    public ResponseEntity<Inventory> addItemToInventory(
+    public ResponseEntity<ItemProperties> addItemToInventory(
             @PathVariable UUID inventoryId, @RequestBody AddItemToInventoryRequest itemRequest) {
     
         logger.info("Attempting to add item to inventory with ID: {}", inventoryId);
 
-        Item item = itemService.findItemByBarcode(itemRequest.getBarCode());
+        Item item = itemService.findCurrentItemByBarcode(itemRequest.getBarCode());
         ItemProperties itemProperties = new ItemProperties(item, itemRequest.getExpirationDate(), itemRequest.getQuantity());
-        itemPropertiesService.createItemProperties(itemProperties);
-        // Check if the item is valid
-        if (itemProperties == null || itemProperties.getQuantity() <= 0) {
+
+        ItemProperties addedItemProperties;
+        try {
+            addedItemProperties = itemPropertiesService.addItemPropertiesToInventory(inventoryId, itemProperties);
+        } catch (IllegalArgumentException e) {
             logger.error("Invalid or missing item data");
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-    
-        Optional<Inventory> inventoryOptional = inventoryService.getInventoryById(inventoryId);
-    
-        if (!inventoryOptional.isPresent()) {
+
+        if (addedItemProperties == null) {
             logger.error(INVENTORY_NOT_FOUND);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     
-        Inventory inventory = inventoryOptional.get();
-        inventory.addItemProperties(itemProperties);
-        Inventory updatedInventory = inventoryService.saveInventory(inventory);
-    
         logger.info("Item added successfully to inventory");
-        return new ResponseEntity<>(updatedInventory, HttpStatus.OK);
+        return new ResponseEntity<>(addedItemProperties, HttpStatus.OK);
     }
     
+    @Operation(summary = "Add many items to inventory",
+            description = "Adds a batch of barcode/quantity/expiration lines in one request; invalid lines are skipped and reported")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the report for rejected lines"),
+            @ApiResponse(responseCode = "404", description = "Inventory not found"),
+            @ApiResponse(responseCode = "400", description = "Batch is empty or too large")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/{inventoryId}/items/batch")
+    public ResponseEntity<Object> addItemsToInventory(
+            @PathVariable UUID inventoryId, @RequestBody List<AddItemToInventoryRequest> itemRequests) {
+
+        logger.info("Attempting to add a batch of items to inventory with ID: {}", inventoryId);
+
+        try {
+            AddItemsToInventoryReport report = inventoryService.addItemsToInventory(inventoryId, itemRequests);
+            if (report == null) {
+                logger.error(INVENTORY_NOT_FOUND);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            logger.info("Added {} of {} items to inventory", report.getLinesAdded(), report.getLinesRead());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid item batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Compare two inventories",
+            description = "Items whose quantity changed from the first inventory to the second, including items added or removed. "
+                    + "Keyset pagination ordered by item ID; pass the returned nextCursor as 'after' to continue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fetched the page of changes successfully"),
+            @ApiResponse(responseCode = "400", description = "Page size is out of range or the inventories belong to different restaurants"),
+            @ApiResponse(responseCode = "404", description = "Inventory not found")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/{fromId}/diff/{toId}")
+    public ResponseEntity<KeysetPage<ItemVariance>> diffInventories(
+            @PathVariable UUID fromId,
+            @PathVariable UUID toId,
+            @Parameter(description = "ID of the last item of the previous page") @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int size) {
+        logger.info("Comparing inventory {} with inventory {} after item: {}", fromId, toId, after);
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            logger.error("Invalid page size: {}", size);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            KeysetPage<ItemVariance> page = inventoryService.diffInventories(fromId, toId, after, size);
+            if (page == null) {
+                logger.error(INVENTORY_NOT_FOUND);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            logger.info("Found {} changed items", page.getSize());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid comparison: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(summary = "Check if inventory is closed", description = "Check if the inventory is closed by comparing today's date with the closing date of the inventory")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Inventory is closed or not closed", content = @Content(mediaType = "application/json", schema = @Schema(type = "boolean"))),
@@ -373,35 +538,90 @@ public class InventoryController {
         return new ResponseEntity<>(openInventories, HttpStatus.OK);
     }
 
-    @Operation(summary = "Close inventory", description = "Close an existing inventory by setting a closing date")
+    @Operation(summary = "Close inventory", description = "Close an existing inventory by setting a closing date; its close-out report is generated in the background")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Inventory closed successfully"),
             @ApiResponse(responseCode = "404", description = "Inventory not found"),
-            @ApiResponse(responseCode = "403", description = "Unauthorized to close inventory")
+            @ApiResponse(responseCode = "403", description = "Unauthorized to close inventory"),
+            @ApiResponse(responseCode = "409", description = "Inventory was modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{id}/close")
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
-    public ResponseEntity<Inventory> closeInventory(@PathVariable UUID id, @RequestBody LocalDateTime closingDate) {
+    public ResponseEntity<Inventory> closeInventory(@PathVariable UUID id, @RequestBody LocalDateTime closingDate,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.info("Attempting to close inventory with ID: {}", id);
 
-        Optional<Inventory> inventoryOptional = inventoryService.getInventoryById(id);
+        String currentUser = authHandler.getAuthenticatedCognitoSub();
+
+        Optional<Inventory> inventoryOptional;
+        try {
+            inventoryOptional = inventoryService.closeInventory(id, closingDate, currentUser, ETags.parseIfMatch(ifMatch));
+        } catch (VersionMismatchException e) {
+            logger.error("Inventory precondition failed: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Inventory was modified concurrently");
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
         if (!inventoryOptional.isPresent()) {
             logger.error(INVENTORY_NOT_FOUND);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
-
-        String currentUser = authHandler.getAuthenticatedCognitoSub();
-
-        Inventory inventory = inventoryOptional.get();
-        inventory.setClosingDate(closingDate);
-        inventory.setClosedByUser(currentUser);
-        Inventory updatedInventory = inventoryService.saveInventory(inventory);
+        Inventory updatedInventory = inventoryOptional.get();
 
         // Clear any reminders related to the inventory
-        notificationService.clearRemindersByRestaurant(inventory.getRestaurant().getId());
+        notificationService.clearRemindersByRestaurant(updatedInventory.getRestaurant().getId());
+
+        inventoryReportService.requestReport(updatedInventory.getId());
+        consumptionStatsService.recordClose(updatedInventory.getId());
 
         logger.info("Inventory closed successfully");
-        return new ResponseEntity<>(updatedInventory, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ETags.of(updatedInventory.getAggregateVersion())).body(updatedInventory);
     }
 
+    @Operation(summary = "Get close-out report",
+            description = "Variance against the previous inventory, below-minimum and near-expiry items and totals by category, "
+                    + "computed when the inventory is closed. The status stays PENDING until the report is ready")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Report found"),
+            @ApiResponse(responseCode = "404", description = "Inventory has not been closed or was not found")
+    })
+    @GetMapping("/{id}/report")
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    public ResponseEntity<InventoryReport> getInventoryReport(@PathVariable UUID id) {
+        logger.info("Attempting to get the report of inventory with ID: {}", id);
+
+        Optional<InventoryReport> report = inventoryReportService.getReport(id);
+        if (report.isEmpty()) {
+            logger.error("Report not found");
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+
+        logger.info("Report found with status {}", report.get().getStatus());
+        return new ResponseEntity<>(report.get(), HttpStatus.OK);
+    }
+
+    /* Helper functions */
+
+    private ResponseEntity<Object> patchInventory(UUID id, UnaryOperator<JsonNode> patch, String ifMatch) {
+        try {
+            Optional<Inventory> patchedInventory = inventoryService.patchInventory(id, patch, ETags.parseIfMatch(ifMatch));
+            if (patchedInventory.isEmpty()) {
+                logger.error(INVENTORY_NOT_FOUND);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            logger.info("Inventory patched successfully");
+            return ResponseEntity.ok().eTag(ETags.of(patchedInventory.get().getAggregateVersion())).body(patchedInventory.get());
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid inventory patch: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (VersionMismatchException e) {
+            logger.error("Inventory precondition failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Inventory was modified concurrently");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Inventory was modified concurrently.");
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.supplywise.supplywise.controllers;
+
+import com.supplywise.supplywise.DAO.SyncRequest;
+import com.supplywise.supplywise.DAO.SyncResponse;
+import com.supplywise.supplywise.services.InventorySyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/inventories")
+@Tag(name = "Inventory Sync Controller", description = "API for counting devices that work offline")
+public class InventorySyncController {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySyncController.class);
+
+    private final InventorySyncService inventorySyncService;
+
+    @Autowired
+    public InventorySyncController(InventorySyncService inventorySyncService) {
+        this.inventorySyncService = inventorySyncService;
+    }
+
+    @Operation(summary = "Sync a counting device with an inventory",
+            description = "Applies the operations the device queued while offline, in order, and returns their results "
+                    + "together with the lines changed on the server since the device's sync token. Resending a batch is safe: "
+                    + "operations already received return their original result")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Synced, see the result of every operation"),
+            @ApiResponse(responseCode = "400", description = "Too many operations, or an operation lacks its ID or type"),
+            @ApiResponse(responseCode = "404", description = "Inventory not found")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/{inventoryId}/sync")
+    public ResponseEntity<Object> sync(@PathVariable UUID inventoryId, @RequestBody SyncRequest request) {
+        int operations = request.getOperations() != null ? request.getOperations().size() : 0;
+        logger.info("Syncing {} operations with inventory {}", operations, inventoryId);
+
+        try {
+            SyncResponse response = inventorySyncService.sync(inventoryId, request);
+            if (response == null) {
+                logger.error("Inventory not found");
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            logger.info("Synced inventory {}, returning {} changes", inventoryId, response.getChanges().size());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid sync request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.supplywise.supplywise.controllers;
 
+import com.supplywise.supplywise.DAO.ItemImportReport;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.model.Category;
 import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.services.CatalogExportService;
+import com.supplywise.supplywise.services.ItemImportService;
 import com.supplywise.supplywise.services.ItemService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,11 +15,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -23,11 +33,21 @@ public class ItemController {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemController.class);
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final CatalogExportService catalogExportService;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImportService itemImportService, CatalogExportService catalogExportService) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
+        this.catalogExportService = catalogExportService;
     }
 
     @Operation(summary = "Create a new item")
@@ -64,6 +84,69 @@ public class ItemController {
         return ResponseEntity.ok(items);
     }
 
+    @Operation(summary = "Get a page of items", description = "Keyset pagination ordered by ID; pass the returned nextCursor as 'after' to continue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fetched the page successfully"),
+            @ApiResponse(responseCode = "400", description = "Page size is out of range")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<Item>> getItemsPage(
+            @Parameter(description = "ID of the last item of the previous page") @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int size) {
+        logger.info("Fetching page of items after: {}", after);
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            logger.error("Invalid page size: {}", size);
+            return ResponseEntity.badRequest().build();
+        }
+
+        KeysetPage<Item> page = itemService.getItemsPage(after, size);
+        logger.info("Fetched {} items", page.getSize());
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Search items", description = "Fuzzy and prefix search over item names and categories, best matches first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search finished successfully"),
+            @ApiResponse(responseCode = "400", description = "Query is empty or limit is out of range")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @GetMapping("/search")
+    public ResponseEntity<Object> searchItems(
+            @Parameter(description = "Text to search for") @RequestParam String q,
+            @Parameter(description = "Only return items of these categories") @RequestParam(required = false) Set<Category> category,
+            @RequestParam(defaultValue = "20") int limit) {
+        logger.info("Searching items for: {}", q);
+
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            logger.error("Invalid search limit: {}", limit);
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_SEARCH_LIMIT + ".");
+        }
+
+        try {
+            List<Item> items = itemService.searchItems(q, category, limit);
+            logger.info("Found {} items", items.size());
+            return ResponseEntity.ok(items);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid search query");
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Export all items", description = "Streams the whole catalog as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog streamed successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportItems() {
+        logger.info("Exporting all items");
+
+        StreamingResponseBody body = catalogExportService::exportItems;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
     @Operation(summary = "Get item by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item fetched successfully"),
@@ -109,7 +192,7 @@ public class ItemController {
     })
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
     @GetMapping("/barcode/{barcode}")
-    public ResponseEntity<Object> getItemByBarcode(@Parameter(description = "Barcode of the item to be fetched") @PathVariable int barcode) {
+    public ResponseEntity<Object> getItemByBarcode(@Parameter(description = "Barcode of the item to be fetched") @PathVariable long barcode) {
         logger.info("Attempting to fetch item with barcode: {}", barcode);
 
         Item item = itemService.findItemByBarcode(barcode);
@@ -122,4 +205,40 @@ public class ItemController {
         logger.info("Item fetched successfully with barcode: {}", barcode);
         return ResponseEntity.ok(item);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Bulk import items from CSV",
+            description = "Streams a CSV catalog with the columns name, barCode and category and returns a per-row error report")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows"),
+            @ApiResponse(responseCode = "403", description = "User is not authorized to import items")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public ResponseEntity<ItemImportReport> importItemsCsv(
+            @Parameter(description = "Overwrite name and category of items whose barcode already exists") @RequestParam(defaultValue = "false") boolean updateExisting,
+            InputStream body) throws IOException {
+        logger.info("Attempting to import items from CSV");
+
+        ItemImportReport report = itemImportService.importCsv(body, updateExisting);
+        logger.info("Imported {} of {} items", report.getRowsImported(), report.getRowsRead());
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(summary = "Bulk import items from NDJSON",
+            description = "Streams newline-delimited JSON items and returns a per-row error report")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows"),
+            @ApiResponse(responseCode = "403", description = "User is not authorized to import items")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<ItemImportReport> importItemsNdjson(
+            @Parameter(description = "Overwrite name and category of items whose barcode already exists") @RequestParam(defaultValue = "false") boolean updateExisting,
+            InputStream body) throws IOException {
+        logger.info("Attempting to import items from NDJSON");
+
+        ItemImportReport report = itemImportService.importNdjson(body, updateExisting);
+        logger.info("Imported {} of {} items", report.getRowsImported(), report.getRowsRead());
+        return ResponseEntity.ok(report);
+    }
+}
@@ -1,6 +1,14 @@
 package com.supplywise.supplywise.controllers;
 
+import com.supplywise.supplywise.DAO.ConsumptionEvent;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.DAO.QuantityDeltaRequest;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.exception.BacklogFullException;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.ItemProperties;
+import com.supplywise.supplywise.services.CatalogExportService;
+import com.supplywise.supplywise.services.ConsumptionIngestService;
 import com.supplywise.supplywise.services.ItemPropertiesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,10 +18,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -24,11 +36,19 @@ public class ItemPropertiesController {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemPropertiesController.class);
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ItemPropertiesService itemPropertiesService;
+    private final CatalogExportService catalogExportService;
+    private final ConsumptionIngestService consumptionIngestService;
 
     @Autowired
-    public ItemPropertiesController(ItemPropertiesService itemPropertiesService) {
+    public ItemPropertiesController(ItemPropertiesService itemPropertiesService, CatalogExportService catalogExportService,
+                                    ConsumptionIngestService consumptionIngestService) {
         this.itemPropertiesService = itemPropertiesService;
+        this.catalogExportService = catalogExportService;
+        this.consumptionIngestService = consumptionIngestService;
     }
 
     @Operation(summary = "Create new item properties")
@@ -66,6 +86,41 @@ public class ItemPropertiesController {
         return ResponseEntity.ok(itemPropertiesList);
     }
 
+    @Operation(summary = "Get a page of item properties", description = "Keyset pagination ordered by ID; pass the returned nextCursor as 'after' to continue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Fetched the page successfully"),
+            @ApiResponse(responseCode = "400", description = "Page size is out of range")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @GetMapping("/page")
+    public ResponseEntity<KeysetPage<ItemProperties>> getItemPropertiesPage(
+            @Parameter(description = "ID of the last item properties of the previous page") @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "100") int size) {
+        logger.info("Fetching page of item properties after: {}", after);
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            logger.error("Invalid page size: {}", size);
+            return ResponseEntity.badRequest().build();
+        }
+
+        KeysetPage<ItemProperties> page = itemPropertiesService.getItemPropertiesPage(after, size);
+        logger.info("Fetched {} item properties", page.getSize());
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Export all item properties", description = "Streams every item properties row as newline-delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Item properties streamed successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER', 'ROLE_MANAGER_MASTER')")
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportItemProperties() {
+        logger.info("Exporting all item properties");
+
+        StreamingResponseBody body = catalogExportService::exportItemProperties;
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
     @Operation(summary = "Get item properties by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item properties fetched successfully"),
@@ -85,20 +140,23 @@ public class ItemPropertiesController {
         }
 
         logger.info("Item properties fetched successfully with ID: {}", id);
-        return ResponseEntity.ok(itemProperties);
+        return ResponseEntity.ok().eTag(ETags.of(itemProperties.getVersion())).body(itemProperties);
     }
 
     @Operation(summary = "Update item properties by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Item properties updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid item properties fields"),
-            @ApiResponse(responseCode = "404", description = "Item properties not found")
+            @ApiResponse(responseCode = "404", description = "Item properties not found"),
+            @ApiResponse(responseCode = "409", description = "Item properties were modified concurrently"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current version")
     })
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER')")
     public ResponseEntity<Object> updateItemProperties(
             @PathVariable UUID id, 
-            @RequestBody ItemProperties itemProperties) {
+            @RequestBody ItemProperties itemProperties,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         logger.info("Attempting to update item properties for ID: {}", id);
 
@@ -109,7 +167,7 @@ public class ItemPropertiesController {
         }
 
         try {
-            ItemProperties updatedItemProperties = itemPropertiesService.updateItemProperties(id, itemProperties);
+            ItemProperties updatedItemProperties = itemPropertiesService.updateItemProperties(id, itemProperties, ETags.parseIfMatch(ifMatch));
 
             if (updatedItemProperties == null) {
                 logger.error("Item properties not found with ID: {}", id);
@@ -118,11 +176,73 @@ public class ItemPropertiesController {
 
             logger.info("Item properties updated successfully with ID: {}", id);
             logger.info("Item properties: {}", updatedItemProperties);
-            return ResponseEntity.ok(updatedItemProperties);
+            return ResponseEntity.ok().eTag(ETags.of(updatedItemProperties.getVersion())).body(updatedItemProperties);
 
         } catch (IllegalArgumentException e) {
             logger.error("Invalid item properties: {}", e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (VersionMismatchException e) {
+            logger.error("Item properties precondition failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Item properties were modified concurrently");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Item properties were modified concurrently.");
+        }
+    }
+
+    @Operation(summary = "Change item properties quantity by a delta",
+            description = "Atomically adds the delta (negative to consume) to the quantity, so concurrent counters never overwrite each other, "
+                    + "and returns the resulting stock level")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Quantity updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Delta is out of range"),
+            @ApiResponse(responseCode = "404", description = "Item properties not found"),
+            @ApiResponse(responseCode = "409", description = "Quantity would go below zero or above the maximum")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/{id}/quantity-delta")
+    public ResponseEntity<Object> applyQuantityDelta(@PathVariable UUID id, @RequestBody QuantityDeltaRequest request) {
+        logger.info("Attempting to change quantity of item properties {} by {}", id, request.getDelta());
+
+        try {
+            StockLevel stockLevel = itemPropertiesService.applyQuantityDelta(id, request.getDelta());
+            if (stockLevel == null) {
+                logger.error("Item properties not found with ID: {}", id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Item properties not found.");
+            }
+            logger.info("Quantity of item properties {} is now {}", id, stockLevel.getQuantity());
+            return ResponseEntity.ok(stockLevel);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid quantity delta: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.error("Quantity delta rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Record point-of-sale consumption",
+            description = "Accepts a batch of sales; amounts are summed per item properties and written to the stock shortly after")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Consumption accepted"),
+            @ApiResponse(responseCode = "400", description = "Batch is empty, too large or has an invalid event"),
+            @ApiResponse(responseCode = "503", description = "Too much consumption is waiting to be written; retry later")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/consumption")
+    public ResponseEntity<Object> recordConsumption(@RequestBody List<ConsumptionEvent> events) {
+        logger.info("Attempting to record {} consumption events", events.size());
+
+        try {
+            int accepted = consumptionIngestService.record(events);
+            logger.info("Accepted {} consumption events", accepted);
+            return ResponseEntity.accepted().build();
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid consumption batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (BacklogFullException e) {
+            logger.error("Consumption batch refused: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         }
     }
 
@@ -140,4 +260,4 @@ public class ItemPropertiesController {
         logger.info("Item properties deleted successfully with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
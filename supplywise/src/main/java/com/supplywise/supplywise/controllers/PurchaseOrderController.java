@@ -0,0 +1,131 @@
+package com.supplywise.supplywise.controllers;
+
+import com.supplywise.supplywise.model.PurchaseOrder;
+import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.PurchaseOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/purchase-orders")
+@Tag(name = "Purchase Order Controller", description = "API for reviewing and submitting purchase orders drafted from low stock")
+public class PurchaseOrderController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseOrderController.class);
+
+    private static final String PURCHASE_ORDER_NOT_FOUND = "Purchase order not found";
+
+    private final PurchaseOrderService purchaseOrderService;
+    private final AuthHandler authHandler;
+
+    @Autowired
+    public PurchaseOrderController(PurchaseOrderService purchaseOrderService, AuthHandler authHandler) {
+        this.purchaseOrderService = purchaseOrderService;
+        this.authHandler = authHandler;
+    }
+
+    @Operation(summary = "Get purchase orders of a restaurant", description = "The draft and submitted purchase orders of the restaurant, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Purchase orders fetched successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/restaurant/{restaurantId}")
+    public ResponseEntity<List<PurchaseOrder>> getPurchaseOrdersByRestaurant(@PathVariable UUID restaurantId) {
+        logger.info("Fetching purchase orders of restaurant {}", restaurantId);
+
+        List<PurchaseOrder> orders = purchaseOrderService.getPurchaseOrdersByRestaurant(restaurantId);
+        logger.info("Fetched {} purchase orders", orders.size());
+        return ResponseEntity.ok(orders);
+    }
+
+    @Operation(summary = "Get purchase order by ID", description = "Returns the purchase order with its lines")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Purchase order found"),
+            @ApiResponse(responseCode = "404", description = PURCHASE_ORDER_NOT_FOUND)
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/{id}")
+    public ResponseEntity<PurchaseOrder> getPurchaseOrderById(@PathVariable UUID id) {
+        logger.info("Fetching purchase order {}", id);
+
+        Optional<PurchaseOrder> order = purchaseOrderService.getPurchaseOrderById(id);
+        if (order.isEmpty()) {
+            logger.error(PURCHASE_ORDER_NOT_FOUND);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok(order.get());
+    }
+
+    @Operation(summary = "Change the quantity of a draft line",
+            description = "The line keeps this quantity from then on instead of following the suggestion; 0 leaves the item out of the order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Line updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Quantity is out of range"),
+            @ApiResponse(responseCode = "404", description = "Purchase order or line not found"),
+            @ApiResponse(responseCode = "409", description = "Purchase order has already been submitted or was modified concurrently")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PutMapping("/{id}/lines/{lineId}")
+    public ResponseEntity<Object> updateLineQuantity(@PathVariable UUID id, @PathVariable UUID lineId, @RequestParam int quantity) {
+        logger.info("Setting quantity of line {} of purchase order {} to {}", lineId, id, quantity);
+
+        try {
+            PurchaseOrder order = purchaseOrderService.updateLineQuantity(id, lineId, quantity);
+            if (order == null) {
+                logger.error("Purchase order or line not found");
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            logger.info("Line updated successfully");
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid quantity: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.error("Cannot update line: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            logger.error("Purchase order was modified concurrently");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Purchase order was modified concurrently.");
+        }
+    }
+
+    @Operation(summary = "Submit a draft purchase order", description = "Lines with a quantity of 0 are dropped; the next refresh opens a new draft")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Purchase order submitted successfully"),
+            @ApiResponse(responseCode = "404", description = PURCHASE_ORDER_NOT_FOUND),
+            @ApiResponse(responseCode = "409", description = "Purchase order has already been submitted or has nothing to order")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/{id}/submit")
+    public ResponseEntity<Object> submitPurchaseOrder(@PathVariable UUID id) {
+        logger.info("Submitting purchase order {}", id);
+
+        try {
+            PurchaseOrder order = purchaseOrderService.submit(id, authHandler.getAuthenticatedCognitoSub());
+            if (order == null) {
+                logger.error(PURCHASE_ORDER_NOT_FOUND);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            logger.info("Purchase order submitted successfully");
+            return ResponseEntity.ok(order);
+        } catch (IllegalStateException e) {
+            logger.error("Cannot submit purchase order: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.supplywise.supplywise.controllers;
+
+import com.supplywise.supplywise.DAO.CompanyStockRollup;
+import com.supplywise.supplywise.DAO.FefoAllocation;
+import com.supplywise.supplywise.DAO.FefoBatch;
+import com.supplywise.supplywise.DAO.ItemForecast;
+import com.supplywise.supplywise.DAO.MinimumStockRule;
+import com.supplywise.supplywise.DAO.RestaurantStockLine;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.MinimumStockScope;
+import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.CompanyStockService;
+import com.supplywise.supplywise.services.ConsumptionStatsService;
+import com.supplywise.supplywise.services.MinimumStockRuleService;
+import com.supplywise.supplywise.services.StockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/stock")
+public class StockController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockController.class);
+
+    private final StockService stockService;
+    private final CompanyStockService companyStockService;
+    private final ConsumptionStatsService consumptionStatsService;
+    private final MinimumStockRuleService minimumStockRuleService;
+    private final AuthHandler authHandler;
+
+    @Autowired
+    public StockController(StockService stockService, CompanyStockService companyStockService,
+                           ConsumptionStatsService consumptionStatsService, MinimumStockRuleService minimumStockRuleService,
+                           AuthHandler authHandler) {
+        this.stockService = stockService;
+        this.companyStockService = companyStockService;
+        this.consumptionStatsService = consumptionStatsService;
+        this.minimumStockRuleService = minimumStockRuleService;
+        this.authHandler = authHandler;
+    }
+
+    @Operation(summary = "Get stock of the user's company",
+            description = "Totals of every restaurant of the company by item, by category and by restaurant; cached for a few seconds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock rollup fetched successfully"),
+            @ApiResponse(responseCode = "403", description = "User is not associated with a company")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER')")
+    @GetMapping("/company")
+    public ResponseEntity<Object> getCompanyStock() {
+        logger.info("Fetching stock rollup of the user's company");
+
+        String companyId = authHandler.getAuthenticatedCompanyId();
+        if (companyId == null) {
+            logger.error("User is not associated with a company");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is not associated with a company.");
+        }
+
+        CompanyStockRollup rollup = companyStockService.getCompanyRollup(UUID.fromString(companyId));
+        logger.info("Fetched stock rollup of {} restaurants", rollup.getRestaurants().size());
+        return ResponseEntity.ok(rollup);
+    }
+
+    @Operation(summary = "Get current stock of a restaurant",
+            description = "Returns the quantity of every item across the restaurant's open inventories")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock fetched successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/restaurant/{restaurantId}")
+    public ResponseEntity<List<RestaurantStockLine>> getRestaurantStock(@PathVariable UUID restaurantId) {
+        logger.info("Fetching stock of restaurant {}", restaurantId);
+
+        List<RestaurantStockLine> stock = stockService.getRestaurantStock(restaurantId);
+        logger.info("Fetched stock of {} items", stock.size());
+        return ResponseEntity.ok(stock);
+    }
+
+    @Operation(summary = "Get stock-out forecast of a restaurant",
+            description = "Projected stock-out date and suggested reorder quantity of every item with consumption history, "
+                    + "recomputed nightly; items running out soonest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Forecast fetched successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/restaurant/{restaurantId}/forecast")
+    public ResponseEntity<List<ItemForecast>> getRestaurantForecast(@PathVariable UUID restaurantId) {
+        logger.info("Fetching forecast of restaurant {}", restaurantId);
+
+        List<ItemForecast> forecasts = consumptionStatsService.getForecasts(restaurantId);
+        logger.info("Fetched forecast of {} items", forecasts.size());
+        return ResponseEntity.ok(forecasts);
+    }
+
+    @Operation(summary = "Get items below their minimum",
+            description = "Items of the restaurant whose stock is below the restaurant rule, else the company rule, "
+                    + "else the highest minimum of their open inventory lines; largest shortfall first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items fetched successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/restaurant/{restaurantId}/below-minimum")
+    public ResponseEntity<List<StockShortfall>> getBelowMinimum(@PathVariable UUID restaurantId) {
+        logger.info("Fetching items below minimum in restaurant {}", restaurantId);
+
+        List<StockShortfall> shortfalls = minimumStockRuleService.getBelowMinimum(restaurantId);
+        logger.info("Fetched {} items below minimum", shortfalls.size());
+        return ResponseEntity.ok(shortfalls);
+    }
+
+    @Operation(summary = "Get minimum stock rules of a restaurant")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules fetched successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/minimums/restaurant/{restaurantId}")
+    public ResponseEntity<List<MinimumStockRule>> getRestaurantMinimums(@PathVariable UUID restaurantId) {
+        logger.info("Fetching minimum stock rules of restaurant {}", restaurantId);
+        return ResponseEntity.ok(minimumStockRuleService.getRules(MinimumStockScope.RESTAURANT, restaurantId));
+    }
+
+    @Operation(summary = "Set minimum stock rules of a restaurant",
+            description = "Sets the minimum of every listed item in one go, overriding the company default; "
+                    + "a null minimum removes the item's rule. Unknown items are ignored. Returns the restaurant's rules")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules applied successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid rules")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PutMapping("/minimums/restaurant/{restaurantId}")
+    public ResponseEntity<Object> setRestaurantMinimums(@PathVariable UUID restaurantId, @RequestBody List<MinimumStockRule> rules) {
+        logger.info("Attempting to set {} minimum stock rules of restaurant {}", rules.size(), restaurantId);
+        return applyMinimums(MinimumStockScope.RESTAURANT, restaurantId, rules);
+    }
+
+    @Operation(summary = "Set default minimum stock rules of the user's company",
+            description = "Minimums used by every restaurant of the company that has no rule of its own for the item; "
+                    + "a null minimum removes the item's rule. Unknown items are ignored. Returns the company's rules")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules applied successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid rules"),
+            @ApiResponse(responseCode = "403", description = "User is not associated with a company")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER')")
+    @PutMapping("/minimums/company")
+    public ResponseEntity<Object> setCompanyMinimums(@RequestBody List<MinimumStockRule> rules) {
+        logger.info("Attempting to set {} minimum stock rules of the user's company", rules.size());
+
+        String companyId = authHandler.getAuthenticatedCompanyId();
+        if (companyId == null) {
+            logger.error("User is not associated with a company");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("User is not associated with a company.");
+        }
+        return applyMinimums(MinimumStockScope.COMPANY, UUID.fromString(companyId), rules);
+    }
+
+    @Operation(summary = "Get FEFO batches of an item",
+            description = "Lists the stocked batches of an item across the restaurant's open inventories, earliest expiration first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batches fetched successfully")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @GetMapping("/restaurant/{restaurantId}/item/{itemId}/fefo")
+    public ResponseEntity<List<FefoBatch>> getFefoBatches(@PathVariable UUID restaurantId, @PathVariable UUID itemId) {
+        logger.info("Fetching FEFO batches of item {} in restaurant {}", itemId, restaurantId);
+
+        List<FefoBatch> batches = stockService.getFefoBatches(restaurantId, itemId);
+        logger.info("Fetched {} batches", batches.size());
+        return ResponseEntity.ok(batches);
+    }
+
+    @Operation(summary = "Consume units of an item",
+            description = "Takes the units from the earliest-expiring batches first; nothing is taken if there is not enough stock")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Units consumed, see the batches they were taken from"),
+            @ApiResponse(responseCode = "400", description = "Units are out of range"),
+            @ApiResponse(responseCode = "409", description = "Not enough stock")
+    })
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_FRANCHISE_OWNER', 'ROLE_MANAGER_MASTER', 'ROLE_MANAGER')")
+    @PostMapping("/restaurant/{restaurantId}/item/{itemId}/consume")
+    public ResponseEntity<Object> consumeFefo(@PathVariable UUID restaurantId, @PathVariable UUID itemId,
+                                              @Parameter(description = "Number of units to take") @RequestParam int units) {
+        logger.info("Attempting to consume {} units of item {} in restaurant {}", units, itemId, restaurantId);
+
+        try {
+            List<FefoAllocation> allocations = stockService.consumeFefo(restaurantId, itemId, units);
+            logger.info("Consumed {} units from {} batches", units, allocations.size());
+            return ResponseEntity.ok(allocations);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid units: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            logger.error("Not enough stock: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /* Helper functions */
+
+    private ResponseEntity<Object> applyMinimums(MinimumStockScope scope, UUID scopeId, List<MinimumStockRule> rules) {
+        try {
+            int applied = minimumStockRuleService.applyRules(scope, scopeId, rules);
+            logger.info("Applied {} minimum stock rules", applied);
+            return ResponseEntity.ok(minimumStockRuleService.getRules(scope, scopeId));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid minimum stock rules: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
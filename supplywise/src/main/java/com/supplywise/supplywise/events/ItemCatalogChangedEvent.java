@@ -0,0 +1,31 @@
+package com.supplywise.supplywise.events;
+
+import com.supplywise.supplywise.model.Item;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by {@code ItemService} after items were created, updated or deleted.
+ * In-memory catalog indexes listen to it to apply the change without reloading the catalog.
+ */
+@Getter
+public class ItemCatalogChangedEvent {
+
+    private final List<Item> upserted;
+    private final List<Item> removed;
+
+    public ItemCatalogChangedEvent(List<Item> upserted, List<Item> removed) {
+        this.upserted = upserted;
+        this.removed = removed;
+    }
+
+    public static ItemCatalogChangedEvent upserted(Item item) {
+        return new ItemCatalogChangedEvent(List.of(item), List.of());
+    }
+
+    public static ItemCatalogChangedEvent removed(Item item) {
+        return new ItemCatalogChangedEvent(List.of(), List.of(item));
+    }
+}
@@ -0,0 +1,11 @@
+package com.supplywise.supplywise.exception;
+
+/**
+ * Thrown when work accepted for background processing has piled up and new work is refused until it drains.
+ */
+public class BacklogFullException extends RuntimeException {
+
+    public BacklogFullException(String message) {
+        super(message);
+    }
+}
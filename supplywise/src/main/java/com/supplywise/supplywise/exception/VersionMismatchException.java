@@ -0,0 +1,11 @@
+package com.supplywise.supplywise.exception;
+
+/**
+ * Thrown when a conditional write names a version (e.g. through If-Match) that is no longer the current one.
+ */
+public class VersionMismatchException extends RuntimeException {
+
+    public VersionMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,139 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Read-only, in-process index of the whole item catalog keyed by barcode.
+ * The table is loaded at startup and swapped atomically, so readers never lock and never see a
+ * half-applied change. {@link ItemCatalogChangedEvent}s are queued and applied in the background,
+ * coalescing bursts of changes into one new table instead of copying the catalog on the request thread.
+ * Events only cover this instance's changes, so the table is also reloaded periodically to pick up those of
+ * other instances; writes that reference an item confirm it in the database instead.
+ */
+@Component
+public class BarcodeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarcodeIndex.class);
+
+    private final ItemRepository itemRepository;
+    private final Queue<ItemCatalogChangedEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean applyPending = new AtomicBoolean();
+    private final ExecutorService changeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "barcode-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // null until the initial load has finished
+    private volatile BarcodeTable table;
+
+    public BarcodeIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${supplywise.barcode-index.refresh-interval-ms:300000}",
+            initialDelayString = "${supplywise.barcode-index.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        if (table != null) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        long start = System.nanoTime();
+        BarcodeTable rebuilt = BarcodeTable.of(itemRepository.findAll());
+        table = rebuilt;
+        // Changes queued while the catalog was being read are replayed on top; they are idempotent
+        applyPendingChanges();
+        logger.info("Barcode index loaded with {} items in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onItemCatalogChanged(ItemCatalogChangedEvent event) {
+        pendingChanges.add(event);
+        if (applyPending.compareAndSet(false, true)) {
+            changeExecutor.execute(() -> {
+                applyPending.set(false);
+                applyPendingChanges();
+            });
+        }
+    }
+
+    public boolean isReady() {
+        return table != null;
+    }
+
+    /**
+     * Returns the indexed item for the barcode, or {@code null} if the catalog has none.
+     * The returned item is shared between callers and must be treated as read-only.
+     */
+    public Item get(long barCode) {
+        BarcodeTable current = table;
+        if (current == null) {
+            throw new IllegalStateException("Barcode index is not loaded yet");
+        }
+        return current.get(barCode);
+    }
+
+    public int size() {
+        BarcodeTable current = table;
+        return current == null ? 0 : current.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        changeExecutor.shutdownNow();
+    }
+
+    /* Helper functions */
+
+    // Folds the queued changes into one new table, the last change of each item wins; visible for tests
+    synchronized void applyPendingChanges() {
+        BarcodeTable current = table;
+        if (current == null) {
+            // Left queued for the initial load to replay
+            return;
+        }
+        Map<UUID, Item> latest = new LinkedHashMap<>();
+        Map<UUID, Item> removed = new LinkedHashMap<>();
+        ItemCatalogChangedEvent event;
+        while ((event = pendingChanges.poll()) != null) {
+            for (Item item : event.getRemoved()) {
+                latest.remove(item.getId());
+                removed.put(item.getId(), item);
+            }
+            for (Item item : event.getUpserted()) {
+                removed.remove(item.getId());
+                latest.put(item.getId(), item);
+            }
+        }
+        if (latest.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        table = current.withChanges(latest.values(), removed.values());
+    }
+}
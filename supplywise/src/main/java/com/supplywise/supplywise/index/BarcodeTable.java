@@ -0,0 +1,131 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.model.Item;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable open-addressing hash table from a primitive barcode to its {@link Item}.
+ * Keys are never boxed and lookups do not allocate. Changes produce a new table.
+ */
+final class BarcodeTable {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final long[] keys;
+    private final Item[] values;
+    private final int mask;
+    private final int size;
+
+    private BarcodeTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new Item[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+    }
+
+    private BarcodeTable(long[] keys, Item[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    static BarcodeTable of(Collection<Item> items) {
+        BarcodeTable table = new BarcodeTable(items.size());
+        int count = 0;
+        for (Item item : items) {
+            if (table.insert(item.getBarCode(), copyOf(item))) {
+                count++;
+            }
+        }
+        return new BarcodeTable(table.keys, table.values, count);
+    }
+
+    Item get(long barCode) {
+        int slot = mix(barCode) & mask;
+        Item value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == barCode) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a new table with {@code removed} dropped and {@code upserted} added or replaced.
+     * Removals are matched by item ID so a barcode change of an item is handled in one step.
+     */
+    BarcodeTable withChanges(Collection<Item> upserted, Collection<Item> removed) {
+        Set<UUID> changedIds = new HashSet<>();
+        collectIds(upserted, changedIds);
+        collectIds(removed, changedIds);
+
+        BarcodeTable next = new BarcodeTable(size + upserted.size());
+        int count = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            Item current = values[slot];
+            if (current != null && !changedIds.contains(current.getId()) && next.insert(keys[slot], current)) {
+                count++;
+            }
+        }
+        for (Item item : upserted) {
+            if (next.insert(item.getBarCode(), copyOf(item))) {
+                count++;
+            }
+        }
+        return new BarcodeTable(next.keys, next.values, count);
+    }
+
+    /* Helper functions */
+
+    private boolean insert(long barCode, Item item) {
+        int slot = mix(barCode) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == barCode) {
+                values[slot] = item;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = barCode;
+        values[slot] = item;
+        return true;
+    }
+
+    private static void collectIds(Collection<Item> items, Set<UUID> ids) {
+        for (Item item : items) {
+            if (item.getId() != null) {
+                ids.add(item.getId());
+            }
+        }
+    }
+
+    // Detached copy so later changes to the caller's entity do not leak into the index
+    private static Item copyOf(Item item) {
+        Item copy = new Item(item.getName(), item.getBarCode(), item.getCategory());
+        copy.setId(item.getId());
+        return copy;
+    }
+
+    // Murmur3 64-bit finalizer, spreads sequential barcodes across the table
+    private static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
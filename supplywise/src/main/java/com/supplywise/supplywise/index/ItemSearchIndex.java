@@ -0,0 +1,123 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process fuzzy and prefix search over item names and categories for type-ahead.
+ * Catalog changes are applied to a working copy and the search structures are rebuilt in the background,
+ * coalescing bursts of changes into one rebuild; readers always query a complete snapshot.
+ */
+@Component
+public class ItemSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private final ItemRepository itemRepository;
+    private final Map<UUID, Item> catalog = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "item-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // null until the initial load has finished
+    private volatile ItemSearchSnapshot snapshot;
+
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        // Changes made while the catalog is read wait for it, so the load cannot overwrite them with older rows
+        synchronized (catalog) {
+            catalog.clear();
+            for (Item item : itemRepository.findAll()) {
+                catalog.put(item.getId(), copyOf(item));
+            }
+        }
+        refresh();
+        logger.info("Item search index loaded with {} items in {} ms", catalog.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onItemCatalogChanged(ItemCatalogChangedEvent event) {
+        synchronized (catalog) {
+            for (Item item : event.getRemoved()) {
+                catalog.remove(item.getId());
+            }
+            for (Item item : event.getUpserted()) {
+                catalog.put(item.getId(), copyOf(item));
+            }
+        }
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                refreshIfLoaded();
+            });
+        }
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Returns up to {@code limit} items ranked by relevance to the query, restricted to the given
+     * categories when any are passed. The returned items are shared and must be treated as read-only.
+     */
+    public List<Item> search(String query, Set<Category> categories, int limit) {
+        ItemSearchSnapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Item search index is not loaded yet");
+        }
+        return current.search(query, categories, limit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /* Helper functions */
+
+    // Rebuilds the search structures from the working copy; visible for tests
+    synchronized void refresh() {
+        snapshot = ItemSearchSnapshot.of(List.copyOf(catalog.values()));
+    }
+
+    // Before the initial load the working copy is incomplete; the load publishes the first snapshot itself
+    private synchronized void refreshIfLoaded() {
+        if (snapshot != null) {
+            refresh();
+        }
+    }
+
+    // Detached copy so later changes to the caller's entity do not leak into the index
+    private static Item copyOf(Item item) {
+        Item copy = new Item(item.getName(), item.getBarCode(), item.getCategory());
+        copy.setId(item.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,211 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable search structures over a catalog snapshot: trigram postings over item names for fuzzy matching
+ * and a sorted token array (names plus category) for prefix matching. Built off the request path and
+ * queried without locks.
+ */
+final class ItemSearchSnapshot {
+
+    // pg_trgm's default similarity threshold
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final double PREFIX_BONUS = 1.0;
+    private static final double STARTS_WITH_BONUS = 0.5;
+    private static final double EXACT_BONUS = 2.0;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private static final int[] NO_DOCS = new int[0];
+
+    private final Item[] items;
+    private final String[] names;
+    private final int[] trigramCounts;
+    private final Map<Long, int[]> postings;
+    private final String[] tokens;
+    private final int[] tokenDocs;
+
+    private ItemSearchSnapshot(Item[] items, String[] names, int[] trigramCounts, Map<Long, int[]> postings,
+                               String[] tokens, int[] tokenDocs) {
+        this.items = items;
+        this.names = names;
+        this.trigramCounts = trigramCounts;
+        this.postings = postings;
+        this.tokens = tokens;
+        this.tokenDocs = tokenDocs;
+    }
+
+    static ItemSearchSnapshot of(Collection<Item> catalog) {
+        int size = catalog.size();
+        Item[] items = catalog.toArray(new Item[0]);
+        String[] names = new String[size];
+        int[] trigramCounts = new int[size];
+        Map<Long, List<Integer>> building = new HashMap<>();
+        List<TokenEntry> tokenEntries = new ArrayList<>();
+
+        for (int doc = 0; doc < size; doc++) {
+            Item item = items[doc];
+            names[doc] = normalize(item.getName());
+            long[] trigrams = trigrams(names[doc]);
+            trigramCounts[doc] = trigrams.length;
+            for (long trigram : trigrams) {
+                building.computeIfAbsent(trigram, key -> new ArrayList<>()).add(doc);
+            }
+            for (String token : tokenize(names[doc])) {
+                tokenEntries.add(new TokenEntry(token, doc));
+            }
+            if (item.getCategory() != null) {
+                tokenEntries.add(new TokenEntry(item.getCategory().name().toLowerCase(Locale.ROOT), doc));
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((trigram, docs) -> postings.put(trigram, docs.stream().mapToInt(Integer::intValue).toArray()));
+
+        tokenEntries.sort(Comparator.comparing(TokenEntry::token));
+        String[] tokens = new String[tokenEntries.size()];
+        int[] tokenDocs = new int[tokenEntries.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenEntries.get(i).token();
+            tokenDocs[i] = tokenEntries.get(i).doc();
+        }
+        return new ItemSearchSnapshot(items, names, trigramCounts, postings, tokens, tokenDocs);
+    }
+
+    int size() {
+        return items.length;
+    }
+
+    /**
+     * Ranks items by trigram similarity of their name to the query, boosted when every query word is a
+     * prefix of a word of the name or category, when the name starts with the query, and on exact matches.
+     */
+    List<Item> search(String query, Set<Category> categories, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+
+        double[] scores = new double[items.length];
+        List<Integer> candidates = new ArrayList<>();
+
+        // Trigram overlap, turned into a Jaccard similarity below
+        long[] queryTrigrams = trigrams(normalizedQuery);
+        int[] shared = new int[items.length];
+        for (long trigram : queryTrigrams) {
+            for (int doc : postings.getOrDefault(trigram, NO_DOCS)) {
+                if (shared[doc]++ == 0) {
+                    candidates.add(doc);
+                }
+            }
+        }
+        for (int doc : candidates) {
+            double similarity = (double) shared[doc] / (queryTrigrams.length + trigramCounts[doc] - shared[doc]);
+            scores[doc] = similarity >= MIN_SIMILARITY ? similarity : 0;
+        }
+
+        // Every query word must prefix some word of the item for the prefix bonus
+        String[] queryTokens = tokenize(normalizedQuery);
+        int[] prefixHits = new int[items.length];
+        for (int q = 0; q < queryTokens.length; q++) {
+            int from = lowerBound(queryTokens[q]);
+            for (int i = from; i < tokens.length && tokens[i].startsWith(queryTokens[q]); i++) {
+                int doc = tokenDocs[i];
+                if (prefixHits[doc] == q) {
+                    prefixHits[doc] = q + 1;
+                    if (q == 0 && shared[doc] == 0) {
+                        candidates.add(doc);
+                    }
+                }
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        for (int doc : candidates) {
+            if (prefixHits[doc] == queryTokens.length) {
+                scores[doc] += PREFIX_BONUS;
+            }
+            if (scores[doc] == 0 || (categories != null && !categories.isEmpty() && !categories.contains(items[doc].getCategory()))) {
+                continue;
+            }
+            if (names[doc].startsWith(normalizedQuery)) {
+                scores[doc] += names[doc].equals(normalizedQuery) ? EXACT_BONUS : STARTS_WITH_BONUS;
+            }
+            matches.add(doc);
+        }
+
+        matches.sort((a, b) -> scores[a] != scores[b] ? Double.compare(scores[b], scores[a]) : names[a].compareTo(names[b]));
+        List<Item> results = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            results.add(items[matches.get(i)]);
+        }
+        return results;
+    }
+
+    /* Helper functions */
+
+    private record TokenEntry(String token, int doc) {
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static String[] tokenize(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    // Distinct trigrams of every word padded like pg_trgm ("  word "), packed into a long
+    static long[] trigrams(String normalized) {
+        long[] result = new long[normalized.length() * 3 + 3];
+        int count = 0;
+        for (String token : tokenize(normalized)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        long[] distinct = Arrays.copyOf(result, count);
+        Arrays.sort(distinct);
+        int unique = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[unique++] = distinct[i];
+            }
+        }
+        return Arrays.copyOf(distinct, unique);
+    }
+}
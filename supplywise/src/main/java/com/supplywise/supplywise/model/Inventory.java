@@ -1,5 +1,6 @@
 package com.supplywise.supplywise.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -8,12 +9,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "inventory")
+// Close-out reports look up the restaurant's previous closed inventory
+@Table(name = "inventory", indexes = {
+        @Index(name = "idx_inventory_restaurant_closing", columnList = "restaurant_id, closing_date")
+})
 @Data
 @NoArgsConstructor
 public class Inventory {
@@ -27,9 +31,13 @@ public class Inventory {
     @JoinColumn(name = "restaurant_id", nullable = false)
     private Restaurant restaurant;
 
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
-    @JoinColumn(name = "inventory")
-    private Set<ItemProperties> items = new HashSet<>();
+    // A list rather than a set: new lines have no ID yet, so two identical ones would be equal and merged
+    @OneToMany(mappedBy = "inventory", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<ItemProperties> items = new ArrayList<>();
+
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
 
     @Column(name = "emission_date", nullable = false)
     private LocalDateTime emissionDate;
@@ -67,11 +75,13 @@ public class Inventory {
     }
 
     public void addItemProperties(ItemProperties item) {
+        item.setInventory(this);
         items.add(item);
     }
 
     public void removeItemProperties(ItemProperties item) {
         items.remove(item);
+        item.setInventory(null);
     }
 
     public void setClosedByUser(String user) {
@@ -81,4 +91,31 @@ public class Inventory {
     public String getClosedByUser() {
         return closedByUser;
     }
+
+    /**
+     * Version of the whole aggregate, used as its ETag. It changes when the inventory row is written and when
+     * any line is added, removed or written, without line writes having to touch the inventory row.
+     * Equals {@link #getVersion()} while the inventory has no lines.
+     */
+    @JsonIgnore
+    public long getAggregateVersion() {
+        long lines = 0;
+        for (ItemProperties line : items) {
+            // A sum, so the result does not depend on the order the lines were loaded in
+            lines += mix(line.getId() != null ? line.getId().getMostSignificantBits() ^ line.getId().getLeastSignificantBits() : 0)
+                    ^ (line.getVersion() != null ? line.getVersion() : 0);
+        }
+        return ((version != null ? version : 0) + mix(lines)) & Long.MAX_VALUE;
+    }
+
+    // Murmur3 64-bit finalizer; maps 0 to 0
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
 }
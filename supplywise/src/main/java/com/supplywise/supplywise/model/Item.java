@@ -3,7 +3,8 @@ package com.supplywise.supplywise.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Positive;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,15 +27,17 @@ public class Item {
     @Size(min = 3, max = 100, message = "Name must be between 3 and 100 characters")
     private String name;
 
+    // Stored as BIGINT so EAN-13 and GTIN-14 codes fit; the unique constraint doubles as the lookup index
     @Column(name = "barcode", unique = true)
-    @Pattern(regexp = "\\d{3,30}", message = "Bar code must be a numeric string with length between 3 and 30")
-    private int barCode;
+    @Positive(message = "Bar code must be a positive number")
+    @Digits(integer = 18, fraction = 0, message = "Bar code must be a numeric value with at most 18 digits")
+    private long barCode;
 
     @NotBlank(message = "Item must have a category")
     @Enumerated(EnumType.STRING)
     private Category category;
 
-    public Item(String name, int barCode, Category category) {
+    public Item(String name, long barCode, Category category) {
         this.name = name;
         this.barCode = barCode;
         this.category = category;
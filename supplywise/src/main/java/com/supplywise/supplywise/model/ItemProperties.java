@@ -1,16 +1,25 @@
 package com.supplywise.supplywise.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Min;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "item_properties")
+// Lines are looked up by their inventory both ways, and inventory diffs read them in item order, so the foreign key
+// leads a composite index; the expiry scanner reads date ranges and FEFO reads an item's batches in expiration order
+@Table(name = "item_properties", indexes = {
+        @Index(name = "idx_item_properties_inventory_item", columnList = "inventory, item_id"),
+        @Index(name = "idx_item_properties_expiration_date", columnList = "expiration_date"),
+        @Index(name = "idx_item_properties_item_expiration", columnList = "item_id, expiration_date")
+})
 @Data
 @NoArgsConstructor
 public class ItemProperties {
@@ -25,12 +34,25 @@ public class ItemProperties {
     @NotNull(message = "Item cannot be null")
     private Item item;
 
+    // Owning side of Inventory.items, so adding a line is a single INSERT carrying the foreign key
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inventory")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Inventory inventory;
+
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     @NotNull(message = "Expiration date cannot be null")
     @Column(name = "expiration_date", nullable = false)
     private LocalDate expirationDate;
 
+    // 0 is a valid count: the line was consumed down to nothing
     @NotNull(message = "Quantity cannot be null")
-    @Min(value = 1, message = "Quantity must be at least 1")
+    @Min(value = 0, message = "Quantity cannot be negative")
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
 
@@ -38,6 +60,11 @@ public class ItemProperties {
     @Column(name = "minimum_stock_quantity", nullable = false)
     private Integer minimumStockQuantity = 0;
 
+    // False while a line copied into a new inventory without its quantity waits to be counted; stock totals,
+    // effective minimums and consumption statistics skip such lines. Writing a quantity counts the line.
+    @Column(name = "counted", columnDefinition = "BOOLEAN NOT NULL DEFAULT TRUE")
+    private boolean counted = true;
+
     public ItemProperties(Item item, LocalDate expirationDate, Integer quantity) {
         this.item = item;
         this.expirationDate = expirationDate;
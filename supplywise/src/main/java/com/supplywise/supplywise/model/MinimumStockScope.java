@@ -0,0 +1,6 @@
+package com.supplywise.supplywise.model;
+
+public enum MinimumStockScope {
+    RESTAURANT,     // Applies to one restaurant and takes precedence
+    COMPANY         // Default for every restaurant of the company
+}
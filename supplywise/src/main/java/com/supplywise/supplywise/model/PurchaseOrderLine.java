@@ -0,0 +1,50 @@
+package com.supplywise.supplywise.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "purchase_order_lines", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_purchase_order_lines_order_item", columnNames = {"purchase_order_id", "item_id"})
+})
+@Data
+@NoArgsConstructor
+public class PurchaseOrderLine {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "id", updatable = false, nullable = false, columnDefinition = "UUID")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "purchase_order_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PurchaseOrder purchaseOrder;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    // What the generator last computed; kept up to date even after a user has changed the quantity
+    @Column(name = "suggested_quantity", nullable = false)
+    private int suggestedQuantity;
+
+    // Set once a user changes the quantity, so the generator stops overwriting or removing the line
+    @Column(name = "manual", nullable = false)
+    private boolean manual;
+
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+}
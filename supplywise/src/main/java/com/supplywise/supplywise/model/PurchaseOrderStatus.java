@@ -0,0 +1,6 @@
+package com.supplywise.supplywise.model;
+
+public enum PurchaseOrderStatus {
+    DRAFT,      // Still being filled in by the generator; at most one per restaurant
+    SUBMITTED
+}
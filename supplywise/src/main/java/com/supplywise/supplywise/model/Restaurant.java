@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "restaurant")
+@Table(name = "restaurant", indexes = @Index(name = "idx_restaurant_company", columnList = "company_id"))
 @Data
 @NoArgsConstructor
 public class Restaurant {
@@ -0,0 +1,153 @@
+package com.supplywise.supplywise.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies RFC 6902 JSON Patch documents to Jackson trees. The target is never modified; a patched copy is returned.
+ * Any failure, including a failed {@code test} operation, is reported as an {@link IllegalArgumentException}
+ * and leaves nothing applied.
+ */
+public final class JsonPatch {
+
+    public static final String MEDIA_TYPE = "application/json-patch+json";
+
+    private JsonPatch() {
+    }
+
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (patch == null || !patch.isArray()) {
+            throw new IllegalArgumentException("A JSON Patch must be an array of operations");
+        }
+
+        JsonNode document = target.deepCopy();
+        for (JsonNode operation : patch) {
+            String op = requiredText(operation, "op");
+            String path = requiredText(operation, "path");
+            switch (op) {
+                case "add" -> document = add(document, path, requiredValue(operation));
+                case "remove" -> document = remove(document, path);
+                case "replace" -> {
+                    JsonNode value = requiredValue(operation);
+                    document = path.isEmpty() ? value : add(remove(document, path), path, value);
+                }
+                case "move" -> {
+                    String from = requiredText(operation, "from");
+                    if (path.startsWith(from + "/")) {
+                        throw new IllegalArgumentException("Cannot move '" + from + "' into one of its children");
+                    }
+                    JsonNode value = get(document, from);
+                    document = add(remove(document, from), path, value);
+                }
+                case "copy" -> document = add(document, path, get(document, requiredText(operation, "from")).deepCopy());
+                case "test" -> {
+                    if (!get(document, path).equals(requiredValue(operation))) {
+                        throw new IllegalArgumentException("Test failed at '" + path + "'");
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unsupported JSON Patch operation: " + op);
+            }
+        }
+        return document;
+    }
+
+    /* Helper functions */
+
+    private static JsonNode add(JsonNode document, String path, JsonNode value) {
+        List<String> tokens = parse(path);
+        if (tokens.isEmpty()) {
+            return value.deepCopy();
+        }
+        JsonNode parent = navigate(document, tokens.subList(0, tokens.size() - 1), path);
+        String last = tokens.get(tokens.size() - 1);
+        if (parent instanceof ObjectNode object) {
+            object.set(last, value.deepCopy());
+        } else if (parent instanceof ArrayNode array) {
+            if ("-".equals(last)) {
+                array.add(value.deepCopy());
+            } else {
+                array.insert(index(last, array.size() + 1, path), value.deepCopy());
+            }
+        } else {
+            throw new IllegalArgumentException("Path does not exist: " + path);
+        }
+        return document;
+    }
+
+    private static JsonNode remove(JsonNode document, String path) {
+        List<String> tokens = parse(path);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Cannot remove the whole document");
+        }
+        JsonNode parent = navigate(document, tokens.subList(0, tokens.size() - 1), path);
+        String last = tokens.get(tokens.size() - 1);
+        if (parent instanceof ObjectNode object && object.has(last)) {
+            object.remove(last);
+        } else if (parent instanceof ArrayNode array) {
+            array.remove(index(last, array.size(), path));
+        } else {
+            throw new IllegalArgumentException("Path does not exist: " + path);
+        }
+        return document;
+    }
+
+    private static JsonNode get(JsonNode document, String path) {
+        return navigate(document, parse(path), path);
+    }
+
+    private static JsonNode navigate(JsonNode document, List<String> tokens, String path) {
+        JsonNode current = document;
+        for (String token : tokens) {
+            if (current.isObject() && current.has(token)) {
+                current = current.get(token);
+            } else if (current.isArray()) {
+                current = current.get(index(token, current.size(), path));
+            } else {
+                throw new IllegalArgumentException("Path does not exist: " + path);
+            }
+        }
+        return current;
+    }
+
+    // Array index as RFC 6901 allows it: digits without leading zeros, below the bound
+    private static int index(String token, int bound, String path) {
+        if (!token.matches("0|[1-9][0-9]{0,8}") || Integer.parseInt(token) >= bound) {
+            throw new IllegalArgumentException("Path does not exist: " + path);
+        }
+        return Integer.parseInt(token);
+    }
+
+    private static List<String> parse(String path) {
+        List<String> tokens = new ArrayList<>();
+        if (path.isEmpty()) {
+            return tokens;
+        }
+        if (path.charAt(0) != '/') {
+            throw new IllegalArgumentException("Invalid JSON Pointer: " + path);
+        }
+        for (String token : path.substring(1).split("/", -1)) {
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+
+    private static String requiredText(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new IllegalArgumentException("JSON Patch operation is missing '" + field + "'");
+        }
+        return value.asText();
+    }
+
+    private static JsonNode requiredValue(JsonNode operation) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw new IllegalArgumentException("JSON Patch operation is missing 'value'");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,188 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.ClosedInventoryInterval;
+import com.supplywise.supplywise.DAO.ConsumptionStats;
+import com.supplywise.supplywise.DAO.ForecastInput;
+import com.supplywise.supplywise.DAO.ItemForecast;
+import com.supplywise.supplywise.DAO.ItemVariance;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Per restaurant and item consumption averages and forecasts, kept in the item_consumption_stats table
+ * created by SchemaMigrations.
+ */
+@Repository
+public class ConsumptionStatsRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String FIND_INTERVAL_SQL =
+            "SELECT i.restaurant_id, i.closing_date, p.id AS previous_id, p.closing_date AS previous_closing_date FROM inventory i "
+                    + "LEFT JOIN LATERAL (SELECT id, closing_date FROM inventory p WHERE p.restaurant_id = i.restaurant_id "
+                    + "AND p.closing_date < i.closing_date ORDER BY p.closing_date DESC LIMIT 1) p ON true "
+                    + "WHERE i.id = ? AND i.closing_date IS NOT NULL";
+
+    // Unlike the diff, unchanged items are included: a count that did not move still says nothing was consumed
+    // Items the inventory holds but never counted say nothing about consumption, so they are left out
+    private static final String ITEM_TOTALS_SQL =
+            "WITH cur AS (SELECT item_id, SUM(quantity) AS quantity, bool_or(counted) AS counted FROM item_properties "
+                    + "WHERE inventory = ? GROUP BY item_id), "
+                    + "prev AS (SELECT item_id, SUM(quantity) AS quantity FROM item_properties WHERE inventory = ? GROUP BY item_id) "
+                    + "SELECT it.id AS item_id, it.name, COALESCE(p.quantity, 0) AS previous_quantity, COALESCE(c.quantity, 0) AS quantity "
+                    + "FROM cur c FULL JOIN prev p ON p.item_id = c.item_id JOIN items it ON it.id = COALESCE(c.item_id, p.item_id) "
+                    + "WHERE c.counted IS NOT FALSE";
+
+    private static final String FIND_STATS_SQL =
+            "SELECT restaurant_id, item_id, daily_rate, weekday_rates, samples, last_closing_date FROM item_consumption_stats "
+                    + "WHERE restaurant_id = ? AND item_id = ANY(?)";
+
+    private static final String UPSERT_STATS_SQL =
+            "INSERT INTO item_consumption_stats (restaurant_id, item_id, daily_rate, weekday_rates, samples, last_closing_date) "
+                    + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (restaurant_id, item_id) DO UPDATE SET daily_rate = EXCLUDED.daily_rate, "
+                    + "weekday_rates = EXCLUDED.weekday_rates, samples = EXCLUDED.samples, last_closing_date = EXCLUDED.last_closing_date";
+
+    private static final String FORECAST_INPUTS_SQL =
+            "SELECT s.restaurant_id, s.item_id, s.daily_rate, s.weekday_rates, s.samples, s.last_closing_date, "
+                    + "COALESCE(st.quantity, 0) AS quantity, COALESCE(st.minimum_stock_quantity, 0) AS minimum_stock_quantity "
+                    + "FROM item_consumption_stats s "
+                    + "LEFT JOIN restaurant_stock_status st ON st.restaurant_id = s.restaurant_id AND st.item_id = s.item_id";
+
+    private static final String SAVE_FORECAST_SQL =
+            "UPDATE item_consumption_stats SET stock_quantity = ?, minimum_stock_quantity = ?, stock_out_date = ?, "
+                    + "reorder_quantity = ?, forecast_at = ? WHERE restaurant_id = ? AND item_id = ?";
+
+    private static final String FIND_FORECASTS_SQL =
+            "SELECT s.restaurant_id, s.item_id, it.name, s.daily_rate, s.stock_quantity, s.minimum_stock_quantity, "
+                    + "s.stock_out_date, s.reorder_quantity, s.forecast_at FROM item_consumption_stats s JOIN items it ON it.id = s.item_id "
+                    + "WHERE s.restaurant_id = ? AND s.forecast_at IS NOT NULL ORDER BY s.stock_out_date NULLS LAST, it.name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConsumptionStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The closed inventory and the one the restaurant closed before it; empty if the inventory is not closed.
+     */
+    public Optional<ClosedInventoryInterval> findInterval(UUID inventoryId) {
+        List<ClosedInventoryInterval> intervals = jdbcTemplate.query(FIND_INTERVAL_SQL, (rs, rowNum) -> new ClosedInventoryInterval(
+                rs.getObject("restaurant_id", UUID.class), inventoryId, rs.getObject("closing_date", LocalDateTime.class),
+                rs.getObject("previous_id", UUID.class), rs.getObject("previous_closing_date", LocalDateTime.class)), inventoryId);
+        return intervals.stream().findFirst();
+    }
+
+    /**
+     * Total quantity of every item held by either inventory, zero where an inventory does not hold it.
+     */
+    public List<ItemVariance> findItemTotals(UUID inventoryId, UUID previousInventoryId) {
+        return jdbcTemplate.query(ITEM_TOTALS_SQL, (rs, rowNum) -> new ItemVariance(rs.getObject("item_id", UUID.class),
+                rs.getString("name"), rs.getLong("previous_quantity"), rs.getLong("quantity")), inventoryId, previousInventoryId);
+    }
+
+    public Map<UUID, ConsumptionStats> findStats(UUID restaurantId, Collection<UUID> itemIds) {
+        Map<UUID, ConsumptionStats> stats = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return stats;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_STATS_SQL);
+            ps.setObject(1, restaurantId);
+            ps.setArray(2, connection.createArrayOf("uuid", itemIds.toArray()));
+            return ps;
+        }, rs -> {
+            ConsumptionStats row = mapStats(rs);
+            stats.put(row.getItemId(), row);
+        });
+        return stats;
+    }
+
+    public void saveStats(List<ConsumptionStats> stats) {
+        jdbcTemplate.batchUpdate(UPSERT_STATS_SQL, stats, stats.size(), (ps, row) -> {
+            ps.setObject(1, row.getRestaurantId());
+            ps.setObject(2, row.getItemId());
+            ps.setDouble(3, row.getDailyRate());
+            ps.setArray(4, ps.getConnection().createArrayOf("float8", boxed(row.getWeekdayRates())));
+            ps.setInt(5, row.getSamples());
+            ps.setTimestamp(6, Timestamp.valueOf(row.getLastClosingDate()));
+        });
+    }
+
+    /**
+     * Streams the averages of every restaurant and item together with the current stock and minimum.
+     * Must run inside a transaction for the fetch size to apply.
+     */
+    @Transactional
+    public void forEachForecastInput(Consumer<ForecastInput> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FORECAST_INPUTS_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(new ForecastInput(mapStats(rs), rs.getLong("quantity"), rs.getInt("minimum_stock_quantity")));
+        });
+    }
+
+    public void saveForecasts(List<ItemForecast> forecasts) {
+        jdbcTemplate.batchUpdate(SAVE_FORECAST_SQL, forecasts, forecasts.size(), (ps, forecast) -> {
+            ps.setLong(1, forecast.getQuantity());
+            ps.setInt(2, forecast.getMinimumStockQuantity());
+            ps.setDate(3, forecast.getStockOutDate() != null ? Date.valueOf(forecast.getStockOutDate()) : null);
+            ps.setInt(4, forecast.getReorderQuantity());
+            ps.setTimestamp(5, Timestamp.valueOf(forecast.getForecastAt()));
+            ps.setObject(6, forecast.getRestaurantId());
+            ps.setObject(7, forecast.getItemId());
+        });
+    }
+
+    /**
+     * Latest forecasts of the restaurant, items running out soonest first.
+     */
+    public List<ItemForecast> findForecasts(UUID restaurantId) {
+        return jdbcTemplate.query(FIND_FORECASTS_SQL, (rs, rowNum) -> new ItemForecast(
+                rs.getObject("restaurant_id", UUID.class), rs.getObject("item_id", UUID.class), rs.getString("name"),
+                rs.getDouble("daily_rate"), rs.getLong("stock_quantity"), rs.getInt("minimum_stock_quantity"),
+                rs.getObject("stock_out_date", LocalDate.class), rs.getInt("reorder_quantity"),
+                rs.getObject("forecast_at", LocalDateTime.class)), restaurantId);
+    }
+
+    /* Helper functions */
+
+    private static ConsumptionStats mapStats(ResultSet rs) throws SQLException {
+        Array weekdayRates = rs.getArray("weekday_rates");
+        Double[] rates = (Double[]) weekdayRates.getArray();
+        double[] unboxed = new double[rates.length];
+        for (int i = 0; i < rates.length; i++) {
+            unboxed[i] = rates[i];
+        }
+        return new ConsumptionStats(rs.getObject("restaurant_id", UUID.class), rs.getObject("item_id", UUID.class),
+                rs.getDouble("daily_rate"), unboxed, rs.getInt("samples"), rs.getObject("last_closing_date", LocalDateTime.class));
+    }
+
+    private static Double[] boxed(double[] values) {
+        Double[] boxed = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+}
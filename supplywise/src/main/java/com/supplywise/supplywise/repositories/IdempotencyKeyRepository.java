@@ -0,0 +1,111 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.IdempotentResponse;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Idempotency keys of write requests and the responses they got, kept in the idempotency_keys table
+ * created by SchemaMigrations. Statements run on their own, outside the request's transaction.
+ */
+@Repository
+public class IdempotencyKeyRepository {
+
+    /**
+     * A key as stored: the request it was first used for and, once that request finished, its response.
+     */
+    public record StoredKey(String fingerprint, IdempotentResponse response) {
+    }
+
+    // A key left pending by a request that never finished can be taken over once it is old enough
+    private static final String CLAIM_SQL =
+            "INSERT INTO idempotency_keys (key_hash, fingerprint, created_at) VALUES (?, ?, now()) "
+                    + "ON CONFLICT (key_hash) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, created_at = EXCLUDED.created_at "
+                    + "WHERE idempotency_keys.status IS NULL AND idempotency_keys.created_at < now() - make_interval(secs => ?)";
+
+    private static final String FIND_SQL =
+            "SELECT fingerprint, status, content_type, body, headers FROM idempotency_keys WHERE key_hash = ?";
+
+    private static final String COMPLETE_SQL =
+            "UPDATE idempotency_keys SET status = ?, content_type = ?, body = ?, headers = ?, completed_at = now() WHERE key_hash = ?";
+
+    private static final String RELEASE_SQL =
+            "DELETE FROM idempotency_keys WHERE key_hash = ? AND status IS NULL";
+
+    private static final String PRUNE_SQL =
+            "DELETE FROM idempotency_keys WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the key as pending; false if it is already known and not abandoned.
+     */
+    public boolean claim(String keyHash, String fingerprint, long abandonAfterSeconds) {
+        return jdbcTemplate.update(CLAIM_SQL, keyHash, fingerprint, abandonAfterSeconds) > 0;
+    }
+
+    public Optional<StoredKey> find(String keyHash) {
+        List<StoredKey> keys = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> {
+            Integer status = rs.getObject("status", Integer.class);
+            IdempotentResponse response = status == null ? null
+                    : new IdempotentResponse(status, rs.getString("content_type"), rs.getBytes("body"),
+                            parseHeaders(rs.getString("headers")));
+            return new StoredKey(rs.getString("fingerprint"), response);
+        }, keyHash);
+        return keys.stream().findFirst();
+    }
+
+    public void complete(String keyHash, IdempotentResponse response) {
+        jdbcTemplate.update(COMPLETE_SQL, response.getStatus(), response.getContentType(), response.getBody(),
+                formatHeaders(response.getHeaders()), keyHash);
+    }
+
+    /**
+     * Forgets a pending key, so the request can be retried.
+     */
+    public void release(String keyHash) {
+        jdbcTemplate.update(RELEASE_SQL, keyHash);
+    }
+
+    public int pruneBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update(PRUNE_SQL, Timestamp.valueOf(cutoff));
+    }
+
+    /* Helper functions */
+
+    // Headers are kept one per line as "Name: value"; header values cannot contain line breaks
+    static String formatHeaders(Map<String, String> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        headers.forEach((name, value) -> text.append(name).append(": ").append(value).append('\n'));
+        return text.toString();
+    }
+
+    static Map<String, String> parseHeaders(String text) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (text == null) {
+            return headers;
+        }
+        for (String line : text.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon), line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,119 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.ItemVariance;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Compares the item totals of two inventories by walking both in item ID order side by side,
+ * so only the current row of each inventory is held in memory. Used by the inventory diff endpoint
+ * and the variance section of close-out reports, so both report the same changes.
+ */
+@Repository
+public class InventoryDiffRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    // Reads idx_item_properties_inventory_item in order, so the totals come out sorted without a sort step
+    private static final String ITEM_TOTALS_SQL =
+            "SELECT ip.item_id, it.name, SUM(ip.quantity) AS quantity FROM item_properties ip JOIN items it ON it.id = ip.item_id "
+                    + "WHERE ip.inventory = ? ";
+    private static final String ITEM_TOTALS_ORDER = "GROUP BY ip.item_id, it.name ORDER BY ip.item_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryDiffRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Up to {@code limit} items, in item ID order after {@code after}, whose total quantity differs between
+     * the two inventories. Items held by only one of them count as zero in the other.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemVariance> findChanges(UUID fromInventoryId, UUID toInventoryId, UUID after, int limit) {
+        List<ItemVariance> changes = new ArrayList<>();
+        walkChanges(fromInventoryId, toInventoryId, after, limit, changes::add);
+        return changes;
+    }
+
+    /**
+     * Passes every item whose total quantity differs between the two inventories to the consumer, in item ID order.
+     */
+    @Transactional(readOnly = true)
+    public void forEachChange(UUID fromInventoryId, UUID toInventoryId, Consumer<ItemVariance> consumer) {
+        walkChanges(fromInventoryId, toInventoryId, null, Integer.MAX_VALUE, consumer);
+    }
+
+    /* Helper functions */
+
+    private void walkChanges(UUID fromInventoryId, UUID toInventoryId, UUID after, int limit, Consumer<ItemVariance> consumer) {
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement fromStatement = itemTotals(connection, fromInventoryId, after);
+                 PreparedStatement toStatement = itemTotals(connection, toInventoryId, after);
+                 ResultSet from = fromStatement.executeQuery();
+                 ResultSet to = toStatement.executeQuery()) {
+                mergeChanges(from, to, limit, consumer);
+                return null;
+            }
+        });
+    }
+
+    // An item held at quantity 0 by only one inventory has not changed, so it is skipped like any equal pair
+    private static void mergeChanges(ResultSet from, ResultSet to, int limit, Consumer<ItemVariance> consumer) throws SQLException {
+        int emitted = 0;
+        boolean hasFrom = from.next();
+        boolean hasTo = to.next();
+        while ((hasFrom || hasTo) && emitted < limit) {
+            int order = !hasFrom ? 1 : !hasTo ? -1 : compareUuids(itemId(from), itemId(to));
+            ItemVariance change;
+            if (order < 0) {
+                change = new ItemVariance(itemId(from), from.getString("name"), from.getLong("quantity"), 0);
+                hasFrom = from.next();
+            } else if (order > 0) {
+                change = new ItemVariance(itemId(to), to.getString("name"), 0, to.getLong("quantity"));
+                hasTo = to.next();
+            } else {
+                change = new ItemVariance(itemId(to), to.getString("name"), from.getLong("quantity"), to.getLong("quantity"));
+                hasFrom = from.next();
+                hasTo = to.next();
+            }
+            if (change.getDelta() != 0) {
+                consumer.accept(change);
+                emitted++;
+            }
+        }
+    }
+
+    private static PreparedStatement itemTotals(Connection connection, UUID inventoryId, UUID after) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(
+                ITEM_TOTALS_SQL + (after != null ? "AND ip.item_id > ? " : "") + ITEM_TOTALS_ORDER);
+        ps.setFetchSize(FETCH_SIZE);
+        ps.setObject(1, inventoryId);
+        if (after != null) {
+            ps.setObject(2, after);
+        }
+        return ps;
+    }
+
+    private static UUID itemId(ResultSet rs) throws SQLException {
+        return rs.getObject("item_id", UUID.class);
+    }
+
+    // PostgreSQL orders UUIDs byte by byte, which is an unsigned comparison; UUID.compareTo compares signed longs
+    static int compareUuids(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,157 @@
+package com.supplywise.supplywise.repositories;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplywise.supplywise.DAO.InventoryReport;
+import com.supplywise.supplywise.DAO.InventoryReportLine;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.Category;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Stores close-out reports in the inventory_reports table created by SchemaMigrations and streams
+ * the rows they are computed from.
+ */
+@Repository
+public class InventoryReportRepository {
+
+    // Rows are pulled from the cursor in pages of this size, so a report never holds a whole inventory in memory
+    private static final int FETCH_SIZE = 500;
+
+    private static final String MARK_PENDING_SQL =
+            "INSERT INTO inventory_reports (inventory_id, status, requested_at) VALUES (?, 'PENDING', now()) "
+                    + "ON CONFLICT (inventory_id) DO UPDATE SET status = 'PENDING', requested_at = now(), generated_at = NULL, data = NULL";
+
+    private static final String SAVE_SQL =
+            "UPDATE inventory_reports SET status = ?, generated_at = now(), data = ?::jsonb WHERE inventory_id = ?";
+
+    private static final String FIND_SQL =
+            "SELECT inventory_id, status, requested_at, generated_at, data::text AS data FROM inventory_reports WHERE inventory_id = ?";
+
+    private static final String FIND_CLOSING_DATE_SQL =
+            "SELECT closing_date FROM inventory WHERE id = ? AND closing_date IS NOT NULL";
+
+    // Served by idx_inventory_restaurant_closing
+    private static final String FIND_PREVIOUS_SQL =
+            "SELECT p.id FROM inventory i JOIN inventory p ON p.restaurant_id = i.restaurant_id AND p.closing_date < i.closing_date "
+                    + "WHERE i.id = ? ORDER BY p.closing_date DESC LIMIT 1";
+
+    private static final String LINES_SQL =
+            "SELECT ip.item_id, it.name, it.category, ip.quantity, ip.expiration_date "
+                    + "FROM item_properties ip JOIN items it ON it.id = ip.item_id WHERE ip.inventory = ?";
+
+    // Item totals of the inventory against the same effective minimum as restaurant_stock_status: the restaurant
+    // rule, else the company rule, else the highest minimum among the item's counted lines. Ruled items the
+    // inventory does not hold count as 0.
+    private static final String BELOW_MINIMUM_SQL =
+            "WITH scope AS (SELECT i.restaurant_id, r.company_id FROM inventory i JOIN restaurant r ON r.id = i.restaurant_id WHERE i.id = ?), "
+                    + "totals AS (SELECT item_id, SUM(quantity) AS quantity, MAX(minimum_stock_quantity) AS minimum_stock_quantity "
+                    + "FROM item_properties WHERE inventory = ? AND counted GROUP BY item_id), "
+                    + "rules AS (SELECT m.item_id, "
+                    + "MAX(m.minimum_stock_quantity) FILTER (WHERE m.scope = 'RESTAURANT') AS restaurant_minimum, "
+                    + "MAX(m.minimum_stock_quantity) FILTER (WHERE m.scope = 'COMPANY') AS company_minimum "
+                    + "FROM minimum_stock_rules m JOIN scope s "
+                    + "ON (m.scope = 'RESTAURANT' AND m.scope_id = s.restaurant_id) OR (m.scope = 'COMPANY' AND m.scope_id = s.company_id) "
+                    + "GROUP BY m.item_id), "
+                    + "stock AS (SELECT COALESCE(t.item_id, ru.item_id) AS item_id, COALESCE(t.quantity, 0) AS quantity, "
+                    + "COALESCE(ru.restaurant_minimum, ru.company_minimum, t.minimum_stock_quantity, 0) AS minimum_stock_quantity "
+                    + "FROM totals t FULL JOIN rules ru ON ru.item_id = t.item_id) "
+                    + "SELECT s.item_id, it.name, s.quantity, s.minimum_stock_quantity FROM stock s JOIN items it ON it.id = s.item_id "
+                    + "WHERE s.quantity < s.minimum_stock_quantity";
+
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public InventoryReportRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void markPending(UUID inventoryId) {
+        jdbcTemplate.update(MARK_PENDING_SQL, inventoryId);
+    }
+
+    public void save(UUID inventoryId, InventoryReport.Status status, String data) {
+        jdbcTemplate.update(SAVE_SQL, status.name(), data, inventoryId);
+    }
+
+    public Optional<InventoryReport> findByInventoryId(UUID inventoryId) {
+        List<InventoryReport> reports = jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> {
+            Timestamp generatedAt = rs.getTimestamp("generated_at");
+            String data = rs.getString("data");
+            try {
+                return new InventoryReport(rs.getObject("inventory_id", UUID.class),
+                        InventoryReport.Status.valueOf(rs.getString("status")),
+                        rs.getTimestamp("requested_at").toLocalDateTime(),
+                        generatedAt != null ? generatedAt.toLocalDateTime() : null,
+                        data != null ? objectMapper.readTree(data) : null);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Stored report is not valid JSON", e);
+            }
+        }, inventoryId);
+        return reports.stream().findFirst();
+    }
+
+    /**
+     * Closing date of the inventory, empty if it does not exist or is not closed.
+     */
+    public Optional<LocalDateTime> findClosingDate(UUID inventoryId) {
+        return jdbcTemplate.queryForList(FIND_CLOSING_DATE_SQL, LocalDateTime.class, inventoryId).stream().findFirst();
+    }
+
+    /**
+     * The restaurant's inventory closed most recently before this one.
+     */
+    public Optional<UUID> findPreviousClosedInventoryId(UUID inventoryId) {
+        return jdbcTemplate.queryForList(FIND_PREVIOUS_SQL, UUID.class, inventoryId).stream().findFirst();
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachLine(UUID inventoryId, Consumer<InventoryReportLine> consumer) {
+        jdbcTemplate.query(streaming(LINES_SQL, inventoryId), rs -> {
+            String category = rs.getString("category");
+            consumer.accept(new InventoryReportLine(rs.getObject("item_id", UUID.class), rs.getString("name"),
+                    category != null ? Category.valueOf(category) : null, rs.getInt("quantity"),
+                    rs.getObject("expiration_date", LocalDate.class)));
+        });
+    }
+
+    /**
+     * Items whose total quantity in the inventory is below their effective minimum.
+     */
+    @Transactional(readOnly = true)
+    public void forEachBelowMinimum(UUID inventoryId, Consumer<StockShortfall> consumer) {
+        jdbcTemplate.query(streaming(BELOW_MINIMUM_SQL, inventoryId, inventoryId), rs -> {
+            consumer.accept(new StockShortfall(rs.getObject("item_id", UUID.class), rs.getString("name"),
+                    rs.getLong("quantity"), rs.getInt("minimum_stock_quantity")));
+        });
+    }
+
+    /* Helper functions */
+
+    // The PostgreSQL driver only honours the fetch size inside a transaction, hence the read-only transactions above
+    private static PreparedStatementCreator streaming(String sql, Object... args) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        };
+    }
+}
@@ -2,7 +2,9 @@ package com.supplywise.supplywise.repositories;
 
 import com.supplywise.supplywise.model.Inventory;
 import com.supplywise.supplywise.model.Restaurant;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +18,13 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
 
     List<Inventory> findByRestaurant(Restaurant restaurant);
 
-    @Query("SELECT i FROM Inventory i JOIN i.items ip WHERE ip.id = :itemPropertiesId")
-    Optional<Inventory> findInventoryByItemPropertiesId(@Param("itemPropertiesId") UUID itemPropertiesId);
+    // Served by the (restaurant_id, closing_date) index
+    Optional<Inventory> findFirstByRestaurantAndClosingDateIsNotNullOrderByClosingDateDesc(Restaurant restaurant);
+
+    // Bumps the version on commit even if only the lines changed, so two whole-inventory writes that both
+    // passed their If-Match check cannot both commit. Single-line writes do not touch the inventory row;
+    // the ETag still sees them through Inventory.getAggregateVersion()
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT i FROM Inventory i WHERE i.id = :id")
+    Optional<Inventory> findForUpdateById(@Param("id") UUID id);
 }
@@ -0,0 +1,230 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.InventoryLineChange;
+import com.supplywise.supplywise.DAO.SyncResult;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Line writes scoped to one inventory, the sync_operations idempotency records and the item_properties_changes
+ * feed used by offline clients; all created by SchemaMigrations.
+ */
+@Repository
+public class InventorySyncRepository {
+
+    /**
+     * Current version of a line and when the feed last saw it change; null if it has not changed since the feed exists.
+     */
+    public record LineState(long version, OffsetDateTime lastChangedAt) {
+    }
+
+    // Waits for a concurrent sync holding the same keys to finish, so each operation is applied once
+    private static final String CLAIM_OPERATIONS_SQL =
+            "INSERT INTO sync_operations (operation_id, inventory_id, status) SELECT id, ?, 'PENDING' FROM unnest(?::uuid[]) AS o(id) "
+                    + "ON CONFLICT (operation_id) DO NOTHING RETURNING operation_id";
+
+    private static final String FIND_OPERATIONS_SQL =
+            "SELECT operation_id, status, message, version FROM sync_operations WHERE operation_id = ANY(?::uuid[])";
+
+    private static final String SAVE_RESULT_SQL =
+            "UPDATE sync_operations SET status = ?, message = ?, version = ? WHERE operation_id = ?";
+
+    private static final String INSERT_LINE_SQL =
+            "INSERT INTO item_properties (id, item_id, expiration_date, quantity, minimum_stock_quantity, inventory) "
+                    + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING RETURNING version";
+
+    private static final String ADJUST_QUANTITY_SQL =
+            "UPDATE item_properties SET quantity = quantity + ?, counted = TRUE, version = version + 1 "
+                    + "WHERE id = ? AND inventory = ? AND quantity::bigint + ? BETWEEN 0 AND 2147483647 RETURNING version";
+
+    private static final String SET_QUANTITY_SQL =
+            "UPDATE item_properties SET quantity = ?, counted = TRUE, version = version + 1 WHERE id = ? AND inventory = ? ";
+
+    private static final String DELETE_LINE_SQL =
+            "DELETE FROM item_properties WHERE id = ? AND inventory = ? ";
+
+    private static final String LINE_STATE_SQL =
+            "SELECT ip.version, (SELECT MAX(c.changed_at) FROM item_properties_changes c WHERE c.line_id = ip.id) AS last_changed_at "
+                    + "FROM item_properties ip WHERE ip.id = ? AND ip.inventory = ?";
+
+    // Transactions from the snapshot's xmin on may still commit, so a client passing this back sees them next time
+    private static final String CURRENT_TOKEN_SQL =
+            "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    private static final String OLDEST_TOKEN_SQL =
+            "SELECT txid FROM item_properties_changes ORDER BY seq LIMIT 1";
+
+    private static final String LINE_COLUMNS =
+            "ip.item_id, it.barcode, ip.expiration_date, ip.quantity, ip.minimum_stock_quantity, ip.version ";
+
+    private static final String FIND_LINES_SQL =
+            "SELECT ip.id AS line_id, " + LINE_COLUMNS
+                    + "FROM item_properties ip JOIN items it ON it.id = ip.item_id WHERE ip.inventory = ?";
+
+    private static final String FIND_CHANGES_SQL =
+            "WITH changed AS (SELECT DISTINCT line_id FROM item_properties_changes WHERE inventory_id = ? AND txid >= ?) "
+                    + "SELECT c.line_id, " + LINE_COLUMNS
+                    + "FROM changed c LEFT JOIN item_properties ip ON ip.id = c.line_id AND ip.inventory = ? "
+                    + "LEFT JOIN items it ON it.id = ip.item_id";
+
+    // Always keeps the newest row, so the oldest retained token still tells whether a client fell behind the pruning
+    private static final String PRUNE_CHANGES_SQL =
+            "DELETE FROM item_properties_changes WHERE changed_at < ? "
+                    + "AND seq < (SELECT MAX(seq) FROM item_properties_changes)";
+
+    private static final String PRUNE_OPERATIONS_SQL =
+            "DELETE FROM sync_operations WHERE received_at < ?";
+
+    private static final RowMapper<InventoryLineChange> LINE_CHANGE_MAPPER = (rs, rowNum) -> {
+        UUID lineId = rs.getObject("line_id", UUID.class);
+        UUID itemId = rs.getObject("item_id", UUID.class);
+        if (itemId == null) {
+            return new InventoryLineChange(lineId, true, null, null, null, null, null, null);
+        }
+        return new InventoryLineChange(lineId, false, itemId, rs.getLong("barcode"), rs.getObject("expiration_date", LocalDate.class),
+                rs.getInt("quantity"), rs.getInt("minimum_stock_quantity"), rs.getLong("version"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventorySyncRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records the operations as received and returns those that were not received before.
+     */
+    public Set<UUID> claimOperations(UUID inventoryId, Collection<UUID> operationIds) {
+        Set<UUID> claimed = new HashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(CLAIM_OPERATIONS_SQL);
+            ps.setObject(1, inventoryId);
+            ps.setArray(2, connection.createArrayOf("uuid", operationIds.toArray()));
+            return ps;
+        }, rs -> {
+            claimed.add(rs.getObject("operation_id", UUID.class));
+        });
+        return claimed;
+    }
+
+    public Map<UUID, SyncResult> findResults(Collection<UUID> operationIds) {
+        Map<UUID, SyncResult> results = new HashMap<>();
+        if (operationIds.isEmpty()) {
+            return results;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_OPERATIONS_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", operationIds.toArray()));
+            return ps;
+        }, rs -> {
+            UUID operationId = rs.getObject("operation_id", UUID.class);
+            results.put(operationId, new SyncResult(operationId, SyncResult.Status.valueOf(rs.getString("status")),
+                    rs.getString("message"), rs.getObject("version", Long.class), true));
+        });
+        return results;
+    }
+
+    public void saveResults(List<SyncResult> results) {
+        jdbcTemplate.batchUpdate(SAVE_RESULT_SQL, results, results.size(), (ps, result) -> {
+            ps.setString(1, result.getStatus().name());
+            ps.setString(2, result.getMessage());
+            ps.setObject(3, result.getVersion());
+            ps.setObject(4, result.getOperationId());
+        });
+    }
+
+    /**
+     * Inserts the line with the client's ID; empty if a line with that ID already exists.
+     */
+    public Optional<Long> insertLine(UUID inventoryId, UUID lineId, UUID itemId, LocalDate expirationDate,
+                                     int quantity, int minimumStockQuantity) {
+        List<Long> versions = jdbcTemplate.queryForList(INSERT_LINE_SQL, Long.class, lineId, itemId, Date.valueOf(expirationDate),
+                quantity, minimumStockQuantity, inventoryId);
+        return versions.stream().findFirst();
+    }
+
+    /**
+     * Adds the delta to the line's quantity; empty if the line is not in the inventory or its quantity would go
+     * below zero or above the int maximum.
+     */
+    public Optional<Long> adjustQuantity(UUID inventoryId, UUID lineId, int delta) {
+        List<Long> versions = jdbcTemplate.queryForList(ADJUST_QUANTITY_SQL, Long.class, delta, lineId, inventoryId, delta);
+        return versions.stream().findFirst();
+    }
+
+    /**
+     * Sets the line's quantity if it is still at the expected version, or unconditionally without one.
+     * Empty if the line is not in the inventory or has moved on.
+     */
+    public Optional<Long> setQuantity(UUID inventoryId, UUID lineId, int quantity, Long expectedVersion) {
+        List<Long> versions = expectedVersion == null
+                ? jdbcTemplate.queryForList(SET_QUANTITY_SQL + "RETURNING version", Long.class, quantity, lineId, inventoryId)
+                : jdbcTemplate.queryForList(SET_QUANTITY_SQL + "AND version = ? RETURNING version", Long.class,
+                quantity, lineId, inventoryId, expectedVersion);
+        return versions.stream().findFirst();
+    }
+
+    /**
+     * Deletes the line if it is still at the expected version, or unconditionally without one.
+     */
+    public boolean deleteLine(UUID inventoryId, UUID lineId, Long expectedVersion) {
+        int deleted = expectedVersion == null
+                ? jdbcTemplate.update(DELETE_LINE_SQL, lineId, inventoryId)
+                : jdbcTemplate.update(DELETE_LINE_SQL + "AND version = ?", lineId, inventoryId, expectedVersion);
+        return deleted > 0;
+    }
+
+    public Optional<LineState> findLineState(UUID inventoryId, UUID lineId) {
+        List<LineState> states = jdbcTemplate.query(LINE_STATE_SQL, (rs, rowNum) -> new LineState(rs.getLong("version"),
+                rs.getObject("last_changed_at", OffsetDateTime.class)), lineId, inventoryId);
+        return states.stream().findFirst();
+    }
+
+    /**
+     * Token covering every change visible now. Must be taken before reading the changes it covers.
+     */
+    public long currentToken() {
+        return jdbcTemplate.queryForObject(CURRENT_TOKEN_SQL, Long.class);
+    }
+
+    /**
+     * Token of the oldest change still in the feed; empty while the feed is empty.
+     */
+    public Optional<Long> oldestToken() {
+        return jdbcTemplate.queryForList(OLDEST_TOKEN_SQL, Long.class).stream().findFirst();
+    }
+
+    public List<InventoryLineChange> findLines(UUID inventoryId) {
+        return jdbcTemplate.query(FIND_LINES_SQL, LINE_CHANGE_MAPPER, inventoryId);
+    }
+
+    /**
+     * Current state of every line of the inventory changed by a transaction at or after the token, deleted lines included.
+     */
+    public List<InventoryLineChange> findChangesSince(UUID inventoryId, long token) {
+        return jdbcTemplate.query(FIND_CHANGES_SQL, LINE_CHANGE_MAPPER, inventoryId, token, inventoryId);
+    }
+
+    /**
+     * Drops feed entries and idempotency records older than the cutoff; returns the number of feed entries dropped.
+     */
+    public int pruneBefore(OffsetDateTime cutoff) {
+        jdbcTemplate.update(PRUNE_OPERATIONS_SQL, cutoff);
+        return jdbcTemplate.update(PRUNE_CHANGES_SQL, cutoff);
+    }
+}
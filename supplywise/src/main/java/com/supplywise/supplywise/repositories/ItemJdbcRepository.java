@@ -0,0 +1,46 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.model.Item;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Set-oriented item writes that bypass the persistence context, used for catalog imports.
+ */
+@Repository
+public class ItemJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO items (id, name, barcode, category) VALUES (?, ?, ?, ?) ON CONFLICT (barcode) ";
+    private static final String SKIP_EXISTING = "DO NOTHING";
+    private static final String UPDATE_EXISTING = "DO UPDATE SET name = EXCLUDED.name, category = EXCLUDED.category";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the items in one JDBC batch and one transaction. Returns the affected row count per item,
+     * in order: 1 if the row was written, 0 if its barcode already existed and {@code updateExisting} is off.
+     */
+    @Transactional
+    public int[] upsertItems(List<Item> items, boolean updateExisting) {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        String sql = INSERT_SQL + (updateExisting ? UPDATE_EXISTING : SKIP_EXISTING);
+        return jdbcTemplate.batchUpdate(sql, items, items.size(), (ps, item) -> {
+            ps.setObject(1, item.getId() != null ? item.getId() : UUID.randomUUID());
+            ps.setString(2, item.getName());
+            ps.setLong(3, item.getBarCode());
+            ps.setString(4, item.getCategory().name());
+        })[0];
+    }
+}
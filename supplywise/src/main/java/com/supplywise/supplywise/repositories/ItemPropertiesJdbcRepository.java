@@ -0,0 +1,154 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.FefoBatch;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.model.ItemProperties;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Set-oriented item properties writes that bypass the persistence context, used when counting stock in bulk.
+ */
+@Repository
+public class ItemPropertiesJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO item_properties (id, item_id, expiration_date, quantity, minimum_stock_quantity, inventory) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // The range check is done in bigint so that no delta can overflow the integer column
+    private static final String ADD_TO_QUANTITY_SQL =
+            "UPDATE item_properties SET quantity = quantity + ?, counted = TRUE, version = version + 1 "
+                    + "WHERE id = ? AND quantity::bigint + ? BETWEEN 0 AND 2147483647 RETURNING quantity, minimum_stock_quantity";
+
+    // Locks the rows in ID order so concurrent flushes cannot deadlock, and clamps at zero because
+    // recorded sales can outrun the counted stock
+    private static final String SUBTRACT_QUANTITIES_SQL =
+            "WITH consumed AS (SELECT * FROM unnest(?::uuid[], ?::int[]) AS c(id, amount)), "
+                    + "previous AS (SELECT ip.id, ip.quantity FROM item_properties ip JOIN consumed c ON c.id = ip.id "
+                    + "ORDER BY ip.id FOR UPDATE OF ip) "
+                    + "UPDATE item_properties ip SET quantity = GREATEST(ip.quantity - c.amount, 0), version = ip.version + 1 "
+                    + "FROM consumed c, previous p WHERE ip.id = c.id AND p.id = ip.id "
+                    + "RETURNING ip.id, p.quantity AS previous_quantity, ip.quantity, "
+                    + "COALESCE(ip.minimum_stock_quantity, 0) AS minimum_stock_quantity";
+
+    // Carrying over copies every stocked batch as counted; otherwise each item gets one uncounted line at 0 that
+    // keeps its latest expiration date and its minimum
+    private static final String COPY_BATCHES_SQL =
+            "INSERT INTO item_properties (id, item_id, expiration_date, quantity, minimum_stock_quantity, inventory) "
+                    + "SELECT gen_random_uuid(), item_id, expiration_date, quantity, minimum_stock_quantity, ? "
+                    + "FROM item_properties WHERE inventory = ? AND quantity > 0";
+
+    private static final String COPY_ITEMS_SQL =
+            "INSERT INTO item_properties (id, item_id, expiration_date, quantity, minimum_stock_quantity, counted, inventory) "
+                    + "SELECT gen_random_uuid(), item_id, MAX(expiration_date), 0, MAX(minimum_stock_quantity), FALSE, ? "
+                    + "FROM item_properties WHERE inventory = ? GROUP BY item_id";
+
+    private static final String OPEN_BATCHES_SQL =
+            "SELECT ip.id, ip.inventory, ip.expiration_date, ip.quantity FROM item_properties ip "
+                    + "JOIN inventory i ON i.id = ip.inventory "
+                    + "WHERE i.restaurant_id = ? AND i.closing_date IS NULL AND ip.item_id = ? AND ip.quantity > 0 ";
+
+    private static final RowMapper<FefoBatch> FEFO_BATCH_MAPPER = (rs, rowNum) -> new FefoBatch(
+            rs.getObject("id", UUID.class), rs.getObject("inventory", UUID.class),
+            rs.getObject("expiration_date", LocalDate.class), rs.getInt("quantity"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemPropertiesJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the rows into the inventory in one JDBC batch. Rows without an ID get a fresh one,
+     * which is written back to them so callers can report it.
+     */
+    @Transactional
+    public void insertIntoInventory(UUID inventoryId, List<ItemProperties> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (ItemProperties row : rows) {
+            if (row.getId() == null) {
+                row.setId(UUID.randomUUID());
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.getId());
+            ps.setObject(2, row.getItem().getId());
+            ps.setDate(3, Date.valueOf(row.getExpirationDate()));
+            ps.setInt(4, row.getQuantity());
+            ps.setInt(5, row.getMinimumStockQuantity() != null ? row.getMinimumStockQuantity() : 0);
+            ps.setObject(6, inventoryId);
+        });
+    }
+
+    /**
+     * Copies the lines of one inventory into another in a single statement and returns the number of lines created.
+     */
+    public int copyLines(UUID sourceInventoryId, UUID targetInventoryId, boolean carryOverQuantities) {
+        return jdbcTemplate.update(carryOverQuantities ? COPY_BATCHES_SQL : COPY_ITEMS_SQL, targetInventoryId, sourceInventoryId);
+    }
+
+    /**
+     * Adds the delta to the quantity in a single statement and returns the resulting stock level.
+     * Empty if the row does not exist or the quantity would go below zero or above the int maximum.
+     */
+    public Optional<StockLevel> addToQuantity(UUID id, int delta) {
+        List<StockLevel> rows = jdbcTemplate.query(ADD_TO_QUANTITY_SQL,
+                (rs, rowNum) -> new StockLevel(id, rs.getInt("quantity") - delta, rs.getInt("quantity"), rs.getInt("minimum_stock_quantity")),
+                delta, id, delta);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Stocked batches of the item in the restaurant's open inventories, earliest expiration first.
+     */
+    public List<FefoBatch> findFefoBatches(UUID restaurantId, UUID itemId) {
+        return jdbcTemplate.query(OPEN_BATCHES_SQL + "ORDER BY ip.expiration_date, ip.id", FEFO_BATCH_MAPPER, restaurantId, itemId);
+    }
+
+    /**
+     * Same batches as {@link #findFefoBatches}, locked until the end of the transaction. Rows are locked in ID order,
+     * like {@link #subtractQuantities}, so the two cannot deadlock; callers sort them by expiration themselves.
+     */
+    public List<FefoBatch> lockFefoBatches(UUID restaurantId, UUID itemId) {
+        return jdbcTemplate.query(OPEN_BATCHES_SQL + "ORDER BY ip.id FOR UPDATE OF ip", FEFO_BATCH_MAPPER, restaurantId, itemId);
+    }
+
+    /**
+     * Subtracts the consumed amounts from their rows in a single statement, never going below zero,
+     * and returns the resulting stock levels. Unknown IDs are skipped.
+     */
+    public List<StockLevel> subtractQuantities(Map<UUID, Integer> consumed) {
+        if (consumed.isEmpty()) {
+            return List.of();
+        }
+        UUID[] ids = new UUID[consumed.size()];
+        Integer[] amounts = new Integer[consumed.size()];
+        int i = 0;
+        for (Map.Entry<UUID, Integer> entry : consumed.entrySet()) {
+            ids[i] = entry.getKey();
+            amounts[i] = entry.getValue();
+            i++;
+        }
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SUBTRACT_QUANTITIES_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", ids));
+            ps.setArray(2, connection.createArrayOf("integer", amounts));
+            return ps;
+        }, (rs, rowNum) -> new StockLevel(rs.getObject("id", UUID.class), rs.getInt("previous_quantity"),
+                rs.getInt("quantity"), rs.getInt("minimum_stock_quantity")));
+    }
+}
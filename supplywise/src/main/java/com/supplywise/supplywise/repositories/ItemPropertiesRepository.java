@@ -1,11 +1,45 @@
 package com.supplywise.supplywise.repositories;
 
+import com.supplywise.supplywise.DAO.ExpiringStock;
+import com.supplywise.supplywise.DAO.InventoryOwner;
 import com.supplywise.supplywise.model.ItemProperties;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemPropertiesRepository extends JpaRepository<ItemProperties, UUID> {
+
+    @Query("SELECT ip FROM ItemProperties ip JOIN FETCH ip.item ORDER BY ip.id")
+    List<ItemProperties> findFirstPage(Limit limit);
+
+    @Query("SELECT ip FROM ItemProperties ip JOIN FETCH ip.item WHERE ip.id > :after ORDER BY ip.id")
+    List<ItemProperties> findPageAfter(@Param("after") UUID after, Limit limit);
+
+    // Follows the foreign key from the line, without loading the inventory or its other lines
+    @Query("SELECT new com.supplywise.supplywise.DAO.InventoryOwner(i.id, r.id, r.name) "
+            + "FROM ItemProperties ip JOIN ip.inventory i JOIN i.restaurant r WHERE ip.id = :id")
+    Optional<InventoryOwner> findInventoryOwnerById(@Param("id") UUID id);
+
+    // Stocked lines of open inventories expiring in the range, served by the expiration_date index
+    @Query("SELECT new com.supplywise.supplywise.DAO.ExpiringStock(ip.id, it.name, ip.expirationDate, ip.quantity, r.id, r.name) "
+            + "FROM ItemProperties ip JOIN ip.item it JOIN ip.inventory i JOIN i.restaurant r "
+            + "WHERE ip.expirationDate BETWEEN :from AND :to AND ip.quantity > 0 AND i.closingDate IS NULL")
+    List<ExpiringStock> findExpiringStockBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Forward-only cursor; the caller must hold a transaction for the fetch size to take effect
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT ip FROM ItemProperties ip JOIN FETCH ip.item")
+    Stream<ItemProperties> streamAll();
 }
@@ -1,13 +1,37 @@
 package com.supplywise.supplywise.repositories;
 
+import com.supplywise.supplywise.model.Category;
 import com.supplywise.supplywise.model.Item;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, UUID> {
-    Optional<Item> findByBarCode(int barCode);
+    Optional<Item> findByBarCode(long barCode);
+
+    List<Item> findByBarCodeIn(Collection<Long> barCodes);
+
+    List<Item> findAllByOrderByIdAsc(Limit limit);
+
+    List<Item> findByIdGreaterThanOrderByIdAsc(UUID after, Limit limit);
+
+    List<Item> findByNameContainingIgnoreCaseOrderByNameAsc(String name, Limit limit);
+
+    List<Item> findByNameContainingIgnoreCaseAndCategoryInOrderByNameAsc(String name, Collection<Category> categories, Limit limit);
+
+    // Forward-only cursor; the caller must hold a transaction for the fetch size to take effect
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i FROM Item i")
+    Stream<Item> streamAll();
 }
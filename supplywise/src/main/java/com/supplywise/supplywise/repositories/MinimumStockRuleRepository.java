@@ -0,0 +1,103 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.MinimumStockRule;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.MinimumStockScope;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Minimum stock rules of restaurants and companies, kept in the minimum_stock_rules table created by
+ * SchemaMigrations. A whole set of rules is written with one statement per operation, whatever its size.
+ */
+@Repository
+public class MinimumStockRuleRepository {
+
+    // Ids of items that do not exist are dropped by the join instead of failing the whole set
+    private static final String UPSERT_RULES_SQL =
+            "INSERT INTO minimum_stock_rules (scope, scope_id, item_id, minimum_stock_quantity, updated_at) "
+                    + "SELECT ?, ?, r.item_id, r.minimum_stock_quantity, now() "
+                    + "FROM unnest(?::uuid[], ?::int[]) AS r (item_id, minimum_stock_quantity) JOIN items it ON it.id = r.item_id "
+                    + "ON CONFLICT (scope, scope_id, item_id) DO UPDATE SET minimum_stock_quantity = EXCLUDED.minimum_stock_quantity, "
+                    + "updated_at = EXCLUDED.updated_at "
+                    + "WHERE minimum_stock_rules.minimum_stock_quantity <> EXCLUDED.minimum_stock_quantity";
+
+    private static final String DELETE_RULES_SQL =
+            "DELETE FROM minimum_stock_rules WHERE scope = ? AND scope_id = ? AND item_id = ANY(?::uuid[])";
+
+    private static final String FIND_RULES_SQL =
+            "SELECT item_id, minimum_stock_quantity FROM minimum_stock_rules WHERE scope = ? AND scope_id = ? ORDER BY item_id";
+
+    private static final String FIND_BELOW_MINIMUM_SQL =
+            "SELECT s.item_id, it.name, s.quantity, s.minimum_stock_quantity FROM restaurant_stock_status s "
+                    + "JOIN items it ON it.id = s.item_id WHERE s.restaurant_id = ? AND s.quantity < s.minimum_stock_quantity "
+                    + "ORDER BY s.minimum_stock_quantity - s.quantity DESC, it.name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MinimumStockRuleRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Sets the rules of the scope; a null minimum removes the item's rule.
+     * Returns the number of rules created, changed or removed.
+     */
+    @Transactional
+    public int applyRules(MinimumStockScope scope, UUID scopeId, List<MinimumStockRule> rules) {
+        List<UUID> setIds = new ArrayList<>();
+        List<Integer> setMinimums = new ArrayList<>();
+        List<UUID> removedIds = new ArrayList<>();
+        for (MinimumStockRule rule : rules) {
+            if (rule.getMinimumStockQuantity() == null) {
+                removedIds.add(rule.getItemId());
+            } else {
+                setIds.add(rule.getItemId());
+                setMinimums.add(rule.getMinimumStockQuantity());
+            }
+        }
+
+        int applied = 0;
+        if (!setIds.isEmpty()) {
+            applied += jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(UPSERT_RULES_SQL);
+                ps.setString(1, scope.name());
+                ps.setObject(2, scopeId);
+                ps.setArray(3, connection.createArrayOf("uuid", setIds.toArray()));
+                ps.setArray(4, connection.createArrayOf("int4", setMinimums.toArray()));
+                return ps;
+            });
+        }
+        if (!removedIds.isEmpty()) {
+            applied += jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(DELETE_RULES_SQL);
+                ps.setString(1, scope.name());
+                ps.setObject(2, scopeId);
+                ps.setArray(3, connection.createArrayOf("uuid", removedIds.toArray()));
+                return ps;
+            });
+        }
+        return applied;
+    }
+
+    public List<MinimumStockRule> findRules(MinimumStockScope scope, UUID scopeId) {
+        return jdbcTemplate.query(FIND_RULES_SQL, (rs, rowNum) -> new MinimumStockRule(
+                rs.getObject("item_id", UUID.class), rs.getInt("minimum_stock_quantity")), scope.name(), scopeId);
+    }
+
+    /**
+     * Items of the restaurant whose stock is below their effective minimum, largest shortfall first.
+     */
+    public List<StockShortfall> findBelowMinimum(UUID restaurantId) {
+        return jdbcTemplate.query(FIND_BELOW_MINIMUM_SQL, (rs, rowNum) -> new StockShortfall(
+                rs.getObject("item_id", UUID.class), rs.getString("name"), rs.getLong("quantity"),
+                rs.getInt("minimum_stock_quantity")), restaurantId);
+    }
+}
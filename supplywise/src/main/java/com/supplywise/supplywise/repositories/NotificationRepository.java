@@ -11,4 +11,5 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     Optional<Notification> findByRestaurantIdAndMessageContaining(UUID restaurantId, String itemName);
     List<Notification> findByRestaurantIdAndIsResolved(UUID restaurantId, boolean isResolved);
     List<Notification> findByRestaurantIdAndIsReminder(UUID restaurantId, boolean isReminder);
+    boolean existsByRestaurantIdAndMessageStartingWith(UUID restaurantId, String prefix);
 }
@@ -0,0 +1,74 @@
+package com.supplywise.supplywise.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Merges the current below-minimum items of every restaurant into its draft purchase order with a handful of
+ * set-based statements, however many restaurants and items there are.
+ */
+@Repository
+public class PurchaseOrderJdbcRepository {
+
+    // An item is short when its stock is below its effective minimum (see restaurant_stock_status in SchemaMigrations).
+    // The nightly forecast's reorder quantity is used when it asks for more than the bare shortfall.
+    private static final String SHORTFALLS_SQL =
+            "CREATE TEMP TABLE purchase_shortfalls ON COMMIT DROP AS "
+                    + "SELECT s.restaurant_id, s.item_id, "
+                    + "GREATEST(s.minimum_stock_quantity - s.quantity, COALESCE(f.reorder_quantity, 0))::int AS quantity "
+                    + "FROM restaurant_stock_status s "
+                    + "LEFT JOIN item_consumption_stats f ON f.restaurant_id = s.restaurant_id AND f.item_id = s.item_id "
+                    + "WHERE s.quantity < s.minimum_stock_quantity";
+
+    // Relies on the partial unique index on drafts, so concurrent runs cannot open two drafts for one restaurant
+    private static final String OPEN_DRAFTS_SQL =
+            "INSERT INTO purchase_orders (id, restaurant_id, status, version, created_at, updated_at) "
+                    + "SELECT gen_random_uuid(), restaurant_id, 'DRAFT', 0, now(), now() "
+                    + "FROM (SELECT DISTINCT restaurant_id FROM purchase_shortfalls) s "
+                    + "ON CONFLICT (restaurant_id) WHERE status = 'DRAFT' DO NOTHING";
+
+    // Drafts being submitted or edited hold this lock, so the merge below only sees orders that are still drafts
+    private static final String LOCK_DRAFTS_SQL =
+            "SELECT id FROM purchase_orders WHERE status = 'DRAFT' ORDER BY id FOR UPDATE";
+
+    // Lines a user has changed keep their quantity but still get the new suggestion
+    private static final String MERGE_LINES_SQL =
+            "WITH merged AS (INSERT INTO purchase_order_lines (id, purchase_order_id, item_id, quantity, suggested_quantity, manual, version) "
+                    + "SELECT gen_random_uuid(), po.id, s.item_id, s.quantity, s.quantity, false, 0 FROM purchase_shortfalls s "
+                    + "JOIN purchase_orders po ON po.restaurant_id = s.restaurant_id AND po.status = 'DRAFT' "
+                    + "ON CONFLICT (purchase_order_id, item_id) DO UPDATE SET suggested_quantity = EXCLUDED.suggested_quantity, "
+                    + "quantity = CASE WHEN purchase_order_lines.manual THEN purchase_order_lines.quantity ELSE EXCLUDED.quantity END, "
+                    + "version = purchase_order_lines.version + 1 "
+                    + "WHERE purchase_order_lines.suggested_quantity <> EXCLUDED.suggested_quantity "
+                    + "RETURNING purchase_order_id) "
+                    + "UPDATE purchase_orders SET updated_at = now() WHERE id IN (SELECT purchase_order_id FROM merged)";
+
+    // Items that are no longer short leave the draft unless a user has taken over the line
+    private static final String REMOVE_RECOVERED_SQL =
+            "WITH removed AS (DELETE FROM purchase_order_lines l USING purchase_orders po "
+                    + "WHERE po.id = l.purchase_order_id AND po.status = 'DRAFT' AND NOT l.manual AND NOT EXISTS "
+                    + "(SELECT 1 FROM purchase_shortfalls s WHERE s.restaurant_id = po.restaurant_id AND s.item_id = l.item_id) "
+                    + "RETURNING l.purchase_order_id) "
+                    + "UPDATE purchase_orders SET updated_at = now() WHERE id IN (SELECT purchase_order_id FROM removed)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PurchaseOrderJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Brings every draft in line with the current shortfalls, opening drafts where needed.
+     * Returns the number of draft updates; a draft counts once for added or changed lines and once for removed ones.
+     */
+    @Transactional
+    public int mergeShortfallsIntoDrafts() {
+        jdbcTemplate.execute(SHORTFALLS_SQL);
+        jdbcTemplate.update(OPEN_DRAFTS_SQL);
+        jdbcTemplate.queryForList(LOCK_DRAFTS_SQL);
+        int merged = jdbcTemplate.update(MERGE_LINES_SQL);
+        int removed = jdbcTemplate.update(REMOVE_RECOVERED_SQL);
+        return merged + removed;
+    }
+}
@@ -0,0 +1,24 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.model.PurchaseOrder;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, UUID> {
+
+    List<PurchaseOrder> findByRestaurantIdOrderByCreatedAtDesc(UUID restaurantId);
+
+    // Blocks the draft generator from merging into an order while it is being edited or submitted
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT po FROM PurchaseOrder po WHERE po.id = :id")
+    Optional<PurchaseOrder> findForUpdateById(@Param("id") UUID id);
+}
@@ -0,0 +1,49 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.CompanyStockEntry;
+import com.supplywise.supplywise.DAO.RestaurantStockLine;
+import com.supplywise.supplywise.model.Category;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads the restaurant_stock totals maintained by the triggers installed in SchemaMigrations.
+ */
+@Repository
+public class RestaurantStockRepository {
+
+    private static final String FIND_BY_RESTAURANT_SQL =
+            "SELECT rs.item_id, it.name, rs.quantity FROM restaurant_stock rs JOIN items it ON it.id = rs.item_id "
+                    + "WHERE rs.restaurant_id = ? AND rs.quantity <> 0 ORDER BY it.name";
+
+    // Walks the company's restaurants through idx_restaurant_company, then each restaurant's primary key range
+    private static final String FIND_BY_COMPANY_SQL =
+            "SELECT r.id AS restaurant_id, r.name AS restaurant_name, it.id AS item_id, it.name AS item_name, it.category, rs.quantity "
+                    + "FROM restaurant r JOIN restaurant_stock rs ON rs.restaurant_id = r.id JOIN items it ON it.id = rs.item_id "
+                    + "WHERE r.company_id = ? AND rs.quantity <> 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RestaurantStockRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<RestaurantStockLine> findByRestaurantId(UUID restaurantId) {
+        return jdbcTemplate.query(FIND_BY_RESTAURANT_SQL,
+                (rs, rowNum) -> new RestaurantStockLine(rs.getObject("item_id", UUID.class), rs.getString("name"), rs.getLong("quantity")),
+                restaurantId);
+    }
+
+    public List<CompanyStockEntry> findByCompanyId(UUID companyId) {
+        return jdbcTemplate.query(FIND_BY_COMPANY_SQL, (rs, rowNum) -> {
+            String category = rs.getString("category");
+            return new CompanyStockEntry(rs.getObject("restaurant_id", UUID.class), rs.getString("restaurant_name"),
+                    rs.getObject("item_id", UUID.class), rs.getString("item_name"),
+                    category != null ? Category.valueOf(category) : null, rs.getLong("quantity"));
+        }, companyId);
+    }
+}
@@ -0,0 +1,80 @@
+package com.supplywise.supplywise.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.supplywise.supplywise.repositories.ItemPropertiesRepository;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables as newline-delimited JSON straight from a forward-only database cursor.
+ * The persistence context is cleared as rows are written, so heap use does not grow with the table.
+ */
+@Service
+public class CatalogExportService {
+
+    // Matches the fetch size of the streaming repository queries
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private final ItemRepository itemRepository;
+    private final ItemPropertiesRepository itemPropertiesRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter objectWriter;
+
+    public CatalogExportService(ItemRepository itemRepository,
+                                ItemPropertiesRepository itemPropertiesRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.itemRepository = itemRepository;
+        this.itemPropertiesRepository = itemPropertiesRepository;
+        this.entityManager = entityManager;
+        this.objectWriter = objectMapper.writer();
+    }
+
+    @Transactional(readOnly = true)
+    public long exportItems(OutputStream output) throws IOException {
+        try (Stream<?> items = itemRepository.streamAll()) {
+            long count = writeNdjson(items, output);
+            logger.info("Exported {} items", count);
+            return count;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportItemProperties(OutputStream output) throws IOException {
+        try (Stream<?> itemProperties = itemPropertiesRepository.streamAll()) {
+            long count = writeNdjson(itemProperties, output);
+            logger.info("Exported {} item properties", count);
+            return count;
+        }
+    }
+
+    /* Helper functions */
+
+    private long writeNdjson(Stream<?> rows, OutputStream output) throws IOException {
+        long count = 0;
+        Iterator<?> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            output.write(objectWriter.writeValueAsBytes(iterator.next()));
+            output.write('\n');
+            if (++count % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+                output.flush();
+            }
+        }
+        output.flush();
+        return count;
+    }
+}
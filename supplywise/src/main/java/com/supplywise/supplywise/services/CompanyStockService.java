@@ -0,0 +1,91 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.CompanyStockEntry;
+import com.supplywise.supplywise.DAO.CompanyStockRollup;
+import com.supplywise.supplywise.DAO.CompanyStockRollup.CategoryTotal;
+import com.supplywise.supplywise.DAO.CompanyStockRollup.ItemTotal;
+import com.supplywise.supplywise.DAO.CompanyStockRollup.RestaurantTotal;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.repositories.RestaurantStockRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock of a whole company by item, by category and by restaurant, built from the restaurant_stock totals
+ * with one query and cached for a short time, since dashboards poll it.
+ */
+@Service
+public class CompanyStockService {
+
+    private final RestaurantStockRepository restaurantStockRepository;
+    private final long ttlMillis;
+
+    private final Map<UUID, CachedRollup> cache = new ConcurrentHashMap<>();
+
+    public CompanyStockService(RestaurantStockRepository restaurantStockRepository,
+                               @Value("${supplywise.stock.rollup-ttl-ms:30000}") long ttlMillis) {
+        this.restaurantStockRepository = restaurantStockRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public CompanyStockRollup getCompanyRollup(UUID companyId) {
+        long now = System.currentTimeMillis();
+        CachedRollup cached = cache.get(companyId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.rollup;
+        }
+        CompanyStockRollup rollup = buildRollup(companyId, restaurantStockRepository.findByCompanyId(companyId));
+        cache.put(companyId, new CachedRollup(rollup, now + ttlMillis));
+        return rollup;
+    }
+
+    /* Helper functions */
+
+    private static CompanyStockRollup buildRollup(UUID companyId, List<CompanyStockEntry> entries) {
+        Map<UUID, ItemTotal> items = new LinkedHashMap<>();
+        Map<Category, CategoryTotal> categories = new EnumMap<>(Category.class);
+        Map<UUID, RestaurantTotal> restaurants = new LinkedHashMap<>();
+
+        for (CompanyStockEntry entry : entries) {
+            ItemTotal item = items.computeIfAbsent(entry.getItemId(),
+                    id -> new ItemTotal(id, entry.getItemName(), entry.getCategory(), 0, 0));
+            item.setQuantity(item.getQuantity() + entry.getQuantity());
+            item.setRestaurants(item.getRestaurants() + 1);
+
+            RestaurantTotal restaurant = restaurants.computeIfAbsent(entry.getRestaurantId(),
+                    id -> new RestaurantTotal(id, entry.getRestaurantName(), 0, 0));
+            restaurant.setQuantity(restaurant.getQuantity() + entry.getQuantity());
+            restaurant.setItems(restaurant.getItems() + 1);
+        }
+        // Per item first, so a category counts each item once however many restaurants hold it
+        for (ItemTotal item : items.values()) {
+            if (item.getCategory() == null) {
+                continue;
+            }
+            CategoryTotal category = categories.computeIfAbsent(item.getCategory(), c -> new CategoryTotal(c, 0, 0));
+            category.setQuantity(category.getQuantity() + item.getQuantity());
+            category.setItems(category.getItems() + 1);
+        }
+
+        List<ItemTotal> itemTotals = new ArrayList<>(items.values());
+        itemTotals.sort(Comparator.comparing(ItemTotal::getItemName, Comparator.nullsLast(Comparator.naturalOrder())));
+        List<RestaurantTotal> restaurantTotals = new ArrayList<>(restaurants.values());
+        restaurantTotals.sort(Comparator.comparing(RestaurantTotal::getRestaurantName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        return new CompanyStockRollup(companyId, LocalDateTime.now(), itemTotals, new ArrayList<>(categories.values()), restaurantTotals);
+    }
+
+    private record CachedRollup(CompanyStockRollup rollup, long expiresAt) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.ConsumptionEvent;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.exception.BacklogFullException;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces point-of-sale consumption per item properties row and writes the summed amounts in one statement,
+ * either on a short interval or as soon as enough distinct rows are pending.
+ * Accepted events live only in memory until the next flush; while too many rows are pending, for example
+ * because flushes keep failing, new batches are refused.
+ */
+@Service
+public class ConsumptionIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumptionIngestService.class);
+
+    private static final int STRIPES = 16;
+    private static final int MAX_BATCH_EVENTS = 5000;
+    private static final int MAX_EVENT_QUANTITY = 100_000;
+
+    private final ItemPropertiesService itemPropertiesService;
+    private final int flushThreshold;
+    private final int maxPendingRows;
+
+    // Each stripe guards its own map, so producers only contend when their rows hash to the same stripe.
+    // Totals are longs: amounts put back after failed flushes keep adding up
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<UUID, Long>[] pending;
+    private final AtomicInteger pendingRows = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "consumption-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @SuppressWarnings("unchecked")
+    public ConsumptionIngestService(ItemPropertiesService itemPropertiesService,
+                                    @Value("${supplywise.consumption.flush-threshold:2000}") int flushThreshold,
+                                    @Value("${supplywise.consumption.max-pending-rows:100000}") int maxPendingRows) {
+        this.itemPropertiesService = itemPropertiesService;
+        this.flushThreshold = flushThreshold;
+        this.maxPendingRows = maxPendingRows;
+        this.pending = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            pending[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * Validates the whole batch before accepting any of it, then adds every event to its pending total.
+     * Returns the number of events accepted. Throws {@link BacklogFullException} while the pending rows are
+     * at their limit; the limit is checked once per batch, so concurrent batches can overshoot it slightly.
+     */
+    public int record(List<ConsumptionEvent> events) {
+        if (events == null || events.isEmpty()) {
+            throw new IllegalArgumentException("At least one consumption event is required");
+        }
+        if (events.size() > MAX_BATCH_EVENTS) {
+            throw new IllegalArgumentException("A batch can have at most " + MAX_BATCH_EVENTS + " events");
+        }
+        for (ConsumptionEvent event : events) {
+            if (event == null || event.getItemPropertiesId() == null) {
+                throw new IllegalArgumentException("Item properties ID cannot be null");
+            }
+            if (event.getQuantity() < 1 || event.getQuantity() > MAX_EVENT_QUANTITY) {
+                throw new IllegalArgumentException("Quantity must be between 1 and " + MAX_EVENT_QUANTITY);
+            }
+        }
+
+        if (pendingRows.get() >= maxPendingRows) {
+            throw new BacklogFullException("Too much consumption is waiting to be written, retry later");
+        }
+
+        for (ConsumptionEvent event : events) {
+            add(event.getItemPropertiesId(), event.getQuantity());
+        }
+
+        if (pendingRows.get() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+        return events.size();
+    }
+
+    /**
+     * Writes everything accepted so far. Runs on a fixed delay and whenever the size threshold is reached;
+     * if the write fails the amounts are put back and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${supplywise.consumption.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<UUID, Long> consumed = drain();
+            if (consumed.isEmpty()) {
+                return;
+            }
+            // Quantities are ints and never go below zero, so a larger total has the same effect as the int maximum
+            Map<UUID, Integer> amounts = new HashMap<>();
+            consumed.forEach((id, amount) -> amounts.put(id, (int) Math.min(amount, Integer.MAX_VALUE)));
+            try {
+                List<StockLevel> stockLevels = itemPropertiesService.applyConsumption(amounts);
+                logger.info("Flushed consumption for {} item properties ({} found)", consumed.size(), stockLevels.size());
+            } catch (RuntimeException e) {
+                logger.error("Failed to flush consumption for {} item properties, retrying on the next flush", consumed.size(), e);
+                consumed.forEach(this::add);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingRows() {
+        return pendingRows.get();
+    }
+
+    /**
+     * Lets a running flush finish and writes what is still pending. Amounts that cannot be written are
+     * logged per item properties row so they can be applied by hand.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        Map<UUID, Long> unwritten = drain();
+        if (!unwritten.isEmpty()) {
+            logger.error("Dropping unwritten consumption for {} item properties on shutdown: {}", unwritten.size(), unwritten);
+        }
+    }
+
+    /* Helper functions */
+
+    private void add(UUID id, long quantity) {
+        int stripe = Math.floorMod(id.hashCode(), STRIPES);
+        locks[stripe].lock();
+        try {
+            Long previous = pending[stripe].get(id);
+            pending[stripe].put(id, previous == null ? quantity : previous + quantity);
+            if (previous == null) {
+                pendingRows.incrementAndGet();
+            }
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    // Swaps each stripe's map for an empty one so producers are only blocked for the swap itself
+    private Map<UUID, Long> drain() {
+        Map<UUID, Long> drained = new HashMap<>();
+        for (int i = 0; i < STRIPES; i++) {
+            Map<UUID, Long> stripe;
+            locks[i].lock();
+            try {
+                stripe = pending[i];
+                pending[i] = new HashMap<>();
+                pendingRows.addAndGet(-stripe.size());
+            } finally {
+                locks[i].unlock();
+            }
+            drained.putAll(stripe);
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,215 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.ClosedInventoryInterval;
+import com.supplywise.supplywise.DAO.ConsumptionStats;
+import com.supplywise.supplywise.DAO.ForecastInput;
+import com.supplywise.supplywise.DAO.ItemForecast;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.repositories.ConsumptionStatsRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps running consumption averages per restaurant and item and turns them into stock-out dates and
+ * reorder suggestions. Each close folds one new observation into the averages, the consumption between it
+ * and the previous count, so history is never re-read; the nightly forecast only reads one row per item.
+ */
+@Service
+public class ConsumptionStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsumptionStatsService.class);
+
+    static final int MAX_FORECAST_DAYS = 365;
+    private static final int BATCH_SIZE = 500;
+    // Counts taken within the hour of each other would turn small differences into huge rates
+    private static final double MIN_INTERVAL_DAYS = 1.0 / 24;
+
+    private final ConsumptionStatsRepository consumptionStatsRepository;
+    private final double smoothing;
+    private final int coverDays;
+
+    // A single worker applies closes one at a time, so two closes of a restaurant never update the same averages at once
+    private final ExecutorService statsExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "consumption-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConsumptionStatsService(ConsumptionStatsRepository consumptionStatsRepository,
+                                   @Value("${supplywise.forecast.smoothing:0.3}") double smoothing,
+                                   @Value("${supplywise.forecast.cover-days:7}") int coverDays) {
+        this.consumptionStatsRepository = consumptionStatsRepository;
+        this.smoothing = smoothing;
+        this.coverDays = coverDays;
+    }
+
+    /**
+     * Queues the closed inventory to be folded into the averages. Call after the closing date has been committed.
+     */
+    public void recordClose(UUID inventoryId) {
+        statsExecutor.execute(() -> {
+            try {
+                updateStats(inventoryId);
+            } catch (RuntimeException e) {
+                logger.error("Failed to update consumption statistics for inventory {}", inventoryId, e);
+            }
+        });
+    }
+
+    public List<ItemForecast> getForecasts(UUID restaurantId) {
+        return consumptionStatsRepository.findForecasts(restaurantId);
+    }
+
+    /**
+     * Recomputes the forecast of every restaurant and item from the stored averages and current stock.
+     */
+    @Scheduled(cron = "${supplywise.forecast.cron:0 30 2 * * *}")
+    @Transactional
+    public void forecastAll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemForecast> batch = new ArrayList<>(BATCH_SIZE);
+        int[] forecasts = new int[1];
+        consumptionStatsRepository.forEachForecastInput(input -> {
+            batch.add(forecast(input, now, coverDays));
+            if (batch.size() == BATCH_SIZE) {
+                consumptionStatsRepository.saveForecasts(batch);
+                forecasts[0] += batch.size();
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            consumptionStatsRepository.saveForecasts(batch);
+            forecasts[0] += batch.size();
+        }
+        logger.info("Forecast {} restaurant items", forecasts[0]);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        statsExecutor.shutdownNow();
+    }
+
+    /**
+     * Folds the consumption between the inventory and the restaurant's previous closed inventory into the averages.
+     * Items whose averages already include this close are left alone, so closing twice does not count twice.
+     */
+    void updateStats(UUID inventoryId) {
+        Optional<ClosedInventoryInterval> found = consumptionStatsRepository.findInterval(inventoryId);
+        if (found.isEmpty() || found.get().getPreviousInventoryId() == null) {
+            return;
+        }
+        ClosedInventoryInterval interval = found.get();
+        double days = Math.max(Duration.between(interval.getPreviousClosingDate(), interval.getClosingDate()).toMinutes() / 1440.0,
+                MIN_INTERVAL_DAYS);
+        Set<DayOfWeek> weekdays = weekdaysBetween(interval.getPreviousClosingDate().toLocalDate(), interval.getClosingDate().toLocalDate());
+
+        List<ItemVariance> totals = consumptionStatsRepository.findItemTotals(inventoryId, interval.getPreviousInventoryId());
+        Map<UUID, ConsumptionStats> existing = consumptionStatsRepository.findStats(interval.getRestaurantId(),
+                totals.stream().map(ItemVariance::getItemId).toList());
+
+        List<ConsumptionStats> updated = new ArrayList<>(totals.size());
+        for (ItemVariance total : totals) {
+            ConsumptionStats previous = existing.get(total.getItemId());
+            if (previous != null && !previous.getLastClosingDate().isBefore(interval.getClosingDate())) {
+                continue;
+            }
+            // Only decreases count as consumption; an increase means stock was received between the counts
+            double rate = Math.max(-total.getDelta(), 0) / days;
+            updated.add(observe(previous, interval.getRestaurantId(), total.getItemId(), rate, weekdays,
+                    interval.getClosingDate(), smoothing));
+        }
+        consumptionStatsRepository.saveStats(updated);
+        logger.info("Updated consumption statistics of {} items for inventory {}", updated.size(), inventoryId);
+    }
+
+    /**
+     * Exponentially weighted update of the overall rate and of the rates of the days of week the interval covered.
+     */
+    static ConsumptionStats observe(ConsumptionStats previous, UUID restaurantId, UUID itemId, double rate,
+                                    Set<DayOfWeek> weekdays, LocalDateTime closingDate, double smoothing) {
+        if (previous == null) {
+            double[] weekdayRates = new double[7];
+            Arrays.fill(weekdayRates, rate);
+            return new ConsumptionStats(restaurantId, itemId, rate, weekdayRates, 1, closingDate);
+        }
+        double[] weekdayRates = previous.getWeekdayRates().clone();
+        for (DayOfWeek weekday : weekdays) {
+            int index = weekday.getValue() - 1;
+            weekdayRates[index] = smoothing * rate + (1 - smoothing) * weekdayRates[index];
+        }
+        return new ConsumptionStats(restaurantId, itemId, smoothing * rate + (1 - smoothing) * previous.getDailyRate(),
+                weekdayRates, previous.getSamples() + 1, closingDate);
+    }
+
+    /**
+     * Projects the stock day by day, scaling the overall rate by each day of week's share, and suggests enough
+     * units to cover the next {@code coverDays} days and still end at the minimum.
+     */
+    static ItemForecast forecast(ForecastInput input, LocalDateTime now, int coverDays) {
+        ConsumptionStats stats = input.getStats();
+        double[] weekdayRates = stats.getWeekdayRates();
+        double mean = Arrays.stream(weekdayRates).average().orElse(0);
+        LocalDate today = now.toLocalDate();
+
+        LocalDate stockOutDate = null;
+        if (input.getQuantity() <= 0) {
+            stockOutDate = today;
+        } else if (stats.getDailyRate() > 0) {
+            double remaining = input.getQuantity();
+            for (int day = 1; day <= MAX_FORECAST_DAYS && stockOutDate == null; day++) {
+                remaining -= dailyRate(stats.getDailyRate(), weekdayRates, mean, today.plusDays(day));
+                if (remaining <= 0) {
+                    stockOutDate = today.plusDays(day);
+                }
+            }
+        }
+
+        double demand = 0;
+        for (int day = 1; day <= coverDays; day++) {
+            demand += dailyRate(stats.getDailyRate(), weekdayRates, mean, today.plusDays(day));
+        }
+        int reorderQuantity = (int) Math.max(0, Math.ceil(demand + input.getMinimumStockQuantity() - input.getQuantity()));
+
+        return new ItemForecast(stats.getRestaurantId(), stats.getItemId(), null, stats.getDailyRate(), input.getQuantity(),
+                input.getMinimumStockQuantity(), stockOutDate, reorderQuantity, now);
+    }
+
+    /* Helper functions */
+
+    private static double dailyRate(double rate, double[] weekdayRates, double mean, LocalDate date) {
+        return mean > 0 ? rate * weekdayRates[date.getDayOfWeek().getValue() - 1] / mean : rate;
+    }
+
+    // Days of week from the day after the previous count up to the day of this one
+    private static Set<DayOfWeek> weekdaysBetween(LocalDate from, LocalDate to) {
+        Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+        for (LocalDate date = from.plusDays(1); !date.isAfter(to) && weekdays.size() < 7; date = date.plusDays(1)) {
+            weekdays.add(date.getDayOfWeek());
+        }
+        if (weekdays.isEmpty()) {
+            weekdays.add(to.getDayOfWeek());
+        }
+        return weekdays;
+    }
+}
@@ -0,0 +1,108 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.ExpiringStock;
+import com.supplywise.supplywise.model.Notification;
+import com.supplywise.supplywise.repositories.ItemPropertiesRepository;
+import com.supplywise.supplywise.repositories.NotificationRepository;
+import com.supplywise.supplywise.repositories.RestaurantRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Raises near-expiry and expired notifications for stock in open inventories.
+ * Each scan reads the lines whose alerts are due with an indexed range query on the expiration date,
+ * so lines added or re-dated since the previous scan are picked up by the next one. Alerts already
+ * raised today are remembered so later scans do not look each of them up again.
+ */
+@Service
+public class ExpiryScanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiryScanService.class);
+
+    // Lines that expired shortly before the first scan still get their expired alert
+    private static final int EXPIRED_LOOKBACK_DAYS = 7;
+
+    private static final String NEAR_EXPIRY_MESSAGE_PREFIX = "Item '%s' expires on %s in restaurant '%s'";
+    private static final String EXPIRED_MESSAGE_PREFIX = "Item '%s' expired on %s in restaurant '%s'";
+
+    private final ItemPropertiesRepository itemPropertiesRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final RestaurantRepository restaurantRepository;
+    private final int nearExpiryDays;
+
+    private final Set<AlertKey> raisedToday = new HashSet<>();
+    private LocalDate raisedOn;
+
+    public ExpiryScanService(ItemPropertiesRepository itemPropertiesRepository,
+                             NotificationRepository notificationRepository,
+                             NotificationService notificationService,
+                             RestaurantRepository restaurantRepository,
+                             @Value("${supplywise.expiry.near-days:3}") int nearExpiryDays) {
+        this.itemPropertiesRepository = itemPropertiesRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.restaurantRepository = restaurantRepository;
+        this.nearExpiryDays = nearExpiryDays;
+    }
+
+    @Scheduled(fixedDelayString = "${supplywise.expiry.scan-interval-ms:3600000}",
+            initialDelayString = "${supplywise.expiry.initial-delay-ms:60000}")
+    @Transactional
+    public void scan() {
+        scan(LocalDate.now());
+    }
+
+    /**
+     * Raises the alerts due on {@code today}: expired for lines past their date, near-expiry for lines
+     * expiring within the configured number of days. Returns the number of notifications raised.
+     */
+    synchronized int scan(LocalDate today) {
+        if (!today.equals(raisedOn)) {
+            raisedToday.clear();
+            raisedOn = today;
+        }
+
+        List<ExpiringStock> window = itemPropertiesRepository.findExpiringStockBetween(
+                today.minusDays(EXPIRED_LOOKBACK_DAYS), today.plusDays(nearExpiryDays));
+        int raised = 0;
+        for (ExpiringStock stock : window) {
+            boolean expired = stock.getExpirationDate().isBefore(today);
+            AlertKey key = new AlertKey(stock.getItemPropertiesId(), stock.getExpirationDate(), expired);
+            if (raisedToday.contains(key)) {
+                continue;
+            }
+            raised += raise(expired ? EXPIRED_MESSAGE_PREFIX : NEAR_EXPIRY_MESSAGE_PREFIX, stock) ? 1 : 0;
+            raisedToday.add(key);
+        }
+        logger.info("Expiry scan checked {} item properties and raised {} notifications", window.size(), raised);
+        return raised;
+    }
+
+    /* Helper functions */
+
+    // Returns false when the same alert was already raised for the restaurant
+    private boolean raise(String messagePrefix, ExpiringStock stock) {
+        String prefix = String.format(messagePrefix, stock.getItemName(), stock.getExpirationDate(), stock.getRestaurantName());
+        if (notificationRepository.existsByRestaurantIdAndMessageStartingWith(stock.getRestaurantId(), prefix)) {
+            return false;
+        }
+        String message = String.format("%s (%s units).", prefix, stock.getQuantity());
+        notificationService.createNotification(new Notification(restaurantRepository.getReferenceById(stock.getRestaurantId()), message));
+        return true;
+    }
+
+    private record AlertKey(UUID itemPropertiesId, LocalDate expirationDate, boolean expired) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.IdempotencyClaim;
+import com.supplywise.supplywise.DAO.IdempotencyClaim.Outcome;
+import com.supplywise.supplywise.DAO.IdempotentResponse;
+import com.supplywise.supplywise.repositories.IdempotencyKeyRepository;
+import com.supplywise.supplywise.repositories.IdempotencyKeyRepository.StoredKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Responses of write requests sent with an Idempotency-Key, so a retry is answered with the original response
+ * instead of running again. Recent responses are kept in a bounded in-memory LRU in front of the
+ * idempotency_keys table, which is what coordinates concurrent retries and other instances.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final int maxBodyBytes;
+    private final Duration ttl;
+    private final long abandonAfterSeconds;
+
+    private final Map<String, CachedResponse> recent;
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              @Value("${supplywise.idempotency.cache-size:10000}") int cacheSize,
+                              @Value("${supplywise.idempotency.max-body-bytes:262144}") int maxBodyBytes,
+                              @Value("${supplywise.idempotency.ttl-hours:24}") int ttlHours,
+                              @Value("${supplywise.idempotency.abandon-after-seconds:300}") long abandonAfterSeconds) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.maxBodyBytes = maxBodyBytes;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.abandonAfterSeconds = abandonAfterSeconds;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Claims the key for the request identified by the fingerprint, or tells why it cannot run.
+     */
+    public IdempotencyClaim claim(String keyHash, String fingerprint) {
+        CachedResponse cached = getCached(keyHash);
+        if (cached != null) {
+            return cached.fingerprint.equals(fingerprint)
+                    ? new IdempotencyClaim(Outcome.COMPLETED, cached.response)
+                    : IdempotencyClaim.of(Outcome.MISMATCH);
+        }
+        if (idempotencyKeyRepository.claim(keyHash, fingerprint, abandonAfterSeconds)) {
+            return IdempotencyClaim.of(Outcome.ACQUIRED);
+        }
+
+        Optional<StoredKey> stored = idempotencyKeyRepository.find(keyHash);
+        if (stored.isEmpty()) {
+            // Released between the two statements; the client may retry
+            return IdempotencyClaim.of(Outcome.IN_PROGRESS);
+        }
+        if (!stored.get().fingerprint().equals(fingerprint)) {
+            return IdempotencyClaim.of(Outcome.MISMATCH);
+        }
+        IdempotentResponse response = stored.get().response();
+        if (response == null) {
+            return IdempotencyClaim.of(Outcome.IN_PROGRESS);
+        }
+        putCached(keyHash, fingerprint, response);
+        return new IdempotencyClaim(Outcome.COMPLETED, response);
+    }
+
+    /**
+     * Stores the response of a claimed key. Returns false, and releases the key, if the body is too large to keep.
+     */
+    public boolean complete(String keyHash, String fingerprint, IdempotentResponse response) {
+        if (response.getBody() != null && response.getBody().length > maxBodyBytes) {
+            logger.warn("Response of {} bytes is too large to keep for idempotent retries", response.getBody().length);
+            release(keyHash);
+            return false;
+        }
+        idempotencyKeyRepository.complete(keyHash, response);
+        putCached(keyHash, fingerprint, response);
+        return true;
+    }
+
+    /**
+     * Gives up a claimed key without a response, so a retry runs the request again.
+     */
+    public void release(String keyHash) {
+        idempotencyKeyRepository.release(keyHash);
+    }
+
+    @Scheduled(cron = "${supplywise.idempotency.prune-cron:0 45 * * * *}")
+    public void pruneExpiredKeys() {
+        int pruned = idempotencyKeyRepository.pruneBefore(LocalDateTime.now().minus(ttl));
+        logger.info("Pruned {} expired idempotency keys", pruned);
+    }
+
+    /* Helper functions */
+
+    private CachedResponse getCached(String keyHash) {
+        synchronized (recent) {
+            CachedResponse cached = recent.get(keyHash);
+            if (cached != null && cached.expiresAt <= System.currentTimeMillis()) {
+                recent.remove(keyHash);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void putCached(String keyHash, String fingerprint, IdempotentResponse response) {
+        synchronized (recent) {
+            recent.put(keyHash, new CachedResponse(fingerprint, response, System.currentTimeMillis() + ttl.toMillis()));
+        }
+    }
+
+    private record CachedResponse(String fingerprint, IdempotentResponse response, long expiresAt) {
+    }
+}
@@ -0,0 +1,242 @@
+package com.supplywise.supplywise.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.supplywise.supplywise.DAO.InventoryReport;
+import com.supplywise.supplywise.DAO.InventoryReportLine;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.repositories.InventoryDiffRepository;
+import com.supplywise.supplywise.repositories.InventoryReportRepository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the close-out report of an inventory on a small worker pool, so closing returns as soon as the
+ * closing date is saved. Lines are streamed from the database and only running totals and the top entries
+ * of each list are kept, so memory does not grow with the size of the inventory.
+ */
+@Service
+public class InventoryReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReportService.class);
+
+    // Longest list of items kept per report section; the counts always cover every item
+    static final int MAX_LISTED_ITEMS = 50;
+
+    private final InventoryReportRepository inventoryReportRepository;
+    private final InventoryDiffRepository inventoryDiffRepository;
+    private final ObjectMapper objectMapper;
+    private final int nearExpiryDays;
+
+    private final ExecutorService reportExecutor;
+
+    public InventoryReportService(InventoryReportRepository inventoryReportRepository, InventoryDiffRepository inventoryDiffRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${supplywise.expiry.near-days:3}") int nearExpiryDays,
+                                  @Value("${supplywise.reports.workers:2}") int workers) {
+        this.inventoryReportRepository = inventoryReportRepository;
+        this.inventoryDiffRepository = inventoryDiffRepository;
+        this.objectMapper = objectMapper;
+        this.nearExpiryDays = nearExpiryDays;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.reportExecutor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "inventory-report-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Marks the report as pending and queues its generation. Call after the closing date has been committed,
+     * since the workers read it on their own connections.
+     */
+    public void requestReport(UUID inventoryId) {
+        inventoryReportRepository.markPending(inventoryId);
+        reportExecutor.execute(() -> generateReport(inventoryId));
+    }
+
+    public Optional<InventoryReport> getReport(UUID inventoryId) {
+        return inventoryReportRepository.findByInventoryId(inventoryId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reportExecutor.shutdownNow();
+    }
+
+    /**
+     * Computes and stores the report. A failure is stored as well, so clients polling the report stop waiting.
+     */
+    void generateReport(UUID inventoryId) {
+        try {
+            Optional<LocalDateTime> closingDate = inventoryReportRepository.findClosingDate(inventoryId);
+            if (closingDate.isEmpty()) {
+                logger.warn("Inventory {} is no longer closed, skipping its report", inventoryId);
+                inventoryReportRepository.save(inventoryId, InventoryReport.Status.FAILED, null);
+                return;
+            }
+            ObjectNode report = buildReport(inventoryId, closingDate.get());
+            inventoryReportRepository.save(inventoryId, InventoryReport.Status.READY, objectMapper.writeValueAsString(report));
+            logger.info("Generated close-out report for inventory {}", inventoryId);
+        } catch (Exception e) {
+            logger.error("Failed to generate close-out report for inventory {}", inventoryId, e);
+            inventoryReportRepository.save(inventoryId, InventoryReport.Status.FAILED, null);
+        }
+    }
+
+    /* Helper functions */
+
+    private ObjectNode buildReport(UUID inventoryId, LocalDateTime closingDate) {
+        LocalDate nearExpiryLimit = closingDate.toLocalDate().plusDays(nearExpiryDays);
+        Map<Category, long[]> categories = new EnumMap<>(Category.class);
+        long[] totals = new long[2];
+        long[] nearExpiryTotals = new long[2];
+        AtomicInteger belowMinimumCount = new AtomicInteger();
+        // Largest shortfall and earliest expiration first
+        TopItems<StockShortfall> belowMinimum = new TopItems<>(Comparator.comparingLong(StockShortfall::getMissing));
+        TopItems<InventoryReportLine> nearExpiry = new TopItems<>(
+                Comparator.comparing(InventoryReportLine::getExpirationDate).reversed());
+
+        inventoryReportRepository.forEachLine(inventoryId, line -> {
+            totals[0]++;
+            totals[1] += line.getQuantity();
+            Category category = line.getCategory() != null ? line.getCategory() : Category.CUSTOM;
+            long[] categoryTotals = categories.computeIfAbsent(category, key -> new long[2]);
+            categoryTotals[0]++;
+            categoryTotals[1] += line.getQuantity();
+            if (line.getExpirationDate() != null && !line.getExpirationDate().isAfter(nearExpiryLimit)) {
+                nearExpiryTotals[0]++;
+                nearExpiryTotals[1] += line.getQuantity();
+                nearExpiry.offer(line);
+            }
+        });
+        inventoryReportRepository.forEachBelowMinimum(inventoryId, shortfall -> {
+            belowMinimumCount.incrementAndGet();
+            belowMinimum.offer(shortfall);
+        });
+
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("inventoryId", inventoryId.toString());
+        report.put("closingDate", closingDate.toString());
+        report.put("lines", totals[0]);
+        report.put("units", totals[1]);
+
+        ObjectNode categoriesNode = report.putObject("categories");
+        categories.forEach((category, categoryTotals) -> {
+            ObjectNode categoryNode = categoriesNode.putObject(category.name());
+            categoryNode.put("lines", categoryTotals[0]);
+            categoryNode.put("units", categoryTotals[1]);
+        });
+
+        ObjectNode belowMinimumNode = report.putObject("belowMinimum");
+        belowMinimumNode.put("count", belowMinimumCount.get());
+        ArrayNode belowMinimumItems = belowMinimumNode.putArray("items");
+        for (StockShortfall shortfall : belowMinimum.sorted()) {
+            belowMinimumItems.addObject()
+                    .put("itemId", shortfall.getItemId().toString())
+                    .put("itemName", shortfall.getItemName())
+                    .put("quantity", shortfall.getQuantity())
+                    .put("minimumStockQuantity", shortfall.getMinimumStockQuantity());
+        }
+
+        ObjectNode nearExpiryNode = report.putObject("nearExpiry");
+        nearExpiryNode.put("until", nearExpiryLimit.toString());
+        nearExpiryNode.put("count", nearExpiryTotals[0]);
+        nearExpiryNode.put("units", nearExpiryTotals[1]);
+        ArrayNode nearExpiryItems = nearExpiryNode.putArray("items");
+        for (InventoryReportLine line : nearExpiry.sorted()) {
+            nearExpiryItems.addObject()
+                    .put("itemId", line.getItemId().toString())
+                    .put("itemName", line.getItemName())
+                    .put("expirationDate", line.getExpirationDate().toString())
+                    .put("quantity", line.getQuantity());
+        }
+
+        Optional<UUID> previousInventoryId = inventoryReportRepository.findPreviousClosedInventoryId(inventoryId);
+        if (previousInventoryId.isPresent()) {
+            report.set("variance", buildVariance(inventoryId, previousInventoryId.get()));
+        } else {
+            report.putNull("variance");
+        }
+        return report;
+    }
+
+    private ObjectNode buildVariance(UUID inventoryId, UUID previousInventoryId) {
+        long[] totals = new long[3];
+        TopItems<ItemVariance> largest = new TopItems<>(Comparator.comparingLong(variance -> Math.abs(variance.getDelta())));
+
+        inventoryDiffRepository.forEachChange(previousInventoryId, inventoryId, variance -> {
+            totals[0]++;
+            if (variance.getDelta() > 0) {
+                totals[1] += variance.getDelta();
+            } else {
+                totals[2] -= variance.getDelta();
+            }
+            largest.offer(variance);
+        });
+
+        ObjectNode variance = objectMapper.createObjectNode();
+        variance.put("previousInventoryId", previousInventoryId.toString());
+        variance.put("itemsChanged", totals[0]);
+        variance.put("unitsAdded", totals[1]);
+        variance.put("unitsRemoved", totals[2]);
+        ArrayNode items = variance.putArray("items");
+        for (ItemVariance itemVariance : largest.sorted()) {
+            items.addObject()
+                    .put("itemId", itemVariance.getItemId().toString())
+                    .put("itemName", itemVariance.getItemName())
+                    .put("previousQuantity", itemVariance.getPreviousQuantity())
+                    .put("quantity", itemVariance.getQuantity())
+                    .put("delta", itemVariance.getDelta());
+        }
+        return variance;
+    }
+
+    // Keeps the MAX_LISTED_ITEMS greatest entries seen so far in a min-heap, evicting the smallest
+    private static final class TopItems<T> {
+
+        private final Comparator<T> order;
+        private final PriorityQueue<T> heap;
+
+        private TopItems(Comparator<T> order) {
+            this.order = order;
+            this.heap = new PriorityQueue<>(order);
+        }
+
+        private void offer(T entry) {
+            if (heap.size() < MAX_LISTED_ITEMS) {
+                heap.add(entry);
+            } else if (order.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        private List<T> sorted() {
+            List<T> entries = new ArrayList<>(heap);
+            entries.sort(order.reversed());
+            return entries;
+        }
+    }
+}
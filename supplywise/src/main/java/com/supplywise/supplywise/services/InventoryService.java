@@ -1,25 +1,62 @@
 package com.supplywise.supplywise.services;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.supplywise.supplywise.DAO.AddItemToInventoryRequest;
+import com.supplywise.supplywise.DAO.AddItemsToInventoryReport;
+import com.supplywise.supplywise.DAO.CloneInventoryReport;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.Inventory;
+import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Restaurant;
+import com.supplywise.supplywise.repositories.InventoryDiffRepository;
 import com.supplywise.supplywise.repositories.InventoryRepository;
+import com.supplywise.supplywise.repositories.ItemPropertiesJdbcRepository;
+import com.supplywise.supplywise.repositories.ItemRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 @Service
 public class InventoryService {
 
+    public static final int MAX_BATCH_LINES = 5000;
+
     private final InventoryRepository inventoryRepository;
+    private final ItemRepository itemRepository;
+    private final ItemPropertiesJdbcRepository itemPropertiesJdbcRepository;
+    private final InventoryDiffRepository inventoryDiffRepository;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public InventoryService(InventoryRepository inventoryRepository) {
+    public InventoryService(InventoryRepository inventoryRepository, ItemRepository itemRepository,
+                            ItemPropertiesJdbcRepository itemPropertiesJdbcRepository, InventoryDiffRepository inventoryDiffRepository,
+                            ObjectMapper objectMapper) {
         this.inventoryRepository = inventoryRepository;
+        this.itemRepository = itemRepository;
+        this.itemPropertiesJdbcRepository = itemPropertiesJdbcRepository;
+        this.inventoryDiffRepository = inventoryDiffRepository;
+        this.objectMapper = objectMapper;
     }
 
     public Inventory saveInventory(Inventory inventory) {
@@ -40,24 +77,303 @@ public class InventoryService {
         }
     }
 
-    public Optional<Inventory> updateInventory(UUID id, Inventory inventoryDetails) {
-        return inventoryRepository.findById(id).map(existingInventory -> {
+    /**
+     * Replaces the inventory with the given details. When {@code expectedVersion} is set the update only goes
+     * through if it is still the current aggregate version, which covers every line, and lines sent with
+     * a version must match theirs too.
+     */
+    @Transactional
+    public Optional<Inventory> updateInventory(UUID id, Inventory inventoryDetails, Long expectedVersion) {
+        return inventoryRepository.findForUpdateById(id).map(existingInventory -> {
+            checkVersion(existingInventory, expectedVersion);
+
+            checkClosingDateUnchanged(existingInventory, inventoryDetails.getClosingDate());
+
             // Update fields
             existingInventory.setEmissionDate(inventoryDetails.getEmissionDate());
-            existingInventory.setClosingDate(inventoryDetails.getClosingDate());
             existingInventory.setExpectedClosingDate(inventoryDetails.getExpectedClosingDate());
             existingInventory.setReport(inventoryDetails.getReport());
             existingInventory.setRestaurant(inventoryDetails.getRestaurant());
             existingInventory.setClosedByUser(inventoryDetails.getClosedByUser());
-    
-            // Clear existing item and re-add the new ones with inventory reference
-            existingInventory.getItems().clear();
-            for (ItemProperties itemProperties : inventoryDetails.getItems()) {
-                existingInventory.addItemProperties(itemProperties);
+
+            applyItemChanges(existingInventory, inventoryDetails.getItems(), expectedVersion != null);
+            return inventoryRepository.save(existingInventory);
+        });
+    }
+
+    /**
+     * Closes the inventory on the given date. When {@code expectedVersion} is set it must still be the current
+     * aggregate version, as for {@link #updateInventory}.
+     */
+    @Transactional
+    public Optional<Inventory> closeInventory(UUID id, LocalDateTime closingDate, String closedByUser, Long expectedVersion) {
+        return inventoryRepository.findForUpdateById(id).map(existingInventory -> {
+            checkVersion(existingInventory, expectedVersion);
+            existingInventory.setClosingDate(closingDate);
+            existingInventory.setClosedByUser(closedByUser);
+            return inventoryRepository.save(existingInventory);
+        });
+    }
+
+    /**
+     * Applies a JSON Patch or merge patch to an inventory. The patch operates on a view of the inventory whose
+     * {@code items} is an object keyed by item properties ID, so paths such as {@code /items/<id>/quantity}
+     * address a line by ID rather than by position. Keys that are not IDs of existing lines create new lines.
+     */
+    @Transactional
+    public Optional<Inventory> patchInventory(UUID id, UnaryOperator<JsonNode> patch, Long expectedVersion) {
+        return inventoryRepository.findForUpdateById(id).map(existingInventory -> {
+            checkVersion(existingInventory, expectedVersion);
+
+            JsonNode patched = patch.apply(toPatchDocument(existingInventory));
+            if (patched == null || !patched.isObject()) {
+                throw new IllegalArgumentException("Patched inventory must be a JSON object");
             }
-    
-            return Optional.of(inventoryRepository.save(existingInventory));
-        }).orElse(Optional.empty());
+
+            LocalDateTime emissionDate = objectMapper.convertValue(patched.get("emissionDate"), LocalDateTime.class);
+            if (emissionDate == null) {
+                throw new IllegalArgumentException("Emission date cannot be null");
+            }
+            checkClosingDateUnchanged(existingInventory, objectMapper.convertValue(patched.get("closingDate"), LocalDateTime.class));
+            existingInventory.setEmissionDate(emissionDate);
+            existingInventory.setExpectedClosingDate(objectMapper.convertValue(patched.get("expectedClosingDate"), LocalDateTime.class));
+            existingInventory.setReport(objectMapper.convertValue(patched.get("report"), String.class));
+            existingInventory.setClosedByUser(objectMapper.convertValue(patched.get("closedByUser"), String.class));
+
+            applyItemChanges(existingInventory, readPatchedItems(patched.get("items"), existingInventory).values(), true);
+            return inventoryRepository.save(existingInventory);
+        });
     }
 
+    /**
+     * Adds counted lines to an inventory: all barcodes are resolved with one query and the valid lines are
+     * inserted in one batch. Invalid lines are reported and skipped. Returns null if the inventory does not exist.
+     */
+    @Transactional
+    public AddItemsToInventoryReport addItemsToInventory(UUID inventoryId, List<AddItemToInventoryRequest> lines) {
+        if (lines == null || lines.isEmpty() || lines.size() > MAX_BATCH_LINES) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + MAX_BATCH_LINES + " lines");
+        }
+        if (!inventoryRepository.existsById(inventoryId)) {
+            return null;
+        }
+
+        Set<Long> barCodes = new HashSet<>();
+        for (AddItemToInventoryRequest line : lines) {
+            if (line != null) {
+                barCodes.add(line.getBarCode());
+            }
+        }
+        Map<Long, Item> itemsByBarCode = new HashMap<>();
+        for (Item item : itemRepository.findByBarCodeIn(barCodes)) {
+            itemsByBarCode.put(item.getBarCode(), item);
+        }
+
+        AddItemsToInventoryReport report = new AddItemsToInventoryReport();
+        List<ItemProperties> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            AddItemToInventoryRequest line = lines.get(i);
+            long lineNumber = i + 1L;
+            report.setLinesRead(report.getLinesRead() + 1);
+            if (line == null) {
+                report.reject(lineNumber, 0, "Line is empty");
+                continue;
+            }
+            Item item = itemsByBarCode.get(line.getBarCode());
+            if (item == null) {
+                report.reject(lineNumber, line.getBarCode(), "Item barcode does not exist");
+            } else if (line.getQuantity() < 0) {
+                report.reject(lineNumber, line.getBarCode(), "Quantity cannot be negative");
+            } else if (line.getExpirationDate() == null) {
+                report.reject(lineNumber, line.getBarCode(), "Expiration date cannot be null");
+            } else {
+                rows.add(new ItemProperties(item, line.getExpirationDate(), line.getQuantity()));
+            }
+        }
+
+        itemPropertiesJdbcRepository.insertIntoInventory(inventoryId, rows);
+        for (ItemProperties row : rows) {
+            report.getIds().add(row.getId());
+        }
+        report.setLinesAdded(rows.size());
+        return report;
+    }
+
+    /**
+     * Opens a new inventory for the restaurant holding the item list of the source inventory, copied server-side
+     * in one statement. Without a source, the restaurant's last closed inventory is used. Any inventory of the
+     * same company can serve as a template, but quantities can only be carried over from a closed one, since the
+     * stock of an open inventory is already counted. Without carry-over each item gets one uncounted line at
+     * quantity 0, which stock totals and minimums ignore until a quantity is written to it.
+     */
+    @Transactional
+    public CloneInventoryReport cloneInventory(Restaurant restaurant, UUID sourceInventoryId, LocalDateTime emissionDate,
+                                               LocalDateTime expectedClosingDate, boolean carryOverQuantities) {
+        Inventory source = findCloneSource(restaurant, sourceInventoryId);
+        if (carryOverQuantities && source.getClosingDate() == null) {
+            throw new IllegalStateException("Quantities can only be carried over from a closed inventory");
+        }
+
+        // Flushed so the copied lines can reference it
+        Inventory inventory = inventoryRepository.saveAndFlush(new Inventory(restaurant, emissionDate, expectedClosingDate));
+        int copied = itemPropertiesJdbcRepository.copyLines(source.getId(), inventory.getId(), carryOverQuantities);
+        return new CloneInventoryReport(inventory.getId(), source.getId(), copied);
+    }
+
+    /**
+     * One page of the items whose quantity changed from one inventory to the other, in item ID order.
+     * Returns null if either inventory does not exist.
+     */
+    public KeysetPage<ItemVariance> diffInventories(UUID fromInventoryId, UUID toInventoryId, UUID after, int size) {
+        Optional<Inventory> from = inventoryRepository.findById(fromInventoryId);
+        Optional<Inventory> to = inventoryRepository.findById(toInventoryId);
+        if (from.isEmpty() || to.isEmpty()) {
+            return null;
+        }
+        if (!from.get().getRestaurant().getId().equals(to.get().getRestaurant().getId())) {
+            throw new IllegalArgumentException("Only inventories of the same restaurant can be compared");
+        }
+        List<ItemVariance> changes = inventoryDiffRepository.findChanges(fromInventoryId, toInventoryId, after, size);
+        return KeysetPage.of(changes, size, ItemVariance::getItemId);
+    }
+
+    /* Helper functions */
+
+    private Inventory findCloneSource(Restaurant restaurant, UUID sourceInventoryId) {
+        if (sourceInventoryId == null) {
+            return inventoryRepository.findFirstByRestaurantAndClosingDateIsNotNullOrderByClosingDateDesc(restaurant)
+                    .orElseThrow(() -> new IllegalArgumentException("Restaurant has no closed inventory to copy from"));
+        }
+        Inventory source = inventoryRepository.findById(sourceInventoryId)
+                .orElseThrow(() -> new IllegalArgumentException("Source inventory not found"));
+        if (!source.getRestaurant().getCompany().getId().equals(restaurant.getCompany().getId())) {
+            throw new IllegalArgumentException("Source inventory belongs to another company");
+        }
+        return source;
+    }
+
+    /**
+     * Brings the inventory's lines in line with the requested ones, matched by ID: lines that are no longer
+     * requested are deleted, matched lines are updated in place (Hibernate only writes those that changed)
+     * and lines without a known ID are inserted.
+     */
+    private void applyItemChanges(Inventory inventory, Collection<ItemProperties> requestedItems, boolean checkLineVersions) {
+        Map<UUID, ItemProperties> requestedById = new HashMap<>();
+        List<ItemProperties> newItems = new ArrayList<>();
+        for (ItemProperties requested : requestedItems) {
+            ItemPropertiesValidator.validate(requested);
+            if (requested.getId() != null) {
+                requestedById.put(requested.getId(), requested);
+            } else {
+                newItems.add(requested);
+            }
+        }
+
+        // Removals go first so the loop below only touches lines that stay
+        Iterator<ItemProperties> iterator = inventory.getItems().iterator();
+        List<ItemProperties> updated = new ArrayList<>();
+        while (iterator.hasNext()) {
+            ItemProperties existing = iterator.next();
+            if (requestedById.containsKey(existing.getId())) {
+                updated.add(existing);
+            } else {
+                iterator.remove();
+                existing.setInventory(null);
+            }
+        }
+
+        for (ItemProperties existing : updated) {
+            ItemProperties requested = requestedById.remove(existing.getId());
+            if (checkLineVersions && requested.getVersion() != null && !requested.getVersion().equals(existing.getVersion())) {
+                throw new VersionMismatchException("Item properties " + existing.getId() + " has been modified");
+            }
+            if (!existing.getItem().getId().equals(requested.getItem().getId())) {
+                existing.setItem(requested.getItem());
+            }
+            existing.setExpirationDate(requested.getExpirationDate());
+            // A line sent back unchanged and still marked uncounted stays uncounted
+            if (requested.isCounted() || !requested.getQuantity().equals(existing.getQuantity())) {
+                existing.setCounted(true);
+            }
+            existing.setQuantity(requested.getQuantity());
+            existing.setMinimumStockQuantity(requested.getMinimumStockQuantity());
+        }
+
+        // IDs that do not belong to this inventory are treated as new lines rather than moved from elsewhere
+        newItems.addAll(requestedById.values());
+        for (ItemProperties newItem : newItems) {
+            newItem.setId(null);
+            newItem.setVersion(null);
+            inventory.addItemProperties(newItem);
+        }
+    }
+
+    // Closing has side effects (close-out report, consumption stats, reminders) that only closeInventory runs
+    private static void checkClosingDateUnchanged(Inventory inventory, LocalDateTime closingDate) {
+        if (!Objects.equals(inventory.getClosingDate(), closingDate)) {
+            throw new IllegalArgumentException("Closing date can only be changed by closing the inventory");
+        }
+    }
+
+    private static void checkVersion(Inventory inventory, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != inventory.getAggregateVersion()) {
+            throw new VersionMismatchException("Inventory " + inventory.getId() + " has been modified");
+        }
+    }
+
+    private ObjectNode toPatchDocument(Inventory inventory) {
+        ObjectNode document = objectMapper.createObjectNode();
+        document.set("emissionDate", objectMapper.valueToTree(inventory.getEmissionDate()));
+        document.set("closingDate", objectMapper.valueToTree(inventory.getClosingDate()));
+        document.set("expectedClosingDate", objectMapper.valueToTree(inventory.getExpectedClosingDate()));
+        document.put("report", inventory.getReport());
+        document.put("closedByUser", inventory.getClosedByUser());
+
+        ObjectNode items = document.putObject("items");
+        for (ItemProperties itemProperties : inventory.getItems()) {
+            ObjectNode line = objectMapper.valueToTree(itemProperties);
+            line.remove("id");
+            items.set(itemProperties.getId().toString(), line);
+        }
+        return document;
+    }
+
+    /**
+     * Reads the patched lines keyed by item properties ID. Keys that are not a line of this inventory
+     * become new lines; each key keeps its own line even when two new lines are identical.
+     */
+    private Map<String, ItemProperties> readPatchedItems(JsonNode items, Inventory inventory) {
+        Map<String, ItemProperties> result = new LinkedHashMap<>();
+        if (items == null || items.isNull()) {
+            return result;
+        }
+        if (!items.isObject()) {
+            throw new IllegalArgumentException("Patched items must be an object keyed by item properties ID");
+        }
+
+        Set<UUID> existingIds = new HashSet<>();
+        for (ItemProperties itemProperties : inventory.getItems()) {
+            existingIds.add(itemProperties.getId());
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = items.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            ItemProperties itemProperties = objectMapper.convertValue(field.getValue(), ItemProperties.class);
+            if (itemProperties == null) {
+                throw new IllegalArgumentException("Item properties '" + field.getKey() + "' must be an object");
+            }
+            UUID key = parseUuid(field.getKey());
+            itemProperties.setId(key != null && existingIds.contains(key) ? key : null);
+            result.put(field.getKey(), itemProperties);
+        }
+        return result;
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,248 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.InventoryLineChange;
+import com.supplywise.supplywise.DAO.SyncOperation;
+import com.supplywise.supplywise.DAO.SyncRequest;
+import com.supplywise.supplywise.DAO.SyncResponse;
+import com.supplywise.supplywise.DAO.SyncResult;
+import com.supplywise.supplywise.DAO.SyncResult.Status;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.InventoryRepository;
+import com.supplywise.supplywise.repositories.InventorySyncRepository;
+import com.supplywise.supplywise.repositories.InventorySyncRepository.LineState;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Sync for counting devices that work offline. A device sends the operations it queued, each with an
+ * idempotency key, and gets back their results and the lines changed on the server since its last sync.
+ * Operations are applied in the order sent. SET and REMOVE carry the line version the device last saw;
+ * if the line has moved on, the change made last wins, going by the device's timestamp and the time
+ * the server last changed the line. ADJUST never conflicts.
+ */
+@Service
+public class InventorySyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySyncService.class);
+
+    static final int MAX_OPERATIONS = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final ItemRepository itemRepository;
+    private final InventorySyncRepository inventorySyncRepository;
+    private final int retentionDays;
+
+    public InventorySyncService(InventoryRepository inventoryRepository, ItemRepository itemRepository,
+                                InventorySyncRepository inventorySyncRepository,
+                                @Value("${supplywise.sync.retention-days:30}") int retentionDays) {
+        this.inventoryRepository = inventoryRepository;
+        this.itemRepository = itemRepository;
+        this.inventorySyncRepository = inventorySyncRepository;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Applies the operations to the inventory and returns the server changes since the request's token.
+     * Operations received before are not applied again; their original result is returned.
+     * Returns null if the inventory does not exist.
+     */
+    @Transactional
+    public SyncResponse sync(UUID inventoryId, SyncRequest request) {
+        List<SyncOperation> operations = request.getOperations() != null ? request.getOperations() : List.of();
+        validateOperations(operations);
+        if (!inventoryRepository.existsById(inventoryId)) {
+            return null;
+        }
+
+        List<SyncResult> results = operations.isEmpty() ? List.of() : applyOperations(inventoryId, operations);
+
+        long token = inventorySyncRepository.currentToken();
+        Long since = request.getSyncToken();
+        boolean fullResync = since == null || inventorySyncRepository.oldestToken().map(oldest -> since < oldest).orElse(false);
+        List<InventoryLineChange> changes = fullResync
+                ? inventorySyncRepository.findLines(inventoryId)
+                : inventorySyncRepository.findChangesSince(inventoryId, since);
+        return new SyncResponse(results, changes, fullResync, token);
+    }
+
+    /**
+     * Drops change feed entries and idempotency records past the retention period; devices that last synced
+     * before that get a full resync.
+     */
+    @Scheduled(cron = "${supplywise.sync.prune-cron:0 15 3 * * *}")
+    public void pruneChangeFeed() {
+        int pruned = inventorySyncRepository.pruneBefore(OffsetDateTime.now().minusDays(retentionDays));
+        logger.info("Pruned {} change feed entries", pruned);
+    }
+
+    /* Helper functions */
+
+    private List<SyncResult> applyOperations(UUID inventoryId, List<SyncOperation> operations) {
+        List<UUID> operationIds = new ArrayList<>(operations.size());
+        for (SyncOperation operation : operations) {
+            operationIds.add(operation.getOperationId());
+        }
+        Set<UUID> claimed = inventorySyncRepository.claimOperations(inventoryId, operationIds);
+        List<UUID> replayedIds = operationIds.stream().filter(id -> !claimed.contains(id)).toList();
+        Map<UUID, SyncResult> replayed = inventorySyncRepository.findResults(replayedIds);
+
+        Set<Long> barCodes = new HashSet<>();
+        for (SyncOperation operation : operations) {
+            if (operation.getType() == SyncOperation.Type.ADD && operation.getBarCode() != null) {
+                barCodes.add(operation.getBarCode());
+            }
+        }
+        Map<Long, Item> itemsByBarCode = new HashMap<>();
+        if (!barCodes.isEmpty()) {
+            for (Item item : itemRepository.findByBarCodeIn(barCodes)) {
+                itemsByBarCode.put(item.getBarCode(), item);
+            }
+        }
+
+        // Versions this batch produced: a device chains its offline changes on its own earlier ones
+        Map<UUID, Long> batchVersions = new HashMap<>();
+        List<SyncResult> results = new ArrayList<>(operations.size());
+        List<SyncResult> applied = new ArrayList<>();
+        for (SyncOperation operation : operations) {
+            if (!claimed.contains(operation.getOperationId())) {
+                SyncResult original = replayed.get(operation.getOperationId());
+                results.add(original != null ? original
+                        : new SyncResult(operation.getOperationId(), Status.REJECTED, "Operation was already received", null, true));
+                continue;
+            }
+            SyncResult result = applyOperation(inventoryId, operation, itemsByBarCode, batchVersions);
+            if (result.getStatus() == Status.APPLIED && operation.getLineId() != null) {
+                batchVersions.put(operation.getLineId(), result.getVersion());
+            }
+            applied.add(result);
+            results.add(result);
+        }
+        inventorySyncRepository.saveResults(applied);
+        return results;
+    }
+
+    private SyncResult applyOperation(UUID inventoryId, SyncOperation operation, Map<Long, Item> itemsByBarCode,
+                                      Map<UUID, Long> batchVersions) {
+        if (operation.getLineId() == null) {
+            return rejected(operation, "Line ID is required");
+        }
+        Long expectedVersion = batchVersions.containsKey(operation.getLineId())
+                ? batchVersions.get(operation.getLineId())
+                : operation.getBaseVersion();
+        return switch (operation.getType()) {
+            case ADD -> addLine(inventoryId, operation, itemsByBarCode);
+            case ADJUST -> adjustLine(inventoryId, operation);
+            case SET -> setLine(inventoryId, operation, expectedVersion);
+            case REMOVE -> removeLine(inventoryId, operation, expectedVersion);
+        };
+    }
+
+    private SyncResult addLine(UUID inventoryId, SyncOperation operation, Map<Long, Item> itemsByBarCode) {
+        Item item = operation.getBarCode() != null ? itemsByBarCode.get(operation.getBarCode()) : null;
+        int minimum = operation.getMinimumStockQuantity() != null ? operation.getMinimumStockQuantity() : 0;
+        if (item == null) {
+            return rejected(operation, "Item barcode does not exist");
+        } else if (operation.getQuantity() == null || operation.getQuantity() < 0) {
+            return rejected(operation, "Quantity cannot be negative");
+        } else if (operation.getExpirationDate() == null) {
+            return rejected(operation, "Expiration date cannot be null");
+        } else if (minimum < 0) {
+            return rejected(operation, "Minimum stock quantity cannot be negative");
+        }
+        Optional<Long> version = inventorySyncRepository.insertLine(inventoryId, operation.getLineId(), item.getId(),
+                operation.getExpirationDate(), operation.getQuantity(), minimum);
+        return version.map(v -> applied(operation, v, null)).orElseGet(() -> rejected(operation, "Line already exists"));
+    }
+
+    private SyncResult adjustLine(UUID inventoryId, SyncOperation operation) {
+        if (operation.getDelta() == null) {
+            return rejected(operation, "Delta is required");
+        }
+        Optional<Long> version = inventorySyncRepository.adjustQuantity(inventoryId, operation.getLineId(), operation.getDelta());
+        return version.map(v -> applied(operation, v, null))
+                .orElseGet(() -> rejected(operation, "Line not found or quantity would go out of range"));
+    }
+
+    private SyncResult setLine(UUID inventoryId, SyncOperation operation, Long expectedVersion) {
+        if (operation.getQuantity() == null || operation.getQuantity() < 0) {
+            return rejected(operation, "Quantity cannot be negative");
+        }
+        Optional<Long> version = inventorySyncRepository.setQuantity(inventoryId, operation.getLineId(), operation.getQuantity(), expectedVersion);
+        if (version.isPresent()) {
+            return applied(operation, version.get(), null);
+        }
+        Optional<LineState> state = inventorySyncRepository.findLineState(inventoryId, operation.getLineId());
+        if (state.isEmpty()) {
+            return rejected(operation, "Line not found");
+        }
+        if (!madeLast(operation, state.get())) {
+            return new SyncResult(operation.getOperationId(), Status.CONFLICT, "Line was changed on the server after this change",
+                    state.get().version(), false);
+        }
+        return inventorySyncRepository.setQuantity(inventoryId, operation.getLineId(), operation.getQuantity(), null)
+                .map(v -> applied(operation, v, "Replaced an earlier server change"))
+                .orElseGet(() -> rejected(operation, "Line not found"));
+    }
+
+    private SyncResult removeLine(UUID inventoryId, SyncOperation operation, Long expectedVersion) {
+        if (inventorySyncRepository.deleteLine(inventoryId, operation.getLineId(), expectedVersion)) {
+            return applied(operation, null, null);
+        }
+        Optional<LineState> state = inventorySyncRepository.findLineState(inventoryId, operation.getLineId());
+        if (state.isEmpty()) {
+            return applied(operation, null, "Line was already removed");
+        }
+        if (!madeLast(operation, state.get())) {
+            return new SyncResult(operation.getOperationId(), Status.CONFLICT, "Line was changed on the server after this change",
+                    state.get().version(), false);
+        }
+        inventorySyncRepository.deleteLine(inventoryId, operation.getLineId(), null);
+        return applied(operation, null, "Replaced an earlier server change");
+    }
+
+    // Without a device timestamp the server's version wins. Both sides carry an offset, so this compares instants
+    // regardless of the device's time zone or a daylight saving change in between
+    private static boolean madeLast(SyncOperation operation, LineState state) {
+        return operation.getClientTimestamp() != null
+                && (state.lastChangedAt() == null || operation.getClientTimestamp().isAfter(state.lastChangedAt()));
+    }
+
+    private static SyncResult applied(SyncOperation operation, Long version, String message) {
+        return new SyncResult(operation.getOperationId(), Status.APPLIED, message, version, false);
+    }
+
+    private static SyncResult rejected(SyncOperation operation, String message) {
+        return new SyncResult(operation.getOperationId(), Status.REJECTED, message, null, false);
+    }
+
+    private static void validateOperations(List<SyncOperation> operations) {
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPERATIONS + " operations can be synced at once");
+        }
+        Set<UUID> operationIds = new HashSet<>();
+        for (SyncOperation operation : operations) {
+            if (operation == null || operation.getOperationId() == null || operation.getType() == null) {
+                throw new IllegalArgumentException("Every operation needs an operation ID and a type");
+            }
+            if (!operationIds.add(operation.getOperationId())) {
+                throw new IllegalArgumentException("Operation " + operation.getOperationId() + " appears more than once");
+            }
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.supplywise.supplywise.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplywise.supplywise.DAO.ItemImportReport;
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemJdbcRepository;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams supplier catalogs (CSV or NDJSON) into the item table. Rows are parsed one line at a time,
+ * validated with the same rules as {@link ItemService#createItem}, de-duplicated per batch and written
+ * with one JDBC batch per {@value #BATCH_SIZE} rows, so memory stays flat regardless of file size.
+ */
+@Service
+public class ItemImportService {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final String DEFAULT_CSV_HEADER = "name,barCode,category";
+    private static final String ITEM_NOT_VALID = "Item is not valid";
+    private static final String ITEM_DUPLICATE = "Item with the same barcode already exists";
+
+    private final Logger logger = LoggerFactory.getLogger(ItemImportService.class);
+
+    private final ItemService itemService;
+    private final ItemRepository itemRepository;
+    private final ItemJdbcRepository itemJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    public ItemImportService(ItemService itemService,
+                             ItemRepository itemRepository,
+                             ItemJdbcRepository itemJdbcRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             ObjectMapper objectMapper) {
+        this.itemService = itemService;
+        this.itemRepository = itemRepository;
+        this.itemJdbcRepository = itemJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports a CSV file with the columns {@code name}, {@code barCode} and {@code category}.
+     * A header row is optional; when present it may list the columns in any order.
+     */
+    public ItemImportReport importCsv(InputStream input, boolean updateExisting) throws IOException {
+        ImportBatch batch = new ImportBatch(updateExisting);
+        try (BufferedReader reader = newReader(input)) {
+            Map<String, Integer> columns = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> cells = parseCsvLine(line);
+                if (columns == null) {
+                    columns = isCsvHeader(cells) ? csvColumns(cells) : csvColumns(parseCsvLine(DEFAULT_CSV_HEADER));
+                    if (isCsvHeader(cells)) {
+                        continue;
+                    }
+                }
+                batch.add(lineNumber, cell(cells, columns, "name"), cell(cells, columns, "barcode"), cell(cells, columns, "category"));
+            }
+        }
+        return batch.finish();
+    }
+
+    /**
+     * Imports newline-delimited JSON, one object per line with the fields
+     * {@code name}, {@code barCode} and {@code category}.
+     */
+    public ItemImportReport importNdjson(InputStream input, boolean updateExisting) throws IOException {
+        ImportBatch batch = new ImportBatch(updateExisting);
+        try (BufferedReader reader = newReader(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    batch.reject(lineNumber, null, "Line is not valid JSON");
+                    continue;
+                }
+                JsonNode barCode = node.has("barCode") ? node.get("barCode") : node.get("barcode");
+                batch.add(lineNumber, text(node.get("name")), text(barCode), text(node.get("category")));
+            }
+        }
+        return batch.finish();
+    }
+
+    /* Helper functions */
+
+    /**
+     * Collects valid rows until the batch is full, then writes them in one round trip.
+     * A barcode seen twice in the same batch keeps its first row and rejects the rest.
+     */
+    private class ImportBatch {
+
+        private final boolean updateExisting;
+        private final ItemImportReport report = new ItemImportReport();
+        private final Map<Long, Long> linesByBarCode = new LinkedHashMap<>();
+        private List<Item> items = new ArrayList<>(BATCH_SIZE);
+
+        ImportBatch(boolean updateExisting) {
+            this.updateExisting = updateExisting;
+        }
+
+        void add(long line, String name, String barCodeText, String categoryText) {
+            report.countRow();
+
+            long barCode;
+            try {
+                barCode = Long.parseLong(barCodeText == null ? "" : barCodeText.trim());
+            } catch (NumberFormatException e) {
+                report.reject(line, barCodeText, "Bar code must be numeric");
+                return;
+            }
+
+            Category category;
+            try {
+                category = Category.valueOf(categoryText == null ? "" : categoryText.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                report.reject(line, barCodeText, "Unknown category: " + categoryText);
+                return;
+            }
+
+            Item item = new Item(name == null ? null : name.trim(), barCode, category);
+            if (!itemService.isItemValid(item)) {
+                report.reject(line, barCodeText, ITEM_NOT_VALID);
+                return;
+            }
+
+            Long firstLine = linesByBarCode.putIfAbsent(barCode, line);
+            if (firstLine != null) {
+                report.reject(line, barCodeText, "Duplicate barcode, first seen on line " + firstLine);
+                return;
+            }
+
+            items.add(item);
+            if (items.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long line, String barCodeText, String message) {
+            report.countRow();
+            report.reject(line, barCodeText, message);
+        }
+
+        ItemImportReport finish() {
+            flush();
+            logger.info("Item import finished: {} rows read, {} imported, {} rejected",
+                    report.getRowsRead(), report.getRowsImported(), report.getRowsRejected());
+            return report;
+        }
+
+        private void flush() {
+            if (items.isEmpty()) {
+                return;
+            }
+
+            int[] counts = itemJdbcRepository.upsertItems(items, updateExisting);
+            List<Long> written = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                if (counts[i] == 0) {
+                    report.reject(linesByBarCode.get(item.getBarCode()), String.valueOf(item.getBarCode()), ITEM_DUPLICATE);
+                } else {
+                    written.add(item.getBarCode());
+                }
+            }
+            report.addImported(written.size());
+
+            // Reload the written rows so in-memory indexes see the persisted IDs
+            if (!written.isEmpty()) {
+                eventPublisher.publishEvent(new ItemCatalogChangedEvent(itemRepository.findByBarCodeIn(written), List.of()));
+            }
+
+            items = new ArrayList<>(BATCH_SIZE);
+            linesByBarCode.clear();
+        }
+    }
+
+    private static BufferedReader newReader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static boolean isCsvHeader(List<String> cells) {
+        for (String cell : cells) {
+            if (cell.trim().equalsIgnoreCase("barcode")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Integer> csvColumns(List<String> header) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    private static String cell(List<String> cells, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= cells.size() ? null : cells.get(index);
+    }
+
+    // Splits one CSV record, honouring double-quoted cells and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+}
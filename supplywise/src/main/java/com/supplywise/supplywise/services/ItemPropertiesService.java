@@ -1,46 +1,76 @@
 package com.supplywise.supplywise.services;
 
-import com.supplywise.supplywise.model.Inventory;
+import com.supplywise.supplywise.DAO.InventoryOwner;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Notification;
+import com.supplywise.supplywise.repositories.ItemPropertiesJdbcRepository;
 import com.supplywise.supplywise.repositories.ItemPropertiesRepository;
 import com.supplywise.supplywise.repositories.ItemRepository;
 import com.supplywise.supplywise.repositories.InventoryRepository;
 import com.supplywise.supplywise.repositories.NotificationRepository;
+import com.supplywise.supplywise.repositories.RestaurantRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class ItemPropertiesService {
 
-    private static final int MIN_ITEM_QUANTITY = 1;
+    private static final int MAX_QUANTITY_DELTA = 1_000_000;
+    private static final String LOW_STOCK_MESSAGE_PREFIX = "Item '%s' is below minimum stock";
 
     private final ItemPropertiesRepository itemPropertiesRepository;
+    private final ItemPropertiesJdbcRepository itemPropertiesJdbcRepository;
     private final ItemRepository itemRepository;
     private final InventoryRepository inventoryRepository;
     private final NotificationRepository notificationRepository;
+    private final RestaurantRepository restaurantRepository;
     private final NotificationService notificationService;
 
     public ItemPropertiesService(ItemPropertiesRepository itemPropertiesRepository, 
+                                 ItemPropertiesJdbcRepository itemPropertiesJdbcRepository,
                                  ItemRepository itemRepository, 
                                  InventoryRepository inventoryRepository, 
                                  NotificationRepository notificationRepository,
+                                 RestaurantRepository restaurantRepository,
                                  NotificationService notificationService) {
         this.itemPropertiesRepository = itemPropertiesRepository;
+        this.itemPropertiesJdbcRepository = itemPropertiesJdbcRepository;
         this.itemRepository = itemRepository;
         this.inventoryRepository = inventoryRepository;
         this.notificationRepository = notificationRepository;
+        this.restaurantRepository = restaurantRepository;
         this.notificationService = notificationService;
     }
 
     public ItemProperties createItemProperties(ItemProperties itemProperties) {
-        if (!isItemPropertiesValid(itemProperties)) {
-            throw new IllegalArgumentException("Item properties are not valid.");
+        ItemPropertiesValidator.validate(itemProperties);
+        requireExistingItem(itemProperties.getItem());
+        return itemPropertiesRepository.save(itemProperties);
+    }
+
+    /**
+     * Adds a line to an inventory with a single INSERT, without loading the inventory or its other lines.
+     * The item must already have been resolved by the caller, e.g. looked up by barcode, so it is not read again.
+     * Returns null if the inventory does not exist.
+     */
+    @Transactional
+    public ItemProperties addItemPropertiesToInventory(UUID inventoryId, ItemProperties itemProperties) {
+        ItemPropertiesValidator.validate(itemProperties);
+        if (!inventoryRepository.existsById(inventoryId)) {
+            return null;
         }
+        itemProperties.setInventory(inventoryRepository.getReferenceById(inventoryId));
         return itemPropertiesRepository.save(itemProperties);
     }
 
@@ -48,6 +78,13 @@ public class ItemPropertiesService {
         return itemPropertiesRepository.findAll();
     }
 
+    public KeysetPage<ItemProperties> getItemPropertiesPage(UUID after, int size) {
+        List<ItemProperties> page = after == null
+                ? itemPropertiesRepository.findFirstPage(Limit.of(size))
+                : itemPropertiesRepository.findPageAfter(after, Limit.of(size));
+        return KeysetPage.of(page, size, ItemProperties::getId);
+    }
+
     public ItemProperties getItemPropertiesById(UUID id) {
         return itemPropertiesRepository.findById(id).orElse(null);
     }
@@ -56,12 +93,24 @@ public class ItemPropertiesService {
         itemPropertiesRepository.deleteById(id);
     }
 
-    public ItemProperties updateItemProperties(UUID id, ItemProperties newItemProperties) {
+    /**
+     * Updates the given fields. When {@code expectedVersion} is set the update only goes through
+     * if it is still the current version.
+     */
+    @Transactional
+    public ItemProperties updateItemProperties(UUID id, ItemProperties newItemProperties, Long expectedVersion) {
         ItemProperties existingItemProperties = itemPropertiesRepository.findById(id).orElse(null);
 
         if (existingItemProperties == null) {
             return null;
         }
+        if (expectedVersion != null && !expectedVersion.equals(existingItemProperties.getVersion())) {
+            throw new VersionMismatchException("Item properties " + id + " has been modified");
+        }
+
+        // Only a different item has to be checked; the current one is guaranteed by the foreign key
+        boolean itemChanged = newItemProperties.getItem() != null && (existingItemProperties.getItem() == null
+                || !Objects.equals(newItemProperties.getItem().getId(), existingItemProperties.getItem().getId()));
 
         // Update fields
         if (newItemProperties.getItem() != null) {
@@ -72,6 +121,7 @@ public class ItemPropertiesService {
         }
         if (newItemProperties.getQuantity() != null) {
             existingItemProperties.setQuantity(newItemProperties.getQuantity());
+            existingItemProperties.setCounted(true);
         }
         if (newItemProperties.getMinimumStockQuantity() != null) {
             if (newItemProperties.getMinimumStockQuantity() < 0) {
@@ -80,8 +130,9 @@ public class ItemPropertiesService {
             existingItemProperties.setMinimumStockQuantity(newItemProperties.getMinimumStockQuantity());
         }
 
-        if (!isItemPropertiesValid(existingItemProperties)) {
-            throw new IllegalArgumentException("Updated item properties are not valid.");
+        ItemPropertiesValidator.validate(existingItemProperties);
+        if (itemChanged) {
+            requireExistingItem(existingItemProperties.getItem());
         }
 
         // Notification logic
@@ -91,12 +142,16 @@ public class ItemPropertiesService {
     }
 
     private void handleStockNotifications(ItemProperties itemProperties) {
-        Inventory inventory = inventoryRepository.findInventoryByItemPropertiesId(itemProperties.getId())
+        InventoryOwner owner = itemPropertiesRepository.findInventoryOwnerById(itemProperties.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Associated Inventory not found"));
+        updateStockNotification(itemProperties, owner);
+    }
 
+    private void updateStockNotification(ItemProperties itemProperties, InventoryOwner owner) {
+        // Match the low-stock wording so expiry notifications for the same item are left alone
         Optional<Notification> existingNotification = notificationRepository.findByRestaurantIdAndMessageContaining(
-                inventory.getRestaurant().getId(),
-                itemProperties.getItem().getName()
+                owner.getRestaurantId(),
+                String.format(LOW_STOCK_MESSAGE_PREFIX, itemProperties.getItem().getName())
         );
 
         if (itemProperties.getQuantity() >= itemProperties.getMinimumStockQuantity()) {
@@ -105,13 +160,13 @@ public class ItemPropertiesService {
         } else {
             // Create notification if quantity < minimum stock and no existing notification
             if (existingNotification.isEmpty()) {
-                String message = String.format("Item '%s' is below minimum stock in restaurant '%s' (%s -> %s).",
+                String message = String.format(LOW_STOCK_MESSAGE_PREFIX + " in restaurant '%s' (%s -> %s).",
                         itemProperties.getItem().getName(),
-                        inventory.getRestaurant().getName(),
+                        owner.getRestaurantName(),
                         itemProperties.getQuantity(),
                         itemProperties.getMinimumStockQuantity());
 
-                Notification notification = new Notification(inventory.getRestaurant(), message);
+                Notification notification = new Notification(restaurantRepository.getReferenceById(owner.getRestaurantId()), message);
                 notificationService.createNotification(notification);
             }
             if (existingNotification.isPresent() && existingNotification.get().isRead()) {
@@ -121,6 +176,42 @@ public class ItemPropertiesService {
         }
     }
 
+    /**
+     * Adds {@code delta} to the quantity with a single {@code UPDATE ... RETURNING}, so concurrent counters never
+     * overwrite each other, and returns the new stock level. Low-stock notifications are only looked at when the change crosses the minimum stock quantity.
+     * Returns null if the item properties do not exist.
+     */
+    @Transactional
+    public StockLevel applyQuantityDelta(UUID id, int delta) {
+        if (Math.abs((long) delta) > MAX_QUANTITY_DELTA) {
+            throw new IllegalArgumentException("Quantity delta must be between -" + MAX_QUANTITY_DELTA + " and " + MAX_QUANTITY_DELTA);
+        }
+
+        StockLevel stockLevel = itemPropertiesJdbcRepository.addToQuantity(id, delta).orElse(null);
+        if (stockLevel == null) {
+            if (!itemPropertiesRepository.existsById(id)) {
+                return null;
+            }
+            throw new IllegalStateException("Quantity must stay between 0 and " + Integer.MAX_VALUE);
+        }
+
+        notifyIfMinimumCrossed(stockLevel);
+        return stockLevel;
+    }
+
+    /**
+     * Subtracts aggregated consumption from many item properties in one statement, clamping at zero.
+     * Low-stock notifications are evaluated once per row, and only for rows that crossed their minimum.
+     */
+    @Transactional
+    public List<StockLevel> applyConsumption(Map<UUID, Integer> consumed) {
+        List<StockLevel> stockLevels = itemPropertiesJdbcRepository.subtractQuantities(consumed);
+        for (StockLevel stockLevel : stockLevels) {
+            notifyIfMinimumCrossed(stockLevel);
+        }
+        return stockLevels;
+    }
+
     // Method to update only the minimum stock quantity (for authorized roles)
     public ItemProperties updateMinimumStockQuantity(UUID id, Integer minimumStock) {
         if (minimumStock < 0) {
@@ -140,12 +231,19 @@ public class ItemPropertiesService {
 
     /* Helper functions */
 
-    private boolean isItemPropertiesValid(ItemProperties itemProperties) {
-        if (itemProperties == null) {
-            return false;
+    private void notifyIfMinimumCrossed(StockLevel stockLevel) {
+        if (!stockLevel.hasCrossedMinimum()) {
+            return;
         }
+        UUID id = stockLevel.getItemPropertiesId();
+        itemPropertiesRepository.findById(id).ifPresent(itemProperties ->
+                itemPropertiesRepository.findInventoryOwnerById(id).ifPresent(owner ->
+                        updateStockNotification(itemProperties, owner)));
+    }
 
-        Item item = itemRepository.findById(itemProperties.getItem().getId()).orElse(null);
-        return item != null && itemProperties.getQuantity() >= MIN_ITEM_QUANTITY && itemProperties.getExpirationDate() != null;
+    private void requireExistingItem(Item item) {
+        if (!itemRepository.existsById(item.getId())) {
+            throw new IllegalArgumentException("Item does not exist");
+        }
     }
 }
@@ -0,0 +1,37 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.model.ItemProperties;
+
+/**
+ * Field checks for inventory lines that only look at the object itself. Whether the referenced item
+ * exists is left to the caller, which often has it loaded already.
+ */
+final class ItemPropertiesValidator {
+
+    // Same floor as the SQL quantity guards and the item_properties check constraint
+    private static final int MIN_ITEM_QUANTITY = 0;
+
+    private ItemPropertiesValidator() {
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} describing the first invalid field.
+     * A missing minimum stock quantity is set to 0.
+     */
+    static void validate(ItemProperties itemProperties) {
+        if (itemProperties == null || itemProperties.getItem() == null || itemProperties.getItem().getId() == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        if (itemProperties.getExpirationDate() == null) {
+            throw new IllegalArgumentException("Expiration date cannot be null");
+        }
+        if (itemProperties.getQuantity() == null || itemProperties.getQuantity() < MIN_ITEM_QUANTITY) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+        if (itemProperties.getMinimumStockQuantity() == null) {
+            itemProperties.setMinimumStockQuantity(0);
+        } else if (itemProperties.getMinimumStockQuantity() < 0) {
+            throw new IllegalArgumentException("Minimum stock quantity cannot be negative");
+        }
+    }
+}
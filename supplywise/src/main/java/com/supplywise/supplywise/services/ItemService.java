@@ -1,12 +1,19 @@
 package com.supplywise.supplywise.services;
 
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.index.BarcodeIndex;
+import com.supplywise.supplywise.index.ItemSearchIndex;
 import com.supplywise.supplywise.model.Category;
 import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.repositories.ItemRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -15,12 +22,19 @@ public class ItemService {
     private static final int MIN_ITEM_NAME_LENGTH = 3;
     private static final int MAX_ITEM_NAME_LENGTH = 100;
     private static final int MIN_BAR_CODE_LENGTH = 3;
-    private static final int MAX_BAR_CODE_LENGTH = 30;
+    private static final int MAX_BAR_CODE_LENGTH = 18;
 
     private final ItemRepository itemRepository;
+    private final BarcodeIndex barcodeIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ItemService(ItemRepository itemRepository) {
+    public ItemService(ItemRepository itemRepository, BarcodeIndex barcodeIndex, ItemSearchIndex itemSearchIndex,
+                       ApplicationEventPublisher eventPublisher) {
         this.itemRepository = itemRepository;
+        this.barcodeIndex = barcodeIndex;
+        this.itemSearchIndex = itemSearchIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     public Item createItem(Item item) {
@@ -30,22 +44,31 @@ public class ItemService {
         if (isItemDuplicate(item)) {
             throw new IllegalArgumentException("Item with the same barcode already exists");
         }
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemCatalogChangedEvent.upserted(savedItem));
+        return savedItem;
     }
 
     public List<Item> getAllItems() {
         return itemRepository.findAll();
     }
 
+    public KeysetPage<Item> getItemsPage(UUID after, int size) {
+        List<Item> items = after == null
+                ? itemRepository.findAllByOrderByIdAsc(Limit.of(size))
+                : itemRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(size));
+        return KeysetPage.of(items, size, Item::getId);
+    }
+
     public Item getItemById(UUID id) {
         return itemRepository.findById(id).orElse(null);
     }
 
-    public Item getItemByBarCode(int barCode) {
+    public Item getItemByBarCode(long barCode) {
         if (!isBarCodeValid(barCode)) {
             throw new IllegalArgumentException("Bar code is not valid");
         }
-        return itemRepository.findByBarCode(barCode).orElse(null);
+        return findItemByBarcode(barCode);
     }
 
     public Item updateItem(UUID id, Item itemDetails) {
@@ -59,8 +82,8 @@ public class ItemService {
         }
 
         // Check if the updated item is a duplicate
-        int oldBarCode = item.getBarCode(); 
-        int newBarCode = itemDetails.getBarCode();
+        long oldBarCode = item.getBarCode();
+        long newBarCode = itemDetails.getBarCode();
         if ((oldBarCode != newBarCode) && isItemDuplicate(itemDetails)) {
             throw new IllegalArgumentException("Item with the same barcode already exists");
         }
@@ -68,32 +91,60 @@ public class ItemService {
         item.setName(itemDetails.getName());
         item.setBarCode(itemDetails.getBarCode());
         item.setCategory(itemDetails.getCategory());
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemCatalogChangedEvent.upserted(savedItem));
+        return savedItem;
     }
 
     public void deleteItem(UUID id) {
+        Item item = itemRepository.findById(id).orElse(null);
         itemRepository.deleteById(id);
+        if (item != null) {
+            eventPublisher.publishEvent(ItemCatalogChangedEvent.removed(item));
+        }
     }
 
-    public Item findItemByBarcode(int barcode) {
+    public Item findItemByBarcode(long barcode) {
+        // Served from memory once the index is loaded; a miss falls through to the database because
+        // items created on another instance, or not yet applied to this one, are not in the index
+        if (barcodeIndex.isReady()) {
+            Item indexed = barcodeIndex.get(barcode);
+            if (indexed != null) {
+                return indexed;
+            }
+        }
         return itemRepository.findByBarCode(barcode).orElse(null);
     }
 
-    /* Helper functions */
+    /**
+     * Looks the barcode up in the database, never in the index. For writes that reference the item: the index
+     * is only kept current from this instance's changes, so an entry can be stale until its next refresh.
+     */
+    public Item findCurrentItemByBarcode(long barcode) {
+        return itemRepository.findByBarCode(barcode).orElse(null);
+    }
 
-    private boolean isBarCodeValid(int barCode) {
-        String barCodeStr = String.valueOf(barCode);
-        int barCodeLength = barCodeStr.length();
-        return barCodeLength >= MIN_BAR_CODE_LENGTH && barCodeLength <= MAX_BAR_CODE_LENGTH;
+    public List<Item> searchItems(String query, Set<Category> categories, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (itemSearchIndex.isReady()) {
+            return itemSearchIndex.search(query, categories, limit);
+        }
+        // Plain substring match until the index has loaded
+        String name = query.trim();
+        return categories == null || categories.isEmpty()
+                ? itemRepository.findByNameContainingIgnoreCaseOrderByNameAsc(name, Limit.of(limit))
+                : itemRepository.findByNameContainingIgnoreCaseAndCategoryInOrderByNameAsc(name, categories, Limit.of(limit));
     }
 
-    private boolean isItemValid(Item item) {
+    public boolean isItemValid(Item item) {
         if (item == null) {
             return false;
         }
 
         String itemName = item.getName();
-        int itemBarCode = item.getBarCode();
+        long itemBarCode = item.getBarCode();
         Category itemCategory = item.getCategory();
 
         if (itemName == null || itemName.isEmpty() || itemName.length() < MIN_ITEM_NAME_LENGTH || itemName.length() > MAX_ITEM_NAME_LENGTH) {
@@ -106,6 +157,16 @@ public class ItemService {
         return isBarCodeValid(itemBarCode);
     }
 
+    /* Helper functions */
+
+    private boolean isBarCodeValid(long barCode) {
+        if (barCode <= 0) {
+            return false;
+        }
+        int barCodeLength = String.valueOf(barCode).length();
+        return barCodeLength >= MIN_BAR_CODE_LENGTH && barCodeLength <= MAX_BAR_CODE_LENGTH;
+    }
+
     private boolean isItemDuplicate(Item item) {
         return itemRepository.findByBarCode(item.getBarCode()).isPresent();
     }
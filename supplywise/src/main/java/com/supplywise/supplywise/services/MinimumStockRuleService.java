@@ -0,0 +1,75 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.MinimumStockRule;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.MinimumStockScope;
+import com.supplywise.supplywise.repositories.MinimumStockRuleRepository;
+
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Minimum stock per item for a restaurant, or as a default for every restaurant of a company. Unlike the
+ * minimum on an inventory line, a rule outlives the inventory and is checked against the restaurant's
+ * materialized stock; line minimums still apply to items without a rule.
+ */
+@Service
+public class MinimumStockRuleService {
+
+    static final int MAX_RULES_PER_REQUEST = 5000;
+    private static final int MAX_MINIMUM_STOCK_QUANTITY = 1_000_000;
+
+    private final MinimumStockRuleRepository minimumStockRuleRepository;
+
+    public MinimumStockRuleService(MinimumStockRuleRepository minimumStockRuleRepository) {
+        this.minimumStockRuleRepository = minimumStockRuleRepository;
+    }
+
+    /**
+     * Sets the given rules of the scope, leaving its other rules untouched. Returns the number of rules
+     * created, changed or removed; rules for unknown items are ignored.
+     */
+    public int applyRules(MinimumStockScope scope, UUID scopeId, List<MinimumStockRule> rules) {
+        validateRules(rules);
+        if (rules.isEmpty()) {
+            return 0;
+        }
+        return minimumStockRuleRepository.applyRules(scope, scopeId, rules);
+    }
+
+    public List<MinimumStockRule> getRules(MinimumStockScope scope, UUID scopeId) {
+        return minimumStockRuleRepository.findRules(scope, scopeId);
+    }
+
+    public List<StockShortfall> getBelowMinimum(UUID restaurantId) {
+        return minimumStockRuleRepository.findBelowMinimum(restaurantId);
+    }
+
+    /* Helper functions */
+
+    private static void validateRules(List<MinimumStockRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Rules are required");
+        }
+        if (rules.size() > MAX_RULES_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_RULES_PER_REQUEST + " rules can be set at once");
+        }
+        Set<UUID> itemIds = new HashSet<>();
+        for (MinimumStockRule rule : rules) {
+            if (rule == null || rule.getItemId() == null) {
+                throw new IllegalArgumentException("Every rule needs an item ID");
+            }
+            Integer minimum = rule.getMinimumStockQuantity();
+            if (minimum != null && (minimum < 0 || minimum > MAX_MINIMUM_STOCK_QUANTITY)) {
+                throw new IllegalArgumentException("Minimum stock quantity must be between 0 and " + MAX_MINIMUM_STOCK_QUANTITY);
+            }
+            if (!itemIds.add(rule.getItemId())) {
+                throw new IllegalArgumentException("Item " + rule.getItemId() + " appears more than once");
+            }
+        }
+    }
+}
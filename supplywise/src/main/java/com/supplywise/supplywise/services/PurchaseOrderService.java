@@ -0,0 +1,110 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.model.PurchaseOrder;
+import com.supplywise.supplywise.model.PurchaseOrderLine;
+import com.supplywise.supplywise.model.PurchaseOrderStatus;
+import com.supplywise.supplywise.repositories.PurchaseOrderJdbcRepository;
+import com.supplywise.supplywise.repositories.PurchaseOrderRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Draft purchase orders built from below-minimum stock. A scheduled job keeps one draft per restaurant in line
+ * with the current shortfalls; users adjust quantities on the draft and submit it, after which the next run
+ * opens a new draft.
+ */
+@Service
+public class PurchaseOrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseOrderService.class);
+
+    private static final int MAX_LINE_QUANTITY = 1_000_000;
+
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderJdbcRepository purchaseOrderJdbcRepository;
+
+    public PurchaseOrderService(PurchaseOrderRepository purchaseOrderRepository,
+                                PurchaseOrderJdbcRepository purchaseOrderJdbcRepository) {
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        this.purchaseOrderJdbcRepository = purchaseOrderJdbcRepository;
+    }
+
+    public List<PurchaseOrder> getPurchaseOrdersByRestaurant(UUID restaurantId) {
+        return purchaseOrderRepository.findByRestaurantIdOrderByCreatedAtDesc(restaurantId);
+    }
+
+    public Optional<PurchaseOrder> getPurchaseOrderById(UUID id) {
+        return purchaseOrderRepository.findById(id);
+    }
+
+    /**
+     * Merges the current shortfalls into the drafts. Runs on a fixed delay.
+     */
+    @Scheduled(fixedDelayString = "${supplywise.purchase-orders.interval-ms:900000}")
+    public void refreshDrafts() {
+        int updated = purchaseOrderJdbcRepository.mergeShortfallsIntoDrafts();
+        logger.info("Merged shortfalls into draft purchase orders ({} updates)", updated);
+    }
+
+    /**
+     * Sets the quantity of a draft line. The generator leaves the line alone from then on, even if the item
+     * recovers; a quantity of 0 keeps the item out of the order. Returns null if the order or line does not exist.
+     */
+    @Transactional
+    public PurchaseOrder updateLineQuantity(UUID orderId, UUID lineId, int quantity) {
+        if (quantity < 0 || quantity > MAX_LINE_QUANTITY) {
+            throw new IllegalArgumentException("Quantity must be between 0 and " + MAX_LINE_QUANTITY);
+        }
+        Optional<PurchaseOrder> found = purchaseOrderRepository.findForUpdateById(orderId);
+        if (found.isEmpty()) {
+            return null;
+        }
+        PurchaseOrder order = found.get();
+        requireDraft(order);
+        Optional<PurchaseOrderLine> line = order.getLines().stream().filter(l -> l.getId().equals(lineId)).findFirst();
+        if (line.isEmpty()) {
+            return null;
+        }
+        line.get().setQuantity(quantity);
+        line.get().setManual(true);
+        return purchaseOrderRepository.save(order);
+    }
+
+    /**
+     * Submits a draft, dropping lines with nothing to order. Returns null if the order does not exist.
+     */
+    @Transactional
+    public PurchaseOrder submit(UUID orderId, String user) {
+        Optional<PurchaseOrder> found = purchaseOrderRepository.findForUpdateById(orderId);
+        if (found.isEmpty()) {
+            return null;
+        }
+        PurchaseOrder order = found.get();
+        requireDraft(order);
+        order.getLines().removeIf(line -> line.getQuantity() == 0);
+        if (order.getLines().isEmpty()) {
+            throw new IllegalStateException("Purchase order has nothing to order");
+        }
+        order.setStatus(PurchaseOrderStatus.SUBMITTED);
+        order.setSubmittedAt(LocalDateTime.now());
+        order.setSubmittedByUser(user);
+        return purchaseOrderRepository.save(order);
+    }
+
+    /* Helper functions */
+
+    private static void requireDraft(PurchaseOrder order) {
+        if (order.getStatus() != PurchaseOrderStatus.DRAFT) {
+            throw new IllegalStateException("Purchase order has already been submitted");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.FefoAllocation;
+import com.supplywise.supplywise.DAO.FefoBatch;
+import com.supplywise.supplywise.DAO.RestaurantStockLine;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.repositories.ItemPropertiesJdbcRepository;
+import com.supplywise.supplywise.repositories.RestaurantStockRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StockService {
+
+    private static final int MAX_CONSUME_UNITS = 1_000_000;
+
+    private static final Comparator<FefoBatch> FEFO_ORDER =
+            Comparator.comparing(FefoBatch::getExpirationDate).thenComparing(FefoBatch::getItemPropertiesId);
+
+    private final ItemPropertiesJdbcRepository itemPropertiesJdbcRepository;
+    private final RestaurantStockRepository restaurantStockRepository;
+    private final ItemPropertiesService itemPropertiesService;
+
+    public StockService(ItemPropertiesJdbcRepository itemPropertiesJdbcRepository,
+                        RestaurantStockRepository restaurantStockRepository,
+                        ItemPropertiesService itemPropertiesService) {
+        this.itemPropertiesJdbcRepository = itemPropertiesJdbcRepository;
+        this.restaurantStockRepository = restaurantStockRepository;
+        this.itemPropertiesService = itemPropertiesService;
+    }
+
+    /**
+     * Current quantity of every item the restaurant has in its open inventories, read from the maintained totals.
+     */
+    public List<RestaurantStockLine> getRestaurantStock(UUID restaurantId) {
+        return restaurantStockRepository.findByRestaurantId(restaurantId);
+    }
+
+    /**
+     * Stocked batches of an item across the restaurant's open inventories, in the order they should be used.
+     */
+    public List<FefoBatch> getFefoBatches(UUID restaurantId, UUID itemId) {
+        return itemPropertiesJdbcRepository.findFefoBatches(restaurantId, itemId);
+    }
+
+    /**
+     * Takes {@code units} from the earliest-expiring batches first. The batches stay locked until the transaction ends,
+     * and nothing is taken unless the whole amount is available.
+     */
+    @Transactional
+    public List<FefoAllocation> consumeFefo(UUID restaurantId, UUID itemId, int units) {
+        if (units < 1 || units > MAX_CONSUME_UNITS) {
+            throw new IllegalArgumentException("Units must be between 1 and " + MAX_CONSUME_UNITS);
+        }
+
+        List<FefoBatch> batches = new ArrayList<>(itemPropertiesJdbcRepository.lockFefoBatches(restaurantId, itemId));
+        long available = batches.stream().mapToLong(FefoBatch::getQuantity).sum();
+        if (available < units) {
+            throw new IllegalStateException("Only " + available + " units in stock");
+        }
+        batches.sort(FEFO_ORDER);
+
+        Map<UUID, Integer> taken = new LinkedHashMap<>();
+        int left = units;
+        for (FefoBatch batch : batches) {
+            if (left == 0) {
+                break;
+            }
+            int take = Math.min(left, batch.getQuantity());
+            taken.put(batch.getItemPropertiesId(), take);
+            left -= take;
+        }
+
+        Map<UUID, StockLevel> levels = itemPropertiesService.applyConsumption(taken).stream()
+                .collect(Collectors.toMap(StockLevel::getItemPropertiesId, Function.identity()));
+
+        List<FefoAllocation> allocations = new ArrayList<>(taken.size());
+        for (FefoBatch batch : batches) {
+            Integer take = taken.get(batch.getItemPropertiesId());
+            if (take == null) {
+                break;
+            }
+            StockLevel level = levels.get(batch.getItemPropertiesId());
+            int remaining = level != null ? level.getQuantity() : batch.getQuantity() - take;
+            allocations.add(new FefoAllocation(batch.getItemPropertiesId(), batch.getExpirationDate(), take, remaining));
+        }
+        return allocations;
+    }
+}
@@ -0,0 +1,214 @@
+package com.supplywise.supplywise.config;
+
+import com.supplywise.supplywise.DAO.IdempotencyClaim;
+import com.supplywise.supplywise.DAO.IdempotencyClaim.Outcome;
+import com.supplywise.supplywise.DAO.IdempotentResponse;
+import com.supplywise.supplywise.services.IdempotencyService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private IdempotencyFilter idempotencyFilter;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyFilter = new IdempotencyFilter(idempotencyService, 64);
+        request = new MockHttpServletRequest("POST", "/api/inventories/123/items");
+        request.addHeader(IdempotencyFilter.HEADER, "retry-me");
+        request.setContent("{\"quantity\":3}".getBytes(StandardCharsets.UTF_8));
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void testFirstRequest_ShouldRunAndStoreResponse() throws Exception {
+        when(idempotencyService.claim(anyString(), startsWith("POST /api/inventories/123/items "))).thenReturn(IdempotencyClaim.of(Outcome.ACQUIRED));
+        when(idempotencyService.complete(anyString(), anyString(), any())).thenReturn(true);
+        doAnswer(invocation -> {
+            HttpServletResponse chained = invocation.getArgument(1);
+            chained.setStatus(201);
+            chained.setContentType("application/json");
+            chained.setHeader("ETag", "\"3\"");
+            chained.setHeader("Location", "/api/inventories/123/items/9");
+            chained.getWriter().write("{\"id\":1}");
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        ArgumentCaptor<IdempotentResponse> captor = ArgumentCaptor.forClass(IdempotentResponse.class);
+        verify(idempotencyService).complete(anyString(), anyString(), captor.capture());
+        assertEquals(201, captor.getValue().getStatus());
+        assertEquals("{\"id\":1}", new String(captor.getValue().getBody(), StandardCharsets.UTF_8));
+        assertEquals(Map.of("ETag", "\"3\"", "Location", "/api/inventories/123/items/9"), captor.getValue().getHeaders());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        verify(idempotencyService, never()).release(anyString());
+    }
+
+    @Test
+    void testFirstRequest_ShouldPassBufferedBodyOn() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(IdempotencyClaim.of(Outcome.ACQUIRED));
+        ArgumentCaptor<ServletRequest> captor = ArgumentCaptor.forClass(ServletRequest.class);
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(captor.capture(), any());
+        assertEquals("{\"quantity\":3}", new String(captor.getValue().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFingerprint_ShouldDependOnBody() {
+        MockHttpServletRequest other = new MockHttpServletRequest("POST", "/api/inventories/123/items");
+        byte[] body = "{\"quantity\":3}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(IdempotencyFilter.fingerprint(request, body), IdempotencyFilter.fingerprint(other, body));
+        assertNotEquals(IdempotencyFilter.fingerprint(request, body),
+                IdempotencyFilter.fingerprint(other, "{\"quantity\":4}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testSameKeyWithOtherBody_ShouldClaimWithOtherFingerprint() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(IdempotencyClaim.of(Outcome.MISMATCH));
+        MockHttpServletRequest retry = new MockHttpServletRequest("POST", "/api/inventories/123/items");
+        retry.addHeader(IdempotencyFilter.HEADER, "retry-me");
+        retry.setContent("{\"quantity\":4}".getBytes(StandardCharsets.UTF_8));
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> fingerprints = ArgumentCaptor.forClass(String.class);
+
+        idempotencyFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        idempotencyFilter.doFilter(retry, response, filterChain);
+
+        verify(idempotencyService, times(2)).claim(keys.capture(), fingerprints.capture());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertNotEquals(fingerprints.getAllValues().get(0), fingerprints.getAllValues().get(1));
+        assertEquals(422, response.getStatus());
+    }
+
+    @Test
+    void testBodyOverLimit_ShouldReturnPayloadTooLarge() throws Exception {
+        request.setContent(new byte[65]);
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        assertEquals(413, response.getStatus());
+        verifyNoInteractions(idempotencyService, filterChain);
+    }
+
+    @Test
+    void testRetry_ShouldReplayStoredResponseWithoutRunning() throws Exception {
+        IdempotentResponse stored = new IdempotentResponse(201, "application/json", "{\"id\":1}".getBytes(StandardCharsets.UTF_8),
+                Map.of("ETag", "\"3\"", "Retry-After", "5"));
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(new IdempotencyClaim(Outcome.COMPLETED, stored));
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals("true", response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("\"3\"", response.getHeader("ETag"));
+        assertEquals("5", response.getHeader("Retry-After"));
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void testRetryWhileRunning_ShouldReturnConflict() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(IdempotencyClaim.of(Outcome.IN_PROGRESS));
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        assertEquals(409, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void testKeyReusedForOtherRequest_ShouldReturnUnprocessableEntity() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(IdempotencyClaim.of(Outcome.MISMATCH));
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        assertEquals(422, response.getStatus());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void testServerError_ShouldReleaseKey() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(IdempotencyClaim.of(Outcome.ACQUIRED));
+        doAnswer(invocation -> {
+            ((HttpServletResponse) invocation.getArgument(1)).setStatus(500);
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        idempotencyFilter.doFilter(request, response, filterChain);
+
+        verify(idempotencyService, never()).complete(anyString(), anyString(), any());
+        verify(idempotencyService, times(1)).release(anyString());
+    }
+
+    @Test
+    void testException_ShouldReleaseKey() throws Exception {
+        when(idempotencyService.claim(anyString(), anyString())).thenReturn(IdempotencyClaim.of(Outcome.ACQUIRED));
+        doThrow(new ServletException("boom")).when(filterChain).doFilter(any(), any());
+
+        assertThrows(ServletException.class, () -> idempotencyFilter.doFilter(request, response, filterChain));
+
+        verify(idempotencyService, times(1)).release(anyString());
+    }
+
+    @Test
+    void testWithoutHeader_ShouldPassThrough() throws ServletException, IOException {
+        MockHttpServletRequest plain = new MockHttpServletRequest("POST", "/api/item/create");
+
+        idempotencyFilter.doFilter(plain, response, filterChain);
+
+        verify(filterChain, times(1)).doFilter(plain, response);
+        verifyNoInteractions(idempotencyService);
+    }
+
+    @Test
+    void testReadRequest_ShouldPassThrough() throws ServletException, IOException {
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/inventories/123");
+        get.addHeader(IdempotencyFilter.HEADER, "retry-me");
+
+        idempotencyFilter.doFilter(get, response, filterChain);
+
+        verify(filterChain, times(1)).doFilter(get, response);
+        verifyNoInteractions(idempotencyService);
+    }
+
+    @Test
+    void testHashKey_ShouldScopeKeysToUser() {
+        assertNotEquals(IdempotencyFilter.hashKey("alice", "k"), IdempotencyFilter.hashKey("bob", "k"));
+        assertEquals(64, IdempotencyFilter.hashKey("alice", "k").length());
+    }
+}
@@ -0,0 +1,133 @@
+package com.supplywise.supplywise.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SchemaMigrationsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SchemaMigrations schemaMigrations;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testWidenItemBarcode_IntegerColumn_ShouldAlterToBigint() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any())).thenReturn(List.of("integer"));
+
+        schemaMigrations.widenItemBarcode();
+
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE items ALTER COLUMN barcode TYPE BIGINT");
+    }
+
+    @Test
+    void testInstallRestaurantStock_ShouldCreateFunctionsBeforeTriggers() {
+        schemaMigrations.installRestaurantStock();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE OR REPLACE FUNCTION restaurant_stock_add"));
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE OR REPLACE FUNCTION restaurant_stock_on_item_properties"));
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE OR REPLACE FUNCTION restaurant_stock_on_inventory"));
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE TRIGGER restaurant_stock_item_properties"));
+    }
+
+    @Test
+    void testCreateInventoryReports_ShouldCreateTableIfMissing() {
+        schemaMigrations.createInventoryReports();
+
+        verify(jdbcTemplate, times(1)).execute(contains("CREATE TABLE IF NOT EXISTS inventory_reports"));
+    }
+
+    @Test
+    void testDropRedundantIndexes_ShouldDropSupersededInventoryIndex() {
+        schemaMigrations.dropRedundantIndexes();
+
+        verify(jdbcTemplate, times(1)).execute("DROP INDEX IF EXISTS idx_item_properties_inventory");
+    }
+
+    @Test
+    void testCreateMinimumStockRules_ShouldCreateTableBeforeView() {
+        schemaMigrations.createMinimumStockRules();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE TABLE IF NOT EXISTS minimum_stock_rules"));
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE OR REPLACE VIEW restaurant_stock_status"));
+    }
+
+    @Test
+    void testInstallInventorySync_ShouldCreateFeedBeforeTrigger() {
+        schemaMigrations.installInventorySync();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE TABLE IF NOT EXISTS item_properties_changes"));
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE OR REPLACE FUNCTION item_properties_log_change"));
+        inOrder.verify(jdbcTemplate).execute(contains("CREATE TRIGGER item_properties_changes_log"));
+        verify(jdbcTemplate, times(1)).execute(contains("CREATE TABLE IF NOT EXISTS sync_operations"));
+    }
+
+    @Test
+    void testCreateIdempotencyKeys_ShouldCreateTableIfMissing() {
+        schemaMigrations.createIdempotencyKeys();
+
+        verify(jdbcTemplate, times(1)).execute(contains("CREATE TABLE IF NOT EXISTS idempotency_keys"));
+        verify(jdbcTemplate, times(1)).execute(contains("ADD COLUMN IF NOT EXISTS headers"));
+    }
+
+    @Test
+    void testCheckItemQuantities_ShouldAllowZeroButNotNegative() {
+        schemaMigrations.checkItemQuantities();
+
+        verify(jdbcTemplate, times(1)).execute(contains("ADD CONSTRAINT item_properties_quantity_check CHECK (quantity >= 0)"));
+    }
+
+    @Test
+    void testCreateItemConsumptionStats_ShouldCreateTableIfMissing() {
+        schemaMigrations.createItemConsumptionStats();
+
+        verify(jdbcTemplate, times(1)).execute(contains("CREATE TABLE IF NOT EXISTS item_consumption_stats"));
+    }
+
+    @Test
+    void testInstallInventorySync_ZonelessTimestamps_ShouldMigrateToTimestamptz() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any())).thenReturn(List.of("timestamp without time zone"));
+
+        schemaMigrations.installInventorySync();
+
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE item_properties_changes ALTER COLUMN changed_at TYPE TIMESTAMPTZ");
+        verify(jdbcTemplate, times(1)).execute("ALTER TABLE sync_operations ALTER COLUMN received_at TYPE TIMESTAMPTZ");
+    }
+
+    @Test
+    void testRestrictPurchaseOrderDrafts_ShouldCreatePartialUniqueIndex() {
+        schemaMigrations.restrictPurchaseOrderDrafts();
+
+        verify(jdbcTemplate, times(1)).execute(contains("ON purchase_orders (restaurant_id) WHERE status = 'DRAFT'"));
+    }
+
+    @Test
+    void testWidenItemBarcode_AlreadyBigint_ShouldDoNothing() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any(), any())).thenReturn(List.of("bigint"));
+
+        schemaMigrations.widenItemBarcode();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
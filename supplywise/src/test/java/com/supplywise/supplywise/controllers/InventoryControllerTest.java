@@ -1,14 +1,24 @@
 package com.supplywise.supplywise.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.supplywise.supplywise.DAO.AddItemToInventoryRequest;
+import com.supplywise.supplywise.DAO.AddItemsToInventoryReport;
+import com.supplywise.supplywise.DAO.CloneInventoryReport;
+import com.supplywise.supplywise.DAO.CloneInventoryRequest;
 import com.supplywise.supplywise.DAO.CreateInventoryRequest;
+import com.supplywise.supplywise.DAO.InventoryReport;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.Inventory;
 import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Restaurant;
 import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.ConsumptionStatsService;
+import com.supplywise.supplywise.services.InventoryReportService;
 import com.supplywise.supplywise.services.InventoryService;
 import com.supplywise.supplywise.services.ItemPropertiesService;
 import com.supplywise.supplywise.services.ItemService;
@@ -22,6 +32,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -37,8 +48,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -65,6 +80,12 @@ class InventoryControllerTest {
     @MockBean
     private NotificationService notificationService;
 
+    @MockBean
+    private InventoryReportService inventoryReportService;
+
+    @MockBean
+    private ConsumptionStatsService consumptionStatsService;
+
     @MockBean
     private AuthHandler authHandler;
 
@@ -140,6 +161,71 @@ class InventoryControllerTest {
         verify(inventoryService, never()).saveInventory(any(Inventory.class));
     }
 
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testCloneInventory_Success() throws Exception {
+        UUID restaurantId = UUID.randomUUID();
+        UUID sourceId = UUID.randomUUID();
+        UUID inventoryId = UUID.randomUUID();
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        CloneInventoryRequest request = CloneInventoryRequest.builder()
+                .restaurantId(restaurantId)
+                .emissionDate(LocalDateTime.now())
+                .carryOverQuantities(true)
+                .build();
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(inventoryService.cloneInventory(eq(restaurant), isNull(), any(LocalDateTime.class), isNull(), eq(true)))
+                .thenReturn(new CloneInventoryReport(inventoryId, sourceId, 120));
+
+        mockMvc.perform(post("/api/inventories/clone")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.inventoryId").value(inventoryId.toString()))
+                .andExpect(jsonPath("$.linesCopied").value(120));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testCloneInventory_OpenSource_ShouldReturnConflict() throws Exception {
+        UUID restaurantId = UUID.randomUUID();
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        CloneInventoryRequest request = CloneInventoryRequest.builder()
+                .restaurantId(restaurantId)
+                .sourceInventoryId(UUID.randomUUID())
+                .emissionDate(LocalDateTime.now())
+                .carryOverQuantities(true)
+                .build();
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.of(restaurant));
+        when(inventoryService.cloneInventory(any(), any(), any(), any(), anyBoolean()))
+                .thenThrow(new IllegalStateException("Quantities can only be carried over from a closed inventory"));
+
+        mockMvc.perform(post("/api/inventories/clone")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testCloneInventory_InvalidRestaurant() throws Exception {
+        UUID restaurantId = UUID.randomUUID();
+        CloneInventoryRequest request = CloneInventoryRequest.builder().restaurantId(restaurantId).build();
+
+        when(restaurantService.getRestaurantById(restaurantId)).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/inventories/clone")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(inventoryService, never()).cloneInventory(any(), any(), any(), any(), anyBoolean());
+    }
+
     @Test
     @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
     void testGetInventoryById_Success() throws Exception {
@@ -310,7 +396,7 @@ class InventoryControllerTest {
 
         when(restaurantService.restaurantExistsById(restaurantId)).thenReturn(true);
         when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
-        when(inventoryService.updateInventory(eq(inventoryId), any(Inventory.class))).thenReturn(Optional.of(inventory));
+        when(inventoryService.updateInventory(eq(inventoryId), any(Inventory.class), isNull())).thenReturn(Optional.of(inventory));
 
         mockMvc.perform(put("/api/inventories/" + inventoryId)
                         .contentType("application/json")
@@ -318,7 +404,7 @@ class InventoryControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.report").value("Test report"));
 
-        verify(inventoryService, times(1)).updateInventory(eq(inventoryId), any(Inventory.class));
+        verify(inventoryService, times(1)).updateInventory(eq(inventoryId), any(Inventory.class), isNull());
     }
 
     @Test
@@ -339,7 +425,7 @@ class InventoryControllerTest {
                 .content(objectMapper.writeValueAsString(inventory)))
                 .andExpect(status().isBadRequest());
 
-        verify(inventoryService, never()).updateInventory(any(), any());
+        verify(inventoryService, never()).updateInventory(any(), any(), any());
     }
 
     @Test
@@ -355,7 +441,7 @@ class InventoryControllerTest {
                 .content(objectMapper.writeValueAsString(inventory)))
                 .andExpect(status().isBadRequest());
 
-        verify(inventoryService, never()).updateInventory(any(), any());
+        verify(inventoryService, never()).updateInventory(any(), any(), any());
     }
 
     @Test
@@ -371,14 +457,14 @@ class InventoryControllerTest {
 
         when(restaurantService.restaurantExistsById(restaurantId)).thenReturn(true);
         when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
-        when(inventoryService.updateInventory(eq(inventoryId), any(Inventory.class))).thenReturn(Optional.empty());
+        when(inventoryService.updateInventory(eq(inventoryId), any(Inventory.class), isNull())).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/inventories/" + inventoryId)
                 .contentType("application/json")
                 .content(objectMapper.writeValueAsString(inventory)))
                 .andExpect(status().isInternalServerError());
 
-        verify(inventoryService, times(1)).updateInventory(eq(inventoryId), any(Inventory.class));
+        verify(inventoryService, times(1)).updateInventory(eq(inventoryId), any(Inventory.class), isNull());
     }
 
     @Test
@@ -396,21 +482,25 @@ class InventoryControllerTest {
         itemRequest.setQuantity(10);
         itemRequest.setExpirationDate(LocalDate.now().plusMonths(6));
 
-        when(itemService.findItemByBarcode(itemRequest.getBarCode())).thenReturn(item);
-        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
-        when(inventoryService.saveInventory(any(Inventory.class))).thenReturn(inventory);
+        when(itemService.findCurrentItemByBarcode(itemRequest.getBarCode())).thenReturn(item);
 
         ItemProperties itemProperties = new ItemProperties(item, itemRequest.getExpirationDate(), itemRequest.getQuantity());
-        when(itemPropertiesService.createItemProperties(any(ItemProperties.class))).thenReturn(itemProperties);
+        itemProperties.setId(UUID.randomUUID());
+        itemProperties.setInventory(inventory);
+        when(itemPropertiesService.addItemPropertiesToInventory(eq(inventoryId), any(ItemProperties.class))).thenReturn(itemProperties);
 
         mockMvc.perform(post("/api/inventories/" + inventoryId + "/items")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(itemRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(itemProperties.getId().toString()))
+                .andExpect(jsonPath("$.quantity").value(10))
+                .andExpect(jsonPath("$.inventory").doesNotExist());
 
-        verify(itemService, times(1)).findItemByBarcode(itemRequest.getBarCode());
-        verify(itemPropertiesService, times(1)).createItemProperties(any(ItemProperties.class));
-        verify(inventoryService, times(1)).saveInventory(any(Inventory.class));
+        verify(itemService, times(1)).findCurrentItemByBarcode(itemRequest.getBarCode());
+        verify(itemPropertiesService, times(1)).addItemPropertiesToInventory(eq(inventoryId), any(ItemProperties.class));
+        verify(inventoryService, never()).getInventoryById(any());
+        verify(inventoryService, never()).saveInventory(any(Inventory.class));
     }
 
     @Test
@@ -434,7 +524,7 @@ class InventoryControllerTest {
                         .content(objectMapper.writeValueAsString(inventory)))
                 .andExpect(status().isNotFound());
 
-        verify(inventoryService, never()).updateInventory(eq(inventoryId), any(Inventory.class));
+        verify(inventoryService, never()).updateInventory(eq(inventoryId), any(Inventory.class), isNull());
     }
 
     @Test
@@ -446,8 +536,8 @@ class InventoryControllerTest {
         itemRequest.setQuantity(10); // Defina a quantidade
 
         Item item = new Item();
-        when(itemService.findItemByBarcode(itemRequest.getBarCode())).thenReturn(item);
-        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.empty());
+        when(itemService.findCurrentItemByBarcode(itemRequest.getBarCode())).thenReturn(item);
+        when(itemPropertiesService.addItemPropertiesToInventory(eq(inventoryId), any(ItemProperties.class))).thenReturn(null);
 
         mockMvc.perform(post("/api/inventories/" + inventoryId + "/items")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -615,23 +705,27 @@ class InventoryControllerTest {
     void testCloseInventory_Success() throws Exception {
         UUID inventoryId = UUID.randomUUID();
         Inventory inventory = createInventory(UUID.randomUUID());
-        LocalDateTime closingDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        inventory.setId(inventoryId);
+        LocalDateTime closingDate = LocalDateTime.of(2024, 5, 31, 21, 45, 30);
+
+        inventory.setClosingDate(closingDate);
+        inventory.setClosedByUser("cognito-sub-example");
 
         // Mock service methods
-        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
-        when(inventoryService.saveInventory(any(Inventory.class))).thenReturn(inventory);
         when(authHandler.getAuthenticatedCognitoSub()).thenReturn("cognito-sub-example");
+        when(inventoryService.closeInventory(inventoryId, closingDate, "cognito-sub-example", null)).thenReturn(Optional.of(inventory));
 
         mockMvc.perform(put("/api/inventories/" + inventoryId + "/close")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(closingDate)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.closingDate").value(closingDate.toString())) // Truncate nanoseconds
+                .andExpect(jsonPath("$.closingDate").value(closingDate.toString()))
                 .andExpect(jsonPath("$.closedByUser").value("cognito-sub-example"));
 
         // Verify service calls
-        verify(inventoryService, times(1)).getInventoryById(inventoryId);
-        verify(inventoryService, times(1)).saveInventory(any(Inventory.class));
+        verify(inventoryService, times(1)).closeInventory(inventoryId, closingDate, "cognito-sub-example", null);
+        verify(inventoryReportService, times(1)).requestReport(inventoryId);
+        verify(consumptionStatsService, times(1)).recordClose(inventoryId);
     }
 
 
@@ -642,7 +736,7 @@ class InventoryControllerTest {
         LocalDateTime closingDate = LocalDateTime.now();
 
         // Mock the repository to simulate inventory not found
-        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.empty());
+        when(inventoryService.closeInventory(eq(inventoryId), any(), any(), any())).thenReturn(Optional.empty());
 
         // Perform the request with the mock token
         mockMvc.perform(put("/api/inventories/" + inventoryId + "/close")
@@ -651,8 +745,41 @@ class InventoryControllerTest {
                 .andExpect(status().isNotFound());
 
         // Verify service calls
-        verify(inventoryService, times(1)).getInventoryById(inventoryId);
-        verify(inventoryService, never()).saveInventory(any(Inventory.class));
+        verify(inventoryReportService, never()).requestReport(any());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testCloseInventory_StaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        LocalDateTime closingDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        when(inventoryService.closeInventory(eq(inventoryId), any(), any(), eq(3L)))
+                .thenThrow(new VersionMismatchException("Inventory " + inventoryId + " has been modified"));
+
+        mockMvc.perform(put("/api/inventories/" + inventoryId + "/close")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(closingDate)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(inventoryReportService, never()).requestReport(any());
+        verify(consumptionStatsService, never()).recordClose(any());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testCloseInventory_ConcurrentModification_ShouldReturnConflict() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        LocalDateTime closingDate = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        when(inventoryService.closeInventory(eq(inventoryId), any(), any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Inventory.class, inventoryId));
+
+        mockMvc.perform(put("/api/inventories/" + inventoryId + "/close")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(closingDate)))
+                .andExpect(status().isConflict());
+
+        verify(inventoryReportService, never()).requestReport(any());
     }
 
 
@@ -668,8 +795,248 @@ class InventoryControllerTest {
             .andExpect(status().isForbidden());
     
         // Verify that no inventory service method was called
-        verify(inventoryService, never()).getInventoryById(any());
+        verify(inventoryService, never()).closeInventory(any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testDiffInventories_Success() throws Exception {
+        UUID fromId = UUID.randomUUID();
+        UUID toId = UUID.randomUUID();
+        UUID after = UUID.randomUUID();
+        ItemVariance change = new ItemVariance(UUID.randomUUID(), "Milk", 10, 4);
+        when(inventoryService.diffInventories(fromId, toId, after, 50)).thenReturn(new KeysetPage<>(List.of(change), null, 1));
+
+        mockMvc.perform(get("/api/inventories/" + fromId + "/diff/" + toId).param("after", after.toString()).param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].itemName").value("Milk"))
+                .andExpect(jsonPath("$.content[0].delta").value(-6));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testDiffInventories_NotFound() throws Exception {
+        when(inventoryService.diffInventories(any(), any(), isNull(), eq(100))).thenReturn(null);
+
+        mockMvc.perform(get("/api/inventories/" + UUID.randomUUID() + "/diff/" + UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testDiffInventories_DifferentRestaurants() throws Exception {
+        when(inventoryService.diffInventories(any(), any(), isNull(), eq(100)))
+                .thenThrow(new IllegalArgumentException("Only inventories of the same restaurant can be compared"));
+
+        mockMvc.perform(get("/api/inventories/" + UUID.randomUUID() + "/diff/" + UUID.randomUUID()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testDiffInventories_InvalidSize() throws Exception {
+        mockMvc.perform(get("/api/inventories/" + UUID.randomUUID() + "/diff/" + UUID.randomUUID()).param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(inventoryService, never()).diffInventories(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetInventoryReport_Ready() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        JsonNode data = objectMapper.readTree("{\"lines\": 3, \"units\": 12}");
+        InventoryReport report = new InventoryReport(inventoryId, InventoryReport.Status.READY, LocalDateTime.now(), LocalDateTime.now(), data);
+        when(inventoryReportService.getReport(inventoryId)).thenReturn(Optional.of(report));
+
+        mockMvc.perform(get("/api/inventories/" + inventoryId + "/report"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("READY"))
+                .andExpect(jsonPath("$.data.units").value(12));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetInventoryReport_NotFound() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryReportService.getReport(inventoryId)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/inventories/" + inventoryId + "/report"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testAddItemsToInventory_Success() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        List<AddItemToInventoryRequest> lines = List.of(
+                new AddItemToInventoryRequest(123456L, 5, LocalDate.now().plusDays(3)),
+                new AddItemToInventoryRequest(999999L, 1, LocalDate.now().plusDays(3)));
+        AddItemsToInventoryReport report = new AddItemsToInventoryReport();
+        report.setLinesRead(2);
+        report.setLinesAdded(1);
+        report.getIds().add(UUID.randomUUID());
+        report.reject(2, 999999L, "Item barcode does not exist");
+
+        when(inventoryService.addItemsToInventory(eq(inventoryId), anyList())).thenReturn(report);
+
+        mockMvc.perform(post("/api/inventories/" + inventoryId + "/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lines)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linesAdded").value(1))
+                .andExpect(jsonPath("$.linesRejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+
         verify(inventoryService, never()).saveInventory(any(Inventory.class));
-    }    
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testAddItemsToInventory_InventoryNotFound() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryService.addItemsToInventory(eq(inventoryId), anyList())).thenReturn(null);
+
+        mockMvc.perform(post("/api/inventories/" + inventoryId + "/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(new AddItemToInventoryRequest(123456L, 1, LocalDate.now())))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testAddItemsToInventory_EmptyBatch() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryService.addItemsToInventory(eq(inventoryId), anyList()))
+                .thenThrow(new IllegalArgumentException("A batch must contain between 1 and 5000 lines"));
+
+        mockMvc.perform(post("/api/inventories/" + inventoryId + "/items/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testAddItemToInventory_InvalidItem() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(itemPropertiesService.addItemPropertiesToInventory(eq(inventoryId), any(ItemProperties.class)))
+                .thenThrow(new IllegalArgumentException("Item properties are not valid."));
+
+        mockMvc.perform(post("/api/inventories/" + inventoryId + "/items")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AddItemToInventoryRequest(123456L, 0, LocalDate.now()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    @SuppressWarnings("unchecked")
+    void testMergePatchInventory_Success() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventory(UUID.randomUUID());
+        inventory.setReport("Old report");
+
+        when(inventoryService.patchInventory(eq(inventoryId), any(), isNull())).thenAnswer(invocation -> {
+            UnaryOperator<JsonNode> patch = invocation.getArgument(1);
+            JsonNode patched = patch.apply(objectMapper.readTree("{\"report\":\"Old report\"}"));
+            inventory.setReport(patched.get("report").asText());
+            return Optional.of(inventory);
+        });
+
+        mockMvc.perform(patch("/api/inventories/" + inventoryId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"report\":\"New report\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.report").value("New report"));
+    }
 
-}
\ No newline at end of file
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testJsonPatchInventory_InvalidPatch() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryService.patchInventory(eq(inventoryId), any(), isNull())).thenThrow(new IllegalArgumentException("Test failed at '/report'"));
+
+        mockMvc.perform(patch("/api/inventories/" + inventoryId)
+                        .contentType("application/json-patch+json")
+                        .content("[{\"op\":\"test\",\"path\":\"/report\",\"value\":\"x\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Test failed at '/report'"));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testJsonPatchInventory_NotFound() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryService.patchInventory(eq(inventoryId), any(), isNull())).thenReturn(Optional.empty());
+
+        mockMvc.perform(patch("/api/inventories/" + inventoryId)
+                        .contentType("application/json-patch+json")
+                        .content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetInventoryById_ShouldReturnETag() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventory(UUID.randomUUID());
+        inventory.setVersion(4L);
+        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
+
+        mockMvc.perform(get("/api/inventories/" + inventoryId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testUpdateInventory_IfMatchMismatch() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        Inventory inventory = createInventory(restaurantId);
+
+        when(restaurantService.restaurantExistsById(restaurantId)).thenReturn(true);
+        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
+        when(inventoryService.updateInventory(eq(inventoryId), any(Inventory.class), eq(3L)))
+                .thenThrow(new VersionMismatchException("Inventory " + inventoryId + " has been modified"));
+
+        mockMvc.perform(put("/api/inventories/" + inventoryId)
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inventory)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testUpdateInventory_ConcurrentModification() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        UUID restaurantId = UUID.randomUUID();
+        Inventory inventory = createInventory(restaurantId);
+
+        when(restaurantService.restaurantExistsById(restaurantId)).thenReturn(true);
+        when(inventoryService.getInventoryById(inventoryId)).thenReturn(Optional.of(inventory));
+        when(inventoryService.updateInventory(eq(inventoryId), any(Inventory.class), isNull()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Inventory.class, inventoryId));
+
+        mockMvc.perform(put("/api/inventories/" + inventoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(inventory)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testJsonPatchInventory_IfMatchMismatch() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryService.patchInventory(eq(inventoryId), any(), eq(5L)))
+                .thenThrow(new VersionMismatchException("Inventory " + inventoryId + " has been modified"));
+
+        mockMvc.perform(patch("/api/inventories/" + inventoryId)
+                        .header("If-Match", "\"5\"")
+                        .contentType("application/json-patch+json")
+                        .content("[]"))
+                .andExpect(status().isPreconditionFailed());
+    }
+}
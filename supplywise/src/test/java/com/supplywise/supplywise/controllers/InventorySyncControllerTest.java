@@ -0,0 +1,98 @@
+package com.supplywise.supplywise.controllers;
+
+import com.supplywise.supplywise.DAO.InventoryLineChange;
+import com.supplywise.supplywise.DAO.SyncResponse;
+import com.supplywise.supplywise.DAO.SyncResult;
+import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.InventorySyncService;
+import com.supplywise.supplywise.config.JwtAuthenticationFilter;
+import com.supplywise.supplywise.config.SecurityConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(InventorySyncController.class)
+@Import({SecurityConfiguration.class, JwtAuthenticationFilter.class})
+@AutoConfigureMockMvc(addFilters = true)
+class InventorySyncControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InventorySyncService inventorySyncService;
+
+    @MockBean
+    private AuthHandler authHandler;
+
+    private final UUID inventoryId = UUID.randomUUID();
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSync_ShouldReturnResultsAndChanges() throws Exception {
+        UUID operationId = UUID.randomUUID();
+        UUID lineId = UUID.randomUUID();
+        SyncResponse response = new SyncResponse(
+                List.of(new SyncResult(operationId, SyncResult.Status.APPLIED, null, 1L, false)),
+                List.of(new InventoryLineChange(lineId, true, null, null, null, null, null, null)), false, 812L);
+        when(inventorySyncService.sync(eq(inventoryId), any())).thenReturn(response);
+
+        mockMvc.perform(post("/api/inventories/{inventoryId}/sync", inventoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"syncToken\": 700, \"operations\": [{\"operationId\": \"" + operationId + "\", \"type\": \"ADJUST\", "
+                                + "\"lineId\": \"" + lineId + "\", \"delta\": 2}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$.changes[0].deleted").value(true))
+                .andExpect(jsonPath("$.syncToken").value(812));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSync_InventoryNotFound() throws Exception {
+        when(inventorySyncService.sync(eq(inventoryId), any())).thenReturn(null);
+
+        mockMvc.perform(post("/api/inventories/{inventoryId}/sync", inventoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": []}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSync_InvalidOperations_ShouldReturnBadRequest() throws Exception {
+        when(inventorySyncService.sync(eq(inventoryId), any()))
+                .thenThrow(new IllegalArgumentException("Every operation needs an operation ID and a type"));
+
+        mockMvc.perform(post("/api/inventories/{inventoryId}/sync", inventoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": [{}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"DISASSOCIATED"})
+    void testSync_Disassociated_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/api/inventories/{inventoryId}/sync", inventoryId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\": []}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(inventorySyncService);
+    }
+}
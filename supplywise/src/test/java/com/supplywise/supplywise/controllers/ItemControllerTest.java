@@ -1,7 +1,12 @@
 package com.supplywise.supplywise.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplywise.supplywise.DAO.ItemImportReport;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.model.Category;
 import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.services.CatalogExportService;
+import com.supplywise.supplywise.services.ItemImportService;
 import com.supplywise.supplywise.services.ItemService;
 import com.supplywise.supplywise.services.AuthHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -19,11 +25,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import com.supplywise.supplywise.config.SecurityConfiguration;
 import com.supplywise.supplywise.config.JwtAuthenticationFilter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +53,12 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ItemImportService itemImportService;
+
+    @MockBean
+    private CatalogExportService catalogExportService;
+
     @MockBean
     private AuthHandler authHandler;
 
@@ -188,4 +207,128 @@ class ItemControllerTest {
         // Verify the item service was never called since the user is disassociated
         verify(itemService, never()).deleteItem(itemId);
     }    
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void importItemsCsv_whenUserIsManager_shouldReturnReport() throws Exception {
+        ItemImportReport report = new ItemImportReport();
+        report.countRow();
+        report.addImported(1);
+        when(itemImportService.importCsv(any(InputStream.class), eq(false))).thenReturn(report);
+
+        mockMvc.perform(post("/api/item/import")
+                .contentType("text/csv")
+                .content("name,barCode,category\nMilk,5601234567890,DRINKABLE\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(1))
+                .andExpect(jsonPath("$.rowsImported").value(1));
+
+        verify(itemImportService, times(1)).importCsv(any(InputStream.class), eq(false));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void importItemsNdjson_withUpdateExisting_shouldPassFlag() throws Exception {
+        when(itemImportService.importNdjson(any(InputStream.class), eq(true))).thenReturn(new ItemImportReport());
+
+        mockMvc.perform(post("/api/item/import")
+                .param("updateExisting", "true")
+                .contentType("application/x-ndjson")
+                .content("{\"name\":\"Milk\",\"barCode\":5601234567890,\"category\":\"DRINKABLE\"}\n"))
+                .andExpect(status().isOk());
+
+        verify(itemImportService, times(1)).importNdjson(any(InputStream.class), eq(true));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"DISASSOCIATED"})
+    void importItemsCsv_whenUserIsDisassociated_shouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/api/item/import")
+                .contentType("text/csv")
+                .content("Milk,5601234567890,DRINKABLE\n"))
+                .andExpect(status().isForbidden());
+
+        verify(itemImportService, never()).importCsv(any(InputStream.class), any(Boolean.class));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void getItemsPage_shouldReturnPageWithCursor() throws Exception {
+        UUID after = UUID.randomUUID();
+        when(itemService.getItemsPage(after, 1)).thenReturn(new KeysetPage<>(List.of(item), itemId, 1));
+
+        mockMvc.perform(get("/api/item/page")
+                .param("after", after.toString())
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Test Item"))
+                .andExpect(jsonPath("$.nextCursor").value(itemId.toString()));
+
+        verify(itemService, times(1)).getItemsPage(after, 1);
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void getItemsPage_whenSizeTooLarge_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/item/page")
+                .param("size", "100000"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).getItemsPage(any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void exportItems_shouldStreamNdjson() throws Exception {
+        // The mock response is not thread-safe, so hold the stream back until the first dispatch has finished
+        CountDownLatch dispatched = new CountDownLatch(1);
+        when(catalogExportService.exportItems(any(OutputStream.class))).thenAnswer(invocation -> {
+            dispatched.await(5, TimeUnit.SECONDS);
+            OutputStream output = invocation.getArgument(0);
+            output.write("{\"name\":\"Test Item\"}\n".getBytes());
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/item/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        dispatched.countDown();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"name\":\"Test Item\"}\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void searchItems_shouldReturnMatchesWithCategoryFilter() throws Exception {
+        when(itemService.searchItems("tes", Set.of(Category.EATABLE, Category.CUSTOM), 5)).thenReturn(List.of(item));
+
+        mockMvc.perform(get("/api/item/search")
+                .param("q", "tes")
+                .param("category", "EATABLE", "CUSTOM")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].name").value("Test Item"));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void searchItems_whenLimitTooLarge_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/item/search").param("q", "tes").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).searchItems(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void searchItems_whenQueryBlank_shouldReturnBadRequest() throws Exception {
+        when(itemService.searchItems(eq(" "), any(), anyInt())).thenThrow(new IllegalArgumentException("Search query must not be empty"));
+
+        mockMvc.perform(get("/api/item/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -1,8 +1,16 @@
 package com.supplywise.supplywise.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.DAO.ConsumptionEvent;
+import com.supplywise.supplywise.DAO.QuantityDeltaRequest;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.exception.BacklogFullException;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.services.CatalogExportService;
+import com.supplywise.supplywise.services.ConsumptionIngestService;
 import com.supplywise.supplywise.services.ItemPropertiesService;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.supplywise.supplywise.services.AuthHandler;
@@ -13,15 +21,20 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.context.annotation.Import;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import java.io.OutputStream;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -42,6 +55,12 @@ class ItemPropertiesControllerTest {
     @MockBean
     private ItemPropertiesService itemPropertiesService;
 
+    @MockBean
+    private CatalogExportService catalogExportService;
+
+    @MockBean
+    private ConsumptionIngestService consumptionIngestService;
+
     @MockBean
     private AuthHandler authHandler;
 
@@ -195,7 +214,7 @@ class ItemPropertiesControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Item properties fields are missing or invalid."));
 
-        verify(itemPropertiesService, never()).updateItemProperties(eq(itemId), any(ItemProperties.class));
+        verify(itemPropertiesService, never()).updateItemProperties(eq(itemId), any(ItemProperties.class), any());
     }
 
     @Test
@@ -207,7 +226,7 @@ class ItemPropertiesControllerTest {
                         .content(objectMapper.writeValueAsString(itemProperties)))
                 .andExpect(status().isForbidden());
 
-        verify(itemPropertiesService, never()).updateItemProperties(eq(itemId), any(ItemProperties.class));
+        verify(itemPropertiesService, never()).updateItemProperties(eq(itemId), any(ItemProperties.class), any());
     }
 
     @Test
@@ -218,7 +237,7 @@ class ItemPropertiesControllerTest {
         validItemProperties.setQuantity(100);
         validItemProperties.setItem(new Item());
     
-        when(itemPropertiesService.updateItemProperties(itemId, validItemProperties)).thenReturn(validItemProperties);
+        when(itemPropertiesService.updateItemProperties(itemId, validItemProperties, null)).thenReturn(validItemProperties);
 
         mockMvc.perform(put("/api/item-properties/{id}", itemId)
             .contentType(MediaType.APPLICATION_JSON)
@@ -227,7 +246,7 @@ class ItemPropertiesControllerTest {
             .andExpect(jsonPath("$.expirationDate").value(validItemProperties.getExpirationDate().toString()))
             .andExpect(jsonPath("$.quantity").value(validItemProperties.getQuantity()));
         
-        verify(itemPropertiesService, times(1)).updateItemProperties(itemId, validItemProperties);
+        verify(itemPropertiesService, times(1)).updateItemProperties(itemId, validItemProperties, null);
     }
     
     @Test
@@ -240,7 +259,7 @@ class ItemPropertiesControllerTest {
         validItemProperties.setQuantity(50);
         validItemProperties.setItem(new Item());
     
-        when(itemPropertiesService.updateItemProperties(nonExistentItemId, validItemProperties)).thenReturn(null);
+        when(itemPropertiesService.updateItemProperties(nonExistentItemId, validItemProperties, null)).thenReturn(null);
 
         mockMvc.perform(put("/api/item-properties/{id}", nonExistentItemId)
             .contentType(MediaType.APPLICATION_JSON)
@@ -248,7 +267,179 @@ class ItemPropertiesControllerTest {
             .andExpect(status().isNotFound())
             .andExpect(content().string("Item properties not found."));
         
-        verify(itemPropertiesService, times(1)).updateItemProperties(nonExistentItemId, validItemProperties);
+        verify(itemPropertiesService, times(1)).updateItemProperties(nonExistentItemId, validItemProperties, null);
+    }
+
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetItemPropertiesPage_FirstPage() throws Exception {
+        when(itemPropertiesService.getItemPropertiesPage(null, 100)).thenReturn(new KeysetPage<>(List.of(itemProperties), null, 1));
+
+        mockMvc.perform(get("/api/item-properties/page"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(itemId.toString()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(itemPropertiesService, times(1)).getItemPropertiesPage(null, 100);
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"DISASSOCIATED"})
+    void testGetItemPropertiesPage_UnauthorizedUser() throws Exception {
+        mockMvc.perform(get("/api/item-properties/page"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testExportItemProperties_StreamsNdjson() throws Exception {
+        // The mock response is not thread-safe, so hold the stream back until the first dispatch has finished
+        CountDownLatch dispatched = new CountDownLatch(1);
+        when(catalogExportService.exportItemProperties(any(OutputStream.class))).thenAnswer(invocation -> {
+            dispatched.await(5, TimeUnit.SECONDS);
+            OutputStream output = invocation.getArgument(0);
+            output.write("{\"quantity\":5}\n".getBytes());
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/item-properties/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        dispatched.countDown();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"quantity\":5}\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER_MASTER"})
+    void testUpdateItemProperties_IfMatchMismatch() throws Exception {
+        ItemProperties validItemProperties = new ItemProperties();
+        validItemProperties.setExpirationDate(LocalDate.now().plusDays(30));
+        validItemProperties.setQuantity(100);
+        validItemProperties.setItem(new Item());
+
+        when(itemPropertiesService.updateItemProperties(eq(itemId), any(ItemProperties.class), eq(3L)))
+                .thenThrow(new VersionMismatchException("Item properties " + itemId + " has been modified"));
+
+        mockMvc.perform(put("/api/item-properties/{id}", itemId)
+            .header("If-Match", "\"3\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(validItemProperties)))
+            .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER_MASTER"})
+    void testUpdateItemProperties_ConcurrentModification() throws Exception {
+        ItemProperties validItemProperties = new ItemProperties();
+        validItemProperties.setExpirationDate(LocalDate.now().plusDays(30));
+        validItemProperties.setQuantity(100);
+        validItemProperties.setItem(new Item());
+
+        when(itemPropertiesService.updateItemProperties(eq(itemId), any(ItemProperties.class), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(ItemProperties.class, itemId));
+
+        mockMvc.perform(put("/api/item-properties/{id}", itemId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(validItemProperties)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetItemPropertiesById_ShouldReturnETag() throws Exception {
+        itemProperties.setVersion(7L);
+        when(itemPropertiesService.getItemPropertiesById(itemId)).thenReturn(itemProperties);
+
+        mockMvc.perform(get("/api/item-properties/{id}", itemId))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"7\""));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testApplyQuantityDelta_Success() throws Exception {
+        when(itemPropertiesService.applyQuantityDelta(itemId, -3)).thenReturn(new StockLevel(itemId, 5, 2, 5));
+
+        mockMvc.perform(post("/api/item-properties/{id}/quantity-delta", itemId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new QuantityDeltaRequest(-3))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.previousQuantity").value(5))
+            .andExpect(jsonPath("$.quantity").value(2))
+            .andExpect(jsonPath("$.belowMinimum").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testApplyQuantityDelta_BelowZero() throws Exception {
+        when(itemPropertiesService.applyQuantityDelta(itemId, -50)).thenThrow(new IllegalStateException("Quantity cannot go below zero"));
+
+        mockMvc.perform(post("/api/item-properties/{id}/quantity-delta", itemId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new QuantityDeltaRequest(-50))))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testApplyQuantityDelta_OutOfRange() throws Exception {
+        when(itemPropertiesService.applyQuantityDelta(itemId, Integer.MIN_VALUE)).thenThrow(new IllegalArgumentException("Quantity delta is out of range"));
+
+        mockMvc.perform(post("/api/item-properties/{id}/quantity-delta", itemId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new QuantityDeltaRequest(Integer.MIN_VALUE))))
+            .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testApplyQuantityDelta_NotFound() throws Exception {
+        when(itemPropertiesService.applyQuantityDelta(itemId, 1)).thenReturn(null);
+
+        mockMvc.perform(post("/api/item-properties/{id}/quantity-delta", itemId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new QuantityDeltaRequest(1))))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testRecordConsumption_Accepted() throws Exception {
+        List<ConsumptionEvent> events = List.of(new ConsumptionEvent(itemId, 2), new ConsumptionEvent(itemId, 1));
+        when(consumptionIngestService.record(anyList())).thenReturn(2);
+
+        mockMvc.perform(post("/api/item-properties/consumption")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(events)))
+            .andExpect(status().isAccepted());
+
+        verify(consumptionIngestService, times(1)).record(events);
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testRecordConsumption_InvalidBatch() throws Exception {
+        when(consumptionIngestService.record(anyList())).thenThrow(new IllegalArgumentException("Quantity must be between 1 and 100000"));
+
+        mockMvc.perform(post("/api/item-properties/consumption")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(List.of(new ConsumptionEvent(itemId, 0)))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testRecordConsumption_BacklogFull() throws Exception {
+        when(consumptionIngestService.record(anyList())).thenThrow(new BacklogFullException("Too much consumption is waiting to be written, retry later"));
+
+        mockMvc.perform(post("/api/item-properties/consumption")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(List.of(new ConsumptionEvent(itemId, 1)))))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"));
+    }
 }
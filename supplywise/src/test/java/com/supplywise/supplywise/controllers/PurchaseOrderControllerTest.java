@@ -0,0 +1,140 @@
+package com.supplywise.supplywise.controllers;
+
+import com.supplywise.supplywise.model.PurchaseOrder;
+import com.supplywise.supplywise.model.PurchaseOrderStatus;
+import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.PurchaseOrderService;
+import com.supplywise.supplywise.config.JwtAuthenticationFilter;
+import com.supplywise.supplywise.config.SecurityConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PurchaseOrderController.class)
+@Import({SecurityConfiguration.class, JwtAuthenticationFilter.class})
+@AutoConfigureMockMvc(addFilters = true)
+class PurchaseOrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PurchaseOrderService purchaseOrderService;
+
+    @MockBean
+    private AuthHandler authHandler;
+
+    private final UUID orderId = UUID.randomUUID();
+    private final UUID lineId = UUID.randomUUID();
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetPurchaseOrdersByRestaurant_ShouldReturnOrders() throws Exception {
+        UUID restaurantId = UUID.randomUUID();
+        when(purchaseOrderService.getPurchaseOrdersByRestaurant(restaurantId)).thenReturn(List.of(createOrder(PurchaseOrderStatus.DRAFT)));
+
+        mockMvc.perform(get("/api/purchase-orders/restaurant/{restaurantId}", restaurantId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DRAFT"));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetPurchaseOrderById_NotFound() throws Exception {
+        when(purchaseOrderService.getPurchaseOrderById(orderId)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/purchase-orders/{id}", orderId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testUpdateLineQuantity_Success() throws Exception {
+        when(purchaseOrderService.updateLineQuantity(orderId, lineId, 8)).thenReturn(createOrder(PurchaseOrderStatus.DRAFT));
+
+        mockMvc.perform(put("/api/purchase-orders/{id}/lines/{lineId}", orderId, lineId).param("quantity", "8"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testUpdateLineQuantity_InvalidQuantity() throws Exception {
+        when(purchaseOrderService.updateLineQuantity(orderId, lineId, -1)).thenThrow(new IllegalArgumentException("Quantity must be between 0 and 1000000"));
+
+        mockMvc.perform(put("/api/purchase-orders/{id}/lines/{lineId}", orderId, lineId).param("quantity", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testUpdateLineQuantity_ConcurrentChange() throws Exception {
+        when(purchaseOrderService.updateLineQuantity(orderId, lineId, 8))
+                .thenThrow(new ObjectOptimisticLockingFailureException(PurchaseOrder.class, orderId));
+
+        mockMvc.perform(put("/api/purchase-orders/{id}/lines/{lineId}", orderId, lineId).param("quantity", "8"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testUpdateLineQuantity_NotFound() throws Exception {
+        when(purchaseOrderService.updateLineQuantity(any(), any(), anyInt())).thenReturn(null);
+
+        mockMvc.perform(put("/api/purchase-orders/{id}/lines/{lineId}", orderId, lineId).param("quantity", "8"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSubmitPurchaseOrder_Success() throws Exception {
+        when(authHandler.getAuthenticatedCognitoSub()).thenReturn("cognito-sub-example");
+        when(purchaseOrderService.submit(orderId, "cognito-sub-example")).thenReturn(createOrder(PurchaseOrderStatus.SUBMITTED));
+
+        mockMvc.perform(post("/api/purchase-orders/{id}/submit", orderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SUBMITTED"));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSubmitPurchaseOrder_AlreadySubmitted() throws Exception {
+        when(purchaseOrderService.submit(any(), any())).thenThrow(new IllegalStateException("Purchase order has already been submitted"));
+
+        mockMvc.perform(post("/api/purchase-orders/{id}/submit", orderId))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"DISASSOCIATED"})
+    void testSubmitPurchaseOrder_Unauthorized() throws Exception {
+        mockMvc.perform(post("/api/purchase-orders/{id}/submit", orderId))
+                .andExpect(status().isForbidden());
+
+        verify(purchaseOrderService, never()).submit(any(), any());
+    }
+
+    /* Helper functions */
+
+    private PurchaseOrder createOrder(PurchaseOrderStatus status) {
+        PurchaseOrder order = new PurchaseOrder();
+        order.setId(orderId);
+        order.setStatus(status);
+        return order;
+    }
+}
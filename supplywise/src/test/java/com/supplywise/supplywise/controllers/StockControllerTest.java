@@ -0,0 +1,238 @@
+package com.supplywise.supplywise.controllers;
+
+import com.supplywise.supplywise.DAO.CompanyStockRollup;
+import com.supplywise.supplywise.DAO.FefoAllocation;
+import com.supplywise.supplywise.DAO.FefoBatch;
+import com.supplywise.supplywise.DAO.ItemForecast;
+import com.supplywise.supplywise.DAO.MinimumStockRule;
+import com.supplywise.supplywise.DAO.RestaurantStockLine;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.MinimumStockScope;
+import com.supplywise.supplywise.services.AuthHandler;
+import com.supplywise.supplywise.services.CompanyStockService;
+import com.supplywise.supplywise.services.ConsumptionStatsService;
+import com.supplywise.supplywise.services.MinimumStockRuleService;
+import com.supplywise.supplywise.services.StockService;
+import com.supplywise.supplywise.config.JwtAuthenticationFilter;
+import com.supplywise.supplywise.config.SecurityConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StockController.class)
+@Import({SecurityConfiguration.class, JwtAuthenticationFilter.class})
+@AutoConfigureMockMvc(addFilters = true)
+class StockControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private StockService stockService;
+
+    @MockBean
+    private CompanyStockService companyStockService;
+
+    @MockBean
+    private ConsumptionStatsService consumptionStatsService;
+
+    @MockBean
+    private MinimumStockRuleService minimumStockRuleService;
+
+    @MockBean
+    private AuthHandler authHandler;
+
+    private final UUID restaurantId = UUID.randomUUID();
+    private final UUID itemId = UUID.randomUUID();
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetRestaurantStock_ShouldReturnStock() throws Exception {
+        when(stockService.getRestaurantStock(restaurantId)).thenReturn(List.of(new RestaurantStockLine(itemId, "Tomato", 12)));
+
+        mockMvc.perform(get("/api/stock/restaurant/{restaurantId}", restaurantId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemName").value("Tomato"))
+                .andExpect(jsonPath("$[0].quantity").value(12));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetRestaurantForecast_ShouldReturnForecasts() throws Exception {
+        ItemForecast forecast = new ItemForecast(restaurantId, itemId, "Tomato", 2.5, 10, 4,
+                LocalDate.of(2025, 1, 9), 14, LocalDateTime.of(2025, 1, 5, 2, 30));
+        when(consumptionStatsService.getForecasts(restaurantId)).thenReturn(List.of(forecast));
+
+        mockMvc.perform(get("/api/stock/restaurant/{restaurantId}/forecast", restaurantId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemName").value("Tomato"))
+                .andExpect(jsonPath("$[0].reorderQuantity").value(14));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetFefoBatches_ShouldReturnBatches() throws Exception {
+        UUID batchId = UUID.randomUUID();
+        when(stockService.getFefoBatches(restaurantId, itemId))
+                .thenReturn(List.of(new FefoBatch(batchId, UUID.randomUUID(), LocalDate.of(2025, 1, 5), 4)));
+
+        mockMvc.perform(get("/api/stock/restaurant/{restaurantId}/item/{itemId}/fefo", restaurantId, itemId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemPropertiesId").value(batchId.toString()))
+                .andExpect(jsonPath("$[0].quantity").value(4));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testConsumeFefo_ShouldReturnAllocations() throws Exception {
+        UUID batchId = UUID.randomUUID();
+        when(stockService.consumeFefo(restaurantId, itemId, 3))
+                .thenReturn(List.of(new FefoAllocation(batchId, LocalDate.of(2025, 1, 5), 3, 1)));
+
+        mockMvc.perform(post("/api/stock/restaurant/{restaurantId}/item/{itemId}/consume", restaurantId, itemId).param("units", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].consumed").value(3))
+                .andExpect(jsonPath("$[0].remaining").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testConsumeFefo_NotEnoughStock_ShouldReturnConflict() throws Exception {
+        when(stockService.consumeFefo(restaurantId, itemId, 50)).thenThrow(new IllegalStateException("Only 4 units in stock"));
+
+        mockMvc.perform(post("/api/stock/restaurant/{restaurantId}/item/{itemId}/consume", restaurantId, itemId).param("units", "50"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testConsumeFefo_InvalidUnits_ShouldReturnBadRequest() throws Exception {
+        when(stockService.consumeFefo(restaurantId, itemId, 0)).thenThrow(new IllegalArgumentException("Units must be between 1 and 1000000"));
+
+        mockMvc.perform(post("/api/stock/restaurant/{restaurantId}/item/{itemId}/consume", restaurantId, itemId).param("units", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"DISASSOCIATED"})
+    void testConsumeFefo_Disassociated_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/api/stock/restaurant/{restaurantId}/item/{itemId}/consume", restaurantId, itemId).param("units", "1"))
+                .andExpect(status().isForbidden());
+
+        verify(stockService, never()).consumeFefo(any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"FRANCHISE_OWNER"})
+    void testGetCompanyStock_ShouldReturnRollupOfUsersCompany() throws Exception {
+        UUID companyId = UUID.randomUUID();
+        when(authHandler.getAuthenticatedCompanyId()).thenReturn(companyId.toString());
+        when(companyStockService.getCompanyRollup(companyId))
+                .thenReturn(new CompanyStockRollup(companyId, null, List.of(), List.of(), List.of()));
+
+        mockMvc.perform(get("/api/stock/company"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.companyId").value(companyId.toString()));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"FRANCHISE_OWNER"})
+    void testGetCompanyStock_NoCompany_ShouldBeForbidden() throws Exception {
+        when(authHandler.getAuthenticatedCompanyId()).thenReturn(null);
+
+        mockMvc.perform(get("/api/stock/company"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(companyStockService);
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetCompanyStock_Manager_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/api/stock/company"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testGetBelowMinimum_ShouldReturnShortfalls() throws Exception {
+        when(minimumStockRuleService.getBelowMinimum(restaurantId)).thenReturn(List.of(new StockShortfall(itemId, "Tomato", 2, 10)));
+
+        mockMvc.perform(get("/api/stock/restaurant/{restaurantId}/below-minimum", restaurantId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemName").value("Tomato"))
+                .andExpect(jsonPath("$[0].missing").value(8));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSetRestaurantMinimums_ShouldApplyAndReturnRules() throws Exception {
+        List<MinimumStockRule> rules = List.of(new MinimumStockRule(itemId, 10));
+        when(minimumStockRuleService.applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules)).thenReturn(1);
+        when(minimumStockRuleService.getRules(MinimumStockScope.RESTAURANT, restaurantId)).thenReturn(rules);
+
+        mockMvc.perform(put("/api/stock/minimums/restaurant/{restaurantId}", restaurantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"itemId\": \"" + itemId + "\", \"minimumStockQuantity\": 10}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].minimumStockQuantity").value(10));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"MANAGER"})
+    void testSetRestaurantMinimums_InvalidRules_ShouldReturnBadRequest() throws Exception {
+        when(minimumStockRuleService.applyRules(eq(MinimumStockScope.RESTAURANT), eq(restaurantId), anyList()))
+                .thenThrow(new IllegalArgumentException("Minimum stock quantity must be between 0 and 1000000"));
+
+        mockMvc.perform(put("/api/stock/minimums/restaurant/{restaurantId}", restaurantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"itemId\": \"" + itemId + "\", \"minimumStockQuantity\": -1}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"FRANCHISE_OWNER"})
+    void testSetCompanyMinimums_ShouldApplyToUsersCompany() throws Exception {
+        UUID companyId = UUID.randomUUID();
+        when(authHandler.getAuthenticatedCompanyId()).thenReturn(companyId.toString());
+
+        mockMvc.perform(put("/api/stock/minimums/company")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"itemId\": \"" + itemId + "\", \"minimumStockQuantity\": 5}]"))
+                .andExpect(status().isOk());
+
+        verify(minimumStockRuleService, times(1))
+                .applyRules(MinimumStockScope.COMPANY, companyId, List.of(new MinimumStockRule(itemId, 5)));
+    }
+
+    @Test
+    @WithMockUser(username = "cognito-sub-example", roles = {"FRANCHISE_OWNER"})
+    void testSetCompanyMinimums_NoCompany_ShouldBeForbidden() throws Exception {
+        when(authHandler.getAuthenticatedCompanyId()).thenReturn(null);
+
+        mockMvc.perform(put("/api/stock/minimums/company")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(minimumStockRuleService);
+    }
+}
@@ -0,0 +1,151 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BarcodeIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private BarcodeIndex barcodeIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    // Helper method to create an item with a random ID
+    private Item createItem(String name, long barCode) {
+        Item item = new Item(name, barCode, Category.EATABLE);
+        item.setId(UUID.randomUUID());
+        return item;
+    }
+
+    @Test
+    void testGet_BeforeRebuild_ShouldThrow() {
+        assertFalse(barcodeIndex.isReady());
+        assertThrows(IllegalStateException.class, () -> barcodeIndex.get(123456));
+    }
+
+    @Test
+    void testRebuild_ShouldIndexWholeCatalog() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(createItem("Item " + i, 100000 + i));
+        }
+        when(itemRepository.findAll()).thenReturn(items);
+
+        barcodeIndex.rebuild();
+
+        assertTrue(barcodeIndex.isReady());
+        assertEquals(1000, barcodeIndex.size());
+        for (Item item : items) {
+            assertEquals(item.getId(), barcodeIndex.get(item.getBarCode()).getId());
+        }
+        assertNull(barcodeIndex.get(999));
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testRefresh_BeforeRebuild_ShouldNotLoad() {
+        barcodeIndex.refresh();
+
+        assertFalse(barcodeIndex.isReady());
+        verify(itemRepository, never()).findAll();
+    }
+
+    @Test
+    void testRefresh_ShouldPickUpChangesMadeElsewhere() {
+        Item milk = createItem("Milk", 111111);
+        Item bread = createItem("Bread", 222222);
+        when(itemRepository.findAll()).thenReturn(List.of(milk, bread));
+        barcodeIndex.rebuild();
+
+        // Bread was deleted by another instance, so no event reached this one
+        when(itemRepository.findAll()).thenReturn(List.of(milk));
+        barcodeIndex.refresh();
+
+        assertEquals(1, barcodeIndex.size());
+        assertNull(barcodeIndex.get(222222));
+    }
+
+    @Test
+    void testOnItemCatalogChanged_ShouldApplyUpsertsAndRemovals() {
+        Item milk = createItem("Milk", 111111);
+        Item bread = createItem("Bread", 222222);
+        when(itemRepository.findAll()).thenReturn(List.of(milk, bread));
+        barcodeIndex.rebuild();
+
+        Item juice = createItem("Juice", 333333);
+        barcodeIndex.onItemCatalogChanged(ItemCatalogChangedEvent.upserted(juice));
+        barcodeIndex.onItemCatalogChanged(ItemCatalogChangedEvent.removed(bread));
+        barcodeIndex.applyPendingChanges();
+
+        assertEquals(2, barcodeIndex.size());
+        assertEquals("Juice", barcodeIndex.get(333333).getName());
+        assertEquals("Milk", barcodeIndex.get(111111).getName());
+        assertNull(barcodeIndex.get(222222));
+    }
+
+    @Test
+    void testOnItemCatalogChanged_BarcodeChanged_ShouldDropOldBarcode() {
+        Item milk = createItem("Milk", 111111);
+        when(itemRepository.findAll()).thenReturn(List.of(milk));
+        barcodeIndex.rebuild();
+
+        Item renamed = createItem("Whole Milk", 444444);
+        renamed.setId(milk.getId());
+        barcodeIndex.onItemCatalogChanged(ItemCatalogChangedEvent.upserted(renamed));
+        barcodeIndex.applyPendingChanges();
+
+        assertEquals(1, barcodeIndex.size());
+        assertNull(barcodeIndex.get(111111));
+        assertEquals("Whole Milk", barcodeIndex.get(444444).getName());
+    }
+
+    @Test
+    void testOnItemCatalogChanged_UpsertThenRemoveInOneBatch_ShouldDropItem() {
+        when(itemRepository.findAll()).thenReturn(List.of());
+        barcodeIndex.rebuild();
+
+        Item milk = createItem("Milk", 111111);
+        barcodeIndex.onItemCatalogChanged(ItemCatalogChangedEvent.upserted(milk));
+        barcodeIndex.onItemCatalogChanged(ItemCatalogChangedEvent.removed(milk));
+        barcodeIndex.applyPendingChanges();
+
+        assertEquals(0, barcodeIndex.size());
+        assertNull(barcodeIndex.get(111111));
+    }
+
+    @Test
+    void testOnItemCatalogChanged_BeforeRebuild_ShouldBeReplayedByLoad() {
+        Item milk = createItem("Milk", 111111);
+        barcodeIndex.onItemCatalogChanged(ItemCatalogChangedEvent.upserted(milk));
+        barcodeIndex.applyPendingChanges();
+        assertFalse(barcodeIndex.isReady());
+
+        // The catalog read did not see the item yet
+        when(itemRepository.findAll()).thenReturn(List.of());
+        barcodeIndex.rebuild();
+
+        assertEquals(1, barcodeIndex.size());
+        assertEquals("Milk", barcodeIndex.get(111111).getName());
+    }
+}
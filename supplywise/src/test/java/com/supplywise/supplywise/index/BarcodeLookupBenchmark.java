@@ -0,0 +1,123 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.SupplywiseApplication;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares barcode lookups served by {@link BarcodeTable} with the Spring Data derived query.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.supplywise.supplywise.index.BarcodeLookupBenchmark
+ *
+ * The {@code jpaFindByBarCode} benchmark boots the application against the configured
+ * datasource ({@code DB_URL}, {@code DB_USERNAME}, {@code DB_PASSWORD}) and samples the
+ * barcodes already stored there, so it needs a seeded database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarcodeLookupBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    @State(Scope.Benchmark)
+    public static class IndexState {
+
+        @Param({"50000"})
+        int catalogSize;
+
+        BarcodeTable table;
+        long[] barCodes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Item> items = new ArrayList<>(catalogSize);
+            for (int i = 0; i < catalogSize; i++) {
+                Item item = new Item("Item " + i, 100000 + i * 7, Category.EATABLE);
+                item.setId(UUID.randomUUID());
+                items.add(item);
+            }
+            table = BarcodeTable.of(items);
+            barCodes = sample(items);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class JpaState {
+
+        ConfigurableApplicationContext context;
+        ItemRepository itemRepository;
+        long[] barCodes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = new SpringApplicationBuilder(SupplywiseApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .properties("spring.jpa.show-sql=false")
+                    .run();
+            itemRepository = context.getBean(ItemRepository.class);
+            List<Item> items = itemRepository.findAll();
+            if (items.isEmpty()) {
+                throw new IllegalStateException("The item catalog is empty, seed the database before benchmarking");
+            }
+            barCodes = sample(items);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            next = (next + 1) & (SAMPLE_SIZE - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Item indexGet(IndexState state, Cursor cursor) {
+        return state.table.get(state.barCodes[cursor.advance()]);
+    }
+
+    @Benchmark
+    public Item jpaFindByBarCode(JpaState state, Cursor cursor) {
+        return state.itemRepository.findByBarCode(state.barCodes[cursor.advance()]).orElse(null);
+    }
+
+    private static long[] sample(List<Item> items) {
+        long[] barCodes = new long[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            barCodes[i] = items.get(ThreadLocalRandom.current().nextInt(items.size())).getBarCode();
+        }
+        return barCodes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BarcodeLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
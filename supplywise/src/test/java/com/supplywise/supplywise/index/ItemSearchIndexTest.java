@@ -0,0 +1,171 @@
+package com.supplywise.supplywise.index;
+
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemSearchIndex.shutdown();
+    }
+
+    // Helper method to create an item with a random ID
+    private Item createItem(String name, long barCode, Category category) {
+        Item item = new Item(name, barCode, category);
+        item.setId(UUID.randomUUID());
+        return item;
+    }
+
+    private List<String> names(List<Item> items) {
+        return items.stream().map(Item::getName).toList();
+    }
+
+    private void load(Item... items) {
+        when(itemRepository.findAll()).thenReturn(List.of(items));
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void testSearch_BeforeRebuild_ShouldThrow() {
+        assertFalse(itemSearchIndex.isReady());
+        assertThrows(IllegalStateException.class, () -> itemSearchIndex.search("milk", null, 10));
+    }
+
+    @Test
+    void testSearch_ShouldMatchPrefixesOfAnyWord() {
+        load(createItem("Whole Milk", 1001, Category.DRINKABLE),
+                createItem("Milk Chocolate", 1002, Category.EATABLE),
+                createItem("Orange Juice", 1003, Category.DRINKABLE));
+
+        List<String> results = names(itemSearchIndex.search("mil", null, 10));
+
+        assertEquals(2, results.size());
+        assertTrue(results.containsAll(List.of("Whole Milk", "Milk Chocolate")));
+    }
+
+    @Test
+    void testSearch_ShouldRankNamesStartingWithQueryFirst() {
+        load(createItem("Whole Milk", 1001, Category.DRINKABLE),
+                createItem("Milk", 1002, Category.DRINKABLE),
+                createItem("Milk Chocolate", 1003, Category.EATABLE));
+
+        List<String> results = names(itemSearchIndex.search("milk", null, 10));
+
+        assertEquals(List.of("Milk", "Milk Chocolate", "Whole Milk"), results);
+    }
+
+    @Test
+    void testSearch_ShouldTolerateTyposAndAccents() {
+        load(createItem("Café Crème", 1001, Category.DRINKABLE),
+                createItem("Tomato Sauce", 1002, Category.EATABLE));
+
+        assertEquals(List.of("Café Crème"), names(itemSearchIndex.search("cafe creme", null, 10)));
+        assertEquals(List.of("Tomato Sauce"), names(itemSearchIndex.search("tomatto sauce", null, 10)));
+    }
+
+    @Test
+    void testSearch_ShouldMatchCategoryName() {
+        load(createItem("Orange Juice", 1001, Category.DRINKABLE),
+                createItem("Bread", 1002, Category.EATABLE));
+
+        assertEquals(List.of("Orange Juice"), names(itemSearchIndex.search("drink", null, 10)));
+    }
+
+    @Test
+    void testSearch_ShouldApplyCategoryFilterAndLimit() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(createItem("Sauce " + i, 1000 + i, i % 2 == 0 ? Category.EATABLE : Category.DRINKABLE));
+        }
+        load(items.toArray(new Item[0]));
+
+        List<Item> results = itemSearchIndex.search("sauce", Set.of(Category.DRINKABLE), 5);
+
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(item -> item.getCategory() == Category.DRINKABLE));
+    }
+
+    @Test
+    void testSearch_WithUnrelatedQuery_ShouldReturnNothing() {
+        load(createItem("Whole Milk", 1001, Category.DRINKABLE));
+
+        assertTrue(itemSearchIndex.search("xyz", null, 10).isEmpty());
+        assertTrue(itemSearchIndex.search("  ", null, 10).isEmpty());
+    }
+
+    @Test
+    void testOnItemCatalogChanged_ShouldApplyUpsertsAndRemovals() {
+        Item milk = createItem("Whole Milk", 1001, Category.DRINKABLE);
+        load(milk);
+
+        Item renamed = createItem("Oat Milk", 1001, Category.DRINKABLE);
+        renamed.setId(milk.getId());
+        Item juice = createItem("Orange Juice", 1002, Category.DRINKABLE);
+        itemSearchIndex.onItemCatalogChanged(new ItemCatalogChangedEvent(List.of(renamed, juice), List.of()));
+        itemSearchIndex.refresh();
+
+        assertEquals(List.of("Oat Milk"), names(itemSearchIndex.search("milk", null, 10)));
+        assertEquals(List.of("Orange Juice"), names(itemSearchIndex.search("juice", null, 10)));
+
+        itemSearchIndex.onItemCatalogChanged(ItemCatalogChangedEvent.removed(juice));
+        itemSearchIndex.refresh();
+
+        assertTrue(itemSearchIndex.search("juice", null, 10).isEmpty());
+    }
+
+    @Test
+    void testOnItemCatalogChanged_DuringInitialLoad_ShouldNotBeLost() throws InterruptedException {
+        Item milk = createItem("Whole Milk", 1001, Category.DRINKABLE);
+        Thread concurrentDelete = new Thread(() -> itemSearchIndex.onItemCatalogChanged(ItemCatalogChangedEvent.removed(milk)));
+        // The delete lands while the catalog is being read, which still returns the deleted item
+        when(itemRepository.findAll()).thenAnswer(invocation -> {
+            concurrentDelete.start();
+            return List.of(milk);
+        });
+
+        itemSearchIndex.rebuild();
+        concurrentDelete.join();
+        itemSearchIndex.refresh();
+
+        assertTrue(itemSearchIndex.search("milk", null, 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_ShouldNotSeeLaterChangesToCallerEntities() {
+        Item milk = createItem("Whole Milk", 1001, Category.DRINKABLE);
+        load(milk);
+
+        milk.setName("Changed");
+
+        assertEquals("Whole Milk", itemSearchIndex.search("milk", null, 10).get(0).getName());
+    }
+}
@@ -0,0 +1,34 @@
+package com.supplywise.supplywise.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text.replace('\'', '"'));
+    }
+
+    @Test
+    void testApply_ShouldMergeRecursivelyAndRemoveNulls() throws Exception {
+        JsonNode target = json("{'a':'b','c':{'d':'e','f':'g'},'list':[1,2]}");
+        JsonNode patch = json("{'a':'z','c':{'f':null,'h':1},'list':[3]}");
+
+        JsonNode result = JsonMergePatch.apply(target, patch);
+
+        assertEquals(json("{'a':'z','c':{'d':'e','h':1},'list':[3]}"), result);
+        assertEquals(json("{'a':'b','c':{'d':'e','f':'g'},'list':[1,2]}"), target);
+    }
+
+    @Test
+    void testApply_NonObjectPatch_ShouldReplaceTarget() throws Exception {
+        assertEquals(json("[1]"), JsonMergePatch.apply(json("{'a':1}"), json("[1]")));
+        assertEquals(json("{'b':1}"), JsonMergePatch.apply(json("'text'"), json("{'b':1}")));
+    }
+}
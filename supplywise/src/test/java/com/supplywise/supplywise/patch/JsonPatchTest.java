@@ -0,0 +1,66 @@
+package com.supplywise.supplywise.patch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonPatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text.replace('\'', '"'));
+    }
+
+    @Test
+    void testApply_ShouldSupportAllOperations() throws Exception {
+        JsonNode target = json("{'a':{'b':1},'list':[1,2],'x':'y'}");
+        JsonNode patch = json("["
+                + "{'op':'test','path':'/a/b','value':1},"
+                + "{'op':'replace','path':'/a/b','value':2},"
+                + "{'op':'add','path':'/list/1','value':9},"
+                + "{'op':'add','path':'/list/-','value':3},"
+                + "{'op':'remove','path':'/list/0'},"
+                + "{'op':'copy','from':'/a','path':'/c'},"
+                + "{'op':'move','from':'/x','path':'/z'}"
+                + "]");
+
+        JsonNode result = JsonPatch.apply(target, patch);
+
+        assertEquals(json("{'a':{'b':2},'list':[9,2,3],'c':{'b':2},'z':'y'}"), result);
+        assertEquals(json("{'a':{'b':1},'list':[1,2],'x':'y'}"), target);
+    }
+
+    @Test
+    void testApply_ShouldUnescapePointerTokens() throws Exception {
+        JsonNode result = JsonPatch.apply(json("{'a/b':1,'m~n':2}"),
+                json("[{'op':'remove','path':'/a~1b'},{'op':'replace','path':'/m~0n','value':3}]"));
+
+        assertEquals(json("{'m~n':3}"), result);
+    }
+
+    @Test
+    void testApply_FailedTest_ShouldThrow() throws Exception {
+        JsonNode target = json("{'a':1}");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> JsonPatch.apply(target, json("[{'op':'replace','path':'/a','value':2},{'op':'test','path':'/a','value':1}]")));
+    }
+
+    @Test
+    void testApply_InvalidPatches_ShouldThrow() throws Exception {
+        JsonNode target = json("{'a':1,'list':[1]}");
+
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("{'op':'remove','path':'/a'}")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'remove','path':'/missing'}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'replace','path':'/missing','value':1}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'add','path':'/list/5','value':1}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'add','path':'/list/01','value':1}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'add','path':'/a'}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'frobnicate','path':'/a'}]")));
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(target, json("[{'op':'move','from':'/list','path':'/list/0'}]")));
+    }
+}
@@ -0,0 +1,117 @@
+package com.supplywise.supplywise.repositories;
+
+import com.supplywise.supplywise.DAO.ItemVariance;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InventoryDiffRepositoryTest {
+
+    private static final UUID FIRST = UUID.fromString("10000000-0000-0000-0000-000000000000");
+    private static final UUID SECOND = UUID.fromString("70000000-0000-0000-0000-000000000000");
+    // Negative as a signed long, so UUID.compareTo would put it first
+    private static final UUID THIRD = UUID.fromString("f0000000-0000-0000-0000-000000000000");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    private InventoryDiffRepository inventoryDiffRepository;
+
+    private final UUID fromId = UUID.randomUUID();
+    private final UUID toId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        inventoryDiffRepository = new InventoryDiffRepository(jdbcTemplate);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+    }
+
+    @Test
+    void testFindChanges_ShouldMergeBothSidesInItemOrder() throws Exception {
+        givenTotals(new Object[][]{{FIRST, 5L}, {SECOND, 3L}}, new Object[][]{{SECOND, 3L}, {THIRD, 2L}});
+
+        List<ItemVariance> changes = inventoryDiffRepository.findChanges(fromId, toId, null, 10);
+
+        assertEquals(2, changes.size());
+        assertEquals(new ItemVariance(FIRST, FIRST.toString(), 5, 0), changes.get(0));
+        assertEquals(new ItemVariance(THIRD, THIRD.toString(), 0, 2), changes.get(1));
+    }
+
+    @Test
+    void testFindChanges_ShouldStopAtLimit() throws Exception {
+        givenTotals(new Object[][]{{FIRST, 5L}, {SECOND, 1L}}, new Object[][]{{FIRST, 4L}, {SECOND, 3L}, {THIRD, 2L}});
+
+        List<ItemVariance> changes = inventoryDiffRepository.findChanges(fromId, toId, null, 2);
+
+        assertEquals(List.of(new ItemVariance(FIRST, FIRST.toString(), 5, 4), new ItemVariance(SECOND, SECOND.toString(), 1, 3)), changes);
+    }
+
+    @Test
+    void testFindChanges_ItemAtZeroOnOneSide_ShouldBeSkipped() throws Exception {
+        givenTotals(new Object[][]{{FIRST, 0L}, {SECOND, 3L}}, new Object[][]{{SECOND, 4L}, {THIRD, 0L}});
+
+        List<ItemVariance> changes = inventoryDiffRepository.findChanges(fromId, toId, null, 10);
+
+        assertEquals(List.of(new ItemVariance(SECOND, SECOND.toString(), 3, 4)), changes);
+    }
+
+    @Test
+    void testForEachChange_ShouldReportEveryChange() throws Exception {
+        givenTotals(new Object[][]{{FIRST, 5L}, {SECOND, 1L}}, new Object[][]{{FIRST, 4L}, {SECOND, 3L}, {THIRD, 2L}});
+
+        List<ItemVariance> changes = new ArrayList<>();
+        inventoryDiffRepository.forEachChange(fromId, toId, changes::add);
+
+        assertEquals(3, changes.size());
+        assertEquals(THIRD, changes.get(2).getItemId());
+    }
+
+    @Test
+    void testCompareUuids_ShouldMatchPostgresOrder() {
+        assertTrue(InventoryDiffRepository.compareUuids(SECOND, THIRD) < 0);
+        assertTrue(SECOND.compareTo(THIRD) > 0);
+        assertEquals(0, InventoryDiffRepository.compareUuids(FIRST, UUID.fromString(FIRST.toString())));
+    }
+
+    /* Helper functions */
+
+    private void givenTotals(Object[][] fromRows, Object[][] toRows) throws Exception {
+        PreparedStatement fromStatement = statement(fromRows);
+        PreparedStatement toStatement = statement(toRows);
+        when(connection.prepareStatement(anyString())).thenReturn(fromStatement, toStatement);
+    }
+
+    private PreparedStatement statement(Object[][] rows) throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        int[] row = {-1};
+        when(rs.next()).thenAnswer(invocation -> ++row[0] < rows.length);
+        when(rs.getObject(eq("item_id"), eq(UUID.class))).thenAnswer(invocation -> rows[row[0]][0]);
+        when(rs.getString("name")).thenAnswer(invocation -> rows[row[0]][0].toString());
+        when(rs.getLong("quantity")).thenAnswer(invocation -> rows[row[0]][1]);
+        when(statement.executeQuery()).thenReturn(rs);
+        return statement;
+    }
+}
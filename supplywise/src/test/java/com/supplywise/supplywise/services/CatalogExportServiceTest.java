@@ -0,0 +1,79 @@
+package com.supplywise.supplywise.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.model.ItemProperties;
+import com.supplywise.supplywise.repositories.ItemPropertiesRepository;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogExportServiceTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemPropertiesRepository itemPropertiesRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CatalogExportService catalogExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        // Same as the mapper Spring Boot configures
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        catalogExportService = new CatalogExportService(itemRepository, itemPropertiesRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void testExportItems_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        Item milk = new Item("Milk", 5601234567890L, Category.DRINKABLE);
+        Item bread = new Item("Bread", 5601234567891L, Category.EATABLE);
+        when(itemRepository.streamAll()).thenReturn(Stream.of(milk, bread));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = catalogExportService.exportItems(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Milk\""));
+        assertTrue(lines[1].contains("\"barCode\":5601234567891"));
+    }
+
+    @Test
+    void testExportItemProperties_ShouldClearPersistenceContextPeriodically() throws Exception {
+        Item milk = new Item("Milk", 5601234567890L, Category.DRINKABLE);
+        when(itemPropertiesRepository.streamAll()).thenReturn(
+                IntStream.range(0, 1200).mapToObj(i -> new ItemProperties(milk, LocalDate.of(2026, 1, 1), i + 1)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = catalogExportService.exportItemProperties(output);
+
+        assertEquals(1200, count);
+        verify(entityManager, times(2)).clear();
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("\"expirationDate\":\"2026-01-01\""));
+    }
+}
@@ -0,0 +1,83 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.CompanyStockEntry;
+import com.supplywise.supplywise.DAO.CompanyStockRollup;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.repositories.RestaurantStockRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CompanyStockServiceTest {
+
+    @Mock
+    private RestaurantStockRepository restaurantStockRepository;
+
+    private final UUID companyId = UUID.randomUUID();
+    private final UUID downtown = UUID.randomUUID();
+    private final UUID harbour = UUID.randomUUID();
+    private final UUID tomato = UUID.randomUUID();
+    private final UUID onion = UUID.randomUUID();
+    private final UUID milk = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(restaurantStockRepository.findByCompanyId(companyId)).thenReturn(List.of(
+                new CompanyStockEntry(downtown, "Downtown", tomato, "Tomato", Category.EATABLE, 10),
+                new CompanyStockEntry(harbour, "Harbour", tomato, "Tomato", Category.EATABLE, 5),
+                new CompanyStockEntry(harbour, "Harbour", onion, "Onion", Category.EATABLE, 3),
+                new CompanyStockEntry(downtown, "Downtown", milk, "Milk", Category.DRINKABLE, 7)));
+    }
+
+    @Test
+    void testGetCompanyRollup_ShouldTotalByItemCategoryAndRestaurant() {
+        CompanyStockService service = new CompanyStockService(restaurantStockRepository, 30_000);
+
+        CompanyStockRollup rollup = service.getCompanyRollup(companyId);
+
+        assertEquals(List.of("Milk", "Onion", "Tomato"), rollup.getItems().stream().map(CompanyStockRollup.ItemTotal::getItemName).toList());
+        CompanyStockRollup.ItemTotal tomatoTotal = rollup.getItems().get(2);
+        assertEquals(15, tomatoTotal.getQuantity());
+        assertEquals(2, tomatoTotal.getRestaurants());
+
+        CompanyStockRollup.CategoryTotal eatable = rollup.getCategories().stream()
+                .filter(c -> c.getCategory() == Category.EATABLE).findFirst().orElseThrow();
+        assertEquals(18, eatable.getQuantity());
+        assertEquals(2, eatable.getItems());
+
+        assertEquals(2, rollup.getRestaurants().size());
+        assertEquals("Downtown", rollup.getRestaurants().get(0).getRestaurantName());
+        assertEquals(17, rollup.getRestaurants().get(0).getQuantity());
+        assertEquals(2, rollup.getRestaurants().get(0).getItems());
+    }
+
+    @Test
+    void testGetCompanyRollup_ShouldServeFromCacheWithinTtl() {
+        CompanyStockService service = new CompanyStockService(restaurantStockRepository, 30_000);
+
+        CompanyStockRollup first = service.getCompanyRollup(companyId);
+        CompanyStockRollup second = service.getCompanyRollup(companyId);
+
+        assertSame(first, second);
+        verify(restaurantStockRepository, times(1)).findByCompanyId(companyId);
+    }
+
+    @Test
+    void testGetCompanyRollup_ExpiredEntry_ShouldRecompute() {
+        CompanyStockService service = new CompanyStockService(restaurantStockRepository, 0);
+
+        service.getCompanyRollup(companyId);
+        service.getCompanyRollup(companyId);
+
+        verify(restaurantStockRepository, times(2)).findByCompanyId(companyId);
+    }
+}
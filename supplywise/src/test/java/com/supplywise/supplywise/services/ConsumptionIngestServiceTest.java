@@ -0,0 +1,152 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.ConsumptionEvent;
+import com.supplywise.supplywise.exception.BacklogFullException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class ConsumptionIngestServiceTest {
+
+    @Mock
+    private ItemPropertiesService itemPropertiesService;
+
+    private ConsumptionIngestService consumptionIngestService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        consumptionIngestService = new ConsumptionIngestService(itemPropertiesService, 1000, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumptionIngestService.shutdown();
+    }
+
+    @Test
+    void testFlush_ShouldCoalesceEventsPerItemProperties() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(itemPropertiesService.applyConsumption(anyMap())).thenReturn(List.of());
+
+        consumptionIngestService.record(List.of(new ConsumptionEvent(first, 2), new ConsumptionEvent(second, 1)));
+        consumptionIngestService.record(List.of(new ConsumptionEvent(first, 3)));
+        assertEquals(2, consumptionIngestService.getPendingRows());
+
+        consumptionIngestService.flush();
+
+        verify(itemPropertiesService, times(1)).applyConsumption(Map.of(first, 5, second, 1));
+        assertEquals(0, consumptionIngestService.getPendingRows());
+    }
+
+    @Test
+    void testFlush_NothingPending_ShouldNotWrite() {
+        consumptionIngestService.flush();
+
+        verifyNoInteractions(itemPropertiesService);
+    }
+
+    @Test
+    void testFlush_WriteFails_ShouldKeepAmountsForNextFlush() {
+        UUID id = UUID.randomUUID();
+        when(itemPropertiesService.applyConsumption(anyMap()))
+                .thenThrow(new RuntimeException("Database unavailable"))
+                .thenReturn(List.of());
+
+        consumptionIngestService.record(List.of(new ConsumptionEvent(id, 4)));
+        consumptionIngestService.flush();
+        consumptionIngestService.record(List.of(new ConsumptionEvent(id, 1)));
+        consumptionIngestService.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, Integer>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(itemPropertiesService, times(2)).applyConsumption(captor.capture());
+        assertEquals(Map.of(id, 5), captor.getAllValues().get(1));
+    }
+
+    @Test
+    void testFlush_TotalAboveIntRange_ShouldWriteIntMaximum() {
+        UUID id = UUID.randomUUID();
+        when(itemPropertiesService.applyConsumption(anyMap())).thenReturn(List.of());
+        List<ConsumptionEvent> batch = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            batch.add(new ConsumptionEvent(id, 100_000));
+        }
+
+        // 5 x 5000 x 100000 units, more than an int can hold
+        for (int i = 0; i < 5; i++) {
+            consumptionIngestService.record(batch);
+        }
+        consumptionIngestService.flush();
+
+        verify(itemPropertiesService, times(1)).applyConsumption(Map.of(id, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void testRecord_TooManyPendingRows_ShouldRefuseBatch() {
+        List<ConsumptionEvent> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(new ConsumptionEvent(UUID.randomUUID(), 1));
+        }
+        consumptionIngestService.record(events);
+
+        List<ConsumptionEvent> next = List.of(new ConsumptionEvent(UUID.randomUUID(), 1));
+        assertThrows(BacklogFullException.class, () -> consumptionIngestService.record(next));
+        assertEquals(10, consumptionIngestService.getPendingRows());
+    }
+
+    @Test
+    void testShutdown_WriteFails_ShouldDropPendingAmounts() {
+        when(itemPropertiesService.applyConsumption(anyMap())).thenThrow(new RuntimeException("Database unavailable"));
+        consumptionIngestService.record(List.of(new ConsumptionEvent(UUID.randomUUID(), 3)));
+
+        consumptionIngestService.shutdown();
+
+        verify(itemPropertiesService, times(1)).applyConsumption(anyMap());
+        assertEquals(0, consumptionIngestService.getPendingRows());
+    }
+
+    @Test
+    void testRecord_ThresholdReached_ShouldFlushInBackground() {
+        consumptionIngestService = new ConsumptionIngestService(itemPropertiesService, 2, 10);
+        when(itemPropertiesService.applyConsumption(anyMap())).thenReturn(List.of());
+
+        consumptionIngestService.record(List.of(new ConsumptionEvent(UUID.randomUUID(), 1), new ConsumptionEvent(UUID.randomUUID(), 1)));
+
+        verify(itemPropertiesService, timeout(5000).times(1)).applyConsumption(anyMap());
+    }
+
+    @Test
+    void testRecord_InvalidEvent_ShouldRejectWholeBatch() {
+        List<ConsumptionEvent> events = List.of(new ConsumptionEvent(UUID.randomUUID(), 2), new ConsumptionEvent(UUID.randomUUID(), 0));
+
+        assertThrows(IllegalArgumentException.class, () -> consumptionIngestService.record(events));
+        assertEquals(0, consumptionIngestService.getPendingRows());
+    }
+
+    @Test
+    void testRecord_MissingId_ShouldThrow() {
+        List<ConsumptionEvent> events = List.of(new ConsumptionEvent(null, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> consumptionIngestService.record(events));
+    }
+
+    @Test
+    void testRecord_EmptyBatch_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> consumptionIngestService.record(new ArrayList<>()));
+    }
+}
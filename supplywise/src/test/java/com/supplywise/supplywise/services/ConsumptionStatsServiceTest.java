@@ -0,0 +1,194 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.ClosedInventoryInterval;
+import com.supplywise.supplywise.DAO.ConsumptionStats;
+import com.supplywise.supplywise.DAO.ForecastInput;
+import com.supplywise.supplywise.DAO.ItemForecast;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.repositories.ConsumptionStatsRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ConsumptionStatsServiceTest {
+
+    // A Monday
+    private static final LocalDateTime CLOSING_DATE = LocalDateTime.of(2025, 3, 10, 20, 0);
+
+    @Mock
+    private ConsumptionStatsRepository consumptionStatsRepository;
+
+    private ConsumptionStatsService consumptionStatsService;
+
+    private final UUID restaurantId = UUID.randomUUID();
+    private final UUID inventoryId = UUID.randomUUID();
+    private final UUID previousId = UUID.randomUUID();
+    private final UUID itemId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        consumptionStatsService = new ConsumptionStatsService(consumptionStatsRepository, 0.5, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        consumptionStatsService.shutdown();
+    }
+
+    @Test
+    void testUpdateStats_FirstObservation_ShouldStartAtObservedRate() {
+        givenInterval(CLOSING_DATE.minusDays(2));
+        when(consumptionStatsRepository.findItemTotals(inventoryId, previousId))
+                .thenReturn(List.of(new ItemVariance(itemId, "Milk", 10, 4)));
+        when(consumptionStatsRepository.findStats(eq(restaurantId), any())).thenReturn(Map.of());
+
+        consumptionStatsService.updateStats(inventoryId);
+
+        ConsumptionStats saved = savedStats().get(0);
+        assertEquals(3.0, saved.getDailyRate(), 1e-9);
+        assertTrue(Arrays.stream(saved.getWeekdayRates()).allMatch(rate -> rate == 3.0));
+        assertEquals(1, saved.getSamples());
+        assertEquals(CLOSING_DATE, saved.getLastClosingDate());
+    }
+
+    @Test
+    void testUpdateStats_Restock_ShouldCountAsNoConsumption() {
+        givenInterval(CLOSING_DATE.minusDays(1));
+        when(consumptionStatsRepository.findItemTotals(inventoryId, previousId))
+                .thenReturn(List.of(new ItemVariance(itemId, "Milk", 4, 20)));
+        when(consumptionStatsRepository.findStats(eq(restaurantId), any()))
+                .thenReturn(Map.of(itemId, createStats(4.0, CLOSING_DATE.minusDays(1))));
+
+        consumptionStatsService.updateStats(inventoryId);
+
+        ConsumptionStats saved = savedStats().get(0);
+        assertEquals(2.0, saved.getDailyRate(), 1e-9);
+        // Only Monday was covered by the interval
+        assertEquals(2.0, saved.getWeekdayRates()[DayOfWeek.MONDAY.getValue() - 1], 1e-9);
+        assertEquals(4.0, saved.getWeekdayRates()[DayOfWeek.SUNDAY.getValue() - 1], 1e-9);
+        assertEquals(2, saved.getSamples());
+    }
+
+    @Test
+    void testUpdateStats_AlreadyFolded_ShouldSkipItem() {
+        givenInterval(CLOSING_DATE.minusDays(1));
+        when(consumptionStatsRepository.findItemTotals(inventoryId, previousId))
+                .thenReturn(List.of(new ItemVariance(itemId, "Milk", 10, 4)));
+        when(consumptionStatsRepository.findStats(eq(restaurantId), any()))
+                .thenReturn(Map.of(itemId, createStats(4.0, CLOSING_DATE)));
+
+        consumptionStatsService.updateStats(inventoryId);
+
+        assertTrue(savedStats().isEmpty());
+    }
+
+    @Test
+    void testUpdateStats_FirstInventory_ShouldDoNothing() {
+        when(consumptionStatsRepository.findInterval(inventoryId))
+                .thenReturn(Optional.of(new ClosedInventoryInterval(restaurantId, inventoryId, CLOSING_DATE, null, null)));
+
+        consumptionStatsService.updateStats(inventoryId);
+
+        verify(consumptionStatsRepository, never()).findItemTotals(any(), any());
+        verify(consumptionStatsRepository, never()).saveStats(anyList());
+    }
+
+    @Test
+    void testForecast_ShouldProjectStockOutAndReorder() {
+        ForecastInput input = new ForecastInput(createStats(2.0, CLOSING_DATE), 5, 3);
+
+        ItemForecast forecast = ConsumptionStatsService.forecast(input, CLOSING_DATE, 7);
+
+        assertEquals(LocalDate.of(2025, 3, 13), forecast.getStockOutDate());
+        assertEquals(12, forecast.getReorderQuantity());
+    }
+
+    @Test
+    void testForecast_WeekdaySeasonality_ShouldShiftStockOut() {
+        double[] weekdayRates = {1, 1, 1, 1, 1, 8, 1};
+        ConsumptionStats stats = new ConsumptionStats(restaurantId, itemId, 2.0, weekdayRates, 5, CLOSING_DATE);
+
+        ItemForecast forecast = ConsumptionStatsService.forecast(new ForecastInput(stats, 8, 0), CLOSING_DATE, 7);
+
+        // Saturday alone is expected to consume 2.0 * 8 / 2 = 8 units
+        assertEquals(LocalDate.of(2025, 3, 15), forecast.getStockOutDate());
+    }
+
+    @Test
+    void testForecast_NoConsumption_ShouldNotRunOut() {
+        ItemForecast forecast = ConsumptionStatsService.forecast(new ForecastInput(createStats(0, CLOSING_DATE), 5, 8), CLOSING_DATE, 7);
+
+        assertNull(forecast.getStockOutDate());
+        assertEquals(3, forecast.getReorderQuantity());
+    }
+
+    @Test
+    void testForecastAll_ShouldSaveEveryForecast() {
+        doAnswer(invocation -> {
+            Consumer<ForecastInput> consumer = invocation.getArgument(0);
+            consumer.accept(new ForecastInput(createStats(1.0, CLOSING_DATE), 10, 0));
+            consumer.accept(new ForecastInput(createStats(2.0, CLOSING_DATE), 0, 0));
+            return null;
+        }).when(consumptionStatsRepository).forEachForecastInput(any());
+
+        consumptionStatsService.forecastAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ItemForecast>> captor = ArgumentCaptor.forClass(List.class);
+        verify(consumptionStatsRepository, times(1)).saveForecasts(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(LocalDate.now(), captor.getValue().get(1).getStockOutDate());
+    }
+
+    @Test
+    void testObserve_ShouldOnlyUpdateCoveredWeekdays() {
+        ConsumptionStats stats = ConsumptionStatsService.observe(createStats(4.0, CLOSING_DATE.minusDays(1)), restaurantId, itemId,
+                8.0, Set.of(DayOfWeek.TUESDAY), CLOSING_DATE, 0.25);
+
+        assertEquals(5.0, stats.getDailyRate(), 1e-9);
+        assertEquals(5.0, stats.getWeekdayRates()[1], 1e-9);
+        assertEquals(4.0, stats.getWeekdayRates()[0], 1e-9);
+    }
+
+    /* Helper functions */
+
+    private void givenInterval(LocalDateTime previousClosingDate) {
+        when(consumptionStatsRepository.findInterval(inventoryId)).thenReturn(Optional.of(
+                new ClosedInventoryInterval(restaurantId, inventoryId, CLOSING_DATE, previousId, previousClosingDate)));
+    }
+
+    private List<ConsumptionStats> savedStats() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ConsumptionStats>> captor = ArgumentCaptor.forClass(List.class);
+        verify(consumptionStatsRepository).saveStats(captor.capture());
+        return captor.getValue();
+    }
+
+    private ConsumptionStats createStats(double rate, LocalDateTime lastClosingDate) {
+        double[] weekdayRates = new double[7];
+        Arrays.fill(weekdayRates, rate);
+        return new ConsumptionStats(restaurantId, itemId, rate, weekdayRates, 1, lastClosingDate);
+    }
+}
@@ -0,0 +1,132 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.ExpiringStock;
+import com.supplywise.supplywise.model.Notification;
+import com.supplywise.supplywise.model.Restaurant;
+import com.supplywise.supplywise.repositories.ItemPropertiesRepository;
+import com.supplywise.supplywise.repositories.NotificationRepository;
+import com.supplywise.supplywise.repositories.RestaurantRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ExpiryScanServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    @Mock
+    private ItemPropertiesRepository itemPropertiesRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private ExpiryScanService expiryScanService;
+
+    private final UUID restaurantId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        expiryScanService = new ExpiryScanService(itemPropertiesRepository, notificationRepository, notificationService, restaurantRepository, 3);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        when(restaurantRepository.getReferenceById(restaurantId)).thenReturn(restaurant);
+    }
+
+    @Test
+    void testScan_NearExpiry_ShouldRaiseNotification() {
+        ExpiringStock stock = createStock(TODAY.plusDays(2));
+        when(itemPropertiesRepository.findExpiringStockBetween(TODAY.minusDays(7), TODAY.plusDays(3))).thenReturn(List.of(stock));
+
+        assertEquals(1, expiryScanService.scan(TODAY));
+
+        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationService).createNotification(captor.capture());
+        assertEquals("Item 'Milk' expires on 2025-03-12 in restaurant 'Downtown' (4 units).", captor.getValue().getMessage());
+    }
+
+    @Test
+    void testScan_SameDay_ShouldNotLookUpRaisedAlertsAgain() {
+        ExpiringStock stock = createStock(TODAY.plusDays(2));
+        when(itemPropertiesRepository.findExpiringStockBetween(any(), any())).thenReturn(List.of(stock));
+
+        expiryScanService.scan(TODAY);
+        assertEquals(0, expiryScanService.scan(TODAY));
+
+        verify(itemPropertiesRepository, times(2)).findExpiringStockBetween(any(), any());
+        verify(notificationRepository, times(1)).existsByRestaurantIdAndMessageStartingWith(any(), anyString());
+        verify(notificationService, times(1)).createNotification(any());
+    }
+
+    @Test
+    void testScan_LineAddedDuringDay_ShouldBeRaisedByNextScan() {
+        ExpiringStock first = createStock(TODAY.plusDays(2));
+        ExpiringStock added = createStock(TODAY.plusDays(1));
+        when(itemPropertiesRepository.findExpiringStockBetween(any(), any())).thenReturn(List.of(first), List.of(first, added));
+
+        assertEquals(1, expiryScanService.scan(TODAY));
+        assertEquals(1, expiryScanService.scan(TODAY));
+
+        verify(notificationService, times(2)).createNotification(any());
+    }
+
+    @Test
+    void testScan_Expired_ShouldRaiseExpiredNotification() {
+        ExpiringStock stock = createStock(TODAY.minusDays(1));
+        when(itemPropertiesRepository.findExpiringStockBetween(any(), any())).thenReturn(List.of(stock));
+
+        assertEquals(1, expiryScanService.scan(TODAY));
+
+        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationService).createNotification(captor.capture());
+        assertTrue(captor.getValue().getMessage().startsWith("Item 'Milk' expired on 2025-03-09"));
+    }
+
+    @Test
+    void testScan_AlreadyNotified_ShouldNotDuplicate() {
+        ExpiringStock stock = createStock(TODAY);
+        when(itemPropertiesRepository.findExpiringStockBetween(any(), any())).thenReturn(List.of(stock));
+        when(notificationRepository.existsByRestaurantIdAndMessageStartingWith(eq(restaurantId), anyString())).thenReturn(true);
+
+        assertEquals(0, expiryScanService.scan(TODAY));
+        verify(notificationService, never()).createNotification(any());
+    }
+
+    @Test
+    void testScan_NextDay_ShouldRaiseExpired() {
+        ExpiringStock stock = createStock(TODAY);
+        when(itemPropertiesRepository.findExpiringStockBetween(any(), any())).thenReturn(List.of(stock));
+
+        expiryScanService.scan(TODAY);
+        expiryScanService.scan(TODAY.plusDays(1));
+
+        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationService, times(2)).createNotification(captor.capture());
+        assertTrue(captor.getAllValues().get(0).getMessage().contains("expires on"));
+        assertTrue(captor.getAllValues().get(1).getMessage().contains("expired on"));
+    }
+
+    /* Helper functions */
+
+    private ExpiringStock createStock(LocalDate expirationDate) {
+        return new ExpiringStock(UUID.randomUUID(), "Milk", expirationDate, 4, restaurantId, "Downtown");
+    }
+}
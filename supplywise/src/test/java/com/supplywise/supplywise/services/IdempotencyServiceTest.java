@@ -0,0 +1,109 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.IdempotencyClaim;
+import com.supplywise.supplywise.DAO.IdempotencyClaim.Outcome;
+import com.supplywise.supplywise.DAO.IdempotentResponse;
+import com.supplywise.supplywise.repositories.IdempotencyKeyRepository;
+import com.supplywise.supplywise.repositories.IdempotencyKeyRepository.StoredKey;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final String FINGERPRINT = "PUT /api/inventories/1/close";
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, 2, 16, 24, 300);
+    }
+
+    @Test
+    void testClaim_NewKey_ShouldBeAcquired() {
+        when(idempotencyKeyRepository.claim("k", FINGERPRINT, 300)).thenReturn(true);
+
+        assertEquals(Outcome.ACQUIRED, idempotencyService.claim("k", FINGERPRINT).getOutcome());
+    }
+
+    @Test
+    void testClaim_CompletedInDatabase_ShouldReturnStoredResponse() {
+        IdempotentResponse stored = new IdempotentResponse(200, "application/json", new byte[]{'{', '}'}, Map.of());
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyLong())).thenReturn(false);
+        when(idempotencyKeyRepository.find("k")).thenReturn(Optional.of(new StoredKey(FINGERPRINT, stored)));
+
+        IdempotencyClaim claim = idempotencyService.claim("k", FINGERPRINT);
+
+        assertEquals(Outcome.COMPLETED, claim.getOutcome());
+        assertSame(stored, claim.getResponse());
+    }
+
+    @Test
+    void testClaim_PendingInDatabase_ShouldBeInProgress() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyLong())).thenReturn(false);
+        when(idempotencyKeyRepository.find("k")).thenReturn(Optional.of(new StoredKey(FINGERPRINT, null)));
+
+        assertEquals(Outcome.IN_PROGRESS, idempotencyService.claim("k", FINGERPRINT).getOutcome());
+    }
+
+    @Test
+    void testClaim_OtherRequest_ShouldMismatch() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), anyLong())).thenReturn(false);
+        when(idempotencyKeyRepository.find("k")).thenReturn(Optional.of(new StoredKey("POST /api/item/create", null)));
+
+        assertEquals(Outcome.MISMATCH, idempotencyService.claim("k", FINGERPRINT).getOutcome());
+    }
+
+    @Test
+    void testComplete_ShouldAnswerRetriesFromMemory() {
+        IdempotentResponse response = new IdempotentResponse(200, null, new byte[0], Map.of());
+
+        assertTrue(idempotencyService.complete("k", FINGERPRINT, response));
+        IdempotencyClaim claim = idempotencyService.claim("k", FINGERPRINT);
+
+        assertEquals(Outcome.COMPLETED, claim.getOutcome());
+        verify(idempotencyKeyRepository, times(1)).complete("k", response);
+        verify(idempotencyKeyRepository, never()).claim(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void testComplete_CacheFull_ShouldEvictLeastRecentlyUsed() {
+        IdempotentResponse response = new IdempotentResponse(200, null, new byte[0], Map.of());
+        idempotencyService.complete("a", FINGERPRINT, response);
+        idempotencyService.complete("b", FINGERPRINT, response);
+        idempotencyService.claim("a", FINGERPRINT);
+        idempotencyService.complete("c", FINGERPRINT, response);
+        when(idempotencyKeyRepository.find("b")).thenReturn(Optional.of(new StoredKey(FINGERPRINT, response)));
+
+        idempotencyService.claim("a", FINGERPRINT);
+        idempotencyService.claim("b", FINGERPRINT);
+
+        verify(idempotencyKeyRepository, never()).claim("a", FINGERPRINT, 300);
+        verify(idempotencyKeyRepository, times(1)).claim("b", FINGERPRINT, 300);
+    }
+
+    @Test
+    void testComplete_BodyTooLarge_ShouldReleaseKey() {
+        IdempotentResponse response = new IdempotentResponse(200, null, new byte[17], Map.of());
+
+        assertFalse(idempotencyService.complete("k", FINGERPRINT, response));
+        verify(idempotencyKeyRepository, never()).complete(anyString(), any());
+        verify(idempotencyKeyRepository, times(1)).release("k");
+    }
+}
@@ -0,0 +1,189 @@
+package com.supplywise.supplywise.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplywise.supplywise.DAO.InventoryReport;
+import com.supplywise.supplywise.DAO.InventoryReportLine;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.DAO.StockShortfall;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.repositories.InventoryDiffRepository;
+import com.supplywise.supplywise.repositories.InventoryReportRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class InventoryReportServiceTest {
+
+    private static final LocalDateTime CLOSING_DATE = LocalDateTime.of(2025, 3, 10, 18, 0);
+
+    @Mock
+    private InventoryReportRepository inventoryReportRepository;
+
+    @Mock
+    private InventoryDiffRepository inventoryDiffRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private InventoryReportService inventoryReportService;
+
+    private final UUID inventoryId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inventoryReportService = new InventoryReportService(inventoryReportRepository, inventoryDiffRepository, objectMapper, 3, 1);
+        when(inventoryReportRepository.findClosingDate(inventoryId)).thenReturn(Optional.of(CLOSING_DATE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryReportService.shutdown();
+    }
+
+    @Test
+    void testGenerateReport_ShouldSummariseLines() throws Exception {
+        streamLines(
+                createLine("Milk", Category.DRINKABLE, 2, LocalDate.of(2025, 3, 12)),
+                createLine("Water", Category.DRINKABLE, 10, LocalDate.of(2025, 6, 1)),
+                createLine("Bread", Category.EATABLE, 1, LocalDate.of(2025, 3, 9)));
+        streamShortfalls(createShortfall("Bread", 1, 3), createShortfall("Milk", 2, 5));
+        when(inventoryReportRepository.findPreviousClosedInventoryId(inventoryId)).thenReturn(Optional.empty());
+
+        inventoryReportService.generateReport(inventoryId);
+
+        JsonNode report = savedReport();
+        assertEquals(3, report.get("lines").asInt());
+        assertEquals(13, report.get("units").asInt());
+        assertEquals(12, report.get("categories").get("DRINKABLE").get("units").asInt());
+        assertEquals(1, report.get("categories").get("EATABLE").get("lines").asInt());
+        assertEquals(2, report.get("belowMinimum").get("count").asInt());
+        assertEquals("Milk", report.get("belowMinimum").get("items").get(0).get("itemName").asText());
+        assertEquals(2, report.get("nearExpiry").get("count").asInt());
+        assertEquals("Bread", report.get("nearExpiry").get("items").get(0).get("itemName").asText());
+        assertTrue(report.get("variance").isNull());
+    }
+
+    @Test
+    void testGenerateReport_PreviousInventory_ShouldIncludeVariance() throws Exception {
+        UUID previousId = UUID.randomUUID();
+        streamLines();
+        when(inventoryReportRepository.findPreviousClosedInventoryId(inventoryId)).thenReturn(Optional.of(previousId));
+        doAnswer(invocation -> {
+            Consumer<ItemVariance> consumer = invocation.getArgument(2);
+            consumer.accept(new ItemVariance(UUID.randomUUID(), "Milk", 10, 4));
+            consumer.accept(new ItemVariance(UUID.randomUUID(), "Bread", 0, 2));
+            return null;
+        }).when(inventoryDiffRepository).forEachChange(eq(previousId), eq(inventoryId), any());
+
+        inventoryReportService.generateReport(inventoryId);
+
+        JsonNode variance = savedReport().get("variance");
+        assertEquals(previousId.toString(), variance.get("previousInventoryId").asText());
+        assertEquals(2, variance.get("itemsChanged").asInt());
+        assertEquals(2, variance.get("unitsAdded").asInt());
+        assertEquals(6, variance.get("unitsRemoved").asInt());
+        assertEquals(-6, variance.get("items").get(0).get("delta").asInt());
+    }
+
+    @Test
+    void testGenerateReport_ManyLines_ShouldCapListedItems() throws Exception {
+        StockShortfall[] shortfalls = new StockShortfall[InventoryReportService.MAX_LISTED_ITEMS + 10];
+        for (int i = 0; i < shortfalls.length; i++) {
+            shortfalls[i] = createShortfall("Item " + i, 1, 2 + i);
+        }
+        streamLines();
+        streamShortfalls(shortfalls);
+        when(inventoryReportRepository.findPreviousClosedInventoryId(inventoryId)).thenReturn(Optional.empty());
+
+        inventoryReportService.generateReport(inventoryId);
+
+        JsonNode belowMinimum = savedReport().get("belowMinimum");
+        assertEquals(shortfalls.length, belowMinimum.get("count").asInt());
+        assertEquals(InventoryReportService.MAX_LISTED_ITEMS, belowMinimum.get("items").size());
+        assertEquals("Item " + (shortfalls.length - 1), belowMinimum.get("items").get(0).get("itemName").asText());
+    }
+
+    @Test
+    void testGenerateReport_NotClosed_ShouldMarkFailed() {
+        when(inventoryReportRepository.findClosingDate(inventoryId)).thenReturn(Optional.empty());
+
+        inventoryReportService.generateReport(inventoryId);
+
+        verify(inventoryReportRepository, never()).forEachLine(any(), any());
+        verify(inventoryReportRepository).save(eq(inventoryId), eq(InventoryReport.Status.FAILED), isNull());
+    }
+
+    @Test
+    void testGenerateReport_QueryFails_ShouldMarkFailed() {
+        doThrow(new RuntimeException("Database unavailable")).when(inventoryReportRepository).forEachLine(eq(inventoryId), any());
+
+        inventoryReportService.generateReport(inventoryId);
+
+        verify(inventoryReportRepository).save(eq(inventoryId), eq(InventoryReport.Status.FAILED), isNull());
+    }
+
+    @Test
+    void testRequestReport_ShouldMarkPendingAndGenerateInBackground() {
+        streamLines();
+        when(inventoryReportRepository.findPreviousClosedInventoryId(inventoryId)).thenReturn(Optional.empty());
+
+        inventoryReportService.requestReport(inventoryId);
+
+        verify(inventoryReportRepository).markPending(inventoryId);
+        verify(inventoryReportRepository, timeout(5000)).save(eq(inventoryId), eq(InventoryReport.Status.READY), any());
+    }
+
+    /* Helper functions */
+
+    private void streamLines(InventoryReportLine... lines) {
+        doAnswer(invocation -> {
+            Consumer<InventoryReportLine> consumer = invocation.getArgument(1);
+            for (InventoryReportLine line : lines) {
+                consumer.accept(line);
+            }
+            return null;
+        }).when(inventoryReportRepository).forEachLine(eq(inventoryId), any());
+    }
+
+    private void streamShortfalls(StockShortfall... shortfalls) {
+        doAnswer(invocation -> {
+            Consumer<StockShortfall> consumer = invocation.getArgument(1);
+            for (StockShortfall shortfall : shortfalls) {
+                consumer.accept(shortfall);
+            }
+            return null;
+        }).when(inventoryReportRepository).forEachBelowMinimum(eq(inventoryId), any());
+    }
+
+    private JsonNode savedReport() throws Exception {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(inventoryReportRepository).save(eq(inventoryId), eq(InventoryReport.Status.READY), captor.capture());
+        return objectMapper.readTree(captor.getValue());
+    }
+
+    private InventoryReportLine createLine(String name, Category category, int quantity, LocalDate expirationDate) {
+        return new InventoryReportLine(UUID.randomUUID(), name, category, quantity, expirationDate);
+    }
+
+    private StockShortfall createShortfall(String name, long quantity, int minimum) {
+        return new StockShortfall(UUID.randomUUID(), name, quantity, minimum);
+    }
+}
@@ -1,14 +1,36 @@
 package com.supplywise.supplywise.services;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.supplywise.supplywise.DAO.AddItemToInventoryRequest;
+import com.supplywise.supplywise.DAO.AddItemsToInventoryReport;
+import com.supplywise.supplywise.DAO.CloneInventoryReport;
+import com.supplywise.supplywise.DAO.ItemVariance;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Company;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.Inventory;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Restaurant;
+import com.supplywise.supplywise.repositories.InventoryDiffRepository;
 import com.supplywise.supplywise.repositories.InventoryRepository;
+import com.supplywise.supplywise.repositories.ItemPropertiesJdbcRepository;
+import com.supplywise.supplywise.repositories.ItemRepository;
+import com.supplywise.supplywise.patch.JsonMergePatch;
+import com.supplywise.supplywise.patch.JsonPatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,6 +39,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class InventoryServiceTest {
@@ -24,6 +48,19 @@ class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemPropertiesJdbcRepository itemPropertiesJdbcRepository;
+
+    @Mock
+    private InventoryDiffRepository inventoryDiffRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -166,15 +203,15 @@ class InventoryServiceTest {
 
         Inventory updatedInventory = new Inventory(restaurant, LocalDateTime.now(), LocalDateTime.now().plusDays(2));
         updatedInventory.setId(inventoryId);
-        updatedInventory.setClosingDate(LocalDateTime.now().plusDays(8));
+        updatedInventory.setClosingDate(existingInventory.getClosingDate());
         updatedInventory.setReport("Updated report");
 
         // Mock the repository to return the existing inventory
-        when(inventoryRepository.findById(inventoryId)).thenReturn(Optional.of(existingInventory));
+        when(inventoryRepository.findForUpdateById(inventoryId)).thenReturn(Optional.of(existingInventory));
         when(inventoryRepository.save(any(Inventory.class))).thenReturn(updatedInventory);
 
         // Call the updateInventory method
-        Optional<Inventory> result = inventoryService.updateInventory(inventoryId, updatedInventory);
+        Optional<Inventory> result = inventoryService.updateInventory(inventoryId, updatedInventory, null);
 
         assertTrue(result.isPresent());
         Inventory updatedResult = result.get();
@@ -188,6 +225,30 @@ class InventoryServiceTest {
         verify(inventoryRepository, times(1)).save(updatedInventory);
     }
 
+    @Test
+    void testUpdateInventory_ClosingDateChanged_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventoryWithItems(inventoryId);
+        Inventory details = new Inventory(inventory.getRestaurant(), inventory.getEmissionDate());
+        details.setClosingDate(LocalDateTime.now());
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.updateInventory(inventoryId, details, null));
+        assertNull(inventory.getClosingDate());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void testPatchInventory_ClosingDateChanged_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventoryWithItems(inventoryId);
+        LocalDateTime closingDate = LocalDateTime.now();
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.patchInventory(inventoryId,
+                document -> ((ObjectNode) document).set("closingDate", objectMapper.valueToTree(closingDate)), null));
+        assertNull(inventory.getClosingDate());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
     @Test
     void testUpdateInventory_NotFound_ShouldReturnNull() {
         UUID inventoryId = UUID.randomUUID();
@@ -195,14 +256,456 @@ class InventoryServiceTest {
         updatedInventory.setId(inventoryId);
 
         // Mock the repository to return an empty Optional
-        when(inventoryRepository.findById(inventoryId)).thenReturn(Optional.empty());
+        when(inventoryRepository.findForUpdateById(inventoryId)).thenReturn(Optional.empty());
 
         // Call the updateInventory method
-        Optional<Inventory> result = inventoryService.updateInventory(inventoryId, updatedInventory);
+        Optional<Inventory> result = inventoryService.updateInventory(inventoryId, updatedInventory, null);
 
         // Assertions to verify the result is null
         assertFalse(result.isPresent());
         verify(inventoryRepository, never()).save(any(Inventory.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAddItemsToInventory_ShouldInsertValidLinesAndReportInvalidOnes() {
+        UUID inventoryId = UUID.randomUUID();
+        Item milk = new Item("Milk", 123456L, Category.DRINKABLE);
+        milk.setId(UUID.randomUUID());
+        LocalDate expiration = LocalDate.now().plusDays(10);
+        List<AddItemToInventoryRequest> lines = List.of(
+                new AddItemToInventoryRequest(123456L, 5, expiration),
+                new AddItemToInventoryRequest(999999L, 5, expiration),
+                new AddItemToInventoryRequest(123456L, -1, expiration),
+                new AddItemToInventoryRequest(123456L, 2, null),
+                new AddItemToInventoryRequest(123456L, 7, expiration));
+
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(true);
+        when(itemRepository.findByBarCodeIn(any())).thenReturn(List.of(milk));
+        doAnswer(invocation -> {
+            List<ItemProperties> rows = invocation.getArgument(1);
+            rows.forEach(row -> row.setId(UUID.randomUUID()));
+            return null;
+        }).when(itemPropertiesJdbcRepository).insertIntoInventory(eq(inventoryId), anyList());
+
+        AddItemsToInventoryReport report = inventoryService.addItemsToInventory(inventoryId, lines);
+
+        assertEquals(5, report.getLinesRead());
+        assertEquals(2, report.getLinesAdded());
+        assertEquals(3, report.getLinesRejected());
+        assertEquals(2, report.getIds().size());
+        assertEquals(List.of(2L, 3L, 4L), report.getErrors().stream().map(error -> error.getLine()).toList());
+
+        ArgumentCaptor<List<ItemProperties>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemPropertiesJdbcRepository).insertIntoInventory(eq(inventoryId), captor.capture());
+        assertEquals(List.of(5, 7), captor.getValue().stream().map(ItemProperties::getQuantity).toList());
+        verify(itemRepository, times(1)).findByBarCodeIn(any());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void testAddItemsToInventory_InventoryNotFound_ShouldReturnNull() {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(false);
+
+        AddItemsToInventoryReport report = inventoryService.addItemsToInventory(inventoryId,
+                List.of(new AddItemToInventoryRequest(123456L, 1, LocalDate.now())));
+
+        assertNull(report);
+        verifyNoInteractions(itemRepository, itemPropertiesJdbcRepository);
+    }
+
+    @Test
+    void testAddItemsToInventory_EmptyOrOversizedBatch_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        List<AddItemToInventoryRequest> tooMany = new ArrayList<>();
+        for (int i = 0; i <= InventoryService.MAX_BATCH_LINES; i++) {
+            tooMany.add(new AddItemToInventoryRequest(123456L, 1, LocalDate.now()));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.addItemsToInventory(inventoryId, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.addItemsToInventory(inventoryId, tooMany));
+        verifyNoInteractions(itemPropertiesJdbcRepository);
+    }
+
+    // Helper method to create a persisted-looking line item
+    private ItemProperties createItemProperties(int quantity) {
+        Item item = new Item("Milk", 123456L, Category.DRINKABLE);
+        item.setId(UUID.randomUUID());
+        ItemProperties itemProperties = new ItemProperties(item, LocalDate.of(2030, 1, 1), quantity);
+        itemProperties.setId(UUID.randomUUID());
+        return itemProperties;
+    }
+
+    // Helper method to create an inventory holding the given lines
+    private Inventory createInventoryWithItems(UUID inventoryId, ItemProperties... lines) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(UUID.randomUUID());
+        Inventory inventory = new Inventory(restaurant, LocalDateTime.of(2030, 1, 1, 9, 0));
+        inventory.setId(inventoryId);
+        for (ItemProperties line : lines) {
+            inventory.addItemProperties(line);
+        }
+        when(inventoryRepository.findForUpdateById(inventoryId)).thenReturn(Optional.of(inventory));
+        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        return inventory;
+    }
+
+    private ItemProperties copyOf(ItemProperties itemProperties) {
+        ItemProperties copy = new ItemProperties(itemProperties.getItem(), itemProperties.getExpirationDate(), itemProperties.getQuantity());
+        copy.setId(itemProperties.getId());
+        copy.setMinimumStockQuantity(itemProperties.getMinimumStockQuantity());
+        copy.setCounted(itemProperties.isCounted());
+        return copy;
+    }
+
+    private ItemProperties findById(Inventory inventory, UUID id) {
+        return inventory.getItems().stream().filter(line -> id.equals(line.getId())).findFirst().orElse(null);
+    }
+
+    @Test
+    void testUpdateInventory_ShouldOnlyTouchChangedLines() {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties kept = createItemProperties(5);
+        ItemProperties changed = createItemProperties(5);
+        ItemProperties removed = createItemProperties(5);
+        Inventory inventory = createInventoryWithItems(inventoryId, kept, changed, removed);
+
+        ItemProperties changedRequest = copyOf(changed);
+        changedRequest.setQuantity(9);
+        ItemProperties added = new ItemProperties(kept.getItem(), LocalDate.of(2031, 1, 1), 2);
+        Inventory details = new Inventory(inventory.getRestaurant(), inventory.getEmissionDate());
+        details.getItems().add(copyOf(kept));
+        details.getItems().add(changedRequest);
+        details.getItems().add(added);
+
+        Inventory result = inventoryService.updateInventory(inventoryId, details, null).orElseThrow();
+
+        assertEquals(3, result.getItems().size());
+        assertSame(kept, findById(result, kept.getId()));
+        assertSame(changed, findById(result, changed.getId()));
+        assertEquals(9, changed.getQuantity());
+        assertNull(findById(result, removed.getId()));
+        assertNull(removed.getInventory());
+        assertTrue(result.getItems().stream().anyMatch(line -> line.getId() == null && line.getInventory() == result));
+    }
+
+    @Test
+    void testUpdateInventory_InvalidLine_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventoryWithItems(inventoryId);
+        Inventory details = new Inventory(inventory.getRestaurant(), inventory.getEmissionDate());
+        details.getItems().add(new ItemProperties(null, LocalDate.now(), 1));
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.updateInventory(inventoryId, details, null));
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void testPatchInventory_MergePatch_ShouldAddressLinesById() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties changed = createItemProperties(5);
+        ItemProperties removed = createItemProperties(5);
+        Inventory inventory = createInventoryWithItems(inventoryId, changed, removed);
+        inventory.setReport("Old report");
+
+        JsonNode patch = objectMapper.readTree("{\"report\":\"New report\",\"items\":{"
+                + "\"" + changed.getId() + "\":{\"quantity\":7},"
+                + "\"" + removed.getId() + "\":null,"
+                + "\"new\":{\"item\":{\"id\":\"" + changed.getItem().getId() + "\"},\"expirationDate\":\"2031-05-01\",\"quantity\":3}}}");
+
+        Inventory result = inventoryService.patchInventory(inventoryId, document -> JsonMergePatch.apply(document, patch), null).orElseThrow();
+
+        assertEquals("New report", result.getReport());
+        assertEquals(2, result.getItems().size());
+        assertEquals(7, changed.getQuantity());
+        assertEquals(LocalDate.of(2030, 1, 1), changed.getExpirationDate());
+        assertNull(findById(result, removed.getId()));
+        ItemProperties added = result.getItems().stream().filter(line -> line.getId() == null).findFirst().orElseThrow();
+        assertEquals(LocalDate.of(2031, 5, 1), added.getExpirationDate());
+        assertEquals(0, added.getMinimumStockQuantity());
+    }
+
+    @Test
+    void testPatchInventory_JsonPatch_ShouldReplaceLineFieldById() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties line = createItemProperties(5);
+        Inventory inventory = createInventoryWithItems(inventoryId, line);
+
+        JsonNode patch = objectMapper.readTree("[{\"op\":\"test\",\"path\":\"/items/" + line.getId() + "/quantity\",\"value\":5},"
+                + "{\"op\":\"replace\",\"path\":\"/items/" + line.getId() + "/quantity\",\"value\":1}]");
+
+        Inventory result = inventoryService.patchInventory(inventoryId, document -> JsonPatch.apply(document, patch), null).orElseThrow();
+
+        assertSame(line, findById(result, line.getId()));
+        assertEquals(1, line.getQuantity());
+        assertEquals(inventory.getEmissionDate(), result.getEmissionDate());
+    }
+
+    @Test
+    void testPatchInventory_IdenticalNewLines_ShouldAddBoth() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties line = createItemProperties(5);
+        createInventoryWithItems(inventoryId, line);
+
+        String newLine = "{\"item\":{\"id\":\"" + line.getItem().getId() + "\"},\"expirationDate\":\"2031-05-01\",\"quantity\":3}";
+        JsonNode patch = objectMapper.readTree("{\"items\":{\"first\":" + newLine + ",\"second\":" + newLine + "}}");
+
+        Inventory result = inventoryService.patchInventory(inventoryId, document -> JsonMergePatch.apply(document, patch), null).orElseThrow();
+
+        assertEquals(3, result.getItems().size());
+        assertEquals(2, result.getItems().stream().filter(item -> item.getId() == null).count());
+    }
+
+    @Test
+    void testPatchInventory_InvalidResult_ShouldThrow() throws Exception {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties line = createItemProperties(5);
+        createInventoryWithItems(inventoryId, line);
+
+        JsonNode negativeQuantity = objectMapper.readTree("{\"items\":{\"" + line.getId() + "\":{\"quantity\":-1}}}");
+        JsonNode noEmissionDate = objectMapper.readTree("{\"emissionDate\":null}");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.patchInventory(inventoryId, document -> JsonMergePatch.apply(document, negativeQuantity), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.patchInventory(inventoryId, document -> JsonMergePatch.apply(document, noEmissionDate), null));
+        assertEquals(5, line.getQuantity());
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void testPatchInventory_NotFound_ShouldReturnEmpty() {
+        UUID inventoryId = UUID.randomUUID();
+        when(inventoryRepository.findForUpdateById(inventoryId)).thenReturn(Optional.empty());
+
+        assertTrue(inventoryService.patchInventory(inventoryId, document -> document, null).isEmpty());
+    }
+
+    @Test
+    void testUpdateInventory_StaleExpectedVersion_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventoryWithItems(inventoryId);
+        inventory.setVersion(4L);
+        Inventory details = new Inventory(inventory.getRestaurant(), inventory.getEmissionDate());
+
+        assertThrows(VersionMismatchException.class, () -> inventoryService.updateInventory(inventoryId, details, 3L));
+        assertTrue(inventoryService.updateInventory(inventoryId, details, 4L).isPresent());
+    }
+
+    @Test
+    void testUpdateInventory_ConditionalWithStaleLine_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties line = createItemProperties(5);
+        line.setVersion(2L);
+        Inventory inventory = createInventoryWithItems(inventoryId, line);
+        inventory.setVersion(1L);
+
+        ItemProperties staleLine = copyOf(line);
+        staleLine.setVersion(1L);
+        staleLine.setQuantity(9);
+        Inventory details = new Inventory(inventory.getRestaurant(), inventory.getEmissionDate());
+        details.getItems().add(staleLine);
+
+        long currentVersion = inventory.getAggregateVersion();
+
+        assertThrows(VersionMismatchException.class, () -> inventoryService.updateInventory(inventoryId, details, currentVersion));
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void testPatchInventory_LineWrittenSinceETag_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties line = createItemProperties(5);
+        line.setVersion(2L);
+        Inventory inventory = createInventoryWithItems(inventoryId, line);
+        inventory.setVersion(1L);
+        long readVersion = inventory.getAggregateVersion();
+
+        // e.g. a quantity delta, which does not touch the inventory row
+        line.setVersion(3L);
+
+        assertThrows(VersionMismatchException.class, () -> inventoryService.patchInventory(inventoryId, document -> document, readVersion));
+        assertTrue(inventoryService.patchInventory(inventoryId, document -> document, inventory.getAggregateVersion()).isPresent());
+    }
+
+    @Test
+    void testPatchInventory_StaleExpectedVersion_ShouldThrow() {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventoryWithItems(inventoryId);
+        inventory.setVersion(4L);
+
+        assertThrows(VersionMismatchException.class, () -> inventoryService.patchInventory(inventoryId, document -> document, 3L));
+        verify(inventoryRepository, never()).save(any(Inventory.class));
+    }
+
+    @Test
+    void testCloseInventory_ShouldSetClosingDateAndUser() {
+        UUID inventoryId = UUID.randomUUID();
+        Inventory inventory = createInventoryWithItems(inventoryId);
+        inventory.setVersion(4L);
+        LocalDateTime closingDate = LocalDateTime.now();
+
+        assertThrows(VersionMismatchException.class, () -> inventoryService.closeInventory(inventoryId, closingDate, "manager", 3L));
+        assertNull(inventory.getClosingDate());
+
+        Inventory result = inventoryService.closeInventory(inventoryId, closingDate, "manager", 4L).orElseThrow();
+        assertEquals(closingDate, result.getClosingDate());
+        assertEquals("manager", result.getClosedByUser());
+    }
+
+    @Test
+    void testDiffInventories_ShouldReturnPageOfChanges() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(UUID.randomUUID());
+        Inventory from = new Inventory(restaurant, LocalDateTime.now().minusDays(7));
+        Inventory to = new Inventory(restaurant, LocalDateTime.now());
+        UUID fromId = UUID.randomUUID();
+        UUID toId = UUID.randomUUID();
+        ItemVariance change = new ItemVariance(UUID.randomUUID(), "Milk", 10, 4);
+        when(inventoryRepository.findById(fromId)).thenReturn(Optional.of(from));
+        when(inventoryRepository.findById(toId)).thenReturn(Optional.of(to));
+        when(inventoryDiffRepository.findChanges(fromId, toId, null, 1)).thenReturn(List.of(change));
+
+        KeysetPage<ItemVariance> page = inventoryService.diffInventories(fromId, toId, null, 1);
+
+        assertEquals(List.of(change), page.getContent());
+        assertEquals(change.getItemId(), page.getNextCursor());
+        assertEquals(-6, page.getContent().get(0).getDelta());
+    }
+
+    @Test
+    void testDiffInventories_DifferentRestaurants_ShouldThrow() {
+        Restaurant first = new Restaurant();
+        first.setId(UUID.randomUUID());
+        Restaurant second = new Restaurant();
+        second.setId(UUID.randomUUID());
+        UUID fromId = UUID.randomUUID();
+        UUID toId = UUID.randomUUID();
+        when(inventoryRepository.findById(fromId)).thenReturn(Optional.of(new Inventory(first, LocalDateTime.now())));
+        when(inventoryRepository.findById(toId)).thenReturn(Optional.of(new Inventory(second, LocalDateTime.now())));
+
+        assertThrows(IllegalArgumentException.class, () -> inventoryService.diffInventories(fromId, toId, null, 10));
+        verifyNoInteractions(inventoryDiffRepository);
+    }
+
+    @Test
+    void testDiffInventories_MissingInventory_ShouldReturnNull() {
+        UUID fromId = UUID.randomUUID();
+        when(inventoryRepository.findById(any())).thenReturn(Optional.empty());
+
+        assertNull(inventoryService.diffInventories(fromId, UUID.randomUUID(), null, 10));
+        verifyNoInteractions(inventoryDiffRepository);
+    }
+
+    @Test
+    void testCloneInventory_NoSource_ShouldCopyLastClosedInventory() {
+        Restaurant restaurant = createRestaurant(UUID.randomUUID());
+        Inventory previous = new Inventory(restaurant, LocalDateTime.now().minusDays(7));
+        previous.setId(UUID.randomUUID());
+        previous.setClosingDate(LocalDateTime.now().minusDays(1));
+        UUID newId = UUID.randomUUID();
+
+        when(inventoryRepository.findFirstByRestaurantAndClosingDateIsNotNullOrderByClosingDateDesc(restaurant))
+                .thenReturn(Optional.of(previous));
+        when(inventoryRepository.saveAndFlush(any(Inventory.class))).thenAnswer(invocation -> {
+            Inventory saved = invocation.getArgument(0);
+            saved.setId(newId);
+            return saved;
+        });
+        when(itemPropertiesJdbcRepository.copyLines(previous.getId(), newId, true)).thenReturn(42);
+
+        CloneInventoryReport report = inventoryService.cloneInventory(restaurant, null, LocalDateTime.now(), null, true);
+
+        assertEquals(newId, report.getInventoryId());
+        assertEquals(previous.getId(), report.getSourceInventoryId());
+        assertEquals(42, report.getLinesCopied());
+    }
+
+    @Test
+    void testCloneInventory_CarryOverFromOpenInventory_ShouldThrowException() {
+        Restaurant restaurant = createRestaurant(UUID.randomUUID());
+        Inventory template = new Inventory(restaurant, LocalDateTime.now());
+        template.setId(UUID.randomUUID());
+        when(inventoryRepository.findById(template.getId())).thenReturn(Optional.of(template));
+
+        assertThrows(IllegalStateException.class,
+                () -> inventoryService.cloneInventory(restaurant, template.getId(), LocalDateTime.now(), null, true));
+        verify(inventoryRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testCloneInventory_TemplateOfOpenInventory_ShouldResetQuantities() {
+        Restaurant restaurant = createRestaurant(UUID.randomUUID());
+        Inventory template = new Inventory(createRestaurant(restaurant.getCompany().getId()), LocalDateTime.now());
+        template.setId(UUID.randomUUID());
+        when(inventoryRepository.findById(template.getId())).thenReturn(Optional.of(template));
+        when(inventoryRepository.saveAndFlush(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        inventoryService.cloneInventory(restaurant, template.getId(), LocalDateTime.now(), null, false);
+
+        verify(itemPropertiesJdbcRepository, times(1)).copyLines(eq(template.getId()), any(), eq(false));
+    }
+
+    @Test
+    void testCloneInventory_SourceOfOtherCompany_ShouldThrowException() {
+        Restaurant restaurant = createRestaurant(UUID.randomUUID());
+        Inventory source = new Inventory(createRestaurant(UUID.randomUUID()), LocalDateTime.now());
+        source.setId(UUID.randomUUID());
+        when(inventoryRepository.findById(source.getId())).thenReturn(Optional.of(source));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.cloneInventory(restaurant, source.getId(), LocalDateTime.now(), null, false));
+        verifyNoInteractions(itemPropertiesJdbcRepository);
+    }
+
+    @Test
+    void testCloneInventory_NoClosedInventory_ShouldThrowException() {
+        Restaurant restaurant = createRestaurant(UUID.randomUUID());
+        when(inventoryRepository.findFirstByRestaurantAndClosingDateIsNotNullOrderByClosingDateDesc(restaurant))
+                .thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.cloneInventory(restaurant, null, LocalDateTime.now(), null, false));
+    }
+
+    @Test
+    void testUpdateInventory_ClonedLinesStillToBeCounted_ShouldOnlyCountWrittenLines() {
+        UUID inventoryId = UUID.randomUUID();
+        ItemProperties counted = createItemProperties(0);
+        ItemProperties countedAtZero = createItemProperties(0);
+        ItemProperties notCountedYet = createItemProperties(0);
+        for (ItemProperties line : List.of(counted, countedAtZero, notCountedYet)) {
+            line.setCounted(false);
+        }
+        Inventory inventory = createInventoryWithItems(inventoryId, counted, countedAtZero, notCountedYet);
+
+        ItemProperties countedRequest = copyOf(counted);
+        countedRequest.setQuantity(12);
+        ItemProperties countedAtZeroRequest = copyOf(countedAtZero);
+        countedAtZeroRequest.setCounted(true);
+        Inventory details = new Inventory(inventory.getRestaurant(), inventory.getEmissionDate());
+        details.getItems().add(countedRequest);
+        details.getItems().add(countedAtZeroRequest);
+        details.getItems().add(copyOf(notCountedYet));
+
+        Inventory result = inventoryService.updateInventory(inventoryId, details, null).orElseThrow();
+
+        assertEquals(3, result.getItems().size());
+        assertEquals(12, counted.getQuantity());
+        assertTrue(counted.isCounted());
+        assertTrue(countedAtZero.isCounted());
+        assertEquals(0, notCountedYet.getQuantity());
+        assertFalse(notCountedYet.isCounted());
+    }
+
+    // Helper method to create a restaurant of the given company
+    private Restaurant createRestaurant(UUID companyId) {
+        Company company = new Company();
+        company.setId(companyId);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(UUID.randomUUID());
+        restaurant.setCompany(company);
+        return restaurant;
+    }
 }
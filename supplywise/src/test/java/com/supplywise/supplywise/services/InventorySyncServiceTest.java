@@ -0,0 +1,241 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.InventoryLineChange;
+import com.supplywise.supplywise.DAO.SyncOperation;
+import com.supplywise.supplywise.DAO.SyncRequest;
+import com.supplywise.supplywise.DAO.SyncResponse;
+import com.supplywise.supplywise.DAO.SyncResult;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.InventoryRepository;
+import com.supplywise.supplywise.repositories.InventorySyncRepository;
+import com.supplywise.supplywise.repositories.InventorySyncRepository.LineState;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class InventorySyncServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private InventorySyncRepository inventorySyncRepository;
+
+    private InventorySyncService inventorySyncService;
+
+    private final UUID inventoryId = UUID.randomUUID();
+    private final UUID lineId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inventorySyncService = new InventorySyncService(inventoryRepository, itemRepository, inventorySyncRepository, 30);
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(true);
+        when(inventorySyncRepository.currentToken()).thenReturn(500L);
+        when(inventorySyncRepository.oldestToken()).thenReturn(Optional.of(100L));
+    }
+
+    @Test
+    void testSync_AddThenSet_ShouldChainOnOwnVersion() {
+        Item item = new Item("Milk", 5601234567890L, Category.DRINKABLE);
+        item.setId(UUID.randomUUID());
+        SyncOperation add = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.ADD).lineId(lineId)
+                .barCode(item.getBarCode()).quantity(4).expirationDate(LocalDate.of(2025, 6, 1)).build();
+        SyncOperation set = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.SET).lineId(lineId)
+                .quantity(6).build();
+        givenClaimed(add, set);
+        when(itemRepository.findByBarCodeIn(Set.of(item.getBarCode()))).thenReturn(List.of(item));
+        when(inventorySyncRepository.insertLine(inventoryId, lineId, item.getId(), LocalDate.of(2025, 6, 1), 4, 0))
+                .thenReturn(Optional.of(0L));
+        when(inventorySyncRepository.setQuantity(inventoryId, lineId, 6, 0L)).thenReturn(Optional.of(1L));
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(add, set)));
+
+        assertEquals(SyncResult.Status.APPLIED, response.getResults().get(0).getStatus());
+        assertEquals(SyncResult.Status.APPLIED, response.getResults().get(1).getStatus());
+        assertEquals(1L, response.getResults().get(1).getVersion());
+        verify(inventorySyncRepository, times(1)).saveResults(anyList());
+    }
+
+    @Test
+    void testSync_ReplayedOperation_ShouldReturnOriginalResultWithoutApplying() {
+        SyncOperation adjust = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.ADJUST).lineId(lineId)
+                .delta(-2).build();
+        SyncResult original = new SyncResult(adjust.getOperationId(), SyncResult.Status.APPLIED, null, 3L, true);
+        when(inventorySyncRepository.claimOperations(eq(inventoryId), anyList())).thenReturn(Set.of());
+        when(inventorySyncRepository.findResults(List.of(adjust.getOperationId()))).thenReturn(Map.of(adjust.getOperationId(), original));
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(adjust)));
+
+        assertSame(original, response.getResults().get(0));
+        verify(inventorySyncRepository, never()).adjustQuantity(any(), any(), anyInt());
+    }
+
+    @Test
+    void testSync_StaleSetMadeBeforeServerChange_ShouldConflict() {
+        SyncOperation set = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.SET).lineId(lineId)
+                .quantity(9).baseVersion(2L).clientTimestamp(OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC)).build();
+        givenClaimed(set);
+        when(inventorySyncRepository.setQuantity(inventoryId, lineId, 9, 2L)).thenReturn(Optional.empty());
+        when(inventorySyncRepository.findLineState(inventoryId, lineId))
+                .thenReturn(Optional.of(new LineState(4, OffsetDateTime.of(2025, 3, 1, 11, 0, 0, 0, ZoneOffset.UTC))));
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(set)));
+
+        assertEquals(SyncResult.Status.CONFLICT, response.getResults().get(0).getStatus());
+        assertEquals(4L, response.getResults().get(0).getVersion());
+        verify(inventorySyncRepository, never()).setQuantity(any(), any(), anyInt(), isNull());
+    }
+
+    @Test
+    void testSync_StaleSetFromOtherTimeZone_ShouldCompareInstants() {
+        // 12:30 on a device two hours ahead of UTC is before the server change at 11:00 UTC
+        SyncOperation set = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.SET).lineId(lineId)
+                .quantity(9).baseVersion(2L).clientTimestamp(OffsetDateTime.of(2025, 3, 1, 12, 30, 0, 0, ZoneOffset.ofHours(2))).build();
+        givenClaimed(set);
+        when(inventorySyncRepository.setQuantity(inventoryId, lineId, 9, 2L)).thenReturn(Optional.empty());
+        when(inventorySyncRepository.findLineState(inventoryId, lineId))
+                .thenReturn(Optional.of(new LineState(4, OffsetDateTime.of(2025, 3, 1, 11, 0, 0, 0, ZoneOffset.UTC))));
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(set)));
+
+        assertEquals(SyncResult.Status.CONFLICT, response.getResults().get(0).getStatus());
+    }
+
+    @Test
+    void testSync_StaleSetMadeAfterServerChange_ShouldWin() {
+        SyncOperation set = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.SET).lineId(lineId)
+                .quantity(9).baseVersion(2L).clientTimestamp(OffsetDateTime.of(2025, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC)).build();
+        givenClaimed(set);
+        when(inventorySyncRepository.setQuantity(inventoryId, lineId, 9, 2L)).thenReturn(Optional.empty());
+        when(inventorySyncRepository.findLineState(inventoryId, lineId))
+                .thenReturn(Optional.of(new LineState(4, OffsetDateTime.of(2025, 3, 1, 11, 0, 0, 0, ZoneOffset.UTC))));
+        when(inventorySyncRepository.setQuantity(inventoryId, lineId, 9, null)).thenReturn(Optional.of(5L));
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(set)));
+
+        assertEquals(SyncResult.Status.APPLIED, response.getResults().get(0).getStatus());
+        assertEquals(5L, response.getResults().get(0).getVersion());
+    }
+
+    @Test
+    void testSync_RemoveMissingLine_ShouldBeApplied() {
+        SyncOperation remove = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.REMOVE).lineId(lineId)
+                .baseVersion(1L).build();
+        givenClaimed(remove);
+        when(inventorySyncRepository.deleteLine(inventoryId, lineId, 1L)).thenReturn(false);
+        when(inventorySyncRepository.findLineState(inventoryId, lineId)).thenReturn(Optional.empty());
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(remove)));
+
+        assertEquals(SyncResult.Status.APPLIED, response.getResults().get(0).getStatus());
+    }
+
+    @Test
+    void testSync_UnknownBarcode_ShouldRejectOperation() {
+        SyncOperation add = SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.ADD).lineId(lineId)
+                .barCode(123L).quantity(1).expirationDate(LocalDate.of(2025, 6, 1)).build();
+        givenClaimed(add);
+        when(itemRepository.findByBarCodeIn(any())).thenReturn(List.of());
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, List.of(add)));
+
+        assertEquals(SyncResult.Status.REJECTED, response.getResults().get(0).getStatus());
+        verify(inventorySyncRepository, never()).insertLine(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSync_PullOnly_ShouldReturnChangesSinceToken() {
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(true);
+        List<InventoryLineChange> changes = List.of(new InventoryLineChange(lineId, true, null, null, null, null, null, null));
+        when(inventorySyncRepository.findChangesSince(inventoryId, 400L)).thenReturn(changes);
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(400L, null));
+
+        assertFalse(response.isFullResync());
+        assertEquals(changes, response.getChanges());
+        assertEquals(500L, response.getSyncToken());
+        verify(inventorySyncRepository, never()).claimOperations(any(), any());
+    }
+
+    @Test
+    void testSync_TokenOlderThanFeed_ShouldResyncFully() {
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(true);
+
+        SyncResponse response = inventorySyncService.sync(inventoryId, new SyncRequest(50L, List.of()));
+
+        assertTrue(response.isFullResync());
+        verify(inventorySyncRepository, times(1)).findLines(inventoryId);
+        verify(inventorySyncRepository, never()).findChangesSince(any(), anyLong());
+    }
+
+    @Test
+    void testSync_InventoryNotFound_ShouldReturnNull() {
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(false);
+
+        assertNull(inventorySyncService.sync(inventoryId, new SyncRequest(null, List.of())));
+    }
+
+    @Test
+    void testSync_DuplicateOperationIds_ShouldThrowException() {
+        UUID operationId = UUID.randomUUID();
+        List<SyncOperation> operations = List.of(
+                SyncOperation.builder().operationId(operationId).type(SyncOperation.Type.ADJUST).lineId(lineId).delta(1).build(),
+                SyncOperation.builder().operationId(operationId).type(SyncOperation.Type.ADJUST).lineId(lineId).delta(1).build());
+
+        assertThrows(IllegalArgumentException.class, () -> inventorySyncService.sync(inventoryId, new SyncRequest(400L, operations)));
+        verifyNoInteractions(inventorySyncRepository);
+    }
+
+    @Test
+    void testSync_TooManyOperations_ShouldThrowException() {
+        List<SyncOperation> operations = new ArrayList<>();
+        for (int i = 0; i <= InventorySyncService.MAX_OPERATIONS; i++) {
+            operations.add(SyncOperation.builder().operationId(UUID.randomUUID()).type(SyncOperation.Type.ADJUST).lineId(lineId).delta(1).build());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> inventorySyncService.sync(inventoryId, new SyncRequest(400L, operations)));
+    }
+
+    @Test
+    void testPruneChangeFeed_ShouldPruneOlderThanRetention() {
+        inventorySyncService.pruneChangeFeed();
+
+        verify(inventorySyncRepository, times(1)).pruneBefore(argThat(cutoff -> cutoff.isBefore(OffsetDateTime.now().minusDays(29))));
+    }
+
+    /* Helper functions */
+
+    private void givenClaimed(SyncOperation... operations) {
+        Set<UUID> claimed = new HashSet<>();
+        for (SyncOperation operation : operations) {
+            claimed.add(operation.getOperationId());
+        }
+        when(inventorySyncRepository.claimOperations(eq(inventoryId), anyList())).thenReturn(claimed);
+    }
+}
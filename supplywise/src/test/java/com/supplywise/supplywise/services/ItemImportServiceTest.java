@@ -0,0 +1,156 @@
+package com.supplywise.supplywise.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supplywise.supplywise.DAO.ItemImportReport;
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.model.Category;
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.repositories.ItemJdbcRepository;
+import com.supplywise.supplywise.repositories.ItemRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ItemImportServiceTest {
+
+    @Mock
+    private ItemService itemService;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemJdbcRepository itemJdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ItemImportService itemImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        itemImportService = new ItemImportService(itemService, itemRepository, itemJdbcRepository, eventPublisher, new ObjectMapper());
+        when(itemService.isItemValid(any(Item.class))).thenReturn(true);
+        // Every row is written unless a test says otherwise
+        when(itemJdbcRepository.upsertItems(anyList(), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    int[] counts = new int[((List<?>) invocation.getArgument(0)).size()];
+                    java.util.Arrays.fill(counts, 1);
+                    return counts;
+                });
+    }
+
+    // Helper method to wrap a string as a request body
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportCsv_WithHeader_ShouldWriteAllRowsInOneBatch() throws Exception {
+        String csv = "category,name,barCode\n"
+                + "DRINKABLE,Milk,5601234567890\n"
+                + "EATABLE,\"Bread, sliced\",5601234567891\n";
+
+        ItemImportReport report = itemImportService.importCsv(body(csv), false);
+
+        assertEquals(2, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(0, report.getRowsRejected());
+
+        ArgumentCaptor<List<Item>> captor = ArgumentCaptor.forClass(List.class);
+        verify(itemJdbcRepository, times(1)).upsertItems(captor.capture(), eq(false));
+        List<Item> written = captor.getValue();
+        assertEquals("Bread, sliced", written.get(1).getName());
+        assertEquals(5601234567890L, written.get(0).getBarCode());
+        assertEquals(Category.DRINKABLE, written.get(0).getCategory());
+        verify(eventPublisher, times(1)).publishEvent(any(ItemCatalogChangedEvent.class));
+    }
+
+    @Test
+    void testImportCsv_InvalidRows_ShouldBeReportedPerLine() throws Exception {
+        String csv = "Milk,5601234567890,DRINKABLE\n"
+                + "Bread,not-a-number,EATABLE\n"
+                + "Cheese,5601234567892,SOLID\n"
+                + "Juice,5601234567890,DRINKABLE\n";
+
+        ItemImportReport report = itemImportService.importCsv(body(csv), false);
+
+        assertEquals(4, report.getRowsRead());
+        assertEquals(1, report.getRowsImported());
+        assertEquals(3, report.getRowsRejected());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals("Bar code must be numeric", report.getErrors().get(0).getMessage());
+        assertEquals(3, report.getErrors().get(1).getLine());
+        assertEquals(4, report.getErrors().get(2).getLine());
+        assertTrue(report.getErrors().get(2).getMessage().contains("line 1"));
+    }
+
+    @Test
+    void testImportCsv_ItemFailsValidation_ShouldBeRejected() throws Exception {
+        when(itemService.isItemValid(any(Item.class))).thenReturn(false);
+
+        ItemImportReport report = itemImportService.importCsv(body("Mi,5601234567890,DRINKABLE\n"), false);
+
+        assertEquals(1, report.getRowsRejected());
+        assertEquals("Item is not valid", report.getErrors().get(0).getMessage());
+        verify(itemJdbcRepository, never()).upsertItems(anyList(), anyBoolean());
+    }
+
+    @Test
+    void testImportNdjson_ExistingBarcode_ShouldBeReportedAsDuplicate() throws Exception {
+        when(itemJdbcRepository.upsertItems(anyList(), eq(false))).thenReturn(new int[]{1, 0});
+        String ndjson = "{\"name\":\"Milk\",\"barCode\":5601234567890,\"category\":\"DRINKABLE\"}\n"
+                + "\n"
+                + "{\"name\":\"Bread\",\"barCode\":\"5601234567891\",\"category\":\"eatable\"}\n"
+                + "{broken\n";
+
+        ItemImportReport report = itemImportService.importNdjson(body(ndjson), false);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getRowsImported());
+        assertEquals(2, report.getRowsRejected());
+        assertEquals("Line is not valid JSON", report.getErrors().get(0).getMessage());
+        assertEquals(4, report.getErrors().get(0).getLine());
+        assertEquals("Item with the same barcode already exists", report.getErrors().get(1).getMessage());
+        assertEquals(3, report.getErrors().get(1).getLine());
+        verify(itemRepository, times(1)).findByBarCodeIn(List.of(5601234567890L));
+    }
+
+    @Test
+    void testImportNdjson_LargeFile_ShouldWriteInBatches() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        int rows = ItemImportService.BATCH_SIZE * 2 + 5;
+        for (int i = 0; i < rows; i++) {
+            ndjson.append("{\"name\":\"Item ").append(i).append("\",\"barCode\":").append(1000000 + i)
+                    .append(",\"category\":\"EATABLE\"}\n");
+        }
+
+        ItemImportReport report = itemImportService.importNdjson(body(ndjson.toString()), true);
+
+        assertEquals(rows, report.getRowsImported());
+        verify(itemJdbcRepository, times(3)).upsertItems(anyList(), eq(true));
+    }
+
+    @Test
+    void testParseCsvLine_QuotedCells_ShouldUnescape() {
+        assertEquals(List.of("a", "b \"quoted\", c", ""), ItemImportService.parseCsvLine("a,\"b \"\"quoted\"\", c\","));
+    }
+}
@@ -1,12 +1,18 @@
 package com.supplywise.supplywise.services;
 
+import com.supplywise.supplywise.DAO.InventoryOwner;
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.exception.VersionMismatchException;
 import com.supplywise.supplywise.model.Inventory;
 import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.repositories.ItemRepository;
 import com.supplywise.supplywise.repositories.NotificationRepository;
+import com.supplywise.supplywise.repositories.RestaurantRepository;
 import com.supplywise.supplywise.model.ItemProperties;
 import com.supplywise.supplywise.model.Restaurant;
 import com.supplywise.supplywise.repositories.InventoryRepository;
+import com.supplywise.supplywise.repositories.ItemPropertiesJdbcRepository;
 import com.supplywise.supplywise.repositories.ItemPropertiesRepository;
 import com.supplywise.supplywise.model.Notification;
 
@@ -15,14 +21,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -34,6 +43,9 @@ class ItemPropertiesServiceTest {
     @Mock
     private ItemPropertiesRepository itemPropertiesRepository;
 
+    @Mock
+    private ItemPropertiesJdbcRepository itemPropertiesJdbcRepository;
+
     @InjectMocks
     private ItemPropertiesService itemPropertiesService;
 
@@ -43,6 +55,9 @@ class ItemPropertiesServiceTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
     @Mock 
     private NotificationService notificationService;
 
@@ -63,8 +78,8 @@ class ItemPropertiesServiceTest {
         itemProperties.setExpirationDate(LocalDate.of(2025, 12, 31));
         itemProperties.setQuantity(100);
 
-        // Mock the repository to return the item
-        when(itemRepository.findById(any(UUID.class))).thenReturn(Optional.of(item));
+        // Mock the repository to confirm the item exists
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
 
         // Mock the repository to return the itemProperties when saved
         when(itemPropertiesRepository.save(any(ItemProperties.class))).thenReturn(itemProperties);
@@ -72,8 +87,9 @@ class ItemPropertiesServiceTest {
         // Execute the method
         ItemProperties createdItemProperties = itemPropertiesService.createItemProperties(itemProperties);
 
-        // Verify that the itemProperties is saved
+        // Verify that the itemProperties is saved without loading the item
         verify(itemPropertiesRepository, times(1)).save(itemProperties);
+        verify(itemRepository, never()).findById(any());
 
         // Check if the itemProperties returned matches the mock
         assertEquals(item, createdItemProperties.getItem());
@@ -89,8 +105,8 @@ class ItemPropertiesServiceTest {
         itemProperties.setExpirationDate(LocalDate.of(2025, 12, 31));
         itemProperties.setQuantity(100);
 
-        // Mock the repository to return null when the item is not found
-        when(itemRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+        // Mock the repository to report that the item is not found
+        when(itemRepository.existsById(any(UUID.class))).thenReturn(false);
 
         // Execute the method
         assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.createItemProperties(itemProperties));
@@ -196,6 +212,7 @@ class ItemPropertiesServiceTest {
         existingItemProperties.setItem(item);
         existingItemProperties.setExpirationDate(LocalDate.of(2025, 12, 31));
         existingItemProperties.setQuantity(100);
+        existingItemProperties.setCounted(false);
 
         ItemProperties updatedItemProperties = new ItemProperties();
         updatedItemProperties.setItem(item);
@@ -204,19 +221,21 @@ class ItemPropertiesServiceTest {
 
         // Mock repository responses
         when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(existingItemProperties));
-        when(itemRepository.findById(any(UUID.class))).thenReturn(Optional.of(item));
         when(itemPropertiesRepository.save(any(ItemProperties.class))).thenReturn(updatedItemProperties);
-        when(inventoryRepository.findInventoryByItemPropertiesId(itemPropertiesId)).thenReturn(Optional.of(inventory));
+        when(itemPropertiesRepository.findInventoryOwnerById(itemPropertiesId)).thenReturn(Optional.of(ownerOf(inventory)));
         when(notificationRepository.findByRestaurantIdAndMessageContaining(any(UUID.class), anyString()))
             .thenReturn(Optional.empty());
 
         // Execute
-        ItemProperties result = itemPropertiesService.updateItemProperties(itemPropertiesId, updatedItemProperties);
+        ItemProperties result = itemPropertiesService.updateItemProperties(itemPropertiesId, updatedItemProperties, null);
 
         // Verify
         verify(itemPropertiesRepository).findById(itemPropertiesId);
         verify(itemPropertiesRepository).save(existingItemProperties);
-        verify(inventoryRepository).findInventoryByItemPropertiesId(itemPropertiesId);
+        verify(itemPropertiesRepository).findInventoryOwnerById(itemPropertiesId);
+        verify(inventoryRepository, never()).findById(any());
+        verifyNoInteractions(itemRepository);
+        assertTrue(existingItemProperties.isCounted());
 
         assertEquals(item, result.getItem());
         assertEquals(LocalDate.of(2026, 12, 31), result.getExpirationDate());
@@ -232,7 +251,7 @@ class ItemPropertiesServiceTest {
         when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.empty());
 
         // Execute the method
-        ItemProperties result = itemPropertiesService.updateItemProperties(itemPropertiesId, new ItemProperties());
+        ItemProperties result = itemPropertiesService.updateItemProperties(itemPropertiesId, new ItemProperties(), null);
 
         // Verify that null is returned when itemProperties is not found
         assertNull(result);
@@ -262,10 +281,10 @@ class ItemPropertiesServiceTest {
 
         // Mock repository responses
         when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(existingItemProperties));
-        when(itemRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+        when(itemRepository.existsById(any(UUID.class))).thenReturn(false);
 
         // Execute
-        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.updateItemProperties(itemPropertiesId, updatedItemProperties));
+        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.updateItemProperties(itemPropertiesId, updatedItemProperties, null));
 
         // Verify
         verify(itemPropertiesRepository).findById(itemPropertiesId);
@@ -349,13 +368,29 @@ class ItemPropertiesServiceTest {
         ItemProperties itemProperties = new ItemProperties();
         itemProperties.setItem(item);
         itemProperties.setExpirationDate(LocalDate.of(2025, 12, 31));
-        itemProperties.setQuantity(0);
+        itemProperties.setQuantity(-1);
 
-        when(itemRepository.findById(any(UUID.class))).thenReturn(Optional.of(item));
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
 
         assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.createItemProperties(itemProperties));
     }
 
+    @Test
+    void testCreateItemProperties_ZeroQuantity_ShouldSaveItemProperties() {
+        Item item = new Item();
+        item.setId(UUID.randomUUID());
+
+        ItemProperties itemProperties = new ItemProperties();
+        itemProperties.setItem(item);
+        itemProperties.setExpirationDate(LocalDate.of(2025, 12, 31));
+        itemProperties.setQuantity(0);
+
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(itemPropertiesRepository.save(any(ItemProperties.class))).thenReturn(itemProperties);
+
+        assertEquals(0, itemPropertiesService.createItemProperties(itemProperties).getQuantity());
+    }
+
     @Test
     void testUpdateItemProperties_InvalidMinimumStockQuantity_ShouldThrowException() {
         UUID itemPropertiesId = UUID.randomUUID();
@@ -370,7 +405,7 @@ class ItemPropertiesServiceTest {
 
         when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(existingItemProperties));
 
-        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.updateItemProperties(itemPropertiesId, updatedItemProperties));
+        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.updateItemProperties(itemPropertiesId, updatedItemProperties, null));
     }
 
     @Test
@@ -392,12 +427,243 @@ class ItemPropertiesServiceTest {
 
         Notification notification = new Notification(restaurant, "Test message");
 
-        when(inventoryRepository.findInventoryByItemPropertiesId(itemPropertiesId)).thenReturn(Optional.of(inventory));
+        when(itemPropertiesRepository.findInventoryOwnerById(itemPropertiesId)).thenReturn(Optional.of(ownerOf(inventory)));
         when(notificationRepository.findByRestaurantIdAndMessageContaining(any(UUID.class), anyString())).thenReturn(Optional.of(notification));
 
-        itemPropertiesService.updateItemProperties(itemPropertiesId, itemProperties);
+        itemPropertiesService.updateItemProperties(itemPropertiesId, itemProperties, null);
 
         verify(notificationService, never()).createNotification(any(Notification.class));
     }
 
+
+    @Test
+    void testGetItemPropertiesPage_ShouldContinueAfterCursor() {
+        UUID after = UUID.randomUUID();
+        ItemProperties itemProperties = new ItemProperties();
+        itemProperties.setId(UUID.randomUUID());
+        when(itemPropertiesRepository.findPageAfter(after, Limit.of(1))).thenReturn(List.of(itemProperties));
+
+        KeysetPage<ItemProperties> page = itemPropertiesService.getItemPropertiesPage(after, 1);
+
+        assertEquals(itemProperties.getId(), page.getNextCursor());
+        verify(itemPropertiesRepository, never()).findFirstPage(any());
+    }
+
+    @Test
+    void testAddItemPropertiesToInventory_ShouldInsertOnlyTheNewLine() {
+        UUID inventoryId = UUID.randomUUID();
+        Item item = new Item();
+        item.setId(UUID.randomUUID());
+        ItemProperties itemProperties = new ItemProperties(item, LocalDate.now().plusDays(5), 3);
+        Inventory inventoryReference = new Inventory();
+        inventoryReference.setId(inventoryId);
+
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(true);
+        when(inventoryRepository.getReferenceById(inventoryId)).thenReturn(inventoryReference);
+        when(itemPropertiesRepository.save(itemProperties)).thenReturn(itemProperties);
+
+        ItemProperties result = itemPropertiesService.addItemPropertiesToInventory(inventoryId, itemProperties);
+
+        assertSame(inventoryReference, result.getInventory());
+        verify(itemPropertiesRepository, times(1)).save(itemProperties);
+        verify(inventoryRepository, never()).findById(any());
+        verify(inventoryRepository, never()).save(any());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testAddItemPropertiesToInventory_InventoryNotFound_ShouldReturnNull() {
+        UUID inventoryId = UUID.randomUUID();
+        Item item = new Item();
+        item.setId(UUID.randomUUID());
+        ItemProperties itemProperties = new ItemProperties(item, LocalDate.now().plusDays(5), 3);
+
+        when(inventoryRepository.existsById(inventoryId)).thenReturn(false);
+
+        assertNull(itemPropertiesService.addItemPropertiesToInventory(inventoryId, itemProperties));
+        verify(itemPropertiesRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddItemPropertiesToInventory_UnknownItem_ShouldThrow() {
+        ItemProperties itemProperties = new ItemProperties(null, LocalDate.now().plusDays(5), 3);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> itemPropertiesService.addItemPropertiesToInventory(UUID.randomUUID(), itemProperties));
+        verify(itemPropertiesRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateItemProperties_UnknownItem_ShouldThrow() {
+        Item item = new Item();
+        item.setId(UUID.randomUUID());
+        ItemProperties itemProperties = new ItemProperties(item, LocalDate.now().plusDays(5), 3);
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.createItemProperties(itemProperties));
+        verify(itemPropertiesRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateItemProperties_ChangedItem_ShouldCheckItExists() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        Item currentItem = new Item();
+        currentItem.setId(UUID.randomUUID());
+        Item newItem = new Item();
+        newItem.setId(UUID.randomUUID());
+        ItemProperties existingItemProperties = new ItemProperties(currentItem, LocalDate.now().plusDays(5), 3);
+        existingItemProperties.setId(itemPropertiesId);
+        ItemProperties update = new ItemProperties();
+        update.setItem(newItem);
+        when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(existingItemProperties));
+        when(itemRepository.existsById(newItem.getId())).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.updateItemProperties(itemPropertiesId, update, null));
+        verify(itemRepository, never()).findById(any());
+        verify(itemPropertiesRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateItemProperties_StaleExpectedVersion_ShouldThrow() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        ItemProperties existing = new ItemProperties();
+        existing.setId(itemPropertiesId);
+        existing.setVersion(6L);
+        when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(existing));
+
+        assertThrows(VersionMismatchException.class,
+                () -> itemPropertiesService.updateItemProperties(itemPropertiesId, new ItemProperties(), 5L));
+        verify(itemPropertiesRepository, never()).save(any());
+    }
+
+    @Test
+    void testApplyQuantityDelta_ShouldUpdateInDatabase() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        when(itemPropertiesJdbcRepository.addToQuantity(itemPropertiesId, 2)).thenReturn(Optional.of(new StockLevel(itemPropertiesId, 10, 12, 0)));
+
+        StockLevel result = itemPropertiesService.applyQuantityDelta(itemPropertiesId, 2);
+
+        assertEquals(12, result.getQuantity());
+        verify(itemPropertiesRepository, never()).findById(any());
+        verify(itemPropertiesRepository, never()).save(any());
+    }
+
+    @Test
+    void testApplyQuantityDelta_NotFound_ShouldReturnNull() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        when(itemPropertiesJdbcRepository.addToQuantity(itemPropertiesId, -1)).thenReturn(Optional.empty());
+        when(itemPropertiesRepository.existsById(itemPropertiesId)).thenReturn(false);
+
+        assertNull(itemPropertiesService.applyQuantityDelta(itemPropertiesId, -1));
+    }
+
+    @Test
+    void testApplyQuantityDelta_BelowZero_ShouldThrow() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        when(itemPropertiesJdbcRepository.addToQuantity(itemPropertiesId, -10)).thenReturn(Optional.empty());
+        when(itemPropertiesRepository.existsById(itemPropertiesId)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> itemPropertiesService.applyQuantityDelta(itemPropertiesId, -10));
+    }
+
+    @Test
+    void testApplyQuantityDelta_OutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> itemPropertiesService.applyQuantityDelta(UUID.randomUUID(), Integer.MIN_VALUE));
+        verify(itemPropertiesJdbcRepository, never()).addToQuantity(any(), anyInt());
+    }
+
+    @Test
+    void testAdjustQuantity_NoThresholdCrossed_ShouldSkipNotifications() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        when(itemPropertiesJdbcRepository.addToQuantity(itemPropertiesId, -2)).thenReturn(Optional.of(new StockLevel(itemPropertiesId, 10, 8, 5)));
+
+        StockLevel result = itemPropertiesService.applyQuantityDelta(itemPropertiesId, -2);
+
+        assertEquals(8, result.getQuantity());
+        assertFalse(result.isBelowMinimum());
+        verify(itemPropertiesRepository, never()).findById(any());
+        verifyNoInteractions(inventoryRepository, notificationRepository, notificationService);
+    }
+
+    @Test
+    void testAdjustQuantity_CrossesBelowMinimum_ShouldCreateNotification() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        ItemProperties itemProperties = createStockedItemProperties(itemPropertiesId, 4, 5);
+        Inventory inventory = createInventoryInRestaurant();
+        when(itemPropertiesJdbcRepository.addToQuantity(itemPropertiesId, -2)).thenReturn(Optional.of(new StockLevel(itemPropertiesId, 6, 4, 5)));
+        when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(itemProperties));
+        when(itemPropertiesRepository.findInventoryOwnerById(itemPropertiesId)).thenReturn(Optional.of(ownerOf(inventory)));
+        when(notificationRepository.findByRestaurantIdAndMessageContaining(any(), anyString())).thenReturn(Optional.empty());
+
+        StockLevel result = itemPropertiesService.applyQuantityDelta(itemPropertiesId, -2);
+
+        assertTrue(result.isBelowMinimum());
+        verify(notificationService, times(1)).createNotification(any(Notification.class));
+        verify(restaurantRepository, times(1)).getReferenceById(inventory.getRestaurant().getId());
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void testAdjustQuantity_CrossesAboveMinimum_ShouldDeleteNotification() {
+        UUID itemPropertiesId = UUID.randomUUID();
+        ItemProperties itemProperties = createStockedItemProperties(itemPropertiesId, 6, 5);
+        Inventory inventory = createInventoryInRestaurant();
+        Notification notification = new Notification();
+        when(itemPropertiesJdbcRepository.addToQuantity(itemPropertiesId, 3)).thenReturn(Optional.of(new StockLevel(itemPropertiesId, 3, 6, 5)));
+        when(itemPropertiesRepository.findById(itemPropertiesId)).thenReturn(Optional.of(itemProperties));
+        when(itemPropertiesRepository.findInventoryOwnerById(itemPropertiesId)).thenReturn(Optional.of(ownerOf(inventory)));
+        when(notificationRepository.findByRestaurantIdAndMessageContaining(any(), anyString())).thenReturn(Optional.of(notification));
+
+        StockLevel result = itemPropertiesService.applyQuantityDelta(itemPropertiesId, 3);
+
+        assertFalse(result.isBelowMinimum());
+        verify(notificationService, times(1)).deleteNotification(notification);
+        verify(notificationService, never()).createNotification(any());
+    }
+
+    @Test
+    void testApplyConsumption_ShouldOnlyNotifyRowsThatCrossedMinimum() {
+        UUID crossedId = UUID.randomUUID();
+        UUID steadyId = UUID.randomUUID();
+        Map<UUID, Integer> consumed = Map.of(crossedId, 3, steadyId, 1);
+        when(itemPropertiesJdbcRepository.subtractQuantities(consumed)).thenReturn(List.of(
+                new StockLevel(crossedId, 6, 3, 5),
+                new StockLevel(steadyId, 20, 19, 5)));
+        when(itemPropertiesRepository.findById(crossedId)).thenReturn(Optional.of(createStockedItemProperties(crossedId, 3, 5)));
+        when(itemPropertiesRepository.findInventoryOwnerById(crossedId)).thenReturn(Optional.of(ownerOf(createInventoryInRestaurant())));
+        when(notificationRepository.findByRestaurantIdAndMessageContaining(any(), anyString())).thenReturn(Optional.empty());
+
+        List<StockLevel> result = itemPropertiesService.applyConsumption(consumed);
+
+        assertEquals(2, result.size());
+        verify(notificationService, times(1)).createNotification(any(Notification.class));
+        verify(itemPropertiesRepository, never()).findById(steadyId);
+    }
+
+    /* Helper functions */
+
+    private ItemProperties createStockedItemProperties(UUID id, int quantity, int minimumStockQuantity) {
+        Item item = new Item();
+        item.setId(UUID.randomUUID());
+        item.setName("Tomato");
+        ItemProperties itemProperties = new ItemProperties();
+        itemProperties.setId(id);
+        itemProperties.setItem(item);
+        itemProperties.setQuantity(quantity);
+        itemProperties.setMinimumStockQuantity(minimumStockQuantity);
+        return itemProperties;
+    }
+
+    private Inventory createInventoryInRestaurant() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(UUID.randomUUID());
+        restaurant.setName("Downtown");
+        Inventory inventory = new Inventory();
+        inventory.setRestaurant(restaurant);
+        return inventory;
+    }
+
+    private InventoryOwner ownerOf(Inventory inventory) {
+        return new InventoryOwner(inventory.getId(), inventory.getRestaurant().getId(), inventory.getRestaurant().getName());
+    }
 }
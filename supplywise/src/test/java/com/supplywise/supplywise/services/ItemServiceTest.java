@@ -1,5 +1,9 @@
 package com.supplywise.supplywise.services;
 
+import com.supplywise.supplywise.DAO.KeysetPage;
+import com.supplywise.supplywise.events.ItemCatalogChangedEvent;
+import com.supplywise.supplywise.index.BarcodeIndex;
+import com.supplywise.supplywise.index.ItemSearchIndex;
 import com.supplywise.supplywise.model.Item;
 import com.supplywise.supplywise.model.Category;
 import com.supplywise.supplywise.repositories.ItemRepository;
@@ -9,12 +13,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.List;
 
@@ -23,6 +32,15 @@ class ItemServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private BarcodeIndex barcodeIndex;
+
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -223,4 +241,151 @@ class ItemServiceTest {
         // Verify that the deleteById method was called
         verify(itemRepository, times(1)).deleteById(itemId);
     }
+
+    @Test
+    void testCreateItem_ShouldPublishCatalogChange() {
+        Item item = new Item("Test Item", 123456, Category.EATABLE);
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+
+        itemService.createItem(item);
+
+        verify(eventPublisher, times(1)).publishEvent(any(ItemCatalogChangedEvent.class));
+    }
+
+    @Test
+    void testFindItemByBarcode_IndexReady_ShouldNotQueryRepository() {
+        Item item = new Item("Test Item", 123456, Category.EATABLE);
+        when(barcodeIndex.isReady()).thenReturn(true);
+        when(barcodeIndex.get(123456)).thenReturn(item);
+
+        Item foundItem = itemService.findItemByBarcode(123456);
+
+        assertEquals(item, foundItem);
+        verify(itemRepository, never()).findByBarCode(anyLong());
+    }
+
+    @Test
+    void testFindItemByBarcode_IndexReadyAndMissing_ShouldFallBackToRepository() {
+        Item item = new Item("Test Item", 123456, Category.EATABLE);
+        when(barcodeIndex.isReady()).thenReturn(true);
+        when(barcodeIndex.get(123456)).thenReturn(null);
+        when(itemRepository.findByBarCode(123456)).thenReturn(Optional.of(item));
+
+        assertEquals(item, itemService.findItemByBarcode(123456));
+        verify(itemRepository, times(1)).findByBarCode(123456);
+    }
+
+    @Test
+    void testFindItemByBarcode_MissingEverywhere_ShouldReturnNull() {
+        when(barcodeIndex.isReady()).thenReturn(true);
+        when(barcodeIndex.get(123456)).thenReturn(null);
+        when(itemRepository.findByBarCode(123456)).thenReturn(Optional.empty());
+
+        assertNull(itemService.findItemByBarcode(123456));
+    }
+
+    @Test
+    void testFindCurrentItemByBarcode_ShouldBypassIndex() {
+        Item item = new Item("Test Item", 123456, Category.EATABLE);
+        when(barcodeIndex.isReady()).thenReturn(true);
+        when(itemRepository.findByBarCode(123456)).thenReturn(Optional.of(item));
+
+        assertEquals(item, itemService.findCurrentItemByBarcode(123456));
+        verify(barcodeIndex, never()).get(anyLong());
+    }
+
+    @Test
+    void testDeleteItem_ItemFound_ShouldPublishCatalogChange() {
+        UUID itemId = UUID.randomUUID();
+        Item item = new Item("Test Item", 123456, Category.EATABLE);
+        item.setId(itemId);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        itemService.deleteItem(itemId);
+
+        verify(itemRepository, times(1)).deleteById(itemId);
+        verify(eventPublisher, times(1)).publishEvent(any(ItemCatalogChangedEvent.class));
+    }
+
+    @Test
+    void testCreateItem_Ean13Barcode_ShouldSaveItem() {
+        Item item = new Item("Test Item", 5601234567890L, Category.EATABLE);
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+
+        Item createdItem = itemService.createItem(item);
+
+        assertEquals(5601234567890L, createdItem.getBarCode());
+        verify(itemRepository, times(1)).save(item);
+    }
+
+    @Test
+    void testCreateItem_BarcodeTooLong_ShouldThrowException() {
+        Item item = new Item("Test Item", 1234567890123456789L, Category.EATABLE);
+
+        assertThrows(IllegalArgumentException.class, () -> itemService.createItem(item));
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
+    @Test
+    void testGetItemByBarCode_NegativeBarcode_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.getItemByBarCode(-123456L));
+    }
+
+    @Test
+    void testGetItemsPage_FullPage_ShouldReturnCursorOfLastItem() {
+        UUID after = UUID.randomUUID();
+        Item first = new Item("First Item", 123456, Category.EATABLE);
+        first.setId(UUID.randomUUID());
+        Item second = new Item("Second Item", 123457, Category.EATABLE);
+        second.setId(UUID.randomUUID());
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(2))).thenReturn(List.of(first, second));
+
+        KeysetPage<Item> page = itemService.getItemsPage(after, 2);
+
+        assertEquals(2, page.getSize());
+        assertEquals(second.getId(), page.getNextCursor());
+    }
+
+    @Test
+    void testGetItemsPage_LastPage_ShouldHaveNoCursor() {
+        Item first = new Item("First Item", 123456, Category.EATABLE);
+        first.setId(UUID.randomUUID());
+        when(itemRepository.findAllByOrderByIdAsc(Limit.of(10))).thenReturn(List.of(first));
+
+        KeysetPage<Item> page = itemService.getItemsPage(null, 10);
+
+        assertEquals(1, page.getSize());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testSearchItems_IndexReady_ShouldUseIndex() {
+        Item item = new Item("Whole Milk", 123456, Category.DRINKABLE);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("milk", Set.of(Category.DRINKABLE), 10)).thenReturn(List.of(item));
+
+        List<Item> result = itemService.searchItems("milk", Set.of(Category.DRINKABLE), 10);
+
+        assertEquals(List.of(item), result);
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testSearchItems_IndexNotReady_ShouldFallBackToRepository() {
+        Item item = new Item("Whole Milk", 123456, Category.DRINKABLE);
+        when(itemSearchIndex.isReady()).thenReturn(false);
+        when(itemRepository.findByNameContainingIgnoreCaseOrderByNameAsc("milk", Limit.of(10))).thenReturn(List.of(item));
+        when(itemRepository.findByNameContainingIgnoreCaseAndCategoryInOrderByNameAsc("milk", Set.of(Category.EATABLE), Limit.of(10)))
+                .thenReturn(List.of());
+
+        assertEquals(List.of(item), itemService.searchItems(" milk ", null, 10));
+        assertTrue(itemService.searchItems("milk", Set.of(Category.EATABLE), 10).isEmpty());
+        verify(itemSearchIndex, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchItems_BlankQuery_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.searchItems(" ", null, 10));
+        verifyNoInteractions(itemSearchIndex, itemRepository);
+    }
 }
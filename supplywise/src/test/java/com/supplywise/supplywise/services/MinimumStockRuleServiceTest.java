@@ -0,0 +1,89 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.MinimumStockRule;
+import com.supplywise.supplywise.model.MinimumStockScope;
+import com.supplywise.supplywise.repositories.MinimumStockRuleRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MinimumStockRuleServiceTest {
+
+    @Mock
+    private MinimumStockRuleRepository minimumStockRuleRepository;
+
+    @InjectMocks
+    private MinimumStockRuleService minimumStockRuleService;
+
+    private final UUID restaurantId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testApplyRules_ShouldWriteWholeSetAtOnce() {
+        List<MinimumStockRule> rules = List.of(new MinimumStockRule(UUID.randomUUID(), 10),
+                new MinimumStockRule(UUID.randomUUID(), null));
+        when(minimumStockRuleRepository.applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules)).thenReturn(2);
+
+        assertEquals(2, minimumStockRuleService.applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules));
+        verify(minimumStockRuleRepository, times(1)).applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules);
+    }
+
+    @Test
+    void testApplyRules_Empty_ShouldNotTouchRepository() {
+        assertEquals(0, minimumStockRuleService.applyRules(MinimumStockScope.RESTAURANT, restaurantId, List.of()));
+        verifyNoInteractions(minimumStockRuleRepository);
+    }
+
+    @Test
+    void testApplyRules_NegativeMinimum_ShouldThrowException() {
+        List<MinimumStockRule> rules = List.of(new MinimumStockRule(UUID.randomUUID(), -1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> minimumStockRuleService.applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules));
+        verifyNoInteractions(minimumStockRuleRepository);
+    }
+
+    @Test
+    void testApplyRules_MissingItemId_ShouldThrowException() {
+        List<MinimumStockRule> rules = List.of(new MinimumStockRule(null, 5));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> minimumStockRuleService.applyRules(MinimumStockScope.COMPANY, restaurantId, rules));
+    }
+
+    @Test
+    void testApplyRules_DuplicateItem_ShouldThrowException() {
+        UUID itemId = UUID.randomUUID();
+        List<MinimumStockRule> rules = List.of(new MinimumStockRule(itemId, 5), new MinimumStockRule(itemId, 6));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> minimumStockRuleService.applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules));
+    }
+
+    @Test
+    void testApplyRules_TooManyRules_ShouldThrowException() {
+        List<MinimumStockRule> rules = new ArrayList<>();
+        for (int i = 0; i <= MinimumStockRuleService.MAX_RULES_PER_REQUEST; i++) {
+            rules.add(new MinimumStockRule(UUID.randomUUID(), 1));
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> minimumStockRuleService.applyRules(MinimumStockScope.RESTAURANT, restaurantId, rules));
+        verify(minimumStockRuleRepository, never()).applyRules(any(), any(), any());
+    }
+}
@@ -0,0 +1,135 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.model.Item;
+import com.supplywise.supplywise.model.PurchaseOrder;
+import com.supplywise.supplywise.model.PurchaseOrderLine;
+import com.supplywise.supplywise.model.PurchaseOrderStatus;
+import com.supplywise.supplywise.repositories.PurchaseOrderJdbcRepository;
+import com.supplywise.supplywise.repositories.PurchaseOrderRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PurchaseOrderServiceTest {
+
+    @Mock
+    private PurchaseOrderRepository purchaseOrderRepository;
+
+    @Mock
+    private PurchaseOrderJdbcRepository purchaseOrderJdbcRepository;
+
+    @InjectMocks
+    private PurchaseOrderService purchaseOrderService;
+
+    private final UUID orderId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(purchaseOrderRepository.save(any(PurchaseOrder.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testUpdateLineQuantity_ShouldMarkLineManual() {
+        PurchaseOrderLine line = createLine(5);
+        PurchaseOrder order = createOrder(PurchaseOrderStatus.DRAFT, line);
+        when(purchaseOrderRepository.findForUpdateById(orderId)).thenReturn(Optional.of(order));
+
+        PurchaseOrder updated = purchaseOrderService.updateLineQuantity(orderId, line.getId(), 8);
+
+        assertEquals(8, updated.getLines().get(0).getQuantity());
+        assertTrue(updated.getLines().get(0).isManual());
+        assertEquals(5, updated.getLines().get(0).getSuggestedQuantity());
+    }
+
+    @Test
+    void testUpdateLineQuantity_Submitted_ShouldThrow() {
+        PurchaseOrderLine line = createLine(5);
+        when(purchaseOrderRepository.findForUpdateById(orderId)).thenReturn(Optional.of(createOrder(PurchaseOrderStatus.SUBMITTED, line)));
+
+        assertThrows(IllegalStateException.class, () -> purchaseOrderService.updateLineQuantity(orderId, line.getId(), 8));
+        verify(purchaseOrderRepository, never()).save(any(PurchaseOrder.class));
+    }
+
+    @Test
+    void testUpdateLineQuantity_NegativeQuantity_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> purchaseOrderService.updateLineQuantity(orderId, UUID.randomUUID(), -1));
+        verifyNoInteractions(purchaseOrderRepository);
+    }
+
+    @Test
+    void testUpdateLineQuantity_UnknownLine_ShouldReturnNull() {
+        when(purchaseOrderRepository.findForUpdateById(orderId)).thenReturn(Optional.of(createOrder(PurchaseOrderStatus.DRAFT, createLine(5))));
+
+        assertNull(purchaseOrderService.updateLineQuantity(orderId, UUID.randomUUID(), 8));
+    }
+
+    @Test
+    void testSubmit_ShouldDropEmptyLinesAndRecordUser() {
+        PurchaseOrder order = createOrder(PurchaseOrderStatus.DRAFT, createLine(5), createLine(0));
+        when(purchaseOrderRepository.findForUpdateById(orderId)).thenReturn(Optional.of(order));
+
+        PurchaseOrder submitted = purchaseOrderService.submit(orderId, "cognito-sub-example");
+
+        assertEquals(PurchaseOrderStatus.SUBMITTED, submitted.getStatus());
+        assertEquals(1, submitted.getLines().size());
+        assertEquals("cognito-sub-example", submitted.getSubmittedByUser());
+        assertNotNull(submitted.getSubmittedAt());
+    }
+
+    @Test
+    void testSubmit_NothingToOrder_ShouldThrow() {
+        when(purchaseOrderRepository.findForUpdateById(orderId)).thenReturn(Optional.of(createOrder(PurchaseOrderStatus.DRAFT, createLine(0))));
+
+        assertThrows(IllegalStateException.class, () -> purchaseOrderService.submit(orderId, "cognito-sub-example"));
+        verify(purchaseOrderRepository, never()).save(any(PurchaseOrder.class));
+    }
+
+    @Test
+    void testSubmit_NotFound_ShouldReturnNull() {
+        when(purchaseOrderRepository.findForUpdateById(orderId)).thenReturn(Optional.empty());
+
+        assertNull(purchaseOrderService.submit(orderId, "cognito-sub-example"));
+    }
+
+    @Test
+    void testRefreshDrafts_ShouldMergeShortfalls() {
+        when(purchaseOrderJdbcRepository.mergeShortfallsIntoDrafts()).thenReturn(2);
+
+        purchaseOrderService.refreshDrafts();
+
+        verify(purchaseOrderJdbcRepository, times(1)).mergeShortfallsIntoDrafts();
+    }
+
+    /* Helper functions */
+
+    private PurchaseOrder createOrder(PurchaseOrderStatus status, PurchaseOrderLine... lines) {
+        PurchaseOrder order = new PurchaseOrder();
+        order.setId(orderId);
+        order.setStatus(status);
+        for (PurchaseOrderLine line : lines) {
+            line.setPurchaseOrder(order);
+            order.getLines().add(line);
+        }
+        return order;
+    }
+
+    private PurchaseOrderLine createLine(int quantity) {
+        PurchaseOrderLine line = new PurchaseOrderLine();
+        line.setId(UUID.randomUUID());
+        line.setItem(new Item());
+        line.setQuantity(quantity);
+        line.setSuggestedQuantity(quantity);
+        return line;
+    }
+}
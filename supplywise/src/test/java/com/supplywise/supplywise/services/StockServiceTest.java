@@ -0,0 +1,115 @@
+package com.supplywise.supplywise.services;
+
+import com.supplywise.supplywise.DAO.FefoAllocation;
+import com.supplywise.supplywise.DAO.FefoBatch;
+import com.supplywise.supplywise.DAO.RestaurantStockLine;
+import com.supplywise.supplywise.DAO.StockLevel;
+import com.supplywise.supplywise.repositories.ItemPropertiesJdbcRepository;
+import com.supplywise.supplywise.repositories.RestaurantStockRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StockServiceTest {
+
+    @Mock
+    private ItemPropertiesJdbcRepository itemPropertiesJdbcRepository;
+
+    @Mock
+    private RestaurantStockRepository restaurantStockRepository;
+
+    @Mock
+    private ItemPropertiesService itemPropertiesService;
+
+    @InjectMocks
+    private StockService stockService;
+
+    private final UUID restaurantId = UUID.randomUUID();
+    private final UUID itemId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testConsumeFefo_ShouldTakeEarliestExpiringBatchesFirst() {
+        FefoBatch late = new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 2, 1), 10);
+        FefoBatch early = new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 1, 1), 3);
+        FefoBatch middle = new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 1, 15), 2);
+        // Locked rows come back in ID order
+        when(itemPropertiesJdbcRepository.lockFefoBatches(restaurantId, itemId)).thenReturn(List.of(late, early, middle));
+        when(itemPropertiesService.applyConsumption(any())).thenReturn(List.of(
+                new StockLevel(early.getItemPropertiesId(), 3, 0, 0),
+                new StockLevel(middle.getItemPropertiesId(), 2, 0, 0),
+                new StockLevel(late.getItemPropertiesId(), 10, 9, 0)));
+
+        List<FefoAllocation> allocations = stockService.consumeFefo(restaurantId, itemId, 6);
+
+        verify(itemPropertiesService).applyConsumption(Map.of(
+                early.getItemPropertiesId(), 3, middle.getItemPropertiesId(), 2, late.getItemPropertiesId(), 1));
+        assertEquals(3, allocations.size());
+        assertEquals(early.getItemPropertiesId(), allocations.get(0).getItemPropertiesId());
+        assertEquals(middle.getItemPropertiesId(), allocations.get(1).getItemPropertiesId());
+        assertEquals(1, allocations.get(2).getConsumed());
+        assertEquals(9, allocations.get(2).getRemaining());
+    }
+
+    @Test
+    void testConsumeFefo_ShouldStopOnceUnitsAreTaken() {
+        FefoBatch early = new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 1, 1), 5);
+        FefoBatch late = new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 2, 1), 5);
+        when(itemPropertiesJdbcRepository.lockFefoBatches(restaurantId, itemId)).thenReturn(List.of(early, late));
+        when(itemPropertiesService.applyConsumption(any())).thenReturn(List.of(new StockLevel(early.getItemPropertiesId(), 5, 1, 0)));
+
+        List<FefoAllocation> allocations = stockService.consumeFefo(restaurantId, itemId, 4);
+
+        verify(itemPropertiesService).applyConsumption(Map.of(early.getItemPropertiesId(), 4));
+        assertEquals(1, allocations.size());
+        assertEquals(1, allocations.get(0).getRemaining());
+    }
+
+    @Test
+    void testConsumeFefo_NotEnoughStock_ShouldTakeNothing() {
+        when(itemPropertiesJdbcRepository.lockFefoBatches(restaurantId, itemId))
+                .thenReturn(List.of(new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 1, 1), 2)));
+
+        assertThrows(IllegalStateException.class, () -> stockService.consumeFefo(restaurantId, itemId, 3));
+        verify(itemPropertiesService, never()).applyConsumption(any());
+    }
+
+    @Test
+    void testConsumeFefo_InvalidUnits_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> stockService.consumeFefo(restaurantId, itemId, 0));
+        verifyNoInteractions(itemPropertiesJdbcRepository);
+    }
+
+    @Test
+    void testGetRestaurantStock_ShouldReadMaintainedTotals() {
+        List<RestaurantStockLine> stock = List.of(new RestaurantStockLine(itemId, "Tomato", 12));
+        when(restaurantStockRepository.findByRestaurantId(restaurantId)).thenReturn(stock);
+
+        assertEquals(stock, stockService.getRestaurantStock(restaurantId));
+        verifyNoInteractions(itemPropertiesJdbcRepository);
+    }
+
+    @Test
+    void testGetFefoBatches_ShouldReadFromRepository() {
+        List<FefoBatch> batches = List.of(new FefoBatch(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2025, 1, 1), 2));
+        when(itemPropertiesJdbcRepository.findFefoBatches(restaurantId, itemId)).thenReturn(batches);
+
+        assertEquals(batches, stockService.getFefoBatches(restaurantId, itemId));
+    }
+}